@@ -89,6 +89,16 @@ public interface BoltConnection
      */
     boolean processNextBatch();
 
+    /**
+     * Executes the jobs queued at the moment on the calling thread and returns without waiting for more, even when an
+     * open transaction or statement would otherwise keep this connection on its current thread. Used to run short
+     * batches directly on the network thread that received them.
+     *
+     * @return true when processing should carry on in a thread of the thread pool, i.e. the connection is still open
+     * and it either has more jobs queued or an open transaction or statement
+     */
+    boolean processPendingJobs();
+
     /**
      * Invoked when an exception is caught during the scheduling of the pending jobs. The caught exception would mostly
      * be {@link RejectedExecutionException} which is thrown by the thread pool executor when it fails to accept
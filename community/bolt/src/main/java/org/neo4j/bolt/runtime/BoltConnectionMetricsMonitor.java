@@ -38,4 +38,37 @@ public interface BoltConnectionMetricsMonitor
 
     void connectionClosed();
 
+    /**
+     * A batch of jobs was executed directly on the network thread that received it.
+     *
+     * @param processingTime time it took, in milliseconds.
+     */
+    default void batchExecutedInline( long processingTime )
+    {
+    }
+
+    /**
+     * A batch of jobs was handed off to the thread pool of the connector.
+     */
+    default void batchOffloaded()
+    {
+    }
+
+    /**
+     * A batch executed on the network thread took longer than the inline execution budget, so the following batches of
+     * its connection are handed off to the thread pool until one of them completes within the budget again.
+     */
+    default void inlineExecutionBudgetExceeded()
+    {
+    }
+
+    /**
+     * Responses to a number of messages were written to the network together, in a single flush.
+     *
+     * @param messageCount number of messages whose responses were flushed.
+     */
+    default void responsesFlushed( int messageCount )
+    {
+    }
+
 }
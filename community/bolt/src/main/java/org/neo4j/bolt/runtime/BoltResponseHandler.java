@@ -30,6 +30,17 @@ public interface BoltResponseHandler
 {
     void onRecords( BoltResult result, boolean pull ) throws Exception;
 
+    /**
+     * Called to pull at most {@code size} records of the result, leaving the remaining records for later calls.
+     *
+     * @return {@code true} if the result has more records to pull.
+     */
+    default boolean onPullRecords( BoltResult result, long size ) throws Exception
+    {
+        onRecords( result, true );
+        return false;
+    }
+
     void onMetadata( String key, AnyValue value );
 
     /** Called when the state machine ignores an operation, because it is waiting for an error to be acknowledged */
@@ -35,6 +35,18 @@ public interface BoltResult extends AutoCloseable
 
     void accept( Visitor visitor ) throws Exception;
 
+    /**
+     * Visit at most {@code size} records, leaving the remaining records of the stream for later calls. Metadata is
+     * added to the visitor once the last record of the stream has been visited.
+     *
+     * @return {@code true} if there are more records in the stream.
+     */
+    default boolean accept( Visitor visitor, long size ) throws Exception
+    {
+        accept( visitor );
+        return false;
+    }
+
     @Override
     void close();
 
@@ -22,6 +22,7 @@ package org.neo4j.bolt.runtime;
 import io.netty.channel.Channel;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 
+import java.io.IOException;
 import java.net.SocketAddress;
 import java.util.ArrayList;
 import java.util.List;
@@ -38,11 +39,14 @@ import org.neo4j.logging.Log;
 import org.neo4j.logging.internal.LogService;
 import org.neo4j.util.FeatureToggles;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 public class DefaultBoltConnection implements BoltConnection
 {
     protected static final int DEFAULT_MAX_BATCH_SIZE = FeatureToggles.getInteger( BoltServer.class, "max_batch_size", 100 );
+    protected static final long DEFAULT_MAX_FLUSH_DELAY_MILLIS = FeatureToggles.getLong( BoltServer.class, "max_flush_delay_millis", 100 );
 
     private final String id;
 
@@ -56,12 +60,20 @@ public class DefaultBoltConnection implements BoltConnection
     private final Log userLog;
 
     private final int maxBatchSize;
+    private final long maxFlushDelayNanos;
     private final List<Job> batch;
     private final LinkedBlockingQueue<Job> queue = new LinkedBlockingQueue<>();
 
     private final AtomicBoolean shouldClose = new AtomicBoolean();
     private final AtomicBoolean closed = new AtomicBoolean();
 
+    // responses of performed jobs are buffered in the output until there are no more jobs queued,
+    // the output buffer fills up, or the oldest of them has waited for maxFlushDelayNanos. The latter
+    // is checked before every job and, for jobs that take longer than that, on the channel's event loop
+    private volatile int unflushedJobs;
+    private long firstUnflushedJobTime;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
     public DefaultBoltConnection( BoltChannel channel, PackOutput output, BoltStateMachine machine, LogService logService,
             BoltConnectionLifetimeListener listener,
             BoltConnectionQueueMonitor queueMonitor )
@@ -72,6 +84,13 @@ public class DefaultBoltConnection implements BoltConnection
     public DefaultBoltConnection( BoltChannel channel, PackOutput output, BoltStateMachine machine, LogService logService,
             BoltConnectionLifetimeListener listener,
             BoltConnectionQueueMonitor queueMonitor, int maxBatchSize )
+    {
+        this( channel, output, machine, logService, listener, queueMonitor, maxBatchSize, DEFAULT_MAX_FLUSH_DELAY_MILLIS );
+    }
+
+    public DefaultBoltConnection( BoltChannel channel, PackOutput output, BoltStateMachine machine, LogService logService,
+            BoltConnectionLifetimeListener listener,
+            BoltConnectionQueueMonitor queueMonitor, int maxBatchSize, long maxFlushDelayMillis )
     {
         this.id = channel.id();
         this.channel = channel;
@@ -82,6 +101,7 @@ public class DefaultBoltConnection implements BoltConnection
         this.log = logService.getInternalLog( getClass() );
         this.userLog = logService.getUserLog( getClass() );
         this.maxBatchSize = maxBatchSize;
+        this.maxFlushDelayNanos = MILLISECONDS.toNanos( maxFlushDelayMillis );
         this.batch = new ArrayList<>( maxBatchSize );
     }
 
@@ -136,10 +156,17 @@ public class DefaultBoltConnection implements BoltConnection
     @Override
     public boolean processNextBatch()
     {
-        return processNextBatch( maxBatchSize, false );
+        return processNextBatch( maxBatchSize, false, true );
     }
 
-    protected boolean processNextBatch( int batchCount, boolean exitIfNoJobsAvailable )
+    @Override
+    public boolean processPendingJobs()
+    {
+        processNextBatch( maxBatchSize, true, false );
+        return !closed.get() && (hasPendingJobs() || machine.shouldStickOnThread());
+    }
+
+    protected boolean processNextBatch( int batchCount, boolean exitIfNoJobsAvailable, boolean stickToThread )
     {
         try
         {
@@ -188,26 +215,28 @@ public class DefaultBoltConnection implements BoltConnection
                     {
                         Job current = batch.remove( 0 );
 
+                        flushIfDelayed();
                         current.perform( machine );
+                        jobPerformed();
                     }
 
                     // do we have any condition that require this connection to
                     // stick to the current thread (i.e. is there an open statement
                     // or an open transaction)?
-                    loop = machine.shouldStickOnThread();
+                    loop = stickToThread && machine.shouldStickOnThread();
                     waitForMessage = loop;
                 }
 
                 // we processed all pending messages, let's flush underlying channel
                 if ( queue.size() == 0 )
                 {
-                    output.flush();
+                    flush();
                 }
             }
             while ( loop );
 
-            // assert only if we'll stay alive
-            if ( !willClose() )
+            // assert only if we'll stay alive and were allowed to stick to this thread
+            if ( !willClose() && stickToThread )
             {
                 assert !machine.hasOpenStatement();
             }
@@ -274,7 +303,7 @@ public class DefaultBoltConnection implements BoltConnection
         // this will ensure that the scheduled job will be executed on this thread (fork-join pool)
         // and it will either send a failure response to the client or close the connection and its
         // related resources (if closing)
-        processNextBatch( 1, true );
+        processNextBatch( 1, true, true );
         // we close the connection directly to enforce the client to stop waiting for
         // any more messages responses besides the failure message.
         close();
@@ -335,6 +364,74 @@ public class DefaultBoltConnection implements BoltConnection
         }
     }
 
+    /**
+     * Called with the number of jobs whose responses went out together in a single flush of the output.
+     */
+    protected void responsesFlushed( int jobs )
+    {
+    }
+
+    private void jobPerformed()
+    {
+        if ( unflushedJobs++ == 0 )
+        {
+            firstUnflushedJobTime = System.nanoTime();
+            scheduleFlush();
+        }
+    }
+
+    private void flushIfDelayed() throws IOException
+    {
+        if ( unflushedJobs > 0 && System.nanoTime() - firstUnflushedJobTime >= maxFlushDelayNanos )
+        {
+            // keep pipelined responses from waiting behind a long batch
+            flush();
+        }
+    }
+
+    private void scheduleFlush()
+    {
+        if ( flushScheduled.compareAndSet( false, true ) )
+        {
+            channel.rawChannel().eventLoop().schedule( this::flushDelayedResponses, maxFlushDelayNanos, NANOSECONDS );
+        }
+    }
+
+    /**
+     * Runs on the channel's event loop, so that responses are not held back while the job after them takes long.
+     * Only flushes in between messages, the worker thread keeps ownership of the responses it is writing.
+     */
+    private void flushDelayedResponses()
+    {
+        flushScheduled.set( false );
+        if ( closed.get() || unflushedJobs == 0 )
+        {
+            return;
+        }
+
+        try
+        {
+            if ( !output.tryFlush() )
+            {
+                scheduleFlush();
+            }
+        }
+        catch ( Throwable t )
+        {
+            log.error( String.format( "Unable to flush delayed responses of bolt session '%s'.", id() ), t );
+        }
+    }
+
+    private void flush() throws IOException
+    {
+        output.flush();
+        if ( unflushedJobs > 0 )
+        {
+            responsesFlushed( unflushedJobs );
+            unflushedJobs = 0;
+        }
+    }
+
     private void enqueueInternal( Job job )
     {
         queue.offer( job );
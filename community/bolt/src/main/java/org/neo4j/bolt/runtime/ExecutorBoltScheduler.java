@@ -23,6 +23,7 @@ import org.apache.commons.lang3.exception.ExceptionUtils;
 
 import java.time.Duration;
 import java.util.Collection;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
@@ -35,6 +36,7 @@ import org.neo4j.logging.internal.LogService;
 import org.neo4j.scheduler.Group;
 import org.neo4j.scheduler.JobScheduler;
 
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.neo4j.util.concurrent.Futures.failedFuture;
 
 public class ExecutorBoltScheduler implements BoltScheduler, BoltConnectionLifetimeListener, BoltConnectionQueueMonitor
@@ -45,16 +47,25 @@ public class ExecutorBoltScheduler implements BoltScheduler, BoltConnectionLifet
     private final Log log;
     private final ConcurrentHashMap<String, BoltConnection> activeConnections = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, CompletableFuture<Boolean>> activeWorkItems = new ConcurrentHashMap<>();
+    private final Set<String> offloadedConnections = ConcurrentHashMap.newKeySet();
     private final int corePoolSize;
     private final int maxPoolSize;
     private final Duration keepAlive;
     private final int queueSize;
     private final ExecutorService forkJoinPool;
+    private final long inlineBudgetNanos;
+    private final BoltConnectionMetricsMonitor metricsMonitor;
 
     private ExecutorService threadPool;
 
+    /**
+     * @param inlineBudget when positive, batches of jobs are executed directly on the network thread that received them
+     * as long as the previous batch of their connection completed within this time, and are only handed off to the
+     * thread pool otherwise.
+     */
     public ExecutorBoltScheduler( String connector, ExecutorFactory executorFactory, JobScheduler scheduler, LogService logService, int corePoolSize,
-            int maxPoolSize, Duration keepAlive, int queueSize, ExecutorService forkJoinPool )
+            int maxPoolSize, Duration keepAlive, int queueSize, ExecutorService forkJoinPool, Duration inlineBudget,
+            BoltConnectionMetricsMonitor metricsMonitor )
     {
         this.connector = connector;
         this.executorFactory = executorFactory;
@@ -65,6 +76,8 @@ public class ExecutorBoltScheduler implements BoltScheduler, BoltConnectionLifet
         this.keepAlive = keepAlive;
         this.queueSize = queueSize;
         this.forkJoinPool = forkJoinPool;
+        this.inlineBudgetNanos = inlineBudget.toNanos();
+        this.metricsMonitor = metricsMonitor;
     }
 
     boolean isRegistered( BoltConnection connection )
@@ -125,6 +138,7 @@ public class ExecutorBoltScheduler implements BoltScheduler, BoltConnectionLifet
         finally
         {
             activeConnections.remove( id );
+            offloadedConnections.remove( id );
         }
     }
 
@@ -142,9 +156,68 @@ public class ExecutorBoltScheduler implements BoltScheduler, BoltConnectionLifet
 
     private void handleSubmission( BoltConnection connection )
     {
-        activeWorkItems.computeIfAbsent( connection.id(),
-                key -> scheduleBatchOrHandleError( connection ).whenCompleteAsync( ( result, error ) -> handleCompletion( connection, result, error ),
-                        forkJoinPool ) );
+        if ( shouldExecuteInline( connection ) )
+        {
+            CompletableFuture<Boolean> inlineWorkItem = new CompletableFuture<>();
+            if ( activeWorkItems.putIfAbsent( connection.id(), inlineWorkItem ) == null )
+            {
+                executeInline( connection, inlineWorkItem );
+            }
+            return;
+        }
+
+        submitToThreadPool( connection );
+    }
+
+    private void submitToThreadPool( BoltConnection connection )
+    {
+        activeWorkItems.computeIfAbsent( connection.id(), key ->
+        {
+            metricsMonitor.batchOffloaded();
+            return scheduleBatchOrHandleError( connection ).whenCompleteAsync( ( result, error ) -> handleCompletion( connection, result, error ),
+                    forkJoinPool );
+        } );
+    }
+
+    private boolean shouldExecuteInline( BoltConnection connection )
+    {
+        return inlineBudgetNanos > 0 && !offloadedConnections.contains( connection.id() ) && connection.channel().eventLoop().inEventLoop();
+    }
+
+    private void executeInline( BoltConnection connection, CompletableFuture<Boolean> workItem )
+    {
+        long startTime = System.nanoTime();
+        boolean continueOnThreadPool;
+        try
+        {
+            continueOnThreadPool = connection.processPendingJobs();
+        }
+        catch ( Throwable t )
+        {
+            activeWorkItems.remove( connection.id(), workItem );
+            workItem.completeExceptionally( t );
+            log.error( String.format( "Unexpected error during inline execution for session '%s'.", connection.id() ), t );
+            stopConnection( connection );
+            return;
+        }
+
+        long processingTime = System.nanoTime() - startTime;
+        metricsMonitor.batchExecutedInline( NANOSECONDS.toMillis( processingTime ) );
+        if ( processingTime > inlineBudgetNanos )
+        {
+            offloadedConnections.add( connection.id() );
+            metricsMonitor.inlineExecutionBudgetExceeded();
+        }
+
+        // the connection may have been closed, and its work item removed, while the batch was executing
+        activeWorkItems.remove( connection.id(), workItem );
+        workItem.complete( continueOnThreadPool );
+
+        // a connection that sticks to its thread, or that got more jobs than fit in one batch, carries on in the thread pool
+        if ( continueOnThreadPool && activeConnections.containsKey( connection.id() ) )
+        {
+            submitToThreadPool( connection );
+        }
     }
 
     private CompletableFuture<Boolean> scheduleBatchOrHandleError( BoltConnection connection )
@@ -166,6 +239,7 @@ public class ExecutorBoltScheduler implements BoltScheduler, BoltConnectionLifet
         String newName = String.format( "%s [%s] ", originalName, connection.remoteAddress() );
 
         currentThread.setName( newName );
+        long startTime = System.nanoTime();
         try
         {
             return connection.processNextBatch();
@@ -173,6 +247,10 @@ public class ExecutorBoltScheduler implements BoltScheduler, BoltConnectionLifet
         finally
         {
             currentThread.setName( originalName );
+            if ( inlineBudgetNanos > 0 && System.nanoTime() - startTime <= inlineBudgetNanos )
+            {
+                offloadedConnections.remove( connection.id() );
+            }
         }
     }
 
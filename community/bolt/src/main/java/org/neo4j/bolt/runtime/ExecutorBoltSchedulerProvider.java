@@ -26,6 +26,7 @@ import java.util.concurrent.ForkJoinPool;
 import org.neo4j.bolt.BoltChannel;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.kernel.monitoring.Monitors;
 import org.neo4j.logging.Log;
 import org.neo4j.logging.internal.LogService;
 import org.neo4j.scheduler.JobScheduler;
@@ -37,17 +38,20 @@ public class ExecutorBoltSchedulerProvider extends LifecycleAdapter implements B
     private final JobScheduler scheduler;
     private final LogService logService;
     private final Log internalLog;
+    private final BoltConnectionMetricsMonitor metricsMonitor;
     private final ConcurrentHashMap<String, BoltScheduler> boltSchedulers;
 
     private ExecutorService forkJoinThreadPool;
 
-    public ExecutorBoltSchedulerProvider( Config config, ExecutorFactory executorFactory, JobScheduler scheduler, LogService logService )
+    public ExecutorBoltSchedulerProvider( Config config, ExecutorFactory executorFactory, JobScheduler scheduler, LogService logService,
+            Monitors monitors )
     {
         this.config = config;
         this.executorFactory = executorFactory;
         this.scheduler = scheduler;
         this.logService = logService;
         this.internalLog = logService.getInternalLog( getClass() );
+        this.metricsMonitor = monitors.newMonitor( BoltConnectionMetricsMonitor.class );
         this.boltSchedulers = new ConcurrentHashMap<>();
     }
 
@@ -60,7 +64,8 @@ public class ExecutorBoltSchedulerProvider extends LifecycleAdapter implements B
             BoltScheduler boltScheduler =
                     new ExecutorBoltScheduler( connector.key(), executorFactory, scheduler, logService, config.get( connector.thread_pool_min_size ),
                             config.get( connector.thread_pool_max_size ), config.get( connector.thread_pool_keep_alive ),
-                            config.get( connector.unsupported_thread_pool_queue_size ), forkJoinThreadPool );
+                            config.get( connector.unsupported_thread_pool_queue_size ), forkJoinThreadPool,
+                            config.get( connector.unsupported_thread_pool_inline_execution_budget ), metricsMonitor );
             boltScheduler.start();
             boltSchedulers.put( connector.key(), boltScheduler );
         } );
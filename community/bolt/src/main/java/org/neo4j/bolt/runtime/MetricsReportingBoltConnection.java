@@ -77,13 +77,13 @@ public class MetricsReportingBoltConnection extends DefaultBoltConnection
     }
 
     @Override
-    public boolean processNextBatch( int batchCount, boolean exitIfNoJobsAvailable )
+    public boolean processNextBatch( int batchCount, boolean exitIfNoJobsAvailable, boolean stickToThread )
     {
         metricsMonitor.connectionActivated();
 
         try
         {
-            boolean continueProcessing = super.processNextBatch( batchCount, exitIfNoJobsAvailable );
+            boolean continueProcessing = super.processNextBatch( batchCount, exitIfNoJobsAvailable, stickToThread );
 
             if ( !continueProcessing )
             {
@@ -98,4 +98,10 @@ public class MetricsReportingBoltConnection extends DefaultBoltConnection
         }
     }
 
+    @Override
+    protected void responsesFlushed( int jobs )
+    {
+        metricsMonitor.responsesFlushed( jobs );
+    }
+
 }
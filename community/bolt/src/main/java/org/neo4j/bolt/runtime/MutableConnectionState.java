@@ -59,6 +59,16 @@ public class MutableConnectionState implements BoltResponseHandler
         }
     }
 
+    @Override
+    public boolean onPullRecords( BoltResult result, long size ) throws Exception
+    {
+        if ( responseHandler != null )
+        {
+            return responseHandler.onPullRecords( result, size );
+        }
+        return false;
+    }
+
     @Override
     public void onMetadata( String key, AnyValue value )
     {
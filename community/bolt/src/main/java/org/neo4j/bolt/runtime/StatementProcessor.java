@@ -24,6 +24,7 @@ import java.util.Map;
 
 import org.neo4j.bolt.v1.runtime.bookmarking.Bookmark;
 import org.neo4j.function.ThrowingConsumer;
+import org.neo4j.function.ThrowingFunction;
 import org.neo4j.internal.kernel.api.exceptions.KernelException;
 import org.neo4j.internal.kernel.api.exceptions.TransactionFailureException;
 import org.neo4j.values.virtual.MapValue;
@@ -38,8 +39,24 @@ public interface StatementProcessor
 
     StatementMetadata run( String statement, MapValue params, Bookmark bookmark, Duration txTimeout, Map<String,Object> txMetaData ) throws KernelException;
 
+    /**
+     * Prepare a statement for repeated execution with {@link #run(long, MapValue, Bookmark, Duration, Map)}. Preparing
+     * the same statement again returns the same handle.
+     *
+     * @return the handle of the prepared statement.
+     */
+    long prepare( String statement ) throws KernelException;
+
+    StatementMetadata run( long handle, MapValue params, Bookmark bookmark, Duration txTimeout, Map<String,Object> txMetaData ) throws KernelException;
+
     Bookmark streamResult( ThrowingConsumer<BoltResult,Exception> resultConsumer ) throws Exception;
 
+    /**
+     * Stream a batch of records of the current result. The consumer returns whether the result has more records, in
+     * which case the result is kept open for the next batch and no bookmark is returned.
+     */
+    Bookmark streamResultBatch( ThrowingFunction<BoltResult,Boolean,Exception> batchConsumer ) throws Exception;
+
     Bookmark commitTransaction() throws KernelException;
 
     void rollbackTransaction() throws KernelException;
@@ -81,12 +98,31 @@ public interface StatementProcessor
             throw new UnsupportedOperationException( "Unable to run statements" );
         }
 
+        @Override
+        public long prepare( String statement ) throws KernelException
+        {
+            throw new UnsupportedOperationException( "Unable to prepare statements" );
+        }
+
+        @Override
+        public StatementMetadata run( long handle, MapValue params, Bookmark bookmark, Duration txTimeout, Map<String,Object> txMetaData )
+                throws KernelException
+        {
+            throw new UnsupportedOperationException( "Unable to run statements" );
+        }
+
         @Override
         public Bookmark streamResult( ThrowingConsumer<BoltResult,Exception> resultConsumer ) throws Exception
         {
             throw new UnsupportedOperationException( "Unable to stream results" );
         }
 
+        @Override
+        public Bookmark streamResultBatch( ThrowingFunction<BoltResult,Boolean,Exception> batchConsumer ) throws Exception
+        {
+            throw new UnsupportedOperationException( "Unable to stream results" );
+        }
+
         @Override
         public Bookmark commitTransaction() throws KernelException
         {
@@ -25,6 +25,7 @@ import java.util.Map;
 import org.neo4j.internal.kernel.api.exceptions.TransactionFailureException;
 import org.neo4j.internal.kernel.api.security.LoginContext;
 import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.impl.query.PreparedQuery;
 import org.neo4j.values.virtual.MapValue;
 
 public interface TransactionStateMachineSPI
@@ -43,4 +44,9 @@ public interface TransactionStateMachineSPI
 
     BoltResultHandle executeQuery( LoginContext loginContext, String statement, MapValue params, Duration txTimeout,
             Map<String,Object> txMetaData );
+
+    PreparedQuery prepareQuery( String query );
+
+    BoltResultHandle executeQuery( LoginContext loginContext, PreparedQuery query, MapValue params, Duration txTimeout,
+            Map<String,Object> txMetaData );
 }
@@ -76,6 +76,13 @@ public class TransportWriteThrottle implements TransportThrottle
     @Override
     public void acquire( Channel channel ) throws TransportThrottleException
     {
+        // jobs executed inline on the event loop can't wait for the channel to drain, since that
+        // is done by the very thread that would be waiting
+        if ( channel.eventLoop().inEventLoop() )
+        {
+            return;
+        }
+
         // if this channel's max lock duration is already exceeded, we'll allow the protocol to
         // (at least) try to communicate the error to the client before aborting the connection
         if ( !isDurationAlreadyExceeded( channel ) )
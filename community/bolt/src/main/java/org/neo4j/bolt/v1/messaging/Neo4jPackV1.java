@@ -20,13 +20,18 @@
 package org.neo4j.bolt.v1.messaging;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.OffsetTime;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
 
 import org.neo4j.bolt.messaging.BoltIOException;
 import org.neo4j.bolt.messaging.Neo4jPack;
@@ -36,12 +41,22 @@ import org.neo4j.bolt.v1.packstream.PackOutput;
 import org.neo4j.bolt.v1.packstream.PackStream;
 import org.neo4j.bolt.v1.packstream.PackType;
 import org.neo4j.collection.primitive.PrimitiveLongIntKeyValueArray;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.NotFoundException;
+import org.neo4j.graphdb.Relationship;
 import org.neo4j.kernel.api.exceptions.Status;
+import org.neo4j.kernel.impl.core.NodeProxy;
+import org.neo4j.kernel.impl.core.RelationshipProxy;
+import org.neo4j.kernel.impl.store.InvalidRecordException;
+import org.neo4j.kernel.impl.util.NodeProxyWrappingNodeValue;
+import org.neo4j.kernel.impl.util.RelationshipProxyWrappingValue;
 import org.neo4j.values.AnyValue;
 import org.neo4j.values.AnyValueWriter;
 import org.neo4j.values.storable.CoordinateReferenceSystem;
 import org.neo4j.values.storable.TextArray;
 import org.neo4j.values.storable.TextValue;
+import org.neo4j.values.storable.Value;
 import org.neo4j.values.storable.Values;
 import org.neo4j.values.virtual.ListValue;
 import org.neo4j.values.virtual.MapValue;
@@ -101,10 +116,14 @@ public class Neo4jPackV1 implements Neo4jPack
     {
         private static final int INITIAL_PATH_CAPACITY = 500;
         private static final int NO_SUCH_ID = -1;
+        private static final int MAX_ENCODED_TOKENS = 1024;
         private final PrimitiveLongIntKeyValueArray nodeIndexes =
                 new PrimitiveLongIntKeyValueArray( INITIAL_PATH_CAPACITY + 1 );
         private final PrimitiveLongIntKeyValueArray relationshipIndexes =
                 new PrimitiveLongIntKeyValueArray( INITIAL_PATH_CAPACITY );
+        private final Map<String,byte[]> encodedTokens = new HashMap<>();
+        private final List<String> labelBuffer = new ArrayList<>();
+        private final PropertyBuffer propertyBuffer = new PropertyBuffer();
 
         protected PackerV1( PackOutput output )
         {
@@ -114,9 +133,139 @@ public class Neo4jPackV1 implements Neo4jPack
         @Override
         public void pack( AnyValue value ) throws IOException
         {
+            if ( value instanceof NodeProxyWrappingNodeValue && packNodeFromStore( (NodeProxyWrappingNodeValue) value ) )
+            {
+                return;
+            }
+            if ( value instanceof RelationshipProxyWrappingValue && packRelationshipFromStore( (RelationshipProxyWrappingValue) value ) )
+            {
+                return;
+            }
             value.writeTo( this );
         }
 
+        /**
+         * Packs a node that hasn't been read yet straight from the property cursor, instead of first loading it into
+         * the value as a {@link MapValue} of properties. Labels and properties are read in full before anything is
+         * written, so that deleted or conflicting nodes can fall back to {@link AnyValue#writeTo(AnyValueWriter)},
+         * which knows how to report them.
+         *
+         * @return {@code true} if the node was packed, otherwise {@code false} and nothing was written.
+         */
+        private boolean packNodeFromStore( NodeProxyWrappingNodeValue value ) throws IOException
+        {
+            Node node = value.nodeProxy();
+            if ( value.isPopulated() || value.id() < 0 || !(node instanceof NodeProxy) )
+            {
+                return false;
+            }
+
+            try
+            {
+                for ( Label label : node.getLabels() )
+                {
+                    labelBuffer.add( label.name() );
+                }
+                ((NodeProxy) node).forEachProperty( propertyBuffer );
+            }
+            catch ( NotFoundException | InvalidRecordException e )
+            {
+                labelBuffer.clear();
+                propertyBuffer.clear();
+                return false;
+            }
+
+            try
+            {
+                packStructHeader( NODE_SIZE, NODE );
+                pack( value.id() );
+                packListHeader( labelBuffer.size() );
+                for ( String label : labelBuffer )
+                {
+                    packToken( label );
+                }
+                propertyBuffer.packTo( this );
+            }
+            finally
+            {
+                labelBuffer.clear();
+                propertyBuffer.clear();
+            }
+            return true;
+        }
+
+        /**
+         * Relationship counterpart of {@link #packNodeFromStore(NodeProxyWrappingNodeValue)}.
+         */
+        private boolean packRelationshipFromStore( RelationshipProxyWrappingValue value ) throws IOException
+        {
+            Relationship relationship = value.relationshipProxy();
+            if ( value.isPopulated() || value.id() < 0 || !(relationship instanceof RelationshipProxy) )
+            {
+                return false;
+            }
+
+            RelationshipProxy proxy = (RelationshipProxy) relationship;
+            String type;
+            try
+            {
+                if ( !proxy.initializeData() )
+                {
+                    return false;
+                }
+                type = proxy.getType().name();
+                proxy.forEachProperty( propertyBuffer );
+            }
+            catch ( NotFoundException | IllegalStateException e )
+            {
+                propertyBuffer.clear();
+                return false;
+            }
+
+            try
+            {
+                packStructHeader( RELATIONSHIP_SIZE, RELATIONSHIP );
+                pack( value.id() );
+                pack( proxy.getStartNodeId() );
+                pack( proxy.getEndNodeId() );
+                packToken( type );
+                propertyBuffer.packTo( this );
+            }
+            finally
+            {
+                propertyBuffer.clear();
+            }
+            return true;
+        }
+
+        /**
+         * Packs a label, relationship type or property key. These come from a small set of tokens and are repeated
+         * for every entity in a result, so their UTF-8 encoding is kept around rather than redone each time.
+         */
+        private void packToken( String token ) throws IOException
+        {
+            byte[] encoded = encodedTokens.get( token );
+            if ( encoded == null )
+            {
+                encoded = token.getBytes( StandardCharsets.UTF_8 );
+                if ( encodedTokens.size() < MAX_ENCODED_TOKENS )
+                {
+                    encodedTokens.put( token, encoded );
+                }
+            }
+            packUTF8( encoded, 0, encoded.length );
+        }
+
+        private void packProperties( MapValue properties ) throws IOException
+        {
+            packMapHeader( properties.size() );
+            properties.foreach( ( key, value ) ->
+            {
+                packToken( key );
+                value.writeTo( this );
+            } );
+        }
+
         @Override
         public void writeNodeReference( long nodeId )
         {
@@ -131,9 +280,9 @@ public class Neo4jPackV1 implements Neo4jPack
             packListHeader( labels.length() );
             for ( int i = 0; i < labels.length(); i++ )
             {
-                labels.value( i ).writeTo( this );
+                packToken( labels.stringValue( i ) );
             }
-            properties.writeTo( this );
+            packProperties( properties );
         }
 
         @Override
@@ -150,8 +299,8 @@ public class Neo4jPackV1 implements Neo4jPack
             pack( relationshipId );
             pack( startNodeId );
             pack( endNodeId );
-            type.writeTo( this );
-            properties.writeTo( this );
+            packToken( type.stringValue() );
+            packProperties( properties );
         }
 
         @Override
@@ -292,8 +441,8 @@ public class Neo4jPackV1 implements Neo4jPack
                         // end node.
                         packStructHeader( UNBOUND_RELATIONSHIP_SIZE, UNBOUND_RELATIONSHIP );
                         pack( edge.id() );
-                        edge.type().writeTo( this );
-                        edge.properties().writeTo( this );
+                        packToken( edge.type().stringValue() );
+                        packProperties( edge.properties() );
                     }
                 }
             }
@@ -441,6 +590,47 @@ public class Neo4jPackV1 implements Neo4jPack
         }
     }
 
+    /**
+     * Collects the properties of an entity as they come off the property cursor, since a PackStream map needs its
+     * size before any of its entries. Kept by the packer and reused for every entity it packs.
+     */
+    private static class PropertyBuffer implements BiConsumer<String,Value>
+    {
+        private String[] keys = new String[16];
+        private Value[] values = new Value[16];
+        private int size;
+
+        @Override
+        public void accept( String key, Value value )
+        {
+            if ( size == keys.length )
+            {
+                keys = Arrays.copyOf( keys, size * 2 );
+                values = Arrays.copyOf( values, size * 2 );
+            }
+            keys[size] = key;
+            values[size] = value;
+            size++;
+        }
+
+        void packTo( PackerV1 packer ) throws IOException
+        {
+            packer.packMapHeader( size );
+            for ( int i = 0; i < size; i++ )
+            {
+                packer.packToken( keys[i] );
+                values[i].writeTo( packer );
+            }
+        }
+
+        void clear()
+        {
+            Arrays.fill( keys, 0, size, null );
+            Arrays.fill( values, 0, size, null );
+            size = 0;
+        }
+    }
+
     protected static class UnpackerV1 extends PackStream.Unpacker implements Neo4jPack.Unpacker
     {
         protected UnpackerV1( PackInput input )
@@ -26,6 +26,7 @@ import org.neo4j.bolt.v1.messaging.response.RecordMessage;
 import org.neo4j.cypher.result.QueryResult;
 import org.neo4j.logging.Log;
 import org.neo4j.values.AnyValue;
+import org.neo4j.values.storable.Values;
 
 public class ResultHandler extends MessageProcessingHandler
 {
@@ -55,4 +56,28 @@ public class ResultHandler extends MessageProcessingHandler
             }
         } );
     }
+
+    @Override
+    public boolean onPullRecords( final BoltResult result, final long size ) throws Exception
+    {
+        boolean hasMore = result.accept( new BoltResult.Visitor()
+        {
+            @Override
+            public void visit( QueryResult.Record record ) throws Exception
+            {
+                messageWriter.write( new RecordMessage( record ) );
+            }
+
+            @Override
+            public void addMetadata( String key, AnyValue value )
+            {
+                onMetadata( key, value );
+            }
+        }, size );
+        if ( hasMore )
+        {
+            onMetadata( "has_more", Values.TRUE );
+        }
+        return hasMore;
+    }
 }
@@ -51,6 +51,18 @@ public interface PackOutput extends Closeable
     /** If implementation has been buffering data, it should flush those buffers now. */
     PackOutput flush() throws IOException;
 
+    /**
+     * Flush buffered data if that can be done without waiting for a message being written by another thread.
+     *
+     * @return {@code true} if the output was flushed, {@code false} if a message is in progress and nothing was done.
+     * @throws IOException when data can't be written to the network channel.
+     */
+    default boolean tryFlush() throws IOException
+    {
+        flush();
+        return true;
+    }
+
     /** Produce a single byte */
     PackOutput writeByte( byte value ) throws IOException;
 
@@ -46,6 +46,7 @@ public class CypherAdapterStream implements BoltResult
     private final QueryResult delegate;
     private final String[] fieldNames;
     private final Clock clock;
+    private long streamingTime;
 
     public CypherAdapterStream( QueryResult delegate, Clock clock )
     {
@@ -76,6 +77,29 @@ public class CypherAdapterStream implements BoltResult
             return true;
         } );
         addRecordStreamingTime( visitor, clock.millis() - start );
+        addMetadata( visitor );
+    }
+
+    @Override
+    public boolean accept( final Visitor visitor, long size ) throws Exception
+    {
+        long start = clock.millis();
+        boolean hasMore = delegate.accept( row ->
+        {
+            visitor.visit( row );
+            return true;
+        }, size );
+        streamingTime += clock.millis() - start;
+        if ( !hasMore )
+        {
+            addRecordStreamingTime( visitor, streamingTime );
+            addMetadata( visitor );
+        }
+        return hasMore;
+    }
+
+    private void addMetadata( Visitor visitor )
+    {
         QueryExecutionType qt = delegate.executionType();
         visitor.addMetadata( "type", Values.stringValue( queryTypeCode( qt.queryType() ) ) );
 
@@ -21,6 +21,9 @@ package org.neo4j.bolt.v1.runtime;
 
 import java.time.Clock;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -34,19 +37,24 @@ import org.neo4j.bolt.v1.runtime.bookmarking.Bookmark;
 import org.neo4j.bolt.v1.runtime.spi.BookmarkResult;
 import org.neo4j.cypher.InvalidSemanticsException;
 import org.neo4j.function.ThrowingConsumer;
+import org.neo4j.function.ThrowingFunction;
 import org.neo4j.graphdb.TransactionTerminatedException;
 import org.neo4j.internal.kernel.api.exceptions.KernelException;
 import org.neo4j.internal.kernel.api.exceptions.TransactionFailureException;
 import org.neo4j.internal.kernel.api.security.LoginContext;
 import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.api.exceptions.Status;
+import org.neo4j.kernel.impl.query.PreparedQuery;
 import org.neo4j.kernel.impl.query.QueryExecutionKernelException;
+import org.neo4j.util.FeatureToggles;
 import org.neo4j.values.virtual.MapValue;
 
 import static org.neo4j.util.Preconditions.checkState;
 
 public class TransactionStateMachine implements StatementProcessor
 {
+    static final int MAX_PREPARED_STATEMENTS = FeatureToggles.getInteger( TransactionStateMachine.class, "max_prepared_statements", 1000 );
+
     final TransactionStateMachineSPI spi;
     final MutableTransactionState ctx;
     State state = State.AUTO_COMMIT;
@@ -107,7 +115,51 @@ public class TransactionStateMachine implements StatementProcessor
         {
             ensureNoPendingTerminationNotice();
 
-            state = state.run( ctx, spi, statement, params, bookmark, txTimeout, txMetaData );
+            state = state.run( ctx, spi, statement, null, params, bookmark, txTimeout, txMetaData );
+
+            return ctx.currentStatementMetadata;
+        }
+        finally
+        {
+            after();
+        }
+    }
+
+    @Override
+    public long prepare( String statement ) throws KernelException
+    {
+        Long handle = ctx.preparedStatementHandles.get( statement );
+        if ( handle != null )
+        {
+            return handle;
+        }
+        if ( ctx.preparedStatements.size() >= MAX_PREPARED_STATEMENTS )
+        {
+            throw new QueryExecutionKernelException( new InvalidSemanticsException(
+                    "Unable to prepare more than " + MAX_PREPARED_STATEMENTS + " statements on a single connection." ) );
+        }
+        ctx.preparedStatements.add( spi.prepareQuery( statement ) );
+        handle = (long) ctx.preparedStatements.size() - 1;
+        ctx.preparedStatementHandles.put( statement, handle );
+        return handle;
+    }
+
+    @Override
+    public StatementMetadata run( long handle, MapValue params, Bookmark bookmark, Duration txTimeout, Map<String,Object> txMetaData )
+            throws KernelException
+    {
+        if ( handle < 0 || handle >= ctx.preparedStatements.size() )
+        {
+            throw new QueryExecutionKernelException( new InvalidSemanticsException( "No statement prepared with handle " + handle + "." ) );
+        }
+        PreparedQuery query = ctx.preparedStatements.get( (int) handle );
+
+        before();
+        try
+        {
+            ensureNoPendingTerminationNotice();
+
+            state = state.run( ctx, spi, query.queryText(), query, params, bookmark, txTimeout, txMetaData );
 
             return ctx.currentStatementMetadata;
         }
@@ -133,6 +185,22 @@ public class TransactionStateMachine implements StatementProcessor
         }
     }
 
+    @Override
+    public Bookmark streamResultBatch( ThrowingFunction<BoltResult,Boolean,Exception> batchConsumer ) throws Exception
+    {
+        before();
+        try
+        {
+            ensureNoPendingTerminationNotice();
+
+            return state.streamResultBatch( ctx, spi, batchConsumer );
+        }
+        finally
+        {
+            after();
+        }
+    }
+
     @Override
     public Bookmark commitTransaction() throws KernelException
     {
@@ -260,13 +328,22 @@ public class TransactionStateMachine implements StatementProcessor
                     }
 
                     @Override
-                    State run( MutableTransactionState ctx, TransactionStateMachineSPI spi, String statement, MapValue params, Bookmark bookmark,
-                            Duration txTimeout, Map<String,Object> txMetadata )
+                    State run( MutableTransactionState ctx, TransactionStateMachineSPI spi, String statement, PreparedQuery preparedQuery,
+                            MapValue params, Bookmark bookmark, Duration txTimeout, Map<String,Object> txMetadata )
                             throws KernelException
                     {
-                        statement = parseStatement( ctx, statement );
+                        boolean isPeriodicCommit;
+                        if ( preparedQuery == null )
+                        {
+                            statement = parseStatement( ctx, statement );
+                            isPeriodicCommit = spi.isPeriodicCommit( statement );
+                        }
+                        else
+                        {
+                            isPeriodicCommit = preparedQuery.isPeriodicCommit();
+                        }
                         waitForBookmark( spi, bookmark );
-                        execute( ctx, spi, statement, params, spi.isPeriodicCommit( statement ), txTimeout, txMetadata );
+                        execute( ctx, spi, statement, preparedQuery, params, isPeriodicCommit, txTimeout, txMetadata );
                         return AUTO_COMMIT;
                     }
 
@@ -283,8 +360,8 @@ public class TransactionStateMachine implements StatementProcessor
                         return statement;
                     }
 
-                    void execute( MutableTransactionState ctx, TransactionStateMachineSPI spi, String statement, MapValue params, boolean isPeriodicCommit,
-                            Duration txTimeout, Map<String,Object> txMetadata )
+                    void execute( MutableTransactionState ctx, TransactionStateMachineSPI spi, String statement, PreparedQuery preparedQuery,
+                            MapValue params, boolean isPeriodicCommit, Duration txTimeout, Map<String,Object> txMetadata )
                             throws KernelException
                     {
                         // only acquire a new transaction when the statement does not contain periodic commit
@@ -296,7 +373,7 @@ public class TransactionStateMachine implements StatementProcessor
                         boolean failed = true;
                         try
                         {
-                            BoltResultHandle resultHandle = spi.executeQuery( ctx.loginContext, statement, params, txTimeout, txMetadata );
+                            BoltResultHandle resultHandle = executeQuery( ctx, spi, statement, preparedQuery, params, txTimeout, txMetadata );
                             startExecution( ctx, resultHandle );
                             failed = false;
                         }
@@ -335,6 +412,33 @@ public class TransactionStateMachine implements StatementProcessor
                         }
                     }
 
+                    @Override
+                    Bookmark streamResultBatch( MutableTransactionState ctx, TransactionStateMachineSPI spi,
+                            ThrowingFunction<BoltResult,Boolean,Exception> batchConsumer ) throws Exception
+                    {
+                        assert ctx.currentResult != null;
+
+                        boolean hasMore = false;
+                        try
+                        {
+                            hasMore = consumeResultBatch( ctx, batchConsumer );
+                            if ( hasMore )
+                            {
+                                // the transaction stays open for the next batch of the result
+                                return null;
+                            }
+                            closeTransaction( ctx, true );
+                            return newestBookmark( spi );
+                        }
+                        finally
+                        {
+                            if ( !hasMore )
+                            {
+                                closeTransaction( ctx, false );
+                            }
+                        }
+                    }
+
                     @Override
                     State commitTransaction( MutableTransactionState ctx, TransactionStateMachineSPI spi ) throws KernelException
                     {
@@ -358,22 +462,31 @@ public class TransactionStateMachine implements StatementProcessor
                     }
 
                     @Override
-                    State run( MutableTransactionState ctx, TransactionStateMachineSPI spi, String statement, MapValue params, Bookmark bookmark,
-                            Duration ignored1, Map<String,Object> ignored2 )
+                    State run( MutableTransactionState ctx, TransactionStateMachineSPI spi, String statement, PreparedQuery preparedQuery,
+                            MapValue params, Bookmark bookmark, Duration ignored1, Map<String,Object> ignored2 )
                             throws KernelException
                     {
                         checkState( ignored1 == null, "Explicit Transaction should not run with tx_timeout" );
                         checkState( ignored2 == null, "Explicit Transaction should not run with tx_metadata" );
 
-                        if ( statement.isEmpty() )
+                        boolean isPeriodicCommit;
+                        if ( preparedQuery == null )
                         {
-                            statement = ctx.lastStatement;
+                            if ( statement.isEmpty() )
+                            {
+                                statement = ctx.lastStatement;
+                            }
+                            else
+                            {
+                                ctx.lastStatement = statement;
+                            }
+                            isPeriodicCommit = spi.isPeriodicCommit( statement );
                         }
                         else
                         {
-                            ctx.lastStatement = statement;
+                            isPeriodicCommit = preparedQuery.isPeriodicCommit();
                         }
-                        if ( spi.isPeriodicCommit( statement ) )
+                        if ( isPeriodicCommit )
                         {
                             throw new QueryExecutionKernelException( new InvalidSemanticsException(
                                     "Executing queries that use periodic commit in an " +
@@ -381,7 +494,8 @@ public class TransactionStateMachine implements StatementProcessor
                         }
                         else
                         {
-                            BoltResultHandle resultHandle = spi.executeQuery( ctx.loginContext, statement, params, null, null /*ignored in explict tx run*/ );
+                            BoltResultHandle resultHandle =
+                                    executeQuery( ctx, spi, statement, preparedQuery, params, null, null /*ignored in explict tx run*/ );
                             startExecution( ctx, resultHandle );
                             return EXPLICIT_TRANSACTION;
                         }
@@ -396,6 +510,15 @@ public class TransactionStateMachine implements StatementProcessor
                         return null; // Explict tx shall not get a bookmark in PULL_ALL or DISCARD_ALL
                     }
 
+                    @Override
+                    Bookmark streamResultBatch( MutableTransactionState ctx, TransactionStateMachineSPI spi,
+                            ThrowingFunction<BoltResult,Boolean,Exception> batchConsumer ) throws Exception
+                    {
+                        assert ctx.currentResult != null;
+                        consumeResultBatch( ctx, batchConsumer );
+                        return null;
+                    }
+
                     @Override
                     State commitTransaction( MutableTransactionState ctx, TransactionStateMachineSPI spi ) throws KernelException
                     {
@@ -417,13 +540,19 @@ public class TransactionStateMachine implements StatementProcessor
         abstract State beginTransaction( MutableTransactionState ctx, TransactionStateMachineSPI spi, Bookmark bookmark, Duration txTimeout,
                 Map<String,Object> txMetadata ) throws KernelException;
 
-        abstract State run( MutableTransactionState ctx, TransactionStateMachineSPI spi, String statement, MapValue params, Bookmark bookmark,
-                Duration txTimeout, Map<String,Object> txMetadata )
+        /**
+         * Run a statement, or the prepared query when one is given, in which case the statement is its text.
+         */
+        abstract State run( MutableTransactionState ctx, TransactionStateMachineSPI spi, String statement, PreparedQuery preparedQuery,
+                MapValue params, Bookmark bookmark, Duration txTimeout, Map<String,Object> txMetadata )
                 throws KernelException;
 
         abstract Bookmark streamResult( MutableTransactionState ctx, TransactionStateMachineSPI spi, ThrowingConsumer<BoltResult,Exception> resultConsumer )
                 throws Exception;
 
+        abstract Bookmark streamResultBatch( MutableTransactionState ctx, TransactionStateMachineSPI spi,
+                ThrowingFunction<BoltResult,Boolean,Exception> batchConsumer ) throws Exception;
+
         abstract State commitTransaction( MutableTransactionState ctx, TransactionStateMachineSPI spi ) throws KernelException;
 
         abstract State rollbackTransaction( MutableTransactionState ctx, TransactionStateMachineSPI spi ) throws KernelException;
@@ -486,16 +615,56 @@ public class TransactionStateMachine implements StatementProcessor
             }
             finally
             {
-                ctx.currentResult.close();
-                ctx.currentResult = null;
+                closeResult( ctx, success );
+            }
+            return success;
+        }
 
-                if ( ctx.currentResultHandle != null )
+        /**
+         * Like {@link #consumeResult(MutableTransactionState, ThrowingConsumer)}, but leaves the result open when the
+         * consumer says it has more records.
+         *
+         * @return {@code true} if the result has more records.
+         */
+        boolean consumeResultBatch( MutableTransactionState ctx, ThrowingFunction<BoltResult,Boolean,Exception> batchConsumer ) throws Exception
+        {
+            boolean hasMore = false;
+            boolean success = false;
+            try
+            {
+                hasMore = batchConsumer.apply( ctx.currentResult );
+                success = true;
+            }
+            finally
+            {
+                if ( !hasMore )
                 {
-                    ctx.currentResultHandle.close( success );
-                    ctx.currentResultHandle = null;
+                    closeResult( ctx, success );
                 }
             }
-            return success;
+            return hasMore;
+        }
+
+        private void closeResult( MutableTransactionState ctx, boolean success )
+        {
+            ctx.currentResult.close();
+            ctx.currentResult = null;
+
+            if ( ctx.currentResultHandle != null )
+            {
+                ctx.currentResultHandle.close( success );
+                ctx.currentResultHandle = null;
+            }
+        }
+
+        BoltResultHandle executeQuery( MutableTransactionState ctx, TransactionStateMachineSPI spi, String statement, PreparedQuery preparedQuery,
+                MapValue params, Duration txTimeout, Map<String,Object> txMetadata )
+        {
+            if ( preparedQuery == null )
+            {
+                return spi.executeQuery( ctx.loginContext, statement, params, txTimeout, txMetadata );
+            }
+            return spi.executeQuery( ctx.loginContext, preparedQuery, params, txTimeout, txMetadata );
         }
 
         void startExecution( MutableTransactionState ctx, BoltResultHandle resultHandle ) throws KernelException
@@ -543,6 +712,11 @@ public class TransactionStateMachine implements StatementProcessor
         /** Last Cypher statement executed */
         String lastStatement = "";
 
+        /** Statements prepared on this connection, indexed by their handles */
+        final List<PreparedQuery> preparedStatements = new ArrayList<>();
+
+        final Map<String,Long> preparedStatementHandles = new HashMap<>();
+
         /** The current pending result, if present */
         BoltResult currentResult;
 
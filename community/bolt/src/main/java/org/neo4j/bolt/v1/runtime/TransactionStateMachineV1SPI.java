@@ -43,6 +43,7 @@ import org.neo4j.kernel.impl.core.ThreadToStatementContextBridge;
 import org.neo4j.kernel.impl.coreapi.InternalTransaction;
 import org.neo4j.kernel.impl.coreapi.PropertyContainerLocker;
 import org.neo4j.kernel.impl.query.Neo4jTransactionalContextFactory;
+import org.neo4j.kernel.impl.query.PreparedQuery;
 import org.neo4j.kernel.impl.query.QueryExecutionEngine;
 import org.neo4j.kernel.impl.query.QueryExecutionKernelException;
 import org.neo4j.kernel.impl.query.TransactionalContext;
@@ -126,11 +127,32 @@ public class TransactionStateMachineV1SPI implements TransactionStateMachineSPI
         return newBoltResultHandle( statement, params, transactionalContext );
     }
 
+    @Override
+    public PreparedQuery prepareQuery( String query )
+    {
+        return queryExecutionEngine.prepareQuery( query );
+    }
+
+    @Override
+    public BoltResultHandle executeQuery( LoginContext loginContext, PreparedQuery query, MapValue params, Duration txTimeout,
+            Map<String,Object> txMetadata )
+    {
+        InternalTransaction internalTransaction = beginTransaction( implicit, loginContext, txTimeout, txMetadata );
+        TransactionalContext transactionalContext =
+                contextFactory.newContext( boltChannel.info(), internalTransaction, query.queryText(), params );
+        return newBoltResultHandle( query, params, transactionalContext );
+    }
+
     protected BoltResultHandle newBoltResultHandle( String statement, MapValue params, TransactionalContext transactionalContext )
     {
         return new BoltResultHandleV1( statement, params, transactionalContext );
     }
 
+    protected BoltResultHandle newBoltResultHandle( PreparedQuery query, MapValue params, TransactionalContext transactionalContext )
+    {
+        return new BoltResultHandleV1( query, params, transactionalContext );
+    }
+
     private InternalTransaction beginTransaction( KernelTransaction.Type type, LoginContext loginContext, Duration txTimeout, Map<String, Object> txMetadata )
     {
         InternalTransaction tx;
@@ -171,12 +193,24 @@ public class TransactionStateMachineV1SPI implements TransactionStateMachineSPI
     public class BoltResultHandleV1 implements BoltResultHandle
     {
         private final String statement;
+        private final PreparedQuery preparedQuery;
         private final MapValue params;
         private final TransactionalContext transactionalContext;
 
         public BoltResultHandleV1( String statement, MapValue params, TransactionalContext transactionalContext )
+        {
+            this( statement, null, params, transactionalContext );
+        }
+
+        public BoltResultHandleV1( PreparedQuery preparedQuery, MapValue params, TransactionalContext transactionalContext )
+        {
+            this( preparedQuery.queryText(), preparedQuery, params, transactionalContext );
+        }
+
+        private BoltResultHandleV1( String statement, PreparedQuery preparedQuery, MapValue params, TransactionalContext transactionalContext )
         {
             this.statement = statement;
+            this.preparedQuery = preparedQuery;
             this.params = params;
             this.transactionalContext = transactionalContext;
         }
@@ -186,7 +220,8 @@ public class TransactionStateMachineV1SPI implements TransactionStateMachineSPI
         {
             try
             {
-                Result result = queryExecutionEngine.executeQuery( statement, params, transactionalContext );
+                Result result = preparedQuery == null ? queryExecutionEngine.executeQuery( statement, params, transactionalContext )
+                                                      : queryExecutionEngine.executeQuery( preparedQuery, params, transactionalContext );
                 if ( result instanceof QueryResultProvider )
                 {
                     return newBoltResult( (QueryResultProvider) result, clock );
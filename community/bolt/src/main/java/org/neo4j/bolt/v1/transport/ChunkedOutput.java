@@ -25,6 +25,7 @@ import io.netty.channel.Channel;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.neo4j.bolt.messaging.BoltIOException;
 import org.neo4j.bolt.transport.TransportThrottleException;
@@ -33,6 +34,7 @@ import org.neo4j.bolt.v1.packstream.PackOutput;
 import org.neo4j.bolt.v1.packstream.PackOutputClosedException;
 import org.neo4j.bolt.v1.packstream.PackStream;
 import org.neo4j.kernel.api.exceptions.Status;
+import org.neo4j.util.FeatureToggles;
 
 /**
  * A target output for {@link PackStream} which breaks the data into a continuous stream of chunks before pushing them into a netty
@@ -40,7 +42,8 @@ import org.neo4j.kernel.api.exceptions.Status;
  */
 public class ChunkedOutput implements PackOutput
 {
-    private static final int DEFAULT_BUFFER_SIZE = 8192;
+    // responses are written to the network once this much of them has been buffered, or when the connection flushes
+    private static final int DEFAULT_BUFFER_SIZE = FeatureToggles.getInteger( ChunkedOutput.class, "buffer_size", 8192 );
 
     public static final int CHUNK_HEADER_SIZE = 2;
     public static final int MESSAGE_BOUNDARY = 0;
@@ -53,6 +56,10 @@ public class ChunkedOutput implements PackOutput
     private final int maxChunkSize;
     private final TransportThrottleGroup throttleGroup;
 
+    // held by the writing thread from the start to the end of each message, so that the buffer can be
+    // flushed from another thread (see tryFlush) only in between messages
+    private final ReentrantLock messageLock = new ReentrantLock();
+
     private ByteBuf buffer;
     private int currentChunkStartIndex;
     private boolean closed;
@@ -83,8 +90,10 @@ public class ChunkedOutput implements PackOutput
     @Override
     public void beginMessage()
     {
+        messageLock.lock();
         if ( currentMessageStartIndex != NO_MESSAGE )
         {
+            messageLock.unlock();
             throw new IllegalStateException( "Message has already been started, index: " + currentMessageStartIndex );
         }
 
@@ -95,32 +104,78 @@ public class ChunkedOutput implements PackOutput
     public void messageSucceeded() throws IOException
     {
         assertMessageStarted();
-        currentMessageStartIndex = NO_MESSAGE;
+        try
+        {
+            currentMessageStartIndex = NO_MESSAGE;
 
-        closeChunkIfOpen();
-        buffer.writeShort( MESSAGE_BOUNDARY );
+            closeChunkIfOpen();
+            buffer.writeShort( MESSAGE_BOUNDARY );
 
-        if ( buffer.readableBytes() >= maxBufferSize )
+            if ( buffer.readableBytes() >= maxBufferSize )
+            {
+                flush();
+            }
+            chunkOpen = false;
+        }
+        finally
         {
-            flush();
+            messageLock.unlock();
         }
-        chunkOpen = false;
     }
 
     @Override
     public void messageFailed() throws IOException
     {
         assertMessageStarted();
-        int writerIndex = currentMessageStartIndex;
-        currentMessageStartIndex = NO_MESSAGE;
+        try
+        {
+            int writerIndex = currentMessageStartIndex;
+            currentMessageStartIndex = NO_MESSAGE;
 
-        // truncate the buffer to remove all data written by an unfinished message
-        buffer.capacity( writerIndex );
-        chunkOpen = false;
+            // truncate the buffer to remove all data written by an unfinished message
+            buffer.capacity( writerIndex );
+            chunkOpen = false;
+        }
+        finally
+        {
+            messageLock.unlock();
+        }
     }
 
     @Override
     public PackOutput flush() throws IOException
+    {
+        messageLock.lock();
+        try
+        {
+            flushBuffer();
+        }
+        finally
+        {
+            messageLock.unlock();
+        }
+        return this;
+    }
+
+    @Override
+    public boolean tryFlush() throws IOException
+    {
+        if ( !messageLock.tryLock() )
+        {
+            return false;
+        }
+        try
+        {
+            flushBuffer();
+            return true;
+        }
+        finally
+        {
+            messageLock.unlock();
+        }
+    }
+
+    private void flushBuffer() throws IOException
     {
         if ( buffer != null && buffer.readableBytes() > 0 )
         {
@@ -144,7 +199,6 @@ public class ChunkedOutput implements PackOutput
 
             buffer = allocateBuffer();
         }
-        return this;
     }
 
     @Override
@@ -216,9 +270,10 @@ public class ChunkedOutput implements PackOutput
     @Override
     public void close()
     {
+        messageLock.lock();
         try
         {
-            flush();
+            flushBuffer();
         }
         catch ( IOException ignore )
         {
@@ -231,6 +286,7 @@ public class ChunkedOutput implements PackOutput
                 buffer.release();
                 buffer = null;
             }
+            messageLock.unlock();
         }
     }
 
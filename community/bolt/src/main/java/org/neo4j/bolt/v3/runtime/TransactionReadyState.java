@@ -38,8 +38,8 @@ import static org.neo4j.values.storable.Values.stringArray;
 
 public class TransactionReadyState extends FailSafeBoltStateMachineState
 {
-    private BoltStateMachineState streamingState;
-    private BoltStateMachineState readyState;
+    protected BoltStateMachineState streamingState;
+    protected BoltStateMachineState readyState;
 
     @Override
     public BoltStateMachineState processUnsafe( RequestMessage message, StateMachineContext context ) throws Exception
@@ -27,6 +27,7 @@ import org.neo4j.bolt.runtime.BoltResult;
 import org.neo4j.bolt.runtime.BoltResultHandle;
 import org.neo4j.bolt.v1.runtime.TransactionStateMachineV1SPI;
 import org.neo4j.cypher.internal.javacompat.QueryResultProvider;
+import org.neo4j.kernel.impl.query.PreparedQuery;
 import org.neo4j.kernel.impl.query.TransactionalContext;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.values.virtual.MapValue;
@@ -44,6 +45,12 @@ public class TransactionStateMachineV3SPI extends TransactionStateMachineV1SPI
         return new BoltResultHandleV3( statement, params, transactionalContext );
     }
 
+    @Override
+    protected BoltResultHandle newBoltResultHandle( PreparedQuery query, MapValue params, TransactionalContext transactionalContext )
+    {
+        return new BoltResultHandleV3( query, params, transactionalContext );
+    }
+
     private class BoltResultHandleV3 extends BoltResultHandleV1
     {
         BoltResultHandleV3( String statement, MapValue params, TransactionalContext transactionalContext )
@@ -51,6 +58,11 @@ public class TransactionStateMachineV3SPI extends TransactionStateMachineV1SPI
             super( statement, params, transactionalContext );
         }
 
+        BoltResultHandleV3( PreparedQuery query, MapValue params, TransactionalContext transactionalContext )
+        {
+            super( query, params, transactionalContext );
+        }
+
         @Override
         protected BoltResult newBoltResult( QueryResultProvider result, Clock clock )
         {
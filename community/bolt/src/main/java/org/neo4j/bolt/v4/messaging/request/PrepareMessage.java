@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.bolt.v4.messaging.request;
+
+import java.util.Objects;
+
+import org.neo4j.bolt.messaging.RequestMessage;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Prepares a statement once for repeated execution with {@link RunPreparedMessage}. Succeeds with the handle of the
+ * prepared statement, which stays valid for the lifetime of the connection.
+ */
+public class PrepareMessage implements RequestMessage
+{
+    public static final byte SIGNATURE = 0x14;
+
+    private final String statement;
+
+    public PrepareMessage( String statement )
+    {
+        this.statement = requireNonNull( statement );
+    }
+
+    public String statement()
+    {
+        return statement;
+    }
+
+    @Override
+    public boolean safeToProcessInAnyState()
+    {
+        return false;
+    }
+
+    @Override
+    public boolean equals( Object o )
+    {
+        if ( this == o )
+        {
+            return true;
+        }
+        if ( o == null || getClass() != o.getClass() )
+        {
+            return false;
+        }
+        PrepareMessage that = (PrepareMessage) o;
+        return Objects.equals( statement, that.statement );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash( statement );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PREPARE " + statement;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.bolt.v4.messaging.request;
+
+import java.util.Objects;
+
+import org.neo4j.bolt.messaging.BoltIOException;
+import org.neo4j.bolt.messaging.RequestMessage;
+import org.neo4j.kernel.api.exceptions.Status;
+import org.neo4j.values.AnyValue;
+import org.neo4j.values.storable.LongValue;
+import org.neo4j.values.virtual.MapValue;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Pulls the next {@code n} records of the current result, or all of the remaining records if {@code n} is {@code -1}.
+ * Replaces PULL_ALL, using the same signature.
+ */
+public class PullMessage implements RequestMessage
+{
+    public static final byte SIGNATURE = 0x3F;
+    public static final long PULL_ALL = -1;
+
+    private static final String SIZE_KEY = "n";
+
+    private final MapValue meta;
+    private final long n;
+
+    public PullMessage( MapValue meta ) throws BoltIOException
+    {
+        this.meta = requireNonNull( meta );
+        this.n = parseSize( meta );
+    }
+
+    private static long parseSize( MapValue meta ) throws BoltIOException
+    {
+        AnyValue anyValue = meta.get( SIZE_KEY );
+        if ( anyValue instanceof LongValue )
+        {
+            long size = ((LongValue) anyValue).longValue();
+            if ( size > 0 || size == PULL_ALL )
+            {
+                return size;
+            }
+        }
+        throw new BoltIOException( Status.Request.Invalid,
+                "Expecting size to be a Long value larger than 0 or -1 for all records, but got: " + anyValue );
+    }
+
+    public long n()
+    {
+        return n == PULL_ALL ? Long.MAX_VALUE : n;
+    }
+
+    public MapValue meta()
+    {
+        return meta;
+    }
+
+    @Override
+    public boolean safeToProcessInAnyState()
+    {
+        return false;
+    }
+
+    @Override
+    public boolean equals( Object o )
+    {
+        if ( this == o )
+        {
+            return true;
+        }
+        if ( o == null || getClass() != o.getClass() )
+        {
+            return false;
+        }
+        PullMessage that = (PullMessage) o;
+        return Objects.equals( meta, that.meta );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash( meta );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PULL " + meta;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.bolt.v4.messaging.request;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+
+import org.neo4j.bolt.messaging.BoltIOException;
+import org.neo4j.bolt.messaging.RequestMessage;
+import org.neo4j.bolt.v1.runtime.bookmarking.Bookmark;
+import org.neo4j.kernel.api.exceptions.Status;
+import org.neo4j.values.AnyValue;
+import org.neo4j.values.storable.LongValue;
+import org.neo4j.values.virtual.MapValue;
+
+import static java.util.Objects.requireNonNull;
+import static org.neo4j.bolt.v3.messaging.request.MessageMetadataParser.parseTransactionMetadata;
+import static org.neo4j.bolt.v3.messaging.request.MessageMetadataParser.parseTransactionTimeout;
+
+/**
+ * Runs a statement prepared with {@link PrepareMessage}, referenced by its handle. Otherwise the same as RUN.
+ */
+public class RunPreparedMessage implements RequestMessage
+{
+    public static final byte SIGNATURE = 0x15;
+
+    private final long handle;
+    private final MapValue params;
+    private final MapValue meta;
+
+    private final Bookmark bookmark;
+    private final Duration txTimeout;
+    private final Map<String,Object> txMetadata;
+
+    public RunPreparedMessage( AnyValue handle, MapValue params, MapValue meta ) throws BoltIOException
+    {
+        this.handle = parseHandle( handle );
+        this.params = requireNonNull( params );
+        this.meta = requireNonNull( meta );
+
+        this.bookmark = Bookmark.fromParamsOrNull( meta );
+        this.txTimeout = parseTransactionTimeout( meta );
+        this.txMetadata = parseTransactionMetadata( meta );
+    }
+
+    private static long parseHandle( AnyValue anyValue ) throws BoltIOException
+    {
+        if ( anyValue instanceof LongValue )
+        {
+            return ((LongValue) anyValue).longValue();
+        }
+        throw new BoltIOException( Status.Request.Invalid, "Expecting handle to be a Long value, but got: " + anyValue );
+    }
+
+    public long handle()
+    {
+        return handle;
+    }
+
+    public MapValue params()
+    {
+        return params;
+    }
+
+    public MapValue meta()
+    {
+        return meta;
+    }
+
+    public Bookmark bookmark()
+    {
+        return bookmark;
+    }
+
+    public Duration transactionTimeout()
+    {
+        return txTimeout;
+    }
+
+    public Map<String,Object> transactionMetadata()
+    {
+        return txMetadata;
+    }
+
+    @Override
+    public boolean safeToProcessInAnyState()
+    {
+        return false;
+    }
+
+    @Override
+    public boolean equals( Object o )
+    {
+        if ( this == o )
+        {
+            return true;
+        }
+        if ( o == null || getClass() != o.getClass() )
+        {
+            return false;
+        }
+        RunPreparedMessage that = (RunPreparedMessage) o;
+        return handle == that.handle && Objects.equals( params, that.params ) && Objects.equals( meta, that.meta );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash( handle, params, meta );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "RUN_PREPARED " + handle + ' ' + params + ' ' + meta;
+    }
+}
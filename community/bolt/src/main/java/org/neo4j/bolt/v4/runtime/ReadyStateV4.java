@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.bolt.v4.runtime;
+
+import org.neo4j.bolt.messaging.RequestMessage;
+import org.neo4j.bolt.runtime.BoltStateMachineState;
+import org.neo4j.bolt.runtime.StateMachineContext;
+import org.neo4j.bolt.runtime.StatementMetadata;
+import org.neo4j.bolt.runtime.StatementProcessor;
+import org.neo4j.bolt.v3.runtime.ReadyState;
+import org.neo4j.bolt.v4.messaging.request.PrepareMessage;
+import org.neo4j.bolt.v4.messaging.request.RunPreparedMessage;
+import org.neo4j.internal.kernel.api.exceptions.KernelException;
+import org.neo4j.values.storable.Values;
+
+import static org.neo4j.values.storable.Values.stringArray;
+
+/**
+ * Adds PREPARE and RUN_PREPARED to the READY state. Preparing a statement doesn't change the state, running a prepared
+ * statement moves to STREAMING like RUN does.
+ */
+public class ReadyStateV4 extends ReadyState
+{
+    static final String HANDLE_KEY = "handle";
+
+    @Override
+    public BoltStateMachineState processUnsafe( RequestMessage message, StateMachineContext context ) throws Exception
+    {
+        if ( message instanceof PrepareMessage )
+        {
+            return processPrepareMessage( (PrepareMessage) message, this, context );
+        }
+        if ( message instanceof RunPreparedMessage )
+        {
+            return processRunPreparedMessage( (RunPreparedMessage) message, context );
+        }
+        return super.processUnsafe( message, context );
+    }
+
+    private BoltStateMachineState processRunPreparedMessage( RunPreparedMessage message, StateMachineContext context ) throws KernelException
+    {
+        long start = context.clock().millis();
+        StatementProcessor statementProcessor = context.connectionState().getStatementProcessor();
+        StatementMetadata statementMetadata = statementProcessor.run( message.handle(), message.params(), message.bookmark(),
+                message.transactionTimeout(), message.transactionMetadata() );
+        long end = context.clock().millis();
+
+        context.connectionState().onMetadata( FIELDS_KEY, stringArray( statementMetadata.fieldNames() ) );
+        context.connectionState().onMetadata( FIRST_RECORD_AVAILABLE_KEY, Values.longValue( end - start ) );
+
+        return streamingState;
+    }
+
+    static BoltStateMachineState processPrepareMessage( PrepareMessage message, BoltStateMachineState currentState, StateMachineContext context )
+            throws KernelException
+    {
+        StatementProcessor statementProcessor = context.connectionState().getStatementProcessor();
+        long handle = statementProcessor.prepare( message.statement() );
+        context.connectionState().onMetadata( HANDLE_KEY, Values.longValue( handle ) );
+        return currentState;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.bolt.v4.runtime;
+
+import org.neo4j.bolt.messaging.RequestMessage;
+import org.neo4j.bolt.runtime.BoltStateMachineState;
+import org.neo4j.bolt.runtime.StateMachineContext;
+import org.neo4j.bolt.runtime.StatementProcessor;
+import org.neo4j.bolt.v1.runtime.bookmarking.Bookmark;
+import org.neo4j.bolt.v3.runtime.StreamingState;
+import org.neo4j.bolt.v4.messaging.request.PullMessage;
+
+/**
+ * When STREAMING, records are PULLed in batches. The state machine stays STREAMING until the last batch of the result
+ * has been pulled, which gets the bookmark attached.
+ */
+public class StreamingStateV4 extends StreamingState
+{
+    @Override
+    public BoltStateMachineState processUnsafe( RequestMessage message, StateMachineContext context ) throws Throwable
+    {
+        if ( message instanceof PullMessage )
+        {
+            return processPullMessage( (PullMessage) message, context );
+        }
+        return super.processUnsafe( message, context );
+    }
+
+    private BoltStateMachineState processPullMessage( PullMessage message, StateMachineContext context ) throws Throwable
+    {
+        StatementProcessor statementProcessor = context.connectionState().getStatementProcessor();
+        Bookmark bookmark = statementProcessor.streamResultBatch(
+                recordStream -> context.connectionState().getResponseHandler().onPullRecords( recordStream, message.n() ) );
+        if ( statementProcessor.hasOpenStatement() )
+        {
+            return this;
+        }
+        bookmark.attachTo( context.connectionState() );
+        return readyState;
+    }
+}
@@ -33,6 +33,7 @@ import org.neo4j.bolt.v1.BoltProtocolV1;
 import org.neo4j.bolt.v1.runtime.BoltStateMachineV1;
 import org.neo4j.bolt.v2.BoltProtocolV2;
 import org.neo4j.bolt.v3.BoltStateMachineV3;
+import org.neo4j.bolt.v4.BoltStateMachineV4;
 import org.neo4j.dbms.database.DatabaseManager;
 import org.neo4j.graphdb.DependencyResolver;
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
@@ -80,6 +81,17 @@ class BoltStateMachineFactoryImplTest
         assertThat( boltStateMachine, instanceOf( BoltStateMachineV3.class ) );
     }
 
+    @Test
+    void shouldCreateBoltStateMachinesV4()
+    {
+        BoltStateMachineFactoryImpl factory = newBoltFactory();
+
+        BoltStateMachine boltStateMachine = factory.newStateMachine( 4L, CHANNEL );
+
+        assertNotNull( boltStateMachine );
+        assertThat( boltStateMachine, instanceOf( BoltStateMachineV4.class ) );
+    }
+
     @ParameterizedTest( name = "V{0}" )
     @ValueSource( longs = {999, -1} )
     void shouldThrowExceptionIfVersionIsUnknown( long protocolVersion )
@@ -29,6 +29,7 @@ import org.mockito.ArgumentMatchers;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
 
@@ -201,6 +202,98 @@ public class DefaultBoltConnectionTest
         assertTrue( drainedJobs.contains( job ) );
     }
 
+    @Test
+    public void processNextBatchShouldFlushOnceForAllJobsOfBatch() throws Exception
+    {
+        BoltConnection connection = newConnection();
+
+        connection.enqueue( Jobs.noop() );
+        connection.enqueue( Jobs.noop() );
+        connection.enqueue( Jobs.noop() );
+        connection.processNextBatch();
+
+        verify( output ).flush();
+    }
+
+    @Test
+    public void processNextBatchShouldFlushWhenResponsesWaitedForMaxFlushDelay() throws Exception
+    {
+        BoltConnection connection =
+                new DefaultBoltConnection( boltChannel, output, stateMachine, logService, connectionListener, queueMonitor, 10, 0 );
+
+        connection.enqueue( Jobs.noop() );
+        connection.enqueue( Jobs.noop() );
+        connection.enqueue( Jobs.noop() );
+        connection.enqueue( Jobs.noop() );
+        connection.processNextBatch();
+
+        // before the second, third and fourth job, and once more when the queue is empty
+        verify( output, times( 4 ) ).flush();
+    }
+
+    @Test
+    public void shouldFlushResponsesOfFastJobsWhileSlowJobIsRunning() throws Exception
+    {
+        when( output.tryFlush() ).thenReturn( true );
+        BoltConnection connection =
+                new DefaultBoltConnection( boltChannel, output, stateMachine, logService, connectionListener, queueMonitor, 10, 100 );
+        CountDownLatch slowJobStarted = new CountDownLatch( 1 );
+        CountDownLatch slowJobReleased = new CountDownLatch( 1 );
+
+        connection.enqueue( Jobs.noop() );
+        connection.enqueue( machine ->
+        {
+            slowJobStarted.countDown();
+            try
+            {
+                slowJobReleased.await();
+            }
+            catch ( InterruptedException e )
+            {
+                throw new RuntimeException( e );
+            }
+        } );
+        connection.enqueue( Jobs.noop() );
+        Future<Boolean> future = otherThread.execute( state -> connection.processNextBatch() );
+
+        slowJobStarted.await();
+        Thread.sleep( 200 );
+        channel.runScheduledPendingTasks();
+
+        // the response of the first job went out on the event loop while the slow job is still running
+        verify( output ).tryFlush();
+
+        slowJobReleased.countDown();
+        assertTrue( future.get() );
+        verify( output, times( 1 ) ).tryFlush();
+    }
+
+    @Test
+    public void processPendingJobsShouldNotWaitForMoreJobsWhenStickingToThread()
+    {
+        Job job = Jobs.noop();
+        BoltConnection connection = newConnection();
+        when( stateMachine.shouldStickOnThread() ).thenReturn( true );
+        when( stateMachine.hasOpenStatement() ).thenReturn( true );
+
+        connection.enqueue( job );
+        boolean continueOnThreadPool = connection.processPendingJobs();
+
+        verify( queueMonitor ).drained( same( connection ), anyCollection() );
+        assertTrue( continueOnThreadPool );
+    }
+
+    @Test
+    public void processPendingJobsShouldNotContinueWhenAllJobsAreDone()
+    {
+        BoltConnection connection = newConnection();
+
+        connection.enqueue( Jobs.noop() );
+
+        assertFalse( connection.processPendingJobs() );
+        assertFalse( connection.hasPendingJobs() );
+    }
+
     @Test
     public void processNextBatchShouldDrainMaxBatchSizeItemsOnEachCall()
     {
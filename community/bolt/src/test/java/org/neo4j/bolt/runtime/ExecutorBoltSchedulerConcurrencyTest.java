@@ -72,7 +72,7 @@ public class ExecutorBoltSchedulerConcurrencyTest
     private final JobScheduler jobScheduler = mock( JobScheduler.class );
     private final ExecutorBoltScheduler boltScheduler =
             new ExecutorBoltScheduler( CONNECTOR_KEY, executorFactory, jobScheduler, logService, maxPoolSize, maxPoolSize, Duration.ofMinutes( 1 ), 0,
-                    ForkJoinPool.commonPool() );
+                    ForkJoinPool.commonPool(), Duration.ZERO, mock( BoltConnectionMetricsMonitor.class ) );
 
     @Before
     public void setup() throws Throwable
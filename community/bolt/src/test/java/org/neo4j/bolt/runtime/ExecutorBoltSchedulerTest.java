@@ -19,6 +19,7 @@
  */
 package org.neo4j.bolt.runtime;
 
+import io.netty.channel.Channel;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -57,9 +58,12 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -75,7 +79,8 @@ public class ExecutorBoltSchedulerTest
     private final ExecutorFactory executorFactory = new CachedThreadPoolExecutorFactory( NullLog.getInstance() );
     private final JobScheduler jobScheduler = mock( JobScheduler.class );
     private final ExecutorBoltScheduler boltScheduler =
-            new ExecutorBoltScheduler( CONNECTOR_KEY, executorFactory, jobScheduler, logService, 0, 10, Duration.ofMinutes( 1 ), 0, ForkJoinPool.commonPool() );
+            new ExecutorBoltScheduler( CONNECTOR_KEY, executorFactory, jobScheduler, logService, 0, 10, Duration.ofMinutes( 1 ), 0, ForkJoinPool.commonPool(),
+                    Duration.ZERO, mock( BoltConnectionMetricsMonitor.class ) );
 
     @Before
     public void setup()
@@ -96,7 +101,7 @@ public class ExecutorBoltSchedulerTest
         when( mockExecutorFactory.create( anyInt(), anyInt(), any(), anyInt(), anyBoolean(), any() ) ).thenReturn( Executors.newCachedThreadPool() );
         ExecutorBoltScheduler scheduler =
                 new ExecutorBoltScheduler( CONNECTOR_KEY, mockExecutorFactory, jobScheduler, logService, 0, 10, Duration.ofMinutes( 1 ), 0,
-                        ForkJoinPool.commonPool() );
+                        ForkJoinPool.commonPool(), Duration.ZERO, mock( BoltConnectionMetricsMonitor.class ) );
 
         scheduler.start();
 
@@ -112,7 +117,7 @@ public class ExecutorBoltSchedulerTest
         when( mockExecutorFactory.create( anyInt(), anyInt(), any(), anyInt(), anyBoolean(), any() ) ).thenReturn( cachedThreadPool );
         ExecutorBoltScheduler scheduler =
                 new ExecutorBoltScheduler( CONNECTOR_KEY, mockExecutorFactory, jobScheduler, logService, 0, 10, Duration.ofMinutes( 1 ), 0,
-                        ForkJoinPool.commonPool() );
+                        ForkJoinPool.commonPool(), Duration.ZERO, mock( BoltConnectionMetricsMonitor.class ) );
 
         scheduler.start();
         scheduler.stop();
@@ -316,6 +321,92 @@ public class ExecutorBoltSchedulerTest
         exitCondition.set( true );
     }
 
+    @Test
+    public void enqueuedShouldExecuteBatchInlineOnEventLoop() throws Throwable
+    {
+        BoltConnectionMetricsMonitor metricsMonitor = mock( BoltConnectionMetricsMonitor.class );
+        ExecutorBoltScheduler scheduler = newInlineScheduler( Duration.ofMinutes( 1 ), metricsMonitor );
+        BoltConnection connection = newEventLoopConnection( UUID.randomUUID().toString() );
+        when( connection.processPendingJobs() ).thenReturn( false );
+
+        scheduler.start();
+        scheduler.created( connection );
+        scheduler.enqueued( connection, Jobs.noop() );
+
+        verify( connection ).processPendingJobs();
+        verify( connection, never() ).processNextBatch();
+        verify( metricsMonitor ).batchExecutedInline( anyLong() );
+        verify( metricsMonitor, never() ).batchOffloaded();
+        assertFalse( scheduler.isActive( connection ) );
+
+        scheduler.stop();
+    }
+
+    @Test
+    public void enqueuedShouldContinueOnThreadPoolWhenInlineBatchLeavesWorkBehind() throws Throwable
+    {
+        BoltConnectionMetricsMonitor metricsMonitor = mock( BoltConnectionMetricsMonitor.class );
+        ExecutorBoltScheduler scheduler = newInlineScheduler( Duration.ofMinutes( 1 ), metricsMonitor );
+        BoltConnection connection = newEventLoopConnection( UUID.randomUUID().toString() );
+        AtomicInteger processNextBatchCount = new AtomicInteger();
+        when( connection.processPendingJobs() ).thenReturn( true );
+        when( connection.processNextBatch() ).thenAnswer( inv -> processNextBatchCount.incrementAndGet() > 0 );
+
+        scheduler.start();
+        scheduler.created( connection );
+        scheduler.enqueued( connection, Jobs.noop() );
+
+        Predicates.await( () -> processNextBatchCount.get() > 0, 1, MINUTES );
+
+        verify( connection ).processPendingJobs();
+        verify( metricsMonitor ).batchOffloaded();
+
+        scheduler.stop();
+    }
+
+    @Test
+    public void enqueuedShouldOffloadToThreadPoolAfterInlineBatchExceededBudget() throws Throwable
+    {
+        BoltConnectionMetricsMonitor metricsMonitor = mock( BoltConnectionMetricsMonitor.class );
+        ExecutorBoltScheduler scheduler = newInlineScheduler( Duration.ofNanos( 1 ), metricsMonitor );
+        BoltConnection connection = newEventLoopConnection( UUID.randomUUID().toString() );
+        AtomicInteger processNextBatchCount = new AtomicInteger();
+        when( connection.processPendingJobs() ).thenAnswer( inv ->
+        {
+            Thread.sleep( 1 );
+            return false;
+        } );
+        when( connection.processNextBatch() ).thenAnswer( inv -> processNextBatchCount.incrementAndGet() > 0 );
+
+        scheduler.start();
+        scheduler.created( connection );
+        scheduler.enqueued( connection, Jobs.noop() );
+        scheduler.enqueued( connection, Jobs.noop() );
+
+        Predicates.await( () -> processNextBatchCount.get() > 0, 1, MINUTES );
+
+        verify( connection, times( 1 ) ).processPendingJobs();
+        verify( metricsMonitor ).inlineExecutionBudgetExceeded();
+        verify( metricsMonitor ).batchOffloaded();
+
+        scheduler.stop();
+    }
+
+    private ExecutorBoltScheduler newInlineScheduler( Duration inlineBudget, BoltConnectionMetricsMonitor metricsMonitor )
+    {
+        return new ExecutorBoltScheduler( CONNECTOR_KEY, executorFactory, jobScheduler, logService, 0, 10, Duration.ofMinutes( 1 ), 0,
+                ForkJoinPool.commonPool(), inlineBudget, metricsMonitor );
+    }
+
+    private BoltConnection newEventLoopConnection( String id )
+    {
+        BoltConnection result = newConnection( id );
+        Channel channel = mock( Channel.class, RETURNS_DEEP_STUBS );
+        when( channel.eventLoop().inEventLoop() ).thenReturn( true );
+        when( result.channel() ).thenReturn( channel );
+        return result;
+    }
+
     private BoltConnection newConnection( String id )
     {
         BoltConnection result = mock( BoltConnection.class );
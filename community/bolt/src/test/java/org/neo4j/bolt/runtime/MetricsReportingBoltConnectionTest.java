@@ -23,6 +23,7 @@ import org.junit.Test;
 
 import org.neo4j.bolt.BoltChannel;
 import org.neo4j.bolt.testing.BoltTestUtil;
+import org.neo4j.bolt.testing.Jobs;
 import org.neo4j.bolt.v1.packstream.PackOutput;
 import org.neo4j.bolt.v1.runtime.Job;
 import org.neo4j.logging.internal.NullLogService;
@@ -163,6 +164,21 @@ public class MetricsReportingBoltConnectionTest
         verify( metricsMonitor ).connectionClosed();
     }
 
+    @Test
+    public void shouldNotifyResponsesFlushedTogether()
+    {
+        BoltConnectionMetricsMonitor metricsMonitor = mock( BoltConnectionMetricsMonitor.class );
+        BoltConnection connection = newConnection( metricsMonitor );
+
+        connection.start();
+        connection.enqueue( Jobs.noop() );
+        connection.enqueue( Jobs.noop() );
+        connection.enqueue( Jobs.noop() );
+        connection.processNextBatch();
+
+        verify( metricsMonitor ).responsesFlushed( 3 );
+    }
+
     private static BoltConnection newConnection( BoltConnectionMetricsMonitor metricsMonitor )
     {
         BoltChannel channel = BoltTestUtil.newTestBoltChannel();
@@ -103,6 +103,12 @@ public class SynchronousBoltConnection implements BoltConnection
         return true;
     }
 
+    @Override
+    public boolean processPendingJobs()
+    {
+        return false;
+    }
+
     @Override
     public void handleSchedulingError( Throwable t )
     {
@@ -34,6 +34,7 @@ import org.neo4j.bolt.testing.BoltTestUtil;
 import org.neo4j.bolt.v1.BoltProtocolV1;
 import org.neo4j.bolt.v2.BoltProtocolV2;
 import org.neo4j.bolt.v3.BoltProtocolV3;
+import org.neo4j.bolt.v4.BoltProtocolV4;
 import org.neo4j.logging.internal.NullLogService;
 
 import static org.junit.Assert.assertEquals;
@@ -63,7 +64,7 @@ class DefaultBoltProtocolFactoryTest
     }
 
     @ParameterizedTest( name = "V{0}" )
-    @ValueSource( longs = {BoltProtocolV1.VERSION, BoltProtocolV2.VERSION, BoltProtocolV3.VERSION} )
+    @ValueSource( longs = {BoltProtocolV1.VERSION, BoltProtocolV2.VERSION, BoltProtocolV3.VERSION, BoltProtocolV4.VERSION} )
     void shouldCreateBoltProtocol( long protocolVersion ) throws Throwable
     {
         EmbeddedChannel channel = new EmbeddedChannel();
@@ -28,40 +28,60 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 
 import org.neo4j.bolt.messaging.BoltIOException;
 import org.neo4j.bolt.messaging.Neo4jPack;
 import org.neo4j.bolt.runtime.Neo4jError;
 import org.neo4j.bolt.v1.packstream.PackedInputArray;
 import org.neo4j.bolt.v1.packstream.PackedOutputArray;
+import org.neo4j.graphdb.NotFoundException;
 import org.neo4j.helpers.collection.MapUtil;
 import org.neo4j.kernel.api.exceptions.Status;
+import org.neo4j.kernel.impl.core.NodeProxy;
+import org.neo4j.kernel.impl.core.RelationshipProxy;
 import org.neo4j.kernel.impl.util.ValueUtils;
 import org.neo4j.values.AnyValue;
 import org.neo4j.values.storable.TextArray;
 import org.neo4j.values.storable.TextValue;
 import org.neo4j.values.storable.UTF8StringValue;
+import org.neo4j.values.storable.Value;
 import org.neo4j.values.virtual.ListValue;
 import org.neo4j.values.virtual.MapValue;
+import org.neo4j.values.virtual.NodeValue;
 import org.neo4j.values.virtual.PathValue;
+import org.neo4j.values.virtual.RelationshipValue;
 import org.neo4j.values.virtual.VirtualValues;
 
+import static java.util.Collections.singletonList;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.neo4j.bolt.v1.messaging.Neo4jPackV1.UNBOUND_RELATIONSHIP;
 import static org.neo4j.bolt.v1.messaging.example.Edges.ALICE_KNOWS_BOB;
 import static org.neo4j.bolt.v1.messaging.example.Nodes.ALICE;
 import static org.neo4j.bolt.v1.messaging.example.Paths.ALL_PATHS;
+import static org.neo4j.graphdb.Label.label;
+import static org.neo4j.graphdb.RelationshipType.withName;
 import static org.neo4j.values.storable.Values.charArray;
 import static org.neo4j.values.storable.Values.charValue;
 import static org.neo4j.values.storable.Values.intValue;
 import static org.neo4j.values.storable.Values.longValue;
+import static org.neo4j.values.storable.Values.stringArray;
 import static org.neo4j.values.storable.Values.stringValue;
 import static org.neo4j.values.storable.Values.utf8Value;
+import static org.neo4j.values.virtual.VirtualValues.nodeValue;
+import static org.neo4j.values.virtual.VirtualValues.relationshipValue;
 
 public class Neo4jPackV1Test
 {
@@ -339,4 +359,73 @@ public class Neo4jPackV1Test
         // Then
         assertThat( unpacked, equalTo( textValue ) );
     }
+
+    @Test
+    public void shouldPackNodeStraightFromStoreLikeMaterializedNode() throws IOException
+    {
+        // Given
+        NodeProxy node = mock( NodeProxy.class );
+        when( node.getId() ).thenReturn( 42L );
+        when( node.getLabels() ).thenReturn( singletonList( label( "Person" ) ) );
+        doAnswer( invocation ->
+        {
+            BiConsumer<String,Value> visitor = invocation.getArgument( 0 );
+            visitor.accept( "name", stringValue( "Alice" ) );
+            return null;
+        } ).when( node ).forEachProperty( any() );
+        NodeValue materialized = nodeValue( 42L, stringArray( "Person" ),
+                VirtualValues.map( new String[]{"name"}, new AnyValue[]{stringValue( "Alice" )} ) );
+
+        // When
+        byte[] packed = packed( ValueUtils.fromNodeProxy( node ) );
+
+        // Then
+        assertArrayEquals( packed( materialized ), packed );
+        verify( node, never() ).getAllProperties();
+    }
+
+    @Test
+    public void shouldPackRelationshipStraightFromStoreLikeMaterializedRelationship() throws IOException
+    {
+        // Given
+        RelationshipProxy relationship = mock( RelationshipProxy.class );
+        when( relationship.getId() ).thenReturn( 7L );
+        when( relationship.initializeData() ).thenReturn( true );
+        when( relationship.getStartNodeId() ).thenReturn( 1L );
+        when( relationship.getEndNodeId() ).thenReturn( 2L );
+        when( relationship.getType() ).thenReturn( withName( "KNOWS" ) );
+        doAnswer( invocation ->
+        {
+            BiConsumer<String,Value> visitor = invocation.getArgument( 0 );
+            visitor.accept( "since", longValue( 1999L ) );
+            return null;
+        } ).when( relationship ).forEachProperty( any() );
+        RelationshipValue materialized = relationshipValue( 7L,
+                nodeValue( 1L, stringArray(), VirtualValues.EMPTY_MAP ),
+                nodeValue( 2L, stringArray(), VirtualValues.EMPTY_MAP ), stringValue( "KNOWS" ),
+                VirtualValues.map( new String[]{"since"}, new AnyValue[]{longValue( 1999L )} ) );
+
+        // When
+        byte[] packed = packed( ValueUtils.fromRelationshipProxy( relationship ) );
+
+        // Then
+        assertArrayEquals( packed( materialized ), packed );
+        verify( relationship, never() ).getAllProperties();
+    }
+
+    @Test
+    public void shouldPackDeletedNodeAsEmptyNode() throws IOException
+    {
+        // Given
+        NodeProxy node = mock( NodeProxy.class );
+        when( node.getId() ).thenReturn( 42L );
+        when( node.getLabels() ).thenThrow( new NotFoundException() );
+        when( node.getAllProperties() ).thenThrow( new NotFoundException() );
+
+        // When
+        byte[] packed = packed( ValueUtils.fromNodeProxy( node ) );
+
+        // Then
+        assertArrayEquals( packed( nodeValue( 42L, stringArray(), VirtualValues.EMPTY_MAP ) ), packed );
+    }
 }
@@ -97,7 +97,7 @@ public class ResetFuzzTest
     private final Config config = createConfig();
     private final BoltSchedulerProvider boltSchedulerProvider = life.add(
             new ExecutorBoltSchedulerProvider( config, new CachedThreadPoolExecutorFactory( NullLog.getInstance() ), scheduler,
-                    NullLogService.getInstance() ) );
+                    NullLogService.getInstance(), monitors ) );
     private final Clock clock = Clock.systemUTC();
     private final BoltStateMachine machine = new BoltStateMachineV1( new FuzzStubSPI(), BoltTestUtil.newTestBoltChannel(), clock );
     private final BoltConnectionFactory connectionFactory =
@@ -34,6 +34,7 @@ import org.neo4j.internal.kernel.api.exceptions.KernelException;
 import org.neo4j.internal.kernel.api.security.LoginContext;
 import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.api.exceptions.Status;
+import org.neo4j.kernel.impl.query.PreparedQuery;
 import org.neo4j.kernel.impl.query.QueryExecutionKernelException;
 import org.neo4j.kernel.impl.util.ValueUtils;
 import org.neo4j.time.FakeClock;
@@ -42,9 +43,11 @@ import org.neo4j.values.virtual.MapValue;
 import static java.util.Arrays.asList;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -380,6 +383,32 @@ class TransactionStateMachineTest
         assertNull( stateMachine.ctx.currentTransaction );
     }
 
+    @Test
+    void shouldKeepResultAndTransactionOpenWhileStreamingResultInBatches() throws Exception
+    {
+        KernelTransaction transaction = newTransaction();
+        TransactionStateMachineV1SPI stateMachineSPI = newTransactionStateMachineSPI( transaction );
+        TransactionStateMachine stateMachine = newTransactionStateMachine( stateMachineSPI );
+
+        stateMachine.run( "SOME STATEMENT", null );
+
+        Bookmark bookmark = stateMachine.streamResultBatch( boltResult -> true );
+
+        assertNull( bookmark );
+        assertTrue( stateMachine.hasOpenStatement() );
+        assertNotNull( stateMachine.ctx.currentResult );
+        assertNotNull( stateMachine.ctx.currentTransaction );
+        verify( stateMachineSPI, times( 2 ) ).unbindTransactionFromCurrentThread();
+
+        bookmark = stateMachine.streamResultBatch( boltResult -> false );
+
+        assertNotNull( bookmark );
+        assertFalse( stateMachine.hasOpenStatement() );
+        assertNull( stateMachine.ctx.currentResult );
+        assertNull( stateMachine.ctx.currentTransaction );
+        verify( transaction ).success();
+    }
+
     @Test
     void shouldCloseResultHandlesWhenExecutionFailsInExplicitTransaction() throws Exception
     {
@@ -457,6 +486,63 @@ class TransactionStateMachineTest
         inOrder.verify( stateMachineSPI ).beginTransaction( any( LoginContext.class ), any(), any() );
     }
 
+    @Test
+    void shouldRunPreparedStatementWithoutPreparingItAgain() throws Exception
+    {
+        KernelTransaction transaction = newTransaction();
+        BoltResultHandle resultHandle = newResultHandle();
+        TransactionStateMachineV1SPI stateMachineSPI = newTransactionStateMachineSPI( transaction );
+        PreparedQuery preparedQuery = newPreparedQuery( "RETURN $x", false );
+        when( stateMachineSPI.prepareQuery( "RETURN $x" ) ).thenReturn( preparedQuery );
+        when( stateMachineSPI.executeQuery( any(), any( PreparedQuery.class ), any(), any(), any() ) ).thenReturn( resultHandle );
+
+        TransactionStateMachine stateMachine = newTransactionStateMachine( stateMachineSPI );
+
+        long handle = stateMachine.prepare( "RETURN $x" );
+        assertEquals( handle, stateMachine.prepare( "RETURN $x" ) );
+        stateMachine.run( handle, map( "x", 1L ), null, null, null );
+        stateMachine.streamResult( boltResult -> {} );
+        stateMachine.run( handle, map( "x", 2L ), null, null, null );
+        stateMachine.streamResult( boltResult -> {} );
+
+        verify( stateMachineSPI, times( 1 ) ).prepareQuery( "RETURN $x" );
+        verify( stateMachineSPI, never() ).isPeriodicCommit( anyString() );
+        verify( stateMachineSPI ).executeQuery( any( LoginContext.class ), eq( preparedQuery ), eq( map( "x", 1L ) ), any(), any() );
+        verify( stateMachineSPI ).executeQuery( any( LoginContext.class ), eq( preparedQuery ), eq( map( "x", 2L ) ), any(), any() );
+        verify( stateMachineSPI, never() ).executeQuery( any(), anyString(), any(), any(), any() );
+    }
+
+    @Test
+    void shouldNotRunPreparedPeriodicCommitStatementInExplicitTransaction() throws Exception
+    {
+        KernelTransaction transaction = newTransaction();
+        TransactionStateMachineV1SPI stateMachineSPI = newTransactionStateMachineSPI( transaction );
+        PreparedQuery preparedQuery = newPreparedQuery( PERIODIC_COMMIT_QUERY, true );
+        when( stateMachineSPI.prepareQuery( PERIODIC_COMMIT_QUERY ) ).thenReturn( preparedQuery );
+
+        TransactionStateMachine stateMachine = newTransactionStateMachine( stateMachineSPI );
+
+        long handle = stateMachine.prepare( PERIODIC_COMMIT_QUERY );
+        stateMachine.beginTransaction( null );
+
+        QueryExecutionKernelException e = assertThrows( QueryExecutionKernelException.class,
+                () -> stateMachine.run( handle, EMPTY_MAP, null, null, null ) );
+        assertEquals( "Executing queries that use periodic commit in an open transaction is not possible.", e.getMessage() );
+    }
+
+    @Test
+    void shouldFailToRunUnknownPreparedStatement() throws Exception
+    {
+        TransactionStateMachineV1SPI stateMachineSPI = newTransactionStateMachineSPI( newTransaction() );
+
+        TransactionStateMachine stateMachine = newTransactionStateMachine( stateMachineSPI );
+
+        QueryExecutionKernelException e = assertThrows( QueryExecutionKernelException.class,
+                () -> stateMachine.run( 42, EMPTY_MAP, null, null, null ) );
+        assertEquals( "No statement prepared with handle 42.", e.getMessage() );
+        assertEquals( TransactionStateMachine.State.AUTO_COMMIT, stateMachine.state );
+    }
+
     @Test
     public void shouldNotMarkForTerminationWhenNoTransaction() throws Exception
     {
@@ -519,6 +605,16 @@ class TransactionStateMachineTest
         return stateMachineSPI;
     }
 
+    private static PreparedQuery newPreparedQuery( String queryText, boolean periodicCommit )
+    {
+        PreparedQuery preparedQuery = mock( PreparedQuery.class );
+
+        when( preparedQuery.queryText() ).thenReturn( queryText );
+        when( preparedQuery.isPeriodicCommit() ).thenReturn( periodicCommit );
+
+        return preparedQuery;
+    }
+
     private static BoltResultHandle newResultHandle() throws KernelException
     {
         BoltResultHandle resultHandle = mock( BoltResultHandle.class );
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.bolt.v4.messaging.request;
+
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.bolt.messaging.BoltIOException;
+import org.neo4j.kernel.impl.util.ValueUtils;
+import org.neo4j.values.virtual.MapValue;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.neo4j.helpers.collection.MapUtil.map;
+
+class PullMessageTest
+{
+    @Test
+    void shouldParseSize() throws Throwable
+    {
+        // When
+        PullMessage message = new PullMessage( ValueUtils.asMapValue( map( "n", 100L ) ) );
+
+        // Then
+        assertEquals( 100L, message.n() );
+    }
+
+    @Test
+    void shouldPullAllRecordsForSizeOfMinusOne() throws Throwable
+    {
+        // When
+        PullMessage message = new PullMessage( ValueUtils.asMapValue( map( "n", -1L ) ) );
+
+        // Then
+        assertEquals( Long.MAX_VALUE, message.n() );
+    }
+
+    @Test
+    void shouldThrowExceptionForMissingOrInvalidSize()
+    {
+        assertInvalidSize( ValueUtils.asMapValue( map() ) );
+        assertInvalidSize( ValueUtils.asMapValue( map( "n", 0L ) ) );
+        assertInvalidSize( ValueUtils.asMapValue( map( "n", "all" ) ) );
+    }
+
+    private static void assertInvalidSize( MapValue meta )
+    {
+        BoltIOException exception = assertThrows( BoltIOException.class, () -> new PullMessage( meta ) );
+        assertThat( exception.getMessage(), startsWith( "Expecting size to be a Long value" ) );
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.bolt.v4.messaging.request;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import org.neo4j.bolt.messaging.BoltIOException;
+import org.neo4j.kernel.impl.util.ValueUtils;
+import org.neo4j.values.AnyValue;
+import org.neo4j.values.storable.Values;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.neo4j.helpers.collection.MapUtil.map;
+import static org.neo4j.values.virtual.VirtualValues.EMPTY_MAP;
+
+class RunPreparedMessageTest
+{
+    @Test
+    void shouldParseHandleAndMetadata() throws Throwable
+    {
+        // When
+        RunPreparedMessage message = new RunPreparedMessage( Values.longValue( 7 ), ValueUtils.asMapValue( map( "x", 1L ) ),
+                ValueUtils.asMapValue( map( "tx_timeout", 1000L ) ) );
+
+        // Then
+        assertEquals( 7L, message.handle() );
+        assertEquals( ValueUtils.asMapValue( map( "x", 1L ) ), message.params() );
+        assertEquals( Duration.ofMillis( 1000 ), message.transactionTimeout() );
+    }
+
+    @Test
+    void shouldThrowExceptionForInvalidHandle()
+    {
+        assertInvalidHandle( Values.stringValue( "7" ) );
+        assertInvalidHandle( Values.NO_VALUE );
+    }
+
+    private static void assertInvalidHandle( AnyValue handle )
+    {
+        BoltIOException exception = assertThrows( BoltIOException.class, () -> new RunPreparedMessage( handle, EMPTY_MAP, EMPTY_MAP ) );
+        assertThat( exception.getMessage(), startsWith( "Expecting handle to be a Long value" ) );
+    }
+}
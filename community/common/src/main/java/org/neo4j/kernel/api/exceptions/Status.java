@@ -144,6 +144,9 @@ public interface Status
         TransactionTimedOut( ClientError,
                 "The transaction has not completed within the specified timeout (dbms.transaction.timeout). You may want to retry with a longer " +
                 "timeout." ),
+        QueryMemoryLimitReached( ClientError,
+                "The query held on to more memory than allowed for a single query (cypher.query_max_memory). You may " +
+                "want to rewrite the query to buffer fewer rows, or retry with a higher limit." ),
         InvalidBookmark( ClientError,
                 "Supplied bookmark cannot be interpreted. You should only supply a bookmark previously that was " +
                 "previously generated by Neo4j. Maybe you have generated your own bookmark, " +
@@ -185,6 +188,9 @@ public interface Status
                 "terminated the transaction, or because the database is shutting down." ),
         LockAcquisitionTimeout( TransientError,
                 "Unable to acquire lock within configured timeout (dbms.lock.acquisition.timeout)." ),
+        GlobalQueryMemoryLimitReached( TransientError,
+                "The queries running on this instance held on to more memory than allowed in total " +
+                "(cypher.query_global_max_memory). Retrying once other queries have completed may be successful." ),
         Terminated( TransientError,
                 "Explicitly terminated by the user." ),
         Interrupted( TransientError,
@@ -58,6 +58,12 @@ public enum Group
     // CYPHER.
     /** Thread pool for parallel Cypher query execution. */
     CYPHER_WORKER( "CypherWorker", ExecutorServiceFactory.workStealing() ),
+    /** Writing the queries of the query cache to disk, and planning them again on startup. */
+    CYPHER_CACHE_WARMUP( "CypherCacheWarmup" ),
+    /** Replanning queries whose cached plans have become stale, while the stale plans keep being used. */
+    CYPHER_REPLAN( "CypherReplan" ),
+    /** Reading and parsing the files of LOAD CSV ahead of the rows the query works on. */
+    CYPHER_LOAD_CSV( "CypherLoadCsv" ),
 
     // DATA COLLECTOR
     DATA_COLLECTOR( "DataCollector" ),
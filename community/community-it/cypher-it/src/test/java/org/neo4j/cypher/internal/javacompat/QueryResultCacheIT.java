@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.javacompat;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.graphdb.Result;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.kernel.monitoring.Monitors;
+import org.neo4j.test.rule.DatabaseRule;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class QueryResultCacheIT
+{
+    @Rule
+    public final DatabaseRule db = new ImpermanentDatabaseRule()
+            .withSetting( GraphDatabaseSettings.query_result_cache_size, "100" );
+
+    private final CountingMonitor monitor = new CountingMonitor();
+
+    @Before
+    public void setUp()
+    {
+        db.resolveDependency( Monitors.class ).addMonitorListener( monitor );
+    }
+
+    @Test
+    public void shouldServeRepeatedDeterministicReadsFromCache()
+    {
+        db.execute( "CREATE (:Person {name: 'Alice'})" ).close();
+
+        Object first = single( "MATCH (p:Person) RETURN p.name AS value" );
+        Object second = single( "MATCH (p:Person) RETURN p.name AS value" );
+
+        assertEquals( "Alice", first );
+        assertEquals( first, second );
+        assertEquals( 1, monitor.hits.get() );
+    }
+
+    @Test
+    public void shouldNotCacheRand()
+    {
+        Object first = single( "RETURN rand() AS value" );
+        Object second = single( "RETURN rand() AS value" );
+
+        assertNotEquals( first, second );
+        assertEquals( 0, monitor.hits.get() );
+    }
+
+    @Test
+    public void shouldNotCacheTimestamp() throws InterruptedException
+    {
+        Object first = single( "RETURN timestamp() AS value" );
+        Thread.sleep( 10 );
+        Object second = single( "RETURN timestamp() AS value" );
+
+        assertNotEquals( first, second );
+        assertEquals( 0, monitor.hits.get() );
+    }
+
+    @Test
+    public void shouldNotCacheTemporalFunctionsOrProcedureCalls()
+    {
+        single( "RETURN datetime() AS value" );
+        single( "RETURN datetime() AS value" );
+        single( "RETURN randomUUID() AS value" );
+        single( "RETURN randomUUID() AS value" );
+        db.execute( "CALL db.labels()" ).close();
+        db.execute( "CALL db.labels()" ).close();
+
+        assertEquals( 0, monitor.hits.get() );
+        assertEquals( 0, monitor.misses.get() );
+    }
+
+    private Object single( String query )
+    {
+        try ( Result result = db.execute( query ) )
+        {
+            return result.next().get( "value" );
+        }
+    }
+
+    private static class CountingMonitor implements QueryResultCacheMonitor
+    {
+        private final AtomicInteger hits = new AtomicInteger();
+        private final AtomicInteger misses = new AtomicInteger();
+
+        @Override
+        public void cacheHit()
+        {
+            hits.incrementAndGet();
+        }
+
+        @Override
+        public void cacheMiss()
+        {
+            misses.incrementAndGet();
+        }
+
+        @Override
+        public void cacheEviction()
+        {
+        }
+    }
+}
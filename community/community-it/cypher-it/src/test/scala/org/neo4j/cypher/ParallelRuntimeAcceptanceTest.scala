@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher
+
+import org.neo4j.cypher.internal.RewindableExecutionResult
+import org.neo4j.cypher.internal.runtime.planDescription.InternalPlanDescription.Arguments.RuntimeImpl
+import org.neo4j.graphdb.config.Setting
+import org.neo4j.graphdb.factory.GraphDatabaseSettings
+import org.neo4j.kernel.impl.api.KernelTransactions
+
+import scala.collection.Map
+
+class ParallelRuntimeAcceptanceTest extends ExecutionEngineFunSuite {
+
+  override def databaseConfig(): Map[Setting[_], String] = Map(GraphDatabaseSettings.cypher_worker_count -> "2",
+                                                               GraphDatabaseSettings.cypher_morsel_size -> "7")
+
+  override protected def initTest(): Unit = {
+    super.initTest()
+    for (i <- 0 until 100) {
+      createLabeledNode(Map("x" -> i), "A")
+    }
+  }
+
+  test("should filter the rows of a label scan in parallel") {
+    val result = execute("CYPHER runtime=parallel MATCH (n:A) WHERE n.x >= 50 RETURN n.x AS x")
+
+    result.columnAs[Long]("x").toList should contain theSameElementsAs (50L until 100L)
+    runtimeOf(result) should equal("PARALLEL")
+  }
+
+  test("should sort the rows of an all nodes scan in parallel") {
+    val result = execute("CYPHER runtime=parallel MATCH (n) RETURN n.x AS x ORDER BY x DESC")
+
+    result.columnAs[Long]("x").toList should equal((0L until 100L).reverse)
+    runtimeOf(result) should equal("PARALLEL")
+  }
+
+  test("should aggregate the rows of a label scan in parallel") {
+    val result = execute("CYPHER runtime=parallel MATCH (n:A) RETURN count(*) AS count, sum(n.x) AS sum")
+
+    result.toList should equal(List(Map("count" -> 100L, "sum" -> 4950L)))
+    runtimeOf(result) should equal("PARALLEL")
+  }
+
+  test("should close the transactions of all workers") {
+    for (_ <- 0 until 10) {
+      execute("CYPHER runtime=parallel MATCH (n:A) WHERE n.x % 2 = 0 RETURN n.x AS x").toList should have size 50
+    }
+
+    graph.getDependencyResolver.resolveDependency(classOf[KernelTransactions]).activeTransactions() shouldBe empty
+  }
+
+  private def runtimeOf(result: RewindableExecutionResult): String =
+    result.executionPlanDescription().arguments.collectFirst { case RuntimeImpl(name) => name }.get
+}
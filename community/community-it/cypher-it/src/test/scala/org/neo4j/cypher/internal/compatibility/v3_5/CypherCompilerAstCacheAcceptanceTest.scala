@@ -28,6 +28,7 @@ import org.neo4j.cypher.internal.compatibility.v3_4.Cypher34Planner
 import org.neo4j.cypher.internal.compatibility.{CommunityRuntimeContextCreator, CypherCurrentCompiler, CypherPlanner, RuntimeContext}
 import org.neo4j.cypher.internal.compiler.v3_5.{CypherPlannerConfiguration, StatsDivergenceCalculator}
 import org.neo4j.cypher.internal.runtime.interpreted.CSVResources
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.parallel.ParallelWorkers
 import org.neo4j.cypher.internal._
 import org.neo4j.graphdb.config.Setting
 import org.neo4j.graphdb.factory.GraphDatabaseSettings
@@ -36,6 +37,7 @@ import org.neo4j.kernel.configuration.Config
 import org.neo4j.kernel.impl.util.ValueUtils
 import org.neo4j.logging.AssertableLogProvider.inLog
 import org.neo4j.logging.{AssertableLogProvider, Log, NullLog, NullLogProvider}
+import org.neo4j.scheduler.JobScheduler
 import org.neo4j.cypher.internal.v3_5.frontend.phases.CompilationPhaseTracer
 import org.neo4j.cypher.internal.v3_5.util.DummyPosition
 import org.neo4j.cypher.internal.v3_5.util.test_helpers.CypherFunSuite
@@ -52,13 +54,19 @@ class CypherCompilerAstCacheAcceptanceTest extends CypherFunSuite with GraphData
       useErrorsOverWarnings = false,
       idpMaxTableSize = 128,
       idpIterationDuration = 1000,
+      idpTotalDuration = 10000,
       errorIfShortestPathFallbackUsedAtRuntime = false,
       errorIfShortestPathHasCommonNodesAtRuntime = true,
       legacyCsvQuoteEscaping = false,
       csvBufferSize = CSVResources.DEFAULT_BUFFER_SIZE,
+      csvReadAhead = false,
       nonIndexedLabelWarningThreshold = 10000L,
       planWithMinimumCardinalityEstimates = true,
-      lenientCreateRelationship = false
+      lenientCreateRelationship = false,
+      spillThreshold = 0,
+      trackQueryMemory = false,
+      queryMaxMemory = 0,
+      queryGlobalMaxMemory = 0
     )
   }
 
@@ -78,7 +86,9 @@ class CypherCompilerAstCacheAcceptanceTest extends CypherFunSuite with GraphData
   CypherCurrentCompiler[RuntimeContext] = {
     CypherCurrentCompiler(
       planner,
-      CommunityRuntimeFactory.getRuntime(CypherRuntimeOption.default, disallowFallback = true),
+      CommunityRuntimeFactory.getRuntime(CypherRuntimeOption.default, disallowFallback = true,
+        runtimeConfig = CypherConfiguration.fromConfig(Config.defaults()).toCypherRuntimeConfiguration,
+        parallelWorkers = ParallelWorkers(graph.getDependencyResolver.resolveDependency(classOf[JobScheduler]), 1)),
       CommunityRuntimeContextCreator(log, config),
       kernelMonitors)
 
@@ -109,6 +119,10 @@ class CypherCompilerAstCacheAcceptanceTest extends CypherFunSuite with GraphData
                                      metaData: String): Unit = {
       counts = counts.copy(recompiled = counts.recompiled + 1)
     }
+
+    override def queryCacheBackgroundReplan(queryKey: Pair[AnyRef, ParameterTypeMap],
+                                            replanMillis: Long,
+                                            metaData: String): Unit = {}
   }
 
   override def databaseConfig(): Map[Setting[_], String] = Map(GraphDatabaseSettings.cypher_min_replan_interval -> "0")
@@ -404,6 +404,55 @@ class PruningVarLengthExpandPipeTest extends GraphDatabaseFunSuite {
     }
   }
 
+  test("directed cycle back to the start node produces the start node") {
+    /*
+    (n1)-->(n2)-->(n3)-->(n1)
+     */
+    val n1 = createNode()
+    val n2 = createNode()
+    val n3 = createNode()
+    relate(n1, n2)
+    relate(n2, n3)
+    relate(n3, n1)
+
+    val src = new FakePipe(Iterator(Map("from" -> n1)))
+    val pipeUnderTest = createPipe(src, 1, 3, SemanticDirection.OUTGOING)
+
+    graph.withTx { tx =>
+      withQueryState(graph, tx, EMPTY_MAP, { queryState =>
+        pipeUnderTest.createResults(queryState).toList should beEquivalentTo(List(
+          Map("from" -> n1, "to" -> n2),
+          Map("from" -> n1, "to" -> n3),
+          Map("from" -> n1, "to" -> n1)
+        ))
+      })
+    }
+  }
+
+  test("wide directed expansion only produces nodes within max length") {
+    /*
+    Every node in a layer is connected to every node in the next layer, so
+    the same node can be reached over many paths of the same length.
+     */
+    val start = createNode()
+    val layers = (0 until 4) map (_ => (0 until 5) map (_ => createNode()))
+    layers.head.foreach(n => relate(start, n))
+    layers.sliding(2).foreach {
+      case Seq(from, to) => for (x <- from; y <- to) relate(x, y)
+    }
+
+    val src = new FakePipe(Iterator(Map("from" -> start)))
+    val pipeUnderTest = createPipe(src, 1, 3, SemanticDirection.OUTGOING)
+
+    graph.withTx { tx =>
+      withQueryState(graph, tx, EMPTY_MAP, { queryState =>
+        val result = pipeUnderTest.createResults(queryState).map(_.apply("to")).toList
+        result should have size 15
+        result.toSet should equal(layers.take(3).flatten.map(fromNodeProxy).toSet)
+      })
+    }
+  }
+
   test("random and compare") {
     // runs DistinctVarExpand and VarExpand side-by-side and checks that the reachable nodes are the same
     val POPULATION: Int = 1 * 1000
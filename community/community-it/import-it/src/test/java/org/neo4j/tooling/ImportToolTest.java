@@ -52,6 +52,8 @@ import org.neo4j.graphdb.RelationshipType;
 import org.neo4j.graphdb.ResourceIterator;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.graphdb.schema.IndexDefinition;
+import org.neo4j.graphdb.schema.Schema;
 import org.neo4j.helpers.collection.Iterables;
 import org.neo4j.helpers.collection.Iterators;
 import org.neo4j.helpers.collection.PrefetchingIterator;
@@ -151,6 +153,59 @@ public class ImportToolTest
         verifyData();
     }
 
+    @Test
+    public void shouldBuildSchemaIndexesAndUniquenessConstraintsDuringImport() throws Exception
+    {
+        // GIVEN
+        File data = data( ":ID,name,email,:LABEL", "1,Alice,alice@x,Person", "2,Bob,bob@x,Person", "3,Alice,,Person" );
+
+        // WHEN
+        importTool(
+                "--into", dbRule.getDatabaseDirAbsolutePath(),
+                "--nodes", data.getAbsolutePath(),
+                "--index", "Person:name",
+                "--unique-constraint", "Person:email" );
+
+        // THEN
+        GraphDatabaseService db = dbRule.getGraphDatabaseAPI();
+        try ( Transaction tx = db.beginTx() )
+        {
+            List<IndexDefinition> indexes = Iterables.asList( db.schema().getIndexes( label( "Person" ) ) );
+            assertEquals( 2, indexes.size() );
+            for ( IndexDefinition index : indexes )
+            {
+                assertEquals( Schema.IndexState.ONLINE, db.schema().getIndexState( index ) );
+            }
+            assertEquals( 1, Iterables.count( db.schema().getConstraints( label( "Person" ) ) ) );
+            assertEquals( 2, count( db.findNodes( label( "Person" ), "name", "Alice" ) ) );
+            assertNotNull( db.findNode( label( "Person" ), "email", "bob@x" ) );
+            tx.success();
+        }
+    }
+
+    @Test
+    public void shouldNotCreateUniquenessConstraintViolatedByImportedData() throws Exception
+    {
+        // GIVEN
+        File data = data( ":ID,name,:LABEL", "1,Alice,Person", "2,Alice,Person" );
+
+        // WHEN
+        importTool(
+                "--into", dbRule.getDatabaseDirAbsolutePath(),
+                "--nodes", data.getAbsolutePath(),
+                "--unique-constraint", "Person:name" );
+
+        // THEN
+        GraphDatabaseService db = dbRule.getGraphDatabaseAPI();
+        try ( Transaction tx = db.beginTx() )
+        {
+            assertEquals( 0, Iterables.count( db.schema().getConstraints() ) );
+            assertEquals( 0, Iterables.count( db.schema().getIndexes() ) );
+            assertEquals( 2, count( db.findNodes( label( "Person" ), "name", "Alice" ) ) );
+            tx.success();
+        }
+    }
+
     @Test
     public void shouldImportWithHeadersBeingInSeparateFiles() throws Exception
     {
@@ -2028,6 +2083,25 @@ public class ImportToolTest
         assertTrue( lines.stream().anyMatch( line -> line.contains( "Import completed successfully" ) ) );
     }
 
+    @Test
+    public void shouldUseAdaptiveProcessorAssignmentIfToldTo() throws Exception
+    {
+        // given
+        String dbDir = dbRule.getDatabaseDirAbsolutePath();
+
+        // when
+        importTool(
+                "--into", dbDir,
+                "--nodes", nodeData( true, Configuration.COMMAS, nodeIds(), TRUE ).getAbsolutePath(),
+                "--adaptive-processor-assignment" );
+
+        // then
+        File logsDir = new File( new File( dbDir ).getParentFile(), logs_directory.getDefaultValue() );
+        File internalLogFile = new File( logsDir, Config.defaults().get( store_internal_log_path ).getName() );
+        List<String> lines = Files.readAllLines( internalLogFile.toPath() );
+        assertTrue( lines.stream().anyMatch( line -> line.contains( "Using adaptive processor assignment" ) ) );
+    }
+
     private static void assertContains( List<String> errorLines, String string )
     {
         for ( String line : errorLines )
@@ -31,6 +31,7 @@ import org.neo4j.graphdb.ResourceIterator;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.graphdb.schema.IndexDefinition;
 import org.neo4j.internal.kernel.api.IndexReference;
+import org.neo4j.internal.kernel.api.IndexValueDistribution;
 import org.neo4j.internal.kernel.api.Kernel;
 import org.neo4j.internal.kernel.api.exceptions.TransactionFailureException;
 import org.neo4j.internal.kernel.api.exceptions.schema.IndexNotFoundKernelException;
@@ -40,11 +41,13 @@ import org.neo4j.register.Register.DoubleLongRegister;
 import org.neo4j.register.Registers;
 import org.neo4j.test.TestGraphDatabaseFactory;
 import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.values.storable.Values;
 
 import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertThat;
 import static org.neo4j.internal.kernel.api.Transaction.Type.explicit;
 import static org.neo4j.internal.kernel.api.security.LoginContext.AUTH_DISABLED;
@@ -186,6 +189,77 @@ public class IndexSamplingIntegrationTest
         assertEquals( nodes - deletedNodes, indexSizeRegister.readSecond() );
     }
 
+    @Test
+    public void shouldRebuildValueDistributionAfterRestart() throws Throwable
+    {
+        GraphDatabaseService db = null;
+        try
+        {
+            // Given
+            db = new TestGraphDatabaseFactory().newEmbeddedDatabase( testDirectory.storeDir() );
+            IndexDefinition indexDefinition;
+            try ( Transaction tx = db.beginTx() )
+            {
+                indexDefinition = db.schema().indexFor( label ).on( property ).create();
+                tx.success();
+            }
+
+            try ( Transaction tx = db.beginTx() )
+            {
+                db.schema().awaitIndexOnline( indexDefinition, 10, TimeUnit.SECONDS );
+                tx.success();
+            }
+
+            try ( Transaction tx = db.beginTx() )
+            {
+                for ( int i = 0; i < nodes; i++ )
+                {
+                    db.createNode( label ).setProperty( property, names[i % names.length] );
+                }
+                tx.success();
+            }
+            db.execute( "CALL db.resampleIndex(':Person(name)')" ).close();
+            awaitIndexValueDistribution( db );
+            db.shutdown();
+
+            // When
+            db = new TestGraphDatabaseFactory().newEmbeddedDatabase( testDirectory.storeDir() );
+            db.execute( "CALL db.resampleOutdatedIndexes()" ).close();
+
+            // Then
+            IndexValueDistribution distribution = awaitIndexValueDistribution( db );
+            assertEquals( 1.0 / names.length, distribution.equalityFrequency( Values.stringValue( names[0] ) ), 0.01 );
+        }
+        finally
+        {
+            if ( db != null )
+            {
+                db.shutdown();
+            }
+        }
+    }
+
+    private IndexValueDistribution awaitIndexValueDistribution( GraphDatabaseService db ) throws Exception
+    {
+        // sampling is scheduled in the background, so wait for it to finish
+        long deadline = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis( 1 );
+        GraphDatabaseAPI api = (GraphDatabaseAPI) db;
+        while ( true )
+        {
+            try ( org.neo4j.internal.kernel.api.Transaction tx = api.getDependencyResolver().resolveDependency( Kernel.class )
+                    .beginTransaction( explicit, AUTH_DISABLED ) )
+            {
+                IndexValueDistribution distribution = tx.schemaRead().indexValueDistribution( indexId( tx ) );
+                if ( !distribution.isEmpty() )
+                {
+                    return distribution;
+                }
+            }
+            assertTrue( "Index was not sampled", System.currentTimeMillis() < deadline );
+            Thread.sleep( 10 );
+        }
+    }
+
     private IndexReference indexId( org.neo4j.internal.kernel.api.Transaction tx )
     {
         int labelId = tx.tokenRead().nodeLabel( label.name() );
@@ -64,6 +64,7 @@ import org.neo4j.logging.AssertableLogProvider;
 import org.neo4j.logging.AssertableLogProvider.LogMatcherBuilder;
 import org.neo4j.logging.LogProvider;
 import org.neo4j.logging.NullLogProvider;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.EntityType;
 import org.neo4j.storageengine.api.NodePropertyAccessor;
 import org.neo4j.storageengine.api.schema.IndexDescriptor;
@@ -124,6 +125,7 @@ public class IndexPopulationJobTest
     private Kernel kernel;
     private IndexStoreView indexStoreView;
     private DatabaseSchemaState stateHolder;
+    private JobScheduler jobScheduler;
     private int labelId;
 
     @Before
@@ -132,6 +134,7 @@ public class IndexPopulationJobTest
         db = (GraphDatabaseAPI) new TestGraphDatabaseFactory().newImpermanentDatabaseBuilder()
                 .setConfig( GraphDatabaseSettings.record_id_batch_size, "1" ).newGraphDatabase();
         kernel = db.getDependencyResolver().resolveDependency( Kernel.class );
+        jobScheduler = db.getDependencyResolver().resolveDependency( JobScheduler.class );
         stateHolder = new DatabaseSchemaState( NullLogProvider.getInstance() );
         indexStoreView = indexStoreView();
 
@@ -519,7 +522,7 @@ public class IndexPopulationJobTest
         NullLogProvider logProvider = NullLogProvider.getInstance();
         TrackingMultipleIndexPopulator populator = new TrackingMultipleIndexPopulator( IndexStoreView.EMPTY, logProvider, EntityType.NODE,
                 new DatabaseSchemaState( logProvider ) );
-        IndexPopulationJob populationJob = new IndexPopulationJob( populator, NO_MONITOR, false );
+        IndexPopulationJob populationJob = new IndexPopulationJob( populator, NO_MONITOR, false, jobScheduler );
 
         // when
         populationJob.run();
@@ -567,7 +570,7 @@ public class IndexPopulationJobTest
         };
         TrackingMultipleIndexPopulator populator = new TrackingMultipleIndexPopulator( failingStoreView, logProvider, EntityType.NODE,
                 new DatabaseSchemaState( logProvider ) );
-        IndexPopulationJob populationJob = new IndexPopulationJob( populator, NO_MONITOR, false );
+        IndexPopulationJob populationJob = new IndexPopulationJob( populator, NO_MONITOR, false, jobScheduler );
 
         // when
         populationJob.run();
@@ -772,7 +775,7 @@ public class IndexPopulationJobTest
         flipper.setFlipTarget( mock( IndexProxyFactory.class ) );
 
         MultipleIndexPopulator multiPopulator = new MultipleIndexPopulator( storeView, logProvider, type, stateHolder );
-        IndexPopulationJob job = new IndexPopulationJob( multiPopulator, NO_MONITOR, false );
+        IndexPopulationJob job = new IndexPopulationJob( multiPopulator, NO_MONITOR, false, jobScheduler );
         job.addPopulator( populator, descriptor.withId( indexId ).withoutCapabilities(),
                 format( ":%s(%s)", FIRST.name(), name ), flipper, failureDelegateFactory );
         return job;
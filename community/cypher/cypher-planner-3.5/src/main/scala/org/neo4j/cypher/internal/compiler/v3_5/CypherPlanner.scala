@@ -107,10 +107,16 @@ case class CypherPlannerConfiguration(queryCacheSize: Int,
                                       useErrorsOverWarnings: Boolean,
                                       idpMaxTableSize: Int,
                                       idpIterationDuration: Long,
+                                      idpTotalDuration: Long,
                                       errorIfShortestPathFallbackUsedAtRuntime: Boolean,
                                       errorIfShortestPathHasCommonNodesAtRuntime: Boolean,
                                       legacyCsvQuoteEscaping: Boolean,
                                       csvBufferSize: Int,
+                                      csvReadAhead: Boolean,
                                       nonIndexedLabelWarningThreshold: Long,
                                       planWithMinimumCardinalityEstimates: Boolean,
-                                      lenientCreateRelationship: Boolean)
+                                      lenientCreateRelationship: Boolean,
+                                      spillThreshold: Long,
+                                      trackQueryMemory: Boolean,
+                                      queryMaxMemory: Long,
+                                      queryGlobalMaxMemory: Long)
@@ -35,7 +35,7 @@ class PlannerContext(val exceptionCreator: (String, InputPosition) => CypherExce
                      val notificationLogger: InternalNotificationLogger,
                      val planContext: PlanContext,
                      val monitors: Monitors,
-                     val metrics: Metrics,
+                     val metricsWithParameterValues: Map[String, Any] => Metrics,
                      val config: CypherPlannerConfiguration,
                      val queryGraphSolver: QueryGraphSolver,
                      val updateStrategy: UpdateStrategy,
@@ -66,10 +66,11 @@ object PlannerContextCreator extends ContextCreator[PlannerContext] {
                      ): PlannerContext = {
     val exceptionCreator = new SyntaxExceptionCreator(queryText, offset)
 
-    val metrics: Metrics = if (planContext == null)
+    // literals are only extracted into parameters after the context has been created
+    val metrics: Map[String, Any] => Metrics = parameterValues => if (planContext == null)
       null
     else
-      metricsFactory.newMetrics(planContext.statistics, evaluator, config)
+      metricsFactory.newMetrics(planContext.statistics, evaluator, config, parameterValues)
 
     new PlannerContext(exceptionCreator, tracer, notificationLogger, planContext,
       monitors, metrics, config, queryGraphSolver, updateStrategy, debugOptions, clock, logicalPlanIdGen)
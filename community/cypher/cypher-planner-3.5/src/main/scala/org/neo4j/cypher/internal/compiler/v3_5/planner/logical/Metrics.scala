@@ -97,10 +97,11 @@ case class Metrics(cost: CostModel,
 trait MetricsFactory {
   def newCardinalityEstimator(queryGraphCardinalityModel: QueryGraphCardinalityModel, expressionEvaluator: ExpressionEvaluator): CardinalityModel
   def newCostModel(config: CypherPlannerConfiguration): CostModel
-  def newQueryGraphCardinalityModel(statistics: GraphStatistics): QueryGraphCardinalityModel
+  def newQueryGraphCardinalityModel(statistics: GraphStatistics, parameterValues: Map[String, Any]): QueryGraphCardinalityModel
 
-  def newMetrics(statistics: GraphStatistics,expressionEvaluator: ExpressionEvaluator, config: CypherPlannerConfiguration) = {
-    val queryGraphCardinalityModel = newQueryGraphCardinalityModel(statistics)
+  def newMetrics(statistics: GraphStatistics, expressionEvaluator: ExpressionEvaluator, config: CypherPlannerConfiguration,
+                 parameterValues: Map[String, Any] = Map.empty) = {
+    val queryGraphCardinalityModel = newQueryGraphCardinalityModel(statistics, parameterValues)
     val cardinality = newCardinalityEstimator(queryGraphCardinalityModel, expressionEvaluator)
     Metrics(newCostModel(config), cardinality, queryGraphCardinalityModel)
   }
@@ -51,11 +51,12 @@ case class QueryPlanner(planSingleQuery: SingleQueryPlanner = PlanSingleQuery())
       devNullListener
 
     val planningAttributes = from.planningAttributes
-    val logicalPlanProducer = LogicalPlanProducer(context.metrics.cardinality, planningAttributes, context.logicalPlanIdGen)
+    val metrics = context.metricsWithParameterValues(from.maybeExtractedParams.getOrElse(Map.empty))
+    val logicalPlanProducer = LogicalPlanProducer(metrics.cardinality, planningAttributes, context.logicalPlanIdGen)
     val logicalPlanningContext = LogicalPlanningContext(
       planContext = context.planContext,
       logicalPlanProducer = logicalPlanProducer,
-      metrics = getMetricsFrom(context),
+      metrics = getMetricsFrom(context, metrics),
       semanticTable = from.semanticTable(),
       strategy = context.queryGraphSolver,
       notificationLogger = context.notificationLogger,
@@ -80,12 +81,12 @@ case class QueryPlanner(planSingleQuery: SingleQueryPlanner = PlanSingleQuery())
     }
   }
 
-  private def getMetricsFrom(context: PlannerContext) = if (context.debugOptions.contains("inverse_cost")) {
-    context.metrics.copy(cost = new CostModel {
-      override def apply(v1: LogicalPlan, v2: QueryGraphSolverInput, v3: Cardinalities): Cost = -context.metrics.cost(v1, v2, v3)
+  private def getMetricsFrom(context: PlannerContext, metrics: Metrics) = if (context.debugOptions.contains("inverse_cost")) {
+    metrics.copy(cost = new CostModel {
+      override def apply(v1: LogicalPlan, v2: QueryGraphSolverInput, v3: Cardinalities): Cost = -metrics.cost(v1, v2, v3)
     })
   } else {
-    context.metrics
+    metrics
   }
 
   def plan(unionQuery: UnionQuery, context: LogicalPlanningContext, solveds: Solveds, cardinalities: Cardinalities, idGen: IdGen): (Option[PeriodicCommit], LogicalPlan, LogicalPlanningContext) =
@@ -30,6 +30,6 @@ object SimpleMetricsFactory extends MetricsFactory {
   def newCardinalityEstimator(queryGraphCardinalityModel: QueryGraphCardinalityModel, expressionEvaluator: ExpressionEvaluator): CardinalityModel =
     new StatisticsBackedCardinalityModel(queryGraphCardinalityModel, expressionEvaluator)
 
-  def newQueryGraphCardinalityModel(statistics: GraphStatistics) =
-    QueryGraphCardinalityModel.default(statistics)
+  def newQueryGraphCardinalityModel(statistics: GraphStatistics, parameterValues: Map[String, Any]) =
+    QueryGraphCardinalityModel.default(statistics, parameterValues)
 }
@@ -24,14 +24,21 @@ import org.neo4j.cypher.internal.ir.v3_5.Selections
 import org.neo4j.cypher.internal.planner.v3_5.spi.GraphStatistics
 import org.neo4j.cypher.internal.planner.v3_5.spi.GraphStatistics._
 import org.neo4j.cypher.internal.planner.v3_5.spi.IndexDescriptor
+import org.neo4j.cypher.internal.v3_5.logical.plans.ManySeekableArgs
 import org.neo4j.cypher.internal.v3_5.logical.plans.PrefixRange
+import org.neo4j.cypher.internal.v3_5.logical.plans.SingleSeekableArg
 import org.neo4j.cypher.internal.v3_5.ast.semantics.SemanticTable
 import org.neo4j.cypher.internal.v3_5.expressions._
 import org.neo4j.cypher.internal.v3_5.util.Cardinality
 import org.neo4j.cypher.internal.v3_5.util.LabelId
 import org.neo4j.cypher.internal.v3_5.util.Selectivity
 
-case class ExpressionSelectivityCalculator(stats: GraphStatistics, combiner: SelectivityCombiner) {
+/**
+  * @param parameterValues values of parameters that are known at planning time, i.e. the literals extracted from the
+  *                        query. Plans are cached by the query text, so estimating from these values is safe.
+  */
+case class ExpressionSelectivityCalculator(stats: GraphStatistics, combiner: SelectivityCombiner,
+                                           parameterValues: Map[String, Any] = Map.empty) {
 
   def apply(exp: Expression)(implicit semanticTable: SemanticTable, selections: Selections): Selectivity = exp match {
     // WHERE a:Label
@@ -48,7 +55,13 @@ case class ExpressionSelectivityCalculator(stats: GraphStatistics, combiner: Sel
 
     // WHERE x.prop =/IN ...
     case AsPropertySeekable(seekable) =>
-      calculateSelectivityForPropertyEquality(seekable.name, seekable.args.sizeHint, selections, seekable.propertyKey)
+      val value = seekable.args match {
+        case SingleSeekableArg(expr) => literalValue(expr)
+        // equality has been rewritten to IN with a single element
+        case ManySeekableArgs(ListLiteral(Seq(expr))) => literalValue(expr)
+        case _ => None
+      }
+      calculateSelectivityForPropertyEquality(seekable.name, seekable.args.sizeHint, selections, seekable.propertyKey, value)
 
     // WHERE x.prop STARTS WITH 'prefix'
     case AsStringRangeSeekable(seekable@PrefixRangeSeekable(PrefixRange(StringLiteral(prefix)), _, _, _)) =>
@@ -157,10 +170,27 @@ case class ExpressionSelectivityCalculator(stats: GraphStatistics, combiner: Sel
     }
   }
 
+  /**
+    * The value of the given expression if it is a literal usable for estimates from the distribution of index values,
+    * or a parameter that literal has been replaced with.
+    */
+  private def literalValue(expr: Expression): Option[Any] = expr match {
+    case literal: StringLiteral => Some(literal.value)
+    case literal: NumberLiteral => Some(literal.value)
+    case literal: BooleanLiteral => Some(literal.value)
+    case Parameter(name, _) => parameterValues.get(name).collect {
+      case value: String => value
+      case value: Number => value
+      case value: java.lang.Boolean => value
+    }
+    case _ => None
+  }
+
   private def calculateSelectivityForPropertyEquality(variable: String,
                                                       sizeHint: Option[Int],
                                                       selections: Selections,
-                                                      propertyKey: PropertyKeyName)
+                                                      propertyKey: PropertyKeyName,
+                                                      value: Option[Any] = None)
                                                      (implicit semanticTable: SemanticTable): Selectivity = {
     val labels = selections.labelsOnNode(variable)
     val indexSelectivities = labels.toIndexedSeq.flatMap {
@@ -170,7 +200,7 @@ case class ExpressionSelectivityCalculator(stats: GraphStatistics, combiner: Sel
             val descriptor = IndexDescriptor(labelId, Seq(propertyKeyId))
             for {
               propExists <-stats.indexPropertyExistsSelectivity(descriptor)
-              propEqualsValue <- stats.uniqueValueSelectivity(descriptor)
+              propEqualsValue <- stats.indexValueSelectivity(descriptor, value) orElse stats.uniqueValueSelectivity(descriptor)
               combinedSelectivity <- combiner.andTogetherSelectivities(Seq(propExists, propEqualsValue))
             } yield combinedSelectivity
 
@@ -202,23 +232,46 @@ case class ExpressionSelectivityCalculator(stats: GraphStatistics, combiner: Sel
       }
     }
 
+    // A range with at most one literal bound on either side can be estimated from the histogram of the index
+    val literalBounds: Option[(Option[Any], Option[Any])] = {
+      val (lowers, uppers) = seekable.expr.inequalities.toIndexedSeq.partition {
+        case _: GreaterThan | _: GreaterThanOrEqual => true
+        case _ => false
+      }
+      val lowerValues = lowers.flatMap(inequality => literalValue(inequality.rhs))
+      val upperValues = uppers.flatMap(inequality => literalValue(inequality.rhs))
+      if (lowerValues.size == lowers.size && upperValues.size == uppers.size && lowers.size <= 1 && uppers.size <= 1)
+        Some((lowerValues.headOption, upperValues.headOption))
+      else
+        None
+    }
+
     val labels: Set[LabelName] = selections.labelsOnNode(seekable.ident.name)
     val indexRangeSelectivities: Seq[Selectivity] = labels.toIndexedSeq.flatMap {
       labelName =>
         (semanticTable.id(labelName), semanticTable.id(seekable.expr.property.propertyKey)) match {
           case (Some(labelId), Some(propertyKeyId)) =>
             val descriptor = IndexDescriptor(labelId, Seq(propertyKeyId))
+            val histogramSelectivity = literalBounds.flatMap {
+              case (lower, upper) => stats.indexRangeSelectivity(descriptor, lower, upper)
+            }
 
             for {
               propertyExistsSelectivity <- stats.indexPropertyExistsSelectivity(descriptor)
               propEqValueSelectivity <- stats.uniqueValueSelectivity(descriptor)
             } yield {
-              val pNeq = propEqValueSelectivity.negate
-              val pNeqRange = pNeq.factor * DEFAULT_RANGE_SEEK_FACTOR / Math.min(seekable.expr.inequalities.size, 2)
-
-              val pRange = Selectivity(if (seekable.hasEquality) propEqValueSelectivity.factor + pNeqRange else pNeqRange)
-              val pRangeBounded = Selectivity(math.max(propEqValueSelectivity.factor, pRange.factor))
-              pRangeBounded * propertyExistsSelectivity
+              histogramSelectivity match {
+                case Some(pRange) =>
+                  pRange * propertyExistsSelectivity
+
+                case None =>
+                  val pNeq = propEqValueSelectivity.negate
+                  val pNeqRange = pNeq.factor * DEFAULT_RANGE_SEEK_FACTOR / Math.min(seekable.expr.inequalities.size, 2)
+
+                  val pRange = Selectivity(if (seekable.hasEquality) propEqValueSelectivity.factor + pNeqRange else pNeqRange)
+                  val pRangeBounded = Selectivity(math.max(propEqValueSelectivity.factor, pRange.factor))
+                  pRangeBounded * propertyExistsSelectivity
+              }
             }
 
           case _ =>
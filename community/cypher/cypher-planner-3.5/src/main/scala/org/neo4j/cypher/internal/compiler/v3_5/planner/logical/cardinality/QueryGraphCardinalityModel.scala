@@ -24,6 +24,6 @@ import org.neo4j.cypher.internal.compiler.v3_5.planner.logical.cardinality.assum
 import org.neo4j.cypher.internal.planner.v3_5.spi.GraphStatistics
 
 object QueryGraphCardinalityModel {
-  def default(statistics: GraphStatistics): QueryGraphCardinalityModel =
-    AssumeIndependenceQueryGraphCardinalityModel(statistics, IndependenceCombiner)
+  def default(statistics: GraphStatistics, parameterValues: Map[String, Any] = Map.empty): QueryGraphCardinalityModel =
+    AssumeIndependenceQueryGraphCardinalityModel(statistics, IndependenceCombiner, parameterValues)
 }
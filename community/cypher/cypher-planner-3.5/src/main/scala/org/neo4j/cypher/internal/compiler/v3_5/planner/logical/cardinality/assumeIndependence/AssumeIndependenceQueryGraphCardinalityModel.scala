@@ -27,11 +27,12 @@ import org.neo4j.cypher.internal.planner.v3_5.spi.GraphStatistics
 import org.neo4j.cypher.internal.v3_5.util.{Cardinality, Selectivity}
 import org.neo4j.cypher.internal.v3_5.expressions.LabelName
 
-case class AssumeIndependenceQueryGraphCardinalityModel(stats: GraphStatistics, combiner: SelectivityCombiner)
+case class AssumeIndependenceQueryGraphCardinalityModel(stats: GraphStatistics, combiner: SelectivityCombiner,
+                                                       parameterValues: Map[String, Any] = Map.empty)
   extends QueryGraphCardinalityModel {
   import AssumeIndependenceQueryGraphCardinalityModel.MAX_OPTIONAL_MATCH
 
-  override val expressionSelectivityCalculator = ExpressionSelectivityCalculator(stats, combiner)
+  override val expressionSelectivityCalculator = ExpressionSelectivityCalculator(stats, combiner, parameterValues)
   private val patternSelectivityCalculator = PatternSelectivityCalculator(stats, combiner)
 
   /**
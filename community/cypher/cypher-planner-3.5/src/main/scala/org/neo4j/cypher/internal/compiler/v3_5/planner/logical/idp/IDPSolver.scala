@@ -28,6 +28,7 @@ trait IDPSolverMonitor {
   def startIteration(iteration: Int)
   def endIteration(iteration: Int, depth: Int, tableSize: Int)
   def foundPlanAfter(iterations: Int)
+  def foundPlanIn(millis: Long)
 }
 
 /**
@@ -36,6 +37,10 @@ trait IDPSolverMonitor {
  *   "Iterative Dynamic Programming: A New Class of Query Optimization Algorithms"
  *
  * written by Donald Kossmann and Konrad Stocker
+ *
+ * The time left of the total duration limit is shared evenly among the remaining iterations, so that the larger the
+ * problem, the smaller the blocks that are solved before compacting. Once the time is used up, every iteration stops
+ * after blocks of size 2, which makes the rest of the search greedy.
  */
 class IDPSolver[Solvable, Result, Context](generator: IDPSolverStep[Solvable, Result, Context], // generates candidates at each step
                          projectingSelector: ProjectingSelector[Result], // pick best from a set of candidates
@@ -43,7 +48,8 @@ class IDPSolver[Solvable, Result, Context](generator: IDPSolverStep[Solvable, Re
                          tableFactory: (IdRegistry[Solvable], Seed[Solvable, Result]) => IDPTable[Result] = (registry: IdRegistry[Solvable], seed: Seed[Solvable, Result]) => IDPTable(registry, seed),
                          maxTableSize: Int, // limits computation effort, reducing result quality
                          iterationDurationLimit: Long, // limits computation effort, reducing result quality
-                         monitor: IDPSolverMonitor) {
+                         monitor: IDPSolverMonitor,
+                         totalDurationLimit: Long = Long.MaxValue) { // bounds computation effort of all iterations together
 
   def apply(seed: Seed[Solvable, Result], initialToDo: Set[Solvable], context: Context): Iterator[(Set[Solvable], Result)] = {
     val registry = registryFactory()
@@ -53,7 +59,7 @@ class IDPSolver[Solvable, Result, Context](generator: IDPSolverStep[Solvable, Re
     // utility functions
     val goalSelector: Selector[(Goal, Result)] = projectingSelector.apply[(Goal, Result)](_._2, _)
 
-    def generateBestCandidates(maxBlockSize: Int): Int = {
+    def generateBestCandidates(maxBlockSize: Int, durationLimit: Long): Int = {
       var largestFinishedIteration = 0
       var blockSize = 1
       var keepGoing = true
@@ -72,7 +78,7 @@ class IDPSolver[Solvable, Result, Context](generator: IDPSolverStep[Solvable, Re
               table.put(goal, candidate)
             }
             keepGoing = blockSize == 2 ||
-              (table.size <= maxTableSize && (System.currentTimeMillis() - start) < iterationDurationLimit)
+              (table.size <= maxTableSize && (System.currentTimeMillis() - start) < durationLimit)
           }
         }
         largestFinishedIteration = if (foundNoCandidate || goals.hasNext) largestFinishedIteration else blockSize
@@ -100,16 +106,21 @@ class IDPSolver[Solvable, Result, Context](generator: IDPSolverStep[Solvable, Re
     // actual algorithm
 
     var iterations = 0
+    val planningStart = System.currentTimeMillis()
 
     while (toDo.size > 1) {
       iterations += 1
       monitor.startIteration(iterations)
-      val largestBlockSize = generateBestCandidates(toDo.size)
+      // every iteration compacts at least two solvables into one
+      val timeLeft = Math.max(0, totalDurationLimit - (System.currentTimeMillis() - planningStart))
+      val durationLimit = Math.min(iterationDurationLimit, timeLeft / (toDo.size - 1))
+      val largestBlockSize = generateBestCandidates(toDo.size, durationLimit)
       val (bestGoal, bestInBlock) = findBestCandidateInBlock(largestBlockSize)
       monitor.endIteration(iterations, largestBlockSize, table.size)
       compactBlock(bestGoal, bestInBlock)
     }
     monitor.foundPlanAfter(iterations)
+    monitor.foundPlanIn(System.currentTimeMillis() - planningStart)
 
     table.plans.map { case (k, v) => registry.explode(k) -> v}
   }
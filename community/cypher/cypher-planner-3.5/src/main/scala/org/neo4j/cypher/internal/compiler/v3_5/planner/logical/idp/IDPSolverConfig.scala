@@ -29,6 +29,7 @@ import org.neo4j.cypher.internal.v3_5.logical.plans.LogicalPlan
 trait IDPSolverConfig {
   def maxTableSize: Int = 128
   def iterationDurationLimit: Long = 1000
+  def totalDurationLimit: Long = 10000
   def solvers(queryGraph: QueryGraph): Seq[QueryGraph => IDPSolverStep[PatternRelationship, LogicalPlan, LogicalPlanningContext]]
 }
 
@@ -36,6 +37,7 @@ trait IDPSolverConfig {
 case object DPSolverConfig extends IDPSolverConfig {
   override def maxTableSize = Integer.MAX_VALUE
   override def iterationDurationLimit = Long.MaxValue
+  override def totalDurationLimit = Long.MaxValue
   override def solvers(queryGraph: QueryGraph) = Seq(joinSolverStep(_), expandSolverStep(_))
 }
 
@@ -46,9 +48,11 @@ case object DefaultIDPSolverConfig extends IDPSolverConfig {
 }
 
 /* The default settings for IDP uses a maxTableSize and a inner loop duration threshold
-   to improve planning performance with minimal impact of plan quality */
+   to improve planning performance with minimal impact of plan quality. The total duration
+   threshold bounds the planning time of large patterns */
 class ConfigurableIDPSolverConfig(override val maxTableSize: Int,
-                                  override val iterationDurationLimit: Long) extends IDPSolverConfig {
+                                  override val iterationDurationLimit: Long,
+                                  override val totalDurationLimit: Long = Long.MaxValue) extends IDPSolverConfig {
   override def solvers(queryGraph: QueryGraph) = Seq(joinSolverStep(_), expandSolverStep(_))
 }
 
@@ -57,7 +57,8 @@ case class SingleComponentPlanner(monitor: IDPQueryGraphSolverMonitor,
           projectingSelector = kit.pickBest,
           maxTableSize = solverConfig.maxTableSize,
           iterationDurationLimit = solverConfig.iterationDurationLimit,
-          monitor = monitor
+          monitor = monitor,
+          totalDurationLimit = solverConfig.totalDurationLimit
         )
 
         monitor.initTableFor(qg)
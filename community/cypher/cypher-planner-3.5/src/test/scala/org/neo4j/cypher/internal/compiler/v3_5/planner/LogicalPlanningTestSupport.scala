@@ -68,8 +68,8 @@ trait LogicalPlanningTestSupport extends CypherTestSupport with AstConstructionT
       SimpleMetricsFactory.newCardinalityEstimator(queryGraphCardinalityModel, evaluator)
     def newCostModel(config: CypherPlannerConfiguration) =
       SimpleMetricsFactory.newCostModel(config)
-    def newQueryGraphCardinalityModel(statistics: GraphStatistics): QueryGraphCardinalityModel =
-      SimpleMetricsFactory.newQueryGraphCardinalityModel(statistics)
+    def newQueryGraphCardinalityModel(statistics: GraphStatistics, parameterValues: Map[String, Any]): QueryGraphCardinalityModel =
+      SimpleMetricsFactory.newQueryGraphCardinalityModel(statistics, parameterValues)
   }
 
   def newMockedQueryGraph = mock[QueryGraph]
@@ -230,13 +230,19 @@ trait LogicalPlanningTestSupport extends CypherTestSupport with AstConstructionT
     useErrorsOverWarnings = false,
     idpMaxTableSize = DefaultIDPSolverConfig.maxTableSize,
     idpIterationDuration = DefaultIDPSolverConfig.iterationDurationLimit,
+    idpTotalDuration = DefaultIDPSolverConfig.totalDurationLimit,
     errorIfShortestPathFallbackUsedAtRuntime = false,
     errorIfShortestPathHasCommonNodesAtRuntime = true,
     legacyCsvQuoteEscaping = false,
     csvBufferSize = Configuration.DEFAULT_BUFFER_SIZE_4MB,
+    csvReadAhead = false,
     nonIndexedLabelWarningThreshold = 10000,
     planWithMinimumCardinalityEstimates = true,
-    lenientCreateRelationship = false
+    lenientCreateRelationship = false,
+    spillThreshold = 0,
+    trackQueryMemory = false,
+    queryMaxMemory = 0,
+    queryGlobalMaxMemory = 0
   )
 
   def buildPlannerQuery(query: String, lookup: Option[QualifiedName => ProcedureSignature] = None) = {
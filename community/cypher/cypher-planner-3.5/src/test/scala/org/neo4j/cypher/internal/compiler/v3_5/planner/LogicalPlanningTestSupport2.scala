@@ -59,6 +59,7 @@ trait LogicalPlanningTestSupport2 extends CypherTestSupport with AstConstruction
   var parser = new CypherParser
   val rewriterSequencer: String => ValidatingRewriterStepSequencer = RewriterStepSequencer.newValidating
   var astRewriter = new ASTRewriter(rewriterSequencer, literalExtraction = Never, getDegreeRewriting = true)
+  var literalExtraction: LiteralExtraction = Never
   final var planner = QueryPlanner()
   var queryGraphSolver: QueryGraphSolver = createQueryGraphSolver()
   val cypherCompilerConfig = CypherPlannerConfiguration(
@@ -67,13 +68,19 @@ trait LogicalPlanningTestSupport2 extends CypherTestSupport with AstConstruction
     useErrorsOverWarnings = false,
     idpMaxTableSize = DefaultIDPSolverConfig.maxTableSize,
     idpIterationDuration = DefaultIDPSolverConfig.iterationDurationLimit,
+    idpTotalDuration = DefaultIDPSolverConfig.totalDurationLimit,
     errorIfShortestPathFallbackUsedAtRuntime = false,
     errorIfShortestPathHasCommonNodesAtRuntime = true,
     legacyCsvQuoteEscaping = false,
     csvBufferSize = Configuration.DEFAULT_BUFFER_SIZE_4MB,
+    csvReadAhead = false,
     nonIndexedLabelWarningThreshold = 10000,
     planWithMinimumCardinalityEstimates = true,
-    lenientCreateRelationship = false
+    lenientCreateRelationship = false,
+    spillThreshold = 0,
+    trackQueryMemory = false,
+    queryMaxMemory = 0,
+    queryGlobalMaxMemory = 0
   )
   val realConfig = RealLogicalPlanningConfiguration(cypherCompilerConfig)
 
@@ -91,7 +98,8 @@ trait LogicalPlanningTestSupport2 extends CypherTestSupport with AstConstruction
       def newCardinalityEstimator(queryGraphCardinalityModel: QueryGraphCardinalityModel, evaluator: ExpressionEvaluator): CardinalityModel =
         config.cardinalityModel(queryGraphCardinalityModel, mock[ExpressionEvaluator])
 
-      def newQueryGraphCardinalityModel(statistics: GraphStatistics): QueryGraphCardinalityModel = QueryGraphCardinalityModel.default(statistics)
+      def newQueryGraphCardinalityModel(statistics: GraphStatistics, parameterValues: Map[String, Any]): QueryGraphCardinalityModel =
+        QueryGraphCardinalityModel.default(statistics, parameterValues)
     }
 
     def table = Map.empty[PatternExpression, QueryGraph]
@@ -162,7 +170,7 @@ trait LogicalPlanningTestSupport2 extends CypherTestSupport with AstConstruction
       Parsing andThen
       PreparatoryRewriting(Deprecations.V1) andThen
       SemanticAnalysis(warn = true) andThen
-      AstRewriting(newPlain, literalExtraction = Never) andThen
+      AstRewriting(newPlain, literalExtraction = literalExtraction) andThen
       RewriteProcedureCalls andThen
       Namespacer andThen
       transitiveClosure andThen
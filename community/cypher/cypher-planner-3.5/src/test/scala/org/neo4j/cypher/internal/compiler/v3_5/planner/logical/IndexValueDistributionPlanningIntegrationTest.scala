@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v3_5.planner.logical
+
+import org.neo4j.cypher.internal.compiler.v3_5.planner.HardcodedGraphStatistics
+import org.neo4j.cypher.internal.compiler.v3_5.planner.LogicalPlanningTestSupport2
+import org.neo4j.cypher.internal.planner.v3_5.spi.DelegatingGraphStatistics
+import org.neo4j.cypher.internal.planner.v3_5.spi.IndexDescriptor
+import org.neo4j.cypher.internal.v3_5.expressions.Parameter
+import org.neo4j.cypher.internal.v3_5.rewriting.rewriters.IfNoParameter
+import org.neo4j.cypher.internal.v3_5.util.Foldable._
+import org.neo4j.cypher.internal.v3_5.util.Selectivity
+import org.neo4j.cypher.internal.v3_5.util.test_helpers.CypherFunSuite
+
+class IndexValueDistributionPlanningIntegrationTest extends CypherFunSuite with LogicalPlanningTestSupport2 {
+
+  // plan the queries the way they are planned for real, with their literals replaced by parameters
+  literalExtraction = IfNoParameter
+
+  private val skewedStatistics = new DelegatingGraphStatistics(HardcodedGraphStatistics) {
+    override def indexValueSelectivity(index: IndexDescriptor, value: Option[Any]): Option[Selectivity] = value match {
+      case Some("common") => Selectivity.of(0.9)
+      case Some(_) => Selectivity.of(0.001)
+      case None => Selectivity.of(0.01)
+    }
+
+    override def indexRangeSelectivity(index: IndexDescriptor, lower: Option[Any], upper: Option[Any]): Option[Selectivity] =
+      (lower, upper) match {
+        case (Some(10L), None) => Selectivity.of(0.8)
+        case (Some(1000L), None) => Selectivity.of(0.002)
+        case _ => None
+      }
+  }
+
+  test("should estimate equality on a literal from the distribution of index values") {
+    val common = estimatedRows("MATCH (n:Person) WHERE n.name = 'common' RETURN n")
+    val rare = estimatedRows("MATCH (n:Person) WHERE n.name = 'rare' RETURN n")
+
+    common should equal(rare * 900 +- common * 0.01)
+  }
+
+  test("should estimate range on a literal from the histogram of index values") {
+    val wide = estimatedRows("MATCH (n:Person) WHERE n.age > 10 RETURN n")
+    val narrow = estimatedRows("MATCH (n:Person) WHERE n.age > 1000 RETURN n")
+
+    wide should equal(narrow * 400 +- wide * 0.01)
+  }
+
+  private def estimatedRows(query: String): Double = {
+    val (_, plan, _, _, cardinalities) = new given {
+      indexOn("Person", "name")
+      indexOn("Person", "age")
+      statistics = skewedStatistics
+    } getLogicalPlanFor query
+
+    // the estimate must hold up for the plan that gets cached, where the literal is a parameter
+    plan.treeExists {
+      case Parameter(name, _) => name.startsWith("  AUTO")
+    } should be(true)
+    cardinalities.get(plan.id).amount
+  }
+}
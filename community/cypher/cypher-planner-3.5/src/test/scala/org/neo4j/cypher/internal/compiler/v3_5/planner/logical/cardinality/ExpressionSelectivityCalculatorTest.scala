@@ -40,6 +40,7 @@ import org.neo4j.cypher.internal.v3_5.expressions._
 import org.neo4j.cypher.internal.v3_5.expressions.functions.Distance
 import org.neo4j.cypher.internal.v3_5.expressions.functions.Exists
 import org.neo4j.cypher.internal.v3_5.util._
+import org.neo4j.cypher.internal.v3_5.util.symbols.CTAny
 import org.neo4j.cypher.internal.v3_5.util.test_helpers.CypherFunSuite
 
 class ExpressionSelectivityCalculatorTest extends CypherFunSuite with AstConstructionTestSupport {
@@ -195,6 +196,40 @@ class ExpressionSelectivityCalculatorTest extends CypherFunSuite with AstConstru
     )
   }
 
+  test("closed (> && <) range with one label and literal bounds uses the sampled histogram") {
+    val inequality = Predicate(Set("n"), AndedPropertyInequalities(varFor("n"), nProp, NonEmptyList(
+      GreaterThan(nProp, SignedDecimalIntegerLiteral("3") _) _,
+      LessThan(nProp, SignedDecimalIntegerLiteral("4") _) _
+    )))
+    val stats = mockStats()
+    when(stats.indexRangeSelectivity(indexPerson, Some(3L), Some(4L))).thenReturn(Some(Selectivity(0.25)))
+
+    val calculator = setUpCalculator(inequality, Seq(nIsPerson), stats)
+
+    val inequalityResult = calculator(inequality.expr)
+
+    inequalityResult.factor should equal(personPropSel * 0.25 +- 0.00000001)
+  }
+
+  test("range with one label and a non-literal bound ignores the sampled histogram") {
+    val inequality = Predicate(Set("n"), AndedPropertyInequalities(varFor("n"), nProp, NonEmptyList(
+      GreaterThan(nProp, Parameter("p", CTAny) _) _
+    )))
+    val stats = mockStats()
+    when(stats.indexRangeSelectivity(indexPerson, None, None)).thenReturn(Some(Selectivity(1.0)))
+
+    val calculator = setUpCalculator(inequality, Seq(nIsPerson), stats)
+
+    val inequalityResult = calculator(inequality.expr)
+
+    inequalityResult.factor should equal(
+      personPropSel
+        * (1 - indexPersonUniqueSel) // Selectivity for != x
+        * DEFAULT_RANGE_SEEK_FACTOR // Selectivity for range
+        +- 0.00000001
+    )
+  }
+
   test("three inequalityualities should be equal to two inequalityualities, one label") {
     val inequality = Predicate(Set("n"), AndedPropertyInequalities(varFor("n"), nProp, NonEmptyList(
       GreaterThan(nProp, SignedDecimalIntegerLiteral("3") _) _,
@@ -797,6 +832,18 @@ class ExpressionSelectivityCalculatorTest extends CypherFunSuite with AstConstru
     eqResult.factor should equal(0.2 * (1.0 / 180.0))
   }
 
+  test("equality with one label and a literal uses the sampled frequency of the value") {
+    val equals = Predicate(Set("n"), Equals(nProp, SignedDecimalIntegerLiteral("3") _) _)
+    val stats = mockStats()
+    when(stats.indexValueSelectivity(indexPerson, Some(3L))).thenReturn(Some(Selectivity(0.5)))
+
+    val calculator = setUpCalculator(equals, Seq(nIsPerson), stats)
+
+    val eqResult = calculator(equals.expr)
+
+    eqResult.factor should equal(0.2 * 0.5)
+  }
+
   test("equality with one label, size 2") {
     val equals = Predicate(Set("n"), In(nProp, listOf(SignedDecimalIntegerLiteral("3") _, SignedDecimalIntegerLiteral("4") _)) _)
 
@@ -998,6 +1045,9 @@ class ExpressionSelectivityCalculatorTest extends CypherFunSuite with AstConstru
       }
     })
 
+    when(stats.indexValueSelectivity(any(), any())).thenReturn(None)
+    when(stats.indexRangeSelectivity(any(), any(), any())).thenReturn(None)
+
     stats
   }
 }
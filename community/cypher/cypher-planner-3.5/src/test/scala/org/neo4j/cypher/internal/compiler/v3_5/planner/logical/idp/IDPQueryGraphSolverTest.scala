@@ -19,6 +19,7 @@
  */
 package org.neo4j.cypher.internal.compiler.v3_5.planner.logical.idp
 
+import org.mockito.ArgumentMatchers.anyLong
 import org.mockito.Mockito.{times, verify, verifyNoMoreInteractions}
 import org.neo4j.cypher.internal.compiler.v3_5.planner.LogicalPlanningTestSupport2
 import org.neo4j.cypher.internal.ir.v3_5._
@@ -122,6 +123,7 @@ class IDPQueryGraphSolverTest extends CypherFunSuite with LogicalPlanningTestSup
       verify(monitor).startConnectingComponents(cfg.qg)
       verify(monitor).endConnectingComponents(cfg.qg, plan)
       verify(monitor).foundPlanAfter(0)
+      verify(monitor).foundPlanIn(anyLong())
       verifyNoMoreInteractions(monitor)
     }
   }
@@ -159,6 +161,7 @@ class IDPQueryGraphSolverTest extends CypherFunSuite with LogicalPlanningTestSup
       verify(monitor).endConnectingComponents(cfg.qg, plan)
 
       verify(monitor).foundPlanAfter(0)
+      verify(monitor).foundPlanIn(anyLong())
 
       verifyNoMoreInteractions(monitor)
     }
@@ -204,6 +207,7 @@ class IDPQueryGraphSolverTest extends CypherFunSuite with LogicalPlanningTestSup
       verify(monitor).startIteration(1)
       verify(monitor).endIteration(1, 2, 3)
       verify(monitor).foundPlanAfter(1)
+      verify(monitor).foundPlanIn(anyLong())
 
       verifyNoMoreInteractions(monitor)
     }
@@ -254,6 +258,7 @@ class IDPQueryGraphSolverTest extends CypherFunSuite with LogicalPlanningTestSup
       verify(monitor).startIteration(1)
       verify(monitor).endIteration(1, 2, 3)
       verify(monitor).foundPlanAfter(1)
+      verify(monitor).foundPlanIn(anyLong())
 
       verifyNoMoreInteractions(monitor)
     }
@@ -281,6 +286,7 @@ class IDPQueryGraphSolverTest extends CypherFunSuite with LogicalPlanningTestSup
       verify(monitor).endConnectingComponents(cfg.qg, plan)
 
       verify(monitor).foundPlanAfter(0)
+      verify(monitor).foundPlanIn(anyLong())
 
       verifyNoMoreInteractions(monitor)
     }
@@ -319,6 +325,7 @@ class IDPQueryGraphSolverTest extends CypherFunSuite with LogicalPlanningTestSup
       verify(monitor).startIteration(1)
       verify(monitor).endIteration(1, 2, 3)
       verify(monitor).foundPlanAfter(1)
+      verify(monitor).foundPlanIn(anyLong())
 
       verifyNoMoreInteractions(monitor)
     }
@@ -386,6 +393,7 @@ class IDPQueryGraphSolverTest extends CypherFunSuite with LogicalPlanningTestSup
       verify(monitor).endConnectingComponents(cfg.qg, plan)
 
       verify(monitor).foundPlanAfter(0)
+      verify(monitor).foundPlanIn(anyLong())
 
       verifyNoMoreInteractions(monitor)
     }
@@ -430,6 +438,7 @@ class IDPQueryGraphSolverTest extends CypherFunSuite with LogicalPlanningTestSup
       verify(monitor).startIteration(1)
       verify(monitor).endIteration(1, 2, 3)
       verify(monitor).foundPlanAfter(1)
+      verify(monitor).foundPlanIn(anyLong())
 
       verifyNoMoreInteractions(monitor)
     }
@@ -457,6 +466,7 @@ class IDPQueryGraphSolverTest extends CypherFunSuite with LogicalPlanningTestSup
       verify(monitor).endConnectingComponents(cfg.qg, plan)
 
       verify(monitor).foundPlanAfter(0)
+      verify(monitor).foundPlanIn(anyLong())
 
       verifyNoMoreInteractions(monitor)
     }
@@ -699,6 +709,7 @@ class IDPQueryGraphSolverTest extends CypherFunSuite with LogicalPlanningTestSup
         verify(monitor).endIDPIterationFor(omQG, expandAtoB)
 
         verify(monitor, times(3)).foundPlanAfter(0) // 1 time here
+        verify(monitor, times(3)).foundPlanIn(anyLong())
 
         verify(monitor).startConnectingComponents(omQG)
         verify(monitor).endConnectingComponents(omQG, expandAtoB)
@@ -711,6 +722,7 @@ class IDPQueryGraphSolverTest extends CypherFunSuite with LogicalPlanningTestSup
         verify(monitor, times(2)).endIDPIterationFor(omQGWithoutArguments, expandAtoB2)
 
         verify(monitor, times(3)).foundPlanAfter(0) // 1 time here
+        verify(monitor, times(3)).foundPlanIn(anyLong())
 
         verify(monitor, times(2)).startConnectingComponents(omQGWithoutArguments)
         verify(monitor, times(2)).endConnectingComponents(omQGWithoutArguments, expandAtoB2)
@@ -811,6 +823,7 @@ class IDPQueryGraphSolverTest extends CypherFunSuite with LogicalPlanningTestSup
       verify(monitor).endConnectingComponents(cfg.qg, plan)
 
       verify(monitor).foundPlanAfter(0)
+      verify(monitor).foundPlanIn(anyLong())
 
       verifyNoMoreInteractions(monitor)
     }
@@ -19,6 +19,7 @@
  */
 package org.neo4j.cypher.internal.compiler.v3_5.planner.logical.idp
 
+import org.mockito.ArgumentMatchers.anyLong
 import org.mockito.Mockito.{spy, verify, verifyNoMoreInteractions}
 import org.neo4j.cypher.internal.compiler.v3_5.planner.logical.ProjectingSelector
 import org.neo4j.cypher.internal.v3_5.util.test_helpers.CypherFunSuite
@@ -99,6 +100,7 @@ class IDPSolverTest extends CypherFunSuite {
     verify(monitor).endIteration(6, 3, 6)
     verify(table).removeAllTracesOf(BitSet(6, 7, 12))
     verify(monitor).foundPlanAfter(6)
+    verify(monitor).foundPlanIn(anyLong())
     verifyNoMoreInteractions(monitor)
   }
 
@@ -110,6 +112,8 @@ class IDPSolverTest extends CypherFunSuite {
 
     override def foundPlanAfter(iterations: Int): Unit = foundPlanIteration = iterations
 
+    override def foundPlanIn(millis: Long): Unit = {}
+
     override def endIteration(iteration: Int, depth: Int, tableSize: Int): Unit = {}
   }
 
@@ -148,6 +152,25 @@ class IDPSolverTest extends CypherFunSuite {
     shortSolverIterations should be > longSolverIterations
   }
 
+  test("Compacts after every block of size 2 once the total time limit is used up") {
+    val monitor = TestIDPSolverMonitor()
+    val solver = new IDPSolver[Char, String, Unit](
+      monitor = monitor,
+      generator = stringAppendingSolverStep,
+      projectingSelector = firstLongest,
+      maxTableSize = Int.MaxValue,
+      iterationDurationLimit = Int.MaxValue,
+      totalDurationLimit = 0
+    )
+
+    val seed = ('a' to 'h').map(c => Set(c) -> c.toString)
+
+    val solution = solver(seed, ('a' to 'h').toSet, context)
+
+    solution.toList should equal(List(('a' to 'h').toSet -> "abcdefgh"))
+    monitor.foundPlanIteration should equal(7)
+  }
+
   private object firstLongest extends ProjectingSelector[String] {
     override def apply[X](projector: (X) => String, input: Iterable[X]): Option[X] = {
       val elements = input.iterator
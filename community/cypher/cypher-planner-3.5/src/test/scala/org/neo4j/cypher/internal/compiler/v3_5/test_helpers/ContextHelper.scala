@@ -46,6 +46,6 @@ object ContextHelper extends MockitoSugar {
              clock: Clock = Clock.systemUTC(),
              logicalPlanIdGen: IdGen = new SequentialIdGen()): PlannerContext = {
     new PlannerContext(exceptionCreator, tracer, notificationLogger, planContext,
-      monitors, metrics, config, queryGraphSolver, updateStrategy, debugOptions, clock, logicalPlanIdGen)
+      monitors, _ => metrics, config, queryGraphSolver, updateStrategy, debugOptions, clock, logicalPlanIdGen)
   }
 }
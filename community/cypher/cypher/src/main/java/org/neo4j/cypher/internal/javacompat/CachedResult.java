@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.javacompat;
+
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.neo4j.cypher.result.QueryResult;
+import org.neo4j.graphdb.ExecutionPlanDescription;
+import org.neo4j.graphdb.Notification;
+import org.neo4j.graphdb.QueryExecutionType;
+import org.neo4j.graphdb.QueryStatistics;
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.graphdb.Result;
+import org.neo4j.values.AnyValue;
+import org.neo4j.values.ValueMapper;
+
+import static java.lang.System.lineSeparator;
+
+/**
+ * Result replayed from an entry of the {@link QueryResultCache}. Records are kept as values, and only turned into
+ * objects when they are read through the {@link Result} API. A result that was too large to be cached continues with
+ * the records that remain in the result it was materialized from.
+ */
+class CachedResult implements Result, QueryResultProvider
+{
+    private static final String ITEM_SEPARATOR = ", ";
+    private final QueryResultCache.Entry entry;
+    private final ValueMapper<Object> valueMapper;
+    private final List<String> columns;
+    private final QueryResult remainder;
+    private boolean remainderHasMore;
+    private AnyValue[] pending;
+    private int cursor;
+
+    /**
+     * @param remainder result to read the records that follow the records of the entry from, or {@code null} if the
+     * entry holds all records.
+     */
+    CachedResult( QueryResultCache.Entry entry, ValueMapper<Object> valueMapper, QueryResult remainder )
+    {
+        this.entry = entry;
+        this.valueMapper = valueMapper;
+        this.columns = Arrays.asList( entry.fieldNames );
+        this.remainder = remainder;
+        this.remainderHasMore = remainder != null;
+    }
+
+    @Override
+    public QueryExecutionType getQueryExecutionType()
+    {
+        return entry.executionType;
+    }
+
+    @Override
+    public List<String> columns()
+    {
+        return columns;
+    }
+
+    @Override
+    public <T> ResourceIterator<T> columnAs( String name )
+    {
+        int column = columns.indexOf( name );
+        return new ResourceIterator<T>()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return CachedResult.this.hasNext();
+            }
+
+            @Override
+            @SuppressWarnings( "unchecked" )
+            public T next()
+            {
+                return (T) nextRow()[column].map( valueMapper );
+            }
+
+            @Override
+            public void close()
+            {
+                CachedResult.this.close();
+            }
+        };
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        if ( cursor < entry.rows.size() || pending != null )
+        {
+            return true;
+        }
+        if ( remainderHasMore )
+        {
+            remainderHasMore = remainder.accept( row ->
+            {
+                pending = row.fields().clone();
+                return true;
+            }, 1 );
+        }
+        return pending != null;
+    }
+
+    @Override
+    public Map<String,Object> next()
+    {
+        return asMap( nextRow() );
+    }
+
+    @Override
+    public void close()
+    {
+        cursor = entry.rows.size();
+        pending = null;
+        if ( remainderHasMore )
+        {
+            remainderHasMore = false;
+            remainder.close();
+        }
+    }
+
+    @Override
+    public QueryStatistics getQueryStatistics()
+    {
+        return entry.statistics;
+    }
+
+    @Override
+    public ExecutionPlanDescription getExecutionPlanDescription()
+    {
+        return entry.planDescription;
+    }
+
+    @Override
+    public String resultAsString()
+    {
+        StringBuilder builder = new StringBuilder();
+        builder.append( String.join( ITEM_SEPARATOR, columns ) );
+        while ( hasNext() )
+        {
+            builder.append( lineSeparator() );
+            Map<String,Object> row = next();
+            for ( int i = 0; i < columns.size(); i++ )
+            {
+                if ( i > 0 )
+                {
+                    builder.append( ITEM_SEPARATOR );
+                }
+                builder.append( row.get( columns.get( i ) ) );
+            }
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public void writeAsStringTo( PrintWriter writer )
+    {
+        writer.print( resultAsString() );
+    }
+
+    @Override
+    public void remove()
+    {
+        throw new UnsupportedOperationException( "Not supported" );
+    }
+
+    @Override
+    public Iterable<Notification> getNotifications()
+    {
+        return entry.notifications;
+    }
+
+    @Override
+    public <VisitationException extends Exception> void accept( ResultVisitor<VisitationException> visitor )
+            throws VisitationException
+    {
+        while ( hasNext() )
+        {
+            if ( !visitor.visit( new MapRow( next() ) ) )
+            {
+                break;
+            }
+        }
+    }
+
+    @Override
+    public QueryResult queryResult()
+    {
+        return new CachedQueryResult();
+    }
+
+    private AnyValue[] nextRow()
+    {
+        if ( !hasNext() )
+        {
+            throw new NoSuchElementException();
+        }
+        if ( cursor < entry.rows.size() )
+        {
+            return entry.rows.get( cursor++ );
+        }
+        AnyValue[] row = pending;
+        pending = null;
+        return row;
+    }
+
+    private Map<String,Object> asMap( AnyValue[] row )
+    {
+        Map<String,Object> map = new HashMap<>();
+        for ( int i = 0; i < row.length; i++ )
+        {
+            map.put( entry.fieldNames[i], row[i].map( valueMapper ) );
+        }
+        return map;
+    }
+
+    private class CachedQueryResult implements QueryResult
+    {
+        @Override
+        public String[] fieldNames()
+        {
+            return entry.fieldNames;
+        }
+
+        @Override
+        public <E extends Exception> void accept( QueryResultVisitor<E> visitor ) throws E
+        {
+            accept( visitor, Long.MAX_VALUE );
+        }
+
+        @Override
+        public <E extends Exception> boolean accept( QueryResultVisitor<E> visitor, long maxRecords ) throws E
+        {
+            long visited = 0;
+            for ( ; visited < maxRecords && (cursor < entry.rows.size() || pending != null); visited++ )
+            {
+                AnyValue[] row = nextRow();
+                if ( !visitor.visit( () -> row ) )
+                {
+                    CachedResult.this.close();
+                    return false;
+                }
+            }
+            if ( visited < maxRecords && remainderHasMore )
+            {
+                remainderHasMore = remainder.accept( visitor, maxRecords - visited );
+            }
+            return cursor < entry.rows.size() || pending != null || remainderHasMore;
+        }
+
+        @Override
+        public QueryExecutionType executionType()
+        {
+            return entry.executionType;
+        }
+
+        @Override
+        public QueryStatistics queryStatistics()
+        {
+            return entry.statistics;
+        }
+
+        @Override
+        public ExecutionPlanDescription executionPlanDescription()
+        {
+            return entry.planDescription;
+        }
+
+        @Override
+        public Iterable<Notification> getNotifications()
+        {
+            return entry.notifications;
+        }
+
+        @Override
+        public void close()
+        {
+            CachedResult.this.close();
+        }
+    }
+}
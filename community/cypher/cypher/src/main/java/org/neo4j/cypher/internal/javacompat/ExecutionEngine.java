@@ -20,23 +20,29 @@
 package org.neo4j.cypher.internal.javacompat;
 
 import java.time.Clock;
+import java.util.function.Supplier;
 
 import org.neo4j.cypher.CypherException;
 import org.neo4j.cypher.internal.CacheTracer;
 import org.neo4j.cypher.internal.CompilerFactory;
 import org.neo4j.cypher.internal.CypherConfiguration;
+import org.neo4j.cypher.internal.PreParsedQuery;
 import org.neo4j.cypher.internal.StringCacheMonitor;
 import org.neo4j.cypher.internal.tracing.CompilationTracer;
 import org.neo4j.cypher.internal.tracing.TimingCompilationTracer;
 import org.neo4j.graphdb.DependencyResolver;
 import org.neo4j.graphdb.Result;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.kernel.GraphDatabaseQueryService;
 import org.neo4j.kernel.impl.query.QueryExecution;
 import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.core.EmbeddedProxySPI;
 import org.neo4j.kernel.impl.query.QueryExecutionEngine;
+import org.neo4j.kernel.impl.query.PreparedQuery;
 import org.neo4j.kernel.impl.query.QueryExecutionKernelException;
 import org.neo4j.kernel.impl.query.ResultBuffer;
 import org.neo4j.kernel.impl.query.TransactionalContext;
+import org.neo4j.kernel.impl.transaction.log.TransactionIdStore;
 import org.neo4j.kernel.monitoring.Monitors;
 import org.neo4j.logging.LogProvider;
 import org.neo4j.values.virtual.MapValue;
@@ -51,6 +57,7 @@ import org.neo4j.values.virtual.MapValue;
 public class ExecutionEngine implements QueryExecutionEngine
 {
     private org.neo4j.cypher.internal.ExecutionEngine inner;
+    private final QueryResultCache resultCache;
 
     /**
      * Creates an execution engine around the give graph database
@@ -74,20 +81,20 @@ public class ExecutionEngine implements QueryExecutionEngine
                                                                compilerFactory,
                                                                logProvider,
                                                                Clock.systemUTC() );
+        int resultCacheSize = config.get( GraphDatabaseSettings.query_result_cache_size );
+        resultCache = resultCacheSize == 0 ? null : new QueryResultCache( resultCacheSize,
+                config.get( GraphDatabaseSettings.query_result_cache_max_rows ),
+                inner::isDeterministic,
+                resolver.provideDependency( TransactionIdStore.class ),
+                resolver.provideDependency( EmbeddedProxySPI.class ),
+                monitors.newMonitor( QueryResultCacheMonitor.class ) );
     }
 
     @Override
     public Result executeQuery( String query, MapValue parameters, TransactionalContext context )
             throws QueryExecutionKernelException
     {
-        try
-        {
-            return inner.execute( query, parameters, context, false );
-        }
-        catch ( CypherException e )
-        {
-            throw new QueryExecutionKernelException( e );
-        }
+        return executeQuery( query, parameters, context, () -> inner.execute( query, parameters, context, false ) );
     }
 
     @Override
@@ -110,9 +117,69 @@ public class ExecutionEngine implements QueryExecutionEngine
         return inner.isPeriodicCommit( query );
     }
 
+    @Override
+    public PreparedQuery prepareQuery( String query )
+    {
+        PreParsedQuery preParsedQuery = inner.prepare( query );
+        return new PreparedCypherQuery( preParsedQuery, inner.isPeriodicCommit( preParsedQuery ) );
+    }
+
+    @Override
+    public Result executeQuery( PreparedQuery query, MapValue parameters, TransactionalContext context )
+            throws QueryExecutionKernelException
+    {
+        if ( !(query instanceof PreparedCypherQuery) )
+        {
+            return executeQuery( query.queryText(), parameters, context );
+        }
+        PreParsedQuery preParsedQuery = ((PreparedCypherQuery) query).preParsedQuery;
+        return executeQuery( query.queryText(), parameters, context, () -> inner.execute( preParsedQuery, parameters, context ) );
+    }
+
+    private Result executeQuery( String query, MapValue parameters, TransactionalContext context, Supplier<Result> execution )
+            throws QueryExecutionKernelException
+    {
+        try
+        {
+            return resultCache == null ? execution.get() : resultCache.execute( query, parameters, context, execution );
+        }
+        catch ( CypherException e )
+        {
+            throw new QueryExecutionKernelException( e );
+        }
+    }
+
     @Override
     public long clearQueryCaches()
     {
+        if ( resultCache != null )
+        {
+            resultCache.clear();
+        }
         return inner.clearQueryCaches();
     }
+
+    private static class PreparedCypherQuery implements PreparedQuery
+    {
+        private final PreParsedQuery preParsedQuery;
+        private final boolean periodicCommit;
+
+        PreparedCypherQuery( PreParsedQuery preParsedQuery, boolean periodicCommit )
+        {
+            this.preParsedQuery = preParsedQuery;
+            this.periodicCommit = periodicCommit;
+        }
+
+        @Override
+        public String queryText()
+        {
+            return preParsedQuery.rawStatement();
+        }
+
+        @Override
+        public boolean isPeriodicCommit()
+        {
+            return periodicCommit;
+        }
+    }
 }
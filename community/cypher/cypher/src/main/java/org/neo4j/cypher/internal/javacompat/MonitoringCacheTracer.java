@@ -61,6 +61,12 @@ public class MonitoringCacheTracer implements CacheTracer<Pair<String,scala.coll
         monitor.cacheDiscard( queryKey, metaData, secondsSincePlan );
     }
 
+    @Override
+    public void queryCacheBackgroundReplan( Pair<String,scala.collection.immutable.Map<String, Class<?>>> queryKey, long replanMillis, String metaData )
+    {
+        monitor.cacheBackgroundReplan( queryKey, replanMillis );
+    }
+
     @Override
     public void queryCacheFlush( long sizeOfCacheBeforeFlush )
     {
@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.javacompat;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.neo4j.cypher.result.QueryResult;
+import org.neo4j.graphdb.ExecutionPlanDescription;
+import org.neo4j.graphdb.Notification;
+import org.neo4j.graphdb.QueryExecutionType;
+import org.neo4j.graphdb.QueryStatistics;
+import org.neo4j.graphdb.Result;
+import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.impl.core.EmbeddedProxySPI;
+import org.neo4j.kernel.impl.query.TransactionalContext;
+import org.neo4j.kernel.impl.transaction.log.TransactionIdStore;
+import org.neo4j.kernel.impl.util.DefaultValueMapper;
+import org.neo4j.values.AnyValue;
+import org.neo4j.values.virtual.MapValue;
+
+import static org.neo4j.graphdb.QueryExecutionType.QueryType.READ_ONLY;
+
+/**
+ * Caches the results of read-only queries, keyed by query text, parameters and user, so that repeated reads skip
+ * execution entirely. An entry is only served as long as no transaction has been committed since it was produced, and
+ * only to transactions that haven't written anything themselves, which both see exactly the committed state the
+ * entry was produced from. Queries that may produce a different result from the same state, because they call
+ * procedures, non-deterministic or user-defined functions, or load CSV, are never cached.
+ * <p>
+ * Results are materialized before they are returned, up to {@code maxRows} records. Queries whose results have more
+ * records than that stream the rest of their records from where materialization stopped, and are remembered as too
+ * large to cache, so they stream as usual from then on.
+ */
+class QueryResultCache
+{
+    private static final long NO_STABLE_TRANSACTION = -1;
+    private static final Entry TOO_LARGE = new Entry( NO_STABLE_TRANSACTION, null, null, null, null, null, null );
+
+    private final Cache<Key,Entry> cache;
+    private final Cache<String,Boolean> deterministicQueries;
+    private final Predicate<String> deterministic;
+    private final int maxRows;
+    private final Supplier<TransactionIdStore> transactionIdStore;
+    private final Supplier<EmbeddedProxySPI> proxySpi;
+    private final QueryResultCacheMonitor monitor;
+
+    QueryResultCache( int size, int maxRows, Predicate<String> deterministic, Supplier<TransactionIdStore> transactionIdStore,
+            Supplier<EmbeddedProxySPI> proxySpi, QueryResultCacheMonitor monitor )
+    {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize( size )
+                .executor( Runnable::run )
+                .removalListener( ( Key key, Entry entry, RemovalCause cause ) ->
+                {
+                    if ( cause == RemovalCause.SIZE )
+                    {
+                        monitor.cacheEviction();
+                    }
+                } )
+                .build();
+        this.deterministicQueries = Caffeine.newBuilder().maximumSize( size ).executor( Runnable::run ).build();
+        this.deterministic = deterministic;
+        this.maxRows = maxRows;
+        this.transactionIdStore = transactionIdStore;
+        this.proxySpi = proxySpi;
+        this.monitor = monitor;
+    }
+
+    /**
+     * Returns the cached result of the query if there is a valid one, otherwise executes the query and caches its result
+     * if it can be cached.
+     */
+    Result execute( String query, MapValue parameters, TransactionalContext context, Supplier<Result> execution )
+    {
+        KernelTransaction transaction = context.kernelTransaction();
+        long transactionId = stableTransactionId();
+        if ( transaction.hasTxStateWithChanges() || transactionId == NO_STABLE_TRANSACTION )
+        {
+            return execution.get();
+        }
+
+        Key key = new Key( query, parameters, context.securityContext().subject().username() );
+        Entry entry = cache.getIfPresent( key );
+        if ( entry == TOO_LARGE || entry == null && !isDeterministic( query ) )
+        {
+            return execution.get();
+        }
+        if ( entry != null && entry.transactionId == transactionId )
+        {
+            monitor.cacheHit();
+            // like for EXPLAIN, nothing is executed, so the query is done right away
+            context.close( true );
+            return new CachedResult( entry, new DefaultValueMapper( proxySpi.get() ), null );
+        }
+        monitor.cacheMiss();
+
+        Result result = execution.get();
+        QueryExecutionType executionType = result.getQueryExecutionType();
+        if ( !(result instanceof QueryResultProvider) || executionType.queryType() != READ_ONLY ||
+             executionType.requestedExecutionPlanDescription() )
+        {
+            return result;
+        }
+
+        QueryResult queryResult = ((QueryResultProvider) result).queryResult();
+        List<AnyValue[]> rows = new ArrayList<>();
+        // one record more than can be cached tells a result that is too large, which then streams on from there
+        boolean hasMore = queryResult.accept( row ->
+        {
+            rows.add( row.fields().clone() );
+            return true;
+        }, maxRows + 1L );
+        entry = entry( queryResult, rows, transactionId );
+        if ( rows.size() > maxRows )
+        {
+            cache.put( key, TOO_LARGE );
+            return new CachedResult( entry, new DefaultValueMapper( proxySpi.get() ), hasMore ? queryResult : null );
+        }
+        if ( stableTransactionId() == transactionId )
+        {
+            cache.put( key, entry );
+        }
+        return new CachedResult( entry, new DefaultValueMapper( proxySpi.get() ), null );
+    }
+
+    long size()
+    {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    void clear()
+    {
+        cache.invalidateAll();
+        deterministicQueries.invalidateAll();
+    }
+
+    private boolean isDeterministic( String query )
+    {
+        return deterministicQueries.get( query, deterministic::test );
+    }
+
+    /**
+     * @return the id of the last committed transaction if all committed transactions have been applied, so that the
+     * store is in the state of that transaction, otherwise {@link #NO_STABLE_TRANSACTION}.
+     */
+    private long stableTransactionId()
+    {
+        TransactionIdStore store = transactionIdStore.get();
+        long lastCommitted = store.getLastCommittedTransactionId();
+        return store.getLastClosedTransactionId() == lastCommitted ? lastCommitted : NO_STABLE_TRANSACTION;
+    }
+
+    private static Entry entry( QueryResult result, List<AnyValue[]> rows, long transactionId )
+    {
+        List<Notification> notifications = new ArrayList<>();
+        result.getNotifications().forEach( notifications::add );
+        return new Entry( transactionId, result.fieldNames(), rows, result.executionType(), result.queryStatistics(),
+                result.executionPlanDescription(), notifications );
+    }
+
+    private static class Key
+    {
+        private final String query;
+        private final MapValue parameters;
+        private final String user;
+        private final int hashCode;
+
+        Key( String query, MapValue parameters, String user )
+        {
+            this.query = query;
+            this.parameters = parameters;
+            this.user = user;
+            this.hashCode = Objects.hash( query, parameters, user );
+        }
+
+        @Override
+        public boolean equals( Object o )
+        {
+            if ( this == o )
+            {
+                return true;
+            }
+            if ( o == null || getClass() != o.getClass() )
+            {
+                return false;
+            }
+            Key key = (Key) o;
+            return query.equals( key.query ) && user.equals( key.user ) && parameters.equals( key.parameters );
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hashCode;
+        }
+    }
+
+    static class Entry
+    {
+        final long transactionId;
+        final String[] fieldNames;
+        final List<AnyValue[]> rows;
+        final QueryExecutionType executionType;
+        final QueryStatistics statistics;
+        final ExecutionPlanDescription planDescription;
+        final List<Notification> notifications;
+
+        Entry( long transactionId, String[] fieldNames, List<AnyValue[]> rows, QueryExecutionType executionType, QueryStatistics statistics,
+                ExecutionPlanDescription planDescription, List<Notification> notifications )
+        {
+            this.transactionId = transactionId;
+            this.fieldNames = fieldNames;
+            this.rows = rows;
+            this.executionType = executionType;
+            this.statistics = statistics;
+            this.planDescription = planDescription;
+            this.notifications = notifications;
+        }
+    }
+}
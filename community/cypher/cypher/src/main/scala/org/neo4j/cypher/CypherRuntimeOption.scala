@@ -28,6 +28,7 @@ case object CypherRuntimeOption extends CypherOptionCompanion[CypherRuntimeOptio
   case object slotted extends CypherRuntimeOption("slotted")
   case object morsel extends CypherRuntimeOption("morsel")
   case object compiled extends CypherRuntimeOption("compiled")
+  case object parallel extends CypherRuntimeOption("parallel")
 
-  val all: Set[CypherRuntimeOption] = Set(interpreted, compiled, slotted, morsel)
+  val all: Set[CypherRuntimeOption] = Set(interpreted, compiled, slotted, morsel, parallel)
 }
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher
+
+import java.util.concurrent.atomic.AtomicLongArray
+
+import org.neo4j.cypher.internal.compiler.v3_5.planner.logical.idp.IDPQueryGraphSolverMonitor
+import org.neo4j.cypher.internal.ir.v3_5.QueryGraph
+import org.neo4j.cypher.internal.v3_5.logical.plans.LogicalPlan
+
+/**
+  * Histogram of the time spent in IDP planning of connected components, in buckets with the given upper bounds in
+  * milliseconds. Times above the largest bound are counted in a last, unbounded bucket.
+  */
+class IDPPlanningTimeMonitor(val upperBoundsMillis: Seq[Long] = IDPPlanningTimeMonitor.DEFAULT_UPPER_BOUNDS_MILLIS)
+  extends IDPQueryGraphSolverMonitor {
+
+  private val counts = new AtomicLongArray(upperBoundsMillis.size + 1)
+
+  override def foundPlanIn(millis: Long): Unit = {
+    val bucket = upperBoundsMillis.indexWhere(millis <= _)
+    counts.incrementAndGet(if (bucket == -1) upperBoundsMillis.size else bucket)
+  }
+
+  /**
+    * @return the number of plans found in each bucket, with the bucket for times above the largest bound last.
+    */
+  def histogram: Seq[Long] = (0 until counts.length()).map(counts.get)
+
+  override def foundPlanAfter(iterations: Int): Unit = {}
+  override def startIteration(iteration: Int): Unit = {}
+  override def endIteration(iteration: Int, depth: Int, tableSize: Int): Unit = {}
+  override def noIDPIterationFor(graph: QueryGraph, result: LogicalPlan): Unit = {}
+  override def initTableFor(graph: QueryGraph): Unit = {}
+  override def startIDPIterationFor(graph: QueryGraph): Unit = {}
+  override def endIDPIterationFor(graph: QueryGraph, result: LogicalPlan): Unit = {}
+  override def emptyComponentPlanned(graph: QueryGraph, plan: LogicalPlan): Unit = {}
+  override def startConnectingComponents(graph: QueryGraph): Unit = {}
+  override def endConnectingComponents(graph: QueryGraph, result: LogicalPlan): Unit = {}
+}
+
+object IDPPlanningTimeMonitor {
+  val DEFAULT_UPPER_BOUNDS_MILLIS: Seq[Long] = Seq(1, 10, 100, 1000, 10000)
+}
@@ -28,13 +28,24 @@ import org.neo4j.helpers.collection.Pair
 class PlanCacheMetricsMonitor extends StringCacheMonitor {
   private val counter = new AtomicLong()
   private val waitTime = new AtomicLong()
+  private val backgroundReplans = new AtomicLong()
+  private val backgroundReplanTime = new AtomicLong()
 
   override def cacheDiscard(ignored1: Pair[String, ParameterTypeMap], ignored2: String, secondsSinceReplan: Int): Unit = {
     counter.incrementAndGet()
     waitTime.addAndGet(secondsSinceReplan)
   }
 
+  override def cacheBackgroundReplan(ignored: Pair[String, ParameterTypeMap], replanMillis: Long): Unit = {
+    backgroundReplans.incrementAndGet()
+    backgroundReplanTime.addAndGet(replanMillis)
+  }
+
   def numberOfReplans: Long = counter.get()
 
   def replanWaitTime: Long = waitTime.get()
+
+  def numberOfBackgroundReplans: Long = backgroundReplans.get()
+
+  def backgroundReplanTimeMillis: Long = backgroundReplanTime.get()
 }
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher
+
+import java.util.concurrent.atomic.AtomicLong
+
+import org.neo4j.cypher.internal.javacompat.QueryResultCacheMonitor
+
+class QueryResultCacheMetricsMonitor extends QueryResultCacheMonitor {
+  private val hits = new AtomicLong()
+  private val misses = new AtomicLong()
+  private val evictions = new AtomicLong()
+
+  override def cacheHit(): Unit = hits.incrementAndGet()
+
+  override def cacheMiss(): Unit = misses.incrementAndGet()
+
+  override def cacheEviction(): Unit = evictions.incrementAndGet()
+
+  def numberOfHits: Long = hits.get()
+
+  def numberOfMisses: Long = misses.get()
+
+  def numberOfEvictions: Long = evictions.get()
+
+  def hitRatio: Double = {
+    val hitCount = numberOfHits
+    val total = hitCount + numberOfMisses
+    if (total == 0) 0.0 else hitCount.toDouble / total
+  }
+}
@@ -26,11 +26,13 @@ import org.neo4j.cypher.internal.compatibility.v3_5.Cypher35Planner
 import org.neo4j.cypher.internal.compatibility._
 import org.neo4j.cypher.internal.compiler.v3_5.CypherPlannerConfiguration
 import org.neo4j.cypher.internal.runtime.interpreted.LastCommittedTxIdProvider
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.parallel.ParallelWorkers
 import org.neo4j.cypher.{CypherPlannerOption, CypherRuntimeOption, CypherUpdateStrategy, CypherVersion}
 import org.neo4j.helpers.Clock
 import org.neo4j.kernel.GraphDatabaseQueryService
 import org.neo4j.kernel.monitoring.{Monitors => KernelMonitors}
 import org.neo4j.logging.{Log, LogProvider}
+import org.neo4j.scheduler.JobScheduler
 import org.neo4j.cypher.internal.v3_5.util.InvalidArgumentException
 
 /**
@@ -45,6 +47,10 @@ class CommunityCompilerFactory(graph: GraphDatabaseQueryService,
 
   private val log: Log = logProvider.getLog(getClass)
 
+  // Shared by all compilers of the database, so that parallel queries together never use more than these threads
+  private lazy val parallelWorkers = ParallelWorkers(graph.getDependencyResolver.resolveDependency(classOf[JobScheduler]),
+                                                     ParallelRuntime.threads(runtimeConfig.workers))
+
   override def createCompiler(cypherVersion: CypherVersion,
                               cypherPlanner: CypherPlannerOption,
                               cypherRuntime: CypherRuntimeOption,
@@ -74,7 +80,8 @@ class CommunityCompilerFactory(graph: GraphDatabaseQueryService,
         CypherCurrentCompiler(
           Cypher34Planner(plannerConfig, MasterCompiler.CLOCK, kernelMonitors, log,
             cypherPlanner, cypherUpdateStrategy, LastCommittedTxIdProvider(graph)),
-          CommunityRuntimeFactory.getRuntime(cypherRuntime, plannerConfig.useErrorsOverWarnings),
+          CommunityRuntimeFactory.getRuntime(cypherRuntime, plannerConfig.useErrorsOverWarnings, runtimeConfig,
+            parallelWorkers),
           CommunityRuntimeContextCreator(log, plannerConfig),
           kernelMonitors
         )
@@ -84,7 +91,8 @@ class CommunityCompilerFactory(graph: GraphDatabaseQueryService,
         CypherCurrentCompiler(
           Cypher35Planner(plannerConfig, MasterCompiler.CLOCK, kernelMonitors, log,
                           cypherPlanner, cypherUpdateStrategy, LastCommittedTxIdProvider(graph)),
-          CommunityRuntimeFactory.getRuntime(cypherRuntime, plannerConfig.useErrorsOverWarnings),
+          CommunityRuntimeFactory.getRuntime(cypherRuntime, plannerConfig.useErrorsOverWarnings, runtimeConfig,
+            parallelWorkers),
           CommunityRuntimeContextCreator(log, plannerConfig),
           kernelMonitors
         )
@@ -20,6 +20,7 @@
 package org.neo4j.cypher.internal
 
 import org.neo4j.cypher.internal.compatibility._
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.parallel.ParallelWorkers
 import org.neo4j.cypher.{CypherRuntimeOption, InvalidArgumentException}
 
 object CommunityRuntimeFactory {
@@ -27,12 +28,19 @@ object CommunityRuntimeFactory {
   val interpreted = new FallbackRuntime[RuntimeContext](List(ProcedureCallOrSchemaCommandRuntime, InterpretedRuntime), CypherRuntimeOption.interpreted)
   val default = new FallbackRuntime[RuntimeContext](List(ProcedureCallOrSchemaCommandRuntime, InterpretedRuntime), CypherRuntimeOption.default)
 
-  def getRuntime(cypherRuntime: CypherRuntimeOption, disallowFallback: Boolean): CypherRuntime[RuntimeContext] =
+  def getRuntime(cypherRuntime: CypherRuntimeOption,
+                 disallowFallback: Boolean,
+                 runtimeConfig: CypherRuntimeConfiguration,
+                 parallelWorkers: => ParallelWorkers): CypherRuntime[RuntimeContext] =
     cypherRuntime match {
       case CypherRuntimeOption.interpreted => interpreted
 
       case CypherRuntimeOption.default => default
 
+      case CypherRuntimeOption.parallel =>
+        val parallel = new ParallelRuntime(runtimeConfig.workers, runtimeConfig.morselSize, parallelWorkers)
+        new FallbackRuntime[RuntimeContext](List(ProcedureCallOrSchemaCommandRuntime, parallel, InterpretedRuntime), CypherRuntimeOption.parallel)
+
       case unsupported if disallowFallback =>
         throw new InvalidArgumentException(s"This version of Neo4j does not support requested runtime: $unsupported")
 
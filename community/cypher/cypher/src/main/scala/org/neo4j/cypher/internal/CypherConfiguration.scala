@@ -19,6 +19,7 @@
  */
 package org.neo4j.cypher.internal
 
+import java.io.File
 import java.util.concurrent.TimeUnit
 
 import org.neo4j.cypher.internal.compatibility.CypherRuntimeConfiguration
@@ -43,10 +44,12 @@ object CypherConfiguration {
       config.get(GraphDatabaseSettings.cypher_hints_error),
       config.get(GraphDatabaseSettings.cypher_idp_solver_table_threshold).toInt,
       config.get(GraphDatabaseSettings.cypher_idp_solver_duration_threshold).toLong,
+      config.get(GraphDatabaseSettings.cypher_idp_solver_total_duration_threshold).toLong,
       config.get(GraphDatabaseSettings.forbid_exhaustive_shortestpath),
       config.get(GraphDatabaseSettings.forbid_shortestpath_common_nodes),
       config.get(GraphDatabaseSettings.csv_legacy_quote_escaping),
       config.get(GraphDatabaseSettings.csv_buffer_size),
+      config.get(GraphDatabaseSettings.csv_read_ahead),
       config.get(GraphDatabaseSettings.cypher_plan_with_minimum_cardinality_estimates),
       CypherExpressionEngineOption(config.get(GraphDatabaseSettings.cypher_expression_engine)),
       config.get(GraphDatabaseSettings.cypher_lenient_create_relationship),
@@ -54,7 +57,15 @@ object CypherConfiguration {
       config.get(GraphDatabaseSettings.cypher_morsel_size),
       config.get(GraphDatabaseSettings.enable_morsel_runtime_trace),
       config.get(GraphDatabaseSettings.cypher_task_wait),
-      config.get(GraphDatabaseSettings.cypher_expression_recompilation_limit)
+      config.get(GraphDatabaseSettings.cypher_expression_recompilation_limit),
+      config.get(GraphDatabaseSettings.cypher_spill_threshold),
+      config.get(GraphDatabaseSettings.track_query_memory),
+      config.get(GraphDatabaseSettings.cypher_query_max_memory),
+      config.get(GraphDatabaseSettings.cypher_query_global_max_memory),
+      config.get(GraphDatabaseSettings.query_cache_warmup),
+      config.get(GraphDatabaseSettings.query_cache_warmup_file),
+      config.get(GraphDatabaseSettings.query_cache_warmup_export_interval).toMillis,
+      config.get(GraphDatabaseSettings.cypher_replan_in_background)
     )
   }
 
@@ -80,10 +91,12 @@ case class CypherConfiguration(version: CypherVersion,
                                useErrorsOverWarnings: Boolean,
                                idpMaxTableSize: Int,
                                idpIterationDuration: Long,
+                               idpTotalDuration: Long,
                                errorIfShortestPathFallbackUsedAtRuntime: Boolean,
                                errorIfShortestPathHasCommonNodesAtRuntime: Boolean,
                                legacyCsvQuoteEscaping: Boolean,
                                csvBufferSize: Int,
+                               csvReadAhead: Boolean,
                                planWithMinimumCardinalityEstimates: Boolean,
                                expressionEngineOption: CypherExpressionEngineOption,
                                lenientCreateRelationship: Boolean,
@@ -91,7 +104,15 @@ case class CypherConfiguration(version: CypherVersion,
                                morselSize: Int,
                                doSchedulerTracing: Boolean,
                                waitTimeout: Int,
-                               recompilationLimit: Int) {
+                               recompilationLimit: Int,
+                               spillThreshold: Long,
+                               trackQueryMemory: Boolean,
+                               queryMaxMemory: Long,
+                               queryGlobalMaxMemory: Long,
+                               queryCacheWarmup: Boolean,
+                               queryCacheWarmupFile: File,
+                               queryCacheWarmupExportInterval: Long,
+                               replanInBackground: Boolean) {
 
   def toCypherRuntimeConfiguration: CypherRuntimeConfiguration =
     CypherRuntimeConfiguration(
@@ -108,12 +129,18 @@ case class CypherConfiguration(version: CypherVersion,
       useErrorsOverWarnings = useErrorsOverWarnings,
       idpMaxTableSize = idpMaxTableSize,
       idpIterationDuration = idpIterationDuration,
+      idpTotalDuration = idpTotalDuration,
       errorIfShortestPathFallbackUsedAtRuntime = errorIfShortestPathFallbackUsedAtRuntime,
       errorIfShortestPathHasCommonNodesAtRuntime = errorIfShortestPathHasCommonNodesAtRuntime,
       legacyCsvQuoteEscaping = legacyCsvQuoteEscaping,
       csvBufferSize = csvBufferSize,
+      csvReadAhead = csvReadAhead,
       nonIndexedLabelWarningThreshold = config.get(GraphDatabaseSettings.query_non_indexed_label_warning_threshold).longValue(),
       planWithMinimumCardinalityEstimates = planWithMinimumCardinalityEstimates,
-      lenientCreateRelationship = lenientCreateRelationship
+      lenientCreateRelationship = lenientCreateRelationship,
+      spillThreshold = spillThreshold,
+      trackQueryMemory = trackQueryMemory,
+      queryMaxMemory = queryMaxMemory,
+      queryGlobalMaxMemory = queryGlobalMaxMemory
     )
 }
@@ -19,7 +19,10 @@
  */
 package org.neo4j.cypher.internal
 
+import java.io.IOException
 import java.time.Clock
+import java.util.concurrent.Executor
+import java.util.concurrent.TimeUnit.MILLISECONDS
 import java.util.function.Supplier
 
 import org.neo4j.cypher.internal.QueryCache.ParameterTypeMap
@@ -27,13 +30,25 @@ import org.neo4j.cypher.internal.compatibility.CypherCacheMonitor
 import org.neo4j.cypher.internal.runtime.interpreted.LastCommittedTxIdProvider
 import org.neo4j.cypher.internal.tracing.CompilationTracer
 import org.neo4j.cypher.internal.tracing.CompilationTracer.QueryCompilationEvent
-import org.neo4j.cypher.{CypherExecutionMode, CypherExpressionEngineOption, ParameterNotFoundException, exceptionHandler}
+import org.neo4j.cypher.internal.v3_5.ast.{LoadCSV, UnresolvedCall}
+import org.neo4j.cypher.internal.v3_5.expressions.FunctionInvocation
+import org.neo4j.cypher.internal.v3_5.expressions.functions.{Rand, UnresolvedFunction}
+import org.neo4j.cypher.internal.v3_5.parser.CypherParser
+import org.neo4j.cypher.internal.v3_5.util.Foldable._
+import org.neo4j.cypher.internal.v3_5.util.{SyntaxException => InternalSyntaxException}
+import org.neo4j.cypher.{CypherException, CypherExecutionMode, CypherExpressionEngineOption, IDPPlanningTimeMonitor, ParameterNotFoundException, exceptionHandler}
 import org.neo4j.graphdb.Result
 import org.neo4j.helpers.collection.Pair
 import org.neo4j.internal.kernel.api.security.AccessMode
+import org.neo4j.internal.kernel.api.security.LoginContext.AUTH_DISABLED
 import org.neo4j.kernel.GraphDatabaseQueryService
-import org.neo4j.kernel.impl.query.TransactionalContext
+import org.neo4j.kernel.api.KernelTransaction
+import org.neo4j.kernel.availability.DatabaseAvailabilityGuard
+import org.neo4j.kernel.impl.coreapi.PropertyContainerLocker
+import org.neo4j.kernel.impl.query.clientconnection.ClientConnectionInfo
+import org.neo4j.kernel.impl.query.{Neo4jTransactionalContextFactory, TransactionalContext}
 import org.neo4j.kernel.monitoring.Monitors
+import org.neo4j.scheduler.{Group, JobScheduler}
 import org.neo4j.logging.LogProvider
 import org.neo4j.values.virtual.MapValue
 
@@ -70,18 +85,31 @@ class ExecutionEngine(val queryService: GraphDatabaseQueryService,
     }
   })
 
+  // Histogram of the time spent in IDP planning by the compilers of this engine
+  val idpPlanningTimes = new IDPPlanningTimeMonitor
+  kernelMonitors.addMonitorListener(idpPlanningTimes)
+
   private val planStalenessCaller =
     new PlanStalenessCaller[ExecutableQuery](clock,
                                              config.statsDivergenceCalculator,
                                              lastCommittedTxIdProvider,
                                              planReusabilitiy)
   private val queryCache: QueryCache[String,Pair[String, ParameterTypeMap], ExecutableQuery] =
-    new QueryCache[String, Pair[String, ParameterTypeMap], ExecutableQuery](config.queryCacheSize, planStalenessCaller, cacheTracer)
+    new QueryCache[String, Pair[String, ParameterTypeMap], ExecutableQuery](config.queryCacheSize, planStalenessCaller, cacheTracer,
+                                                                            replanExecutor)
+
+  private def replanExecutor: Option[Executor] =
+    if (config.replanInBackground)
+      Some(queryService.getDependencyResolver.resolveDependency(classOf[JobScheduler]).executor(Group.CYPHER_REPLAN))
+    else None
 
   private val masterCompiler: MasterCompiler = new MasterCompiler(config, new CompilerLibrary(compatibilityFactory))
 
   private val schemaHelper = new SchemaHelper(queryCache)
 
+  if (config.queryCacheWarmup && config.queryCacheSize > 0)
+    scheduleQueryCacheWarmup()
+
   // ACTUAL FUNCTIONALITY
 
   def profile(query: String, params: MapValue, context: TransactionalContext): Result =
@@ -91,15 +119,26 @@ class ExecutionEngine(val queryService: GraphDatabaseQueryService,
     val queryTracer = tracer.compileQuery(query)
 
     try {
-      val preParsedQuery = preParser.preParseQuery(query, profile)
-      val executableQuery = getOrCompile(context, preParsedQuery, queryTracer, params)
-      if (preParsedQuery.executionMode.name != "explain") {
-        checkParameters(executableQuery.paramNames, params, executableQuery.extractedParams)
-      }
-      val combinedParams = params.updatedWith(executableQuery.extractedParams)
-      context.executingQuery().compilationCompleted(executableQuery.compilerInfo, supplier(executableQuery.planDescription()))
-      executableQuery.execute(context, preParsedQuery, combinedParams)
+      executePreParsed(preParser.preParseQuery(query, profile), params, context, queryTracer)
+    } catch {
+      case t: Throwable =>
+        context.close(false)
+        throw t
+    } finally queryTracer.close()
+  }
+
+  /**
+    * Pre-parses a query once, so that it can be executed any number of times without handing the query text to the
+    * pre-parser again. The executable query is still looked up in the query cache on every execution, which keeps the
+    * staleness checks and schema locking of a normal execution.
+    */
+  def prepare(query: String): PreParsedQuery = preParser.preParseQuery(query)
 
+  def execute(preParsedQuery: PreParsedQuery, params: MapValue, context: TransactionalContext): Result = {
+    val queryTracer = tracer.compileQuery(preParsedQuery.rawStatement)
+
+    try {
+      executePreParsed(preParsedQuery, params, context, queryTracer)
     } catch {
       case t: Throwable =>
         context.close(false)
@@ -107,6 +146,17 @@ class ExecutionEngine(val queryService: GraphDatabaseQueryService,
     } finally queryTracer.close()
   }
 
+  private def executePreParsed(preParsedQuery: PreParsedQuery, params: MapValue, context: TransactionalContext,
+                               queryTracer: QueryCompilationEvent): Result = {
+    val executableQuery = getOrCompile(context, preParsedQuery, queryTracer, params)
+    if (preParsedQuery.executionMode.name != "explain") {
+      checkParameters(executableQuery.paramNames, params, executableQuery.extractedParams)
+    }
+    val combinedParams = params.updatedWith(executableQuery.extractedParams)
+    context.executingQuery().compilationCompleted(executableQuery.compilerInfo, supplier(executableQuery.planDescription()))
+    executableQuery.execute(context, preParsedQuery, combinedParams)
+  }
+
   /*
    * Return the primary and secondary compile to be used
    *
@@ -157,7 +207,8 @@ class ExecutionEngine(val queryService: GraphDatabaseQueryService,
                                                             tc,
                                                             primaryCompiler,
                                                             secondaryCompiler,
-                                                            preParsedQuery.rawStatement)
+                                                            preParsedQuery.rawStatement,
+                                                            backgroundCompiler(preParsedQuery, params))
         cacheLookup match {
           case _: CacheHit[_] |
                _: CacheDisabled[_] =>
@@ -180,6 +231,80 @@ class ExecutionEngine(val queryService: GraphDatabaseQueryService,
     throw new IllegalStateException("Could not compile query due to insanely frequent schema changes")
   }
 
+  /*
+   * Plans the queries exported by an earlier run once the database is available, and only then starts exporting the
+   * queries of this run, so that the file is not overwritten before it has been read.
+   */
+  private def scheduleQueryCacheWarmup(): Unit = {
+    val resolver = queryService.getDependencyResolver
+    val scheduler = resolver.resolveDependency(classOf[JobScheduler])
+    val warmup = new QueryCacheWarmup(config.queryCacheWarmupFile, log)
+
+    val export = new Runnable {
+      override def run(): Unit = {
+        val keys = queryCache.keysByHits
+        if (keys.nonEmpty)
+          try {
+            warmup.export(keys)
+          } catch {
+            case e: IOException => log.warn(s"Failed to export the query cache to ${config.queryCacheWarmupFile}", e)
+          }
+      }
+    }
+
+    scheduler.schedule(Group.CYPHER_CACHE_WARMUP, new Runnable {
+      override def run(): Unit = {
+        val availabilityGuard = resolver.resolveDependency(classOf[DatabaseAvailabilityGuard])
+        while (!availabilityGuard.isShutdown && !availabilityGuard.isAvailable(ExecutionEngine.WARMUP_AVAILABILITY_POLL_MILLIS)) {}
+        if (!availabilityGuard.isShutdown) {
+          val planned = warmup.warmUp(plan)
+          if (planned > 0)
+            log.info(s"Warmed up the query cache with $planned queries")
+          scheduler.scheduleRecurring(Group.CYPHER_CACHE_WARMUP, export, config.queryCacheWarmupExportInterval, MILLISECONDS)
+        }
+      }
+    })
+  }
+
+  /*
+   * Plans the query into the query cache, without executing it.
+   */
+  private def plan(query: String, params: MapValue): Unit =
+    inNewTransaction(query, params) { (context, queryTracer) =>
+      getOrCompile(context, preParser.preParseQuery(query), queryTracer, params)
+    }
+
+  /*
+   * Compiles stale queries in a transaction of its own, since the transaction of the query that found the plan to
+   * be stale goes on to execute the stale plan, and may be closed before compilation is done.
+   */
+  private def backgroundCompiler(preParsedQuery: PreParsedQuery, params: MapValue): Option[() => ExecutableQuery] =
+    if (config.replanInBackground)
+      Some(() => inNewTransaction(preParsedQuery.rawStatement, params) { (context, queryTracer) =>
+        val tc = context.getOrBeginNewIfClosed()
+        val compilerAuthorization = tc.restrictCurrentTransaction(tc.securityContext.withMode(AccessMode.Static.READ))
+        try {
+          val (primaryCompiler, _) = compilers(preParsedQuery, queryTracer, tc, params)
+          primaryCompiler()
+        } finally {
+          compilerAuthorization.close()
+        }
+      })
+    else None
+
+  private def inNewTransaction[T](query: String, params: MapValue)(f: (TransactionalContext, QueryCompilationEvent) => T): T = {
+    val contextFactory = Neo4jTransactionalContextFactory.create(queryService, new PropertyContainerLocker)
+    val tx = queryService.beginTransaction(KernelTransaction.Type.implicit, AUTH_DISABLED)
+    val context = contextFactory.newContext(ClientConnectionInfo.EMBEDDED_CONNECTION, tx, query, params)
+    val queryTracer = tracer.compileQuery(query)
+    try {
+      f(context, queryTracer)
+    } finally {
+      queryTracer.close()
+      context.close(true)
+    }
+  }
+
   def clearQueryCaches(): Long =
     List(masterCompiler.clearCaches(), queryCache.clear(), preParser.clearCache()).max
 
@@ -187,10 +312,27 @@ class ExecutionEngine(val queryService: GraphDatabaseQueryService,
     * @return { @code true} if the query is a PERIODIC COMMIT query and not an EXPLAIN query
     */
   def isPeriodicCommit(query: String): Boolean = {
-    val preParsedQuery = preParser.preParseQuery(query)
-    preParsedQuery.executionMode != CypherExecutionMode.explain && preParsedQuery.isPeriodicCommit
+    isPeriodicCommit(preParser.preParseQuery(query))
   }
 
+  def isPeriodicCommit(preParsedQuery: PreParsedQuery): Boolean =
+    preParsedQuery.executionMode != CypherExecutionMode.explain && preParsedQuery.isPeriodicCommit
+
+  /**
+    * @return { @code true} if the query always produces the same result from the same committed state and parameters,
+    *         i.e. it neither loads CSV nor calls procedures or any functions but the deterministic built-in ones
+    */
+  def isDeterministic(query: String): Boolean =
+    try {
+      val preParsedQuery = preParser.preParseQuery(query)
+      !new CypherParser().parse(preParsedQuery.statement, Some(preParsedQuery.offset)).treeExists {
+        case _: UnresolvedCall | _: LoadCSV => true
+        case f: FunctionInvocation => f.function == Rand || f.function == UnresolvedFunction
+      }
+    } catch {
+      case _: CypherException | _: InternalSyntaxException => false
+    }
+
   // HELPERS
 
   @throws(classOf[ParameterNotFoundException])
@@ -211,4 +353,5 @@ class ExecutionEngine(val queryService: GraphDatabaseQueryService,
 
 object ExecutionEngine {
   val PLAN_BUILDING_TRIES: Int = 20
+  val WARMUP_AVAILABILITY_POLL_MILLIS: Long = 1000
 }
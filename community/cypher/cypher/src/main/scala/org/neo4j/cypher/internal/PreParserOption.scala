@@ -38,6 +38,7 @@ case object InterpretedRuntimeOption extends RuntimePreParserOption("interpreted
 case object SlottedRuntimeOption extends RuntimePreParserOption("slotted")
 case object MorselRuntimeOption extends RuntimePreParserOption("morsel")
 case object CompiledRuntimeOption extends RuntimePreParserOption("compiled")
+case object ParallelRuntimeOption extends RuntimePreParserOption("parallel")
 case object EagerOption extends UpdateStrategyOption("eager")
 case class DebugOption(key: String) extends PreParserOption
 case object CompiledExpressionOption extends ExpressionEnginePreParserOption("compiled")
@@ -19,6 +19,10 @@
  */
 package org.neo4j.cypher.internal
 
+import java.util.concurrent.{Executor, RejectedExecutionException}
+import java.util.concurrent.TimeUnit.NANOSECONDS
+import java.util.concurrent.atomic.AtomicBoolean
+
 import com.github.benmanes.caffeine.cache.{Cache, Caffeine}
 import org.neo4j.cypher.internal.QueryCache.ParameterTypeMap
 import org.neo4j.helpers.collection.Pair
@@ -26,6 +30,7 @@ import org.neo4j.kernel.impl.query.TransactionalContext
 import org.neo4j.values.virtual.MapValue
 
 import scala.collection.JavaConversions._
+import scala.util.control.NonFatal
 
 /**
   * The result of one cache lookup.
@@ -49,6 +54,8 @@ trait CacheTracer[QUERY_KEY] {
 
   def queryCacheStale(queryKey: QUERY_KEY, secondsSincePlan: Int, metaData: String): Unit
 
+  def queryCacheBackgroundReplan(queryKey: QUERY_KEY, replanMillis: Long, metaData: String): Unit
+
   def queryCacheFlush(sizeOfCacheBeforeFlush: Long): Unit
 }
 
@@ -58,25 +65,34 @@ trait CacheTracer[QUERY_KEY] {
   * This cache knows that CachedExecutableQueries can become stale, and uses a
   * PlanStalenessCaller to verify that CEQs are reusable before returning. A CEQ
   * which is detected in the cache, but is found to be stale
+  * is compiled again, either before it is returned or, when a replan executor is given, in the background
+  * while the stale CEQ keeps being returned.
   *
   * @param maximumSize Maximum size of this cache
   * @param stalenessCaller Decided whether CachedExecutionPlans are stale
   * @param tracer Traces cache activity
+  * @param replanExecutor Executor to replan stale queries on, if they should be replanned in the background
   */
 class QueryCache[QUERY_REP <: AnyRef, QUERY_KEY <: Pair[QUERY_REP, ParameterTypeMap], EXECUTABLE_QUERY <: AnyRef](
-    val maximumSize: Int, val stalenessCaller: PlanStalenessCaller[EXECUTABLE_QUERY], val tracer: CacheTracer[Pair[QUERY_REP, ParameterTypeMap]]) {
+    val maximumSize: Int, val stalenessCaller: PlanStalenessCaller[EXECUTABLE_QUERY], val tracer: CacheTracer[Pair[QUERY_REP, ParameterTypeMap]],
+    val replanExecutor: Option[Executor] = None) {
 
   private val inner: Cache[QUERY_KEY, CachedValue] = Caffeine.newBuilder().maximumSize(maximumSize).build[QUERY_KEY, CachedValue]()
 
   import QueryCache.NOT_PRESENT
 
   /*
-    * The cached value wraps the value and maintains a count of how many times it has been fetched from the cache
-    * and whether or not it has been recompiled.
+    * The cached value wraps the value and maintains a count of how many times it has been fetched from the cache,
+    * whether or not it has been recompiled and whether or not it is being replanned in the background.
     */
   private class CachedValue(val value: EXECUTABLE_QUERY, val recompiled: Boolean) {
 
     @volatile private var _numberOfHits = 0
+    private val replanning = new AtomicBoolean()
+
+    def isReplanning: Boolean = replanning.get()
+
+    def startReplanning(): Boolean = replanning.compareAndSet(false, true)
 
     def markHit(): Unit = {
       if (!recompiled) {
@@ -110,13 +126,16 @@ class QueryCache[QUERY_REP <: AnyRef, QUERY_KEY <: Pair[QUERY_REP, ParameterType
     * @param compile Compiler to use if the query is not cached or stale
     * @param recompile Recompile function to use if the query is deemed hot
     * @param metaData String which will be passed to the CacheTracer
+    * @param backgroundCompile Compiler to use if the query is stale and replanned in the background. Unlike compile,
+    *                          it must not depend on tc, which may be closed before it is called.
     * @return A CacheLookup with an CachedExecutionPlan
     */
   def computeIfAbsentOrStale(queryKey: QUERY_KEY,
                              tc: TransactionalContext,
                              compile: () => EXECUTABLE_QUERY,
                              recompile: (Int) => Option[EXECUTABLE_QUERY],
-                             metaData: String = ""
+                             metaData: String = "",
+                             backgroundCompile: Option[() => EXECUTABLE_QUERY] = None
                             ): CacheLookup[EXECUTABLE_QUERY] = {
     if (maximumSize == 0)
       CacheDisabled(compile())
@@ -125,6 +144,11 @@ class QueryCache[QUERY_REP <: AnyRef, QUERY_KEY <: Pair[QUERY_REP, ParameterType
         case NOT_PRESENT =>
           compileAndCache(queryKey, tc, compile, metaData)
 
+        case cachedValue if cachedValue.isReplanning =>
+          //keep using the stale plan until the new one is in the cache
+          cachedValue.markHit()
+          hit(queryKey, cachedValue, metaData)
+
         case cachedValue =>
           //mark as seen from cache
           cachedValue.markHit()
@@ -145,8 +169,27 @@ class QueryCache[QUERY_REP <: AnyRef, QUERY_KEY <: Pair[QUERY_REP, ParameterType
 
               hit(queryKey, newCachedValue, metaData)
             case Stale(secondsSincePlan) =>
-              tracer.queryCacheStale(queryKey, secondsSincePlan, metaData)
-              compileAndCache(queryKey, tc, compile, metaData)
+              (replanExecutor, backgroundCompile) match {
+                case (Some(executor), Some(replan)) if cachedValue.startReplanning() =>
+                  tracer.queryCacheStale(queryKey, secondsSincePlan, metaData)
+                  try {
+                    replanInBackground(queryKey, cachedValue, executor, replan, metaData)
+                    hit(queryKey, cachedValue, metaData)
+                  } catch {
+                    case _: RejectedExecutionException =>
+                      // Nothing will replan the stale value, so it must not stay in the cache marked as replanning
+                      inner.asMap().remove(queryKey, cachedValue)
+                      compileAndCache(queryKey, tc, compile, metaData)
+                  }
+
+                case (Some(_), Some(_)) =>
+                  // Some other lookup is already replanning it
+                  hit(queryKey, cachedValue, metaData)
+
+                case _ =>
+                  tracer.queryCacheStale(queryKey, secondsSincePlan, metaData)
+                  compileAndCache(queryKey, tc, compile, metaData)
+              }
           }
       }
     }
@@ -169,6 +212,31 @@ class QueryCache[QUERY_REP <: AnyRef, QUERY_KEY <: Pair[QUERY_REP, ParameterType
     miss(queryKey, newExecutableQuery, metaData)
   }
 
+  /**
+    * Replan the query on the executor, and replace the stale value with the new plan unless the stale value has
+    * been replaced or evicted in the meantime. If replanning fails, the stale value is dropped instead, so that the
+    * next lookup compiles the query again and reports the failure.
+    */
+  private def replanInBackground(queryKey: QUERY_KEY,
+                                 staleValue: CachedValue,
+                                 executor: Executor,
+                                 replan: () => EXECUTABLE_QUERY,
+                                 metaData: String): Unit = {
+    executor.execute(new Runnable {
+      override def run(): Unit = {
+        val startTime = System.nanoTime()
+        try {
+          val newExecutableQuery = replan()
+          inner.asMap().replace(queryKey, staleValue, new CachedValue(newExecutableQuery, recompiled = false))
+          tracer.queryCacheBackgroundReplan(queryKey, NANOSECONDS.toMillis(System.nanoTime() - startTime), metaData)
+        } catch {
+          case NonFatal(_) =>
+            inner.asMap().remove(queryKey, staleValue)
+        }
+      }
+    })
+  }
+
   private def hit(queryKey: QUERY_KEY,
                   executableQuery: CachedValue,
                   metaData: String) = {
@@ -183,6 +251,12 @@ class QueryCache[QUERY_REP <: AnyRef, QUERY_KEY <: Pair[QUERY_REP, ParameterType
     CacheMiss(newExecutableQuery)
   }
 
+  /**
+    * @return the keys of the cached queries, the most frequently hit first.
+    */
+  def keysByHits: Seq[QUERY_KEY] =
+    inner.asMap().toSeq.sortBy { case (_, cachedValue) => -cachedValue.numberOfHits }.map(_._1)
+
   /**
     * Method for clearing the LRUCache
     *
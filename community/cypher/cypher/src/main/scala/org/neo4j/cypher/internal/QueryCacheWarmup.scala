@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal
+
+import java.io._
+import java.nio.charset.StandardCharsets.UTF_8
+import java.nio.file.Files
+import java.nio.file.StandardCopyOption.{ATOMIC_MOVE, REPLACE_EXISTING}
+import java.time.ZoneOffset.UTC
+
+import org.neo4j.cypher.internal.QueryCache.ParameterTypeMap
+import org.neo4j.helpers.collection.Pair
+import org.neo4j.logging.Log
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable._
+import org.neo4j.values.virtual.{MapValue, VirtualValues}
+
+import scala.collection.mutable.ArrayBuffer
+import scala.util.control.NonFatal
+
+/**
+  * Keeps the queries of the query cache in a file, so that they can be planned again in the background when the
+  * database starts, before clients send them. A query is stored as the text of its cache key, which pre-parses into
+  * the same cache key again, together with the value types of its parameters. Planning the query with sample
+  * parameters of those types caches the new plan under the same key that the query will be looked up by.
+  *
+  * Plans themselves are not stored, so every query is planned against the current statistics, and the new plans go
+  * through the usual staleness checks of the query cache.
+  */
+class QueryCacheWarmup(file: File, log: Log) {
+
+  import QueryCacheWarmup._
+
+  /**
+    * Replaces the content of the file with the given cache keys, atomically so that a crash while writing leaves the
+    * previous content in place.
+    */
+  def export(keys: Seq[Pair[String, ParameterTypeMap]]): Unit = {
+    val tempFile = new File(file.getPath + ".tmp")
+    val out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))
+    try {
+      out.writeInt(FORMAT_VERSION)
+      out.writeInt(keys.size)
+      keys.foreach { key =>
+        writeString(out, key.first())
+        out.writeInt(key.other().size)
+        key.other().foreach {
+          case (name, valueType) =>
+            writeString(out, name)
+            writeString(out, valueType.getName)
+        }
+      }
+    } finally {
+      out.close()
+    }
+    Files.move(tempFile.toPath, file.toPath, REPLACE_EXISTING, ATOMIC_MOVE)
+  }
+
+  /**
+    * @return the stored queries, in the order they were exported, with sample parameters of the stored types. Queries
+    *         with parameters of types that can't be sampled are left out.
+    */
+  def read(): Seq[(String, MapValue)] = {
+    if (!file.exists())
+      return Seq.empty
+
+    val in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))
+    try {
+      if (in.readInt() != FORMAT_VERSION) {
+        log.info(s"Ignoring query cache warm-up file $file of an unknown format")
+        return Seq.empty
+      }
+      val queries = new ArrayBuffer[(String, MapValue)]
+      val count = in.readInt()
+      for (_ <- 0 until count) {
+        val query = readString(in)
+        val parameterCount = in.readInt()
+        val names = new Array[String](parameterCount)
+        val values = new Array[AnyValue](parameterCount)
+        for (i <- 0 until parameterCount) {
+          names(i) = readString(in)
+          values(i) = SAMPLES.getOrElse(readString(in), null)
+        }
+        if (values.contains(null)) log.debug(s"Not warming up query with parameters of unknown types: $query")
+        else queries += (query -> VirtualValues.map(names, values))
+      }
+      queries
+    } finally {
+      in.close()
+    }
+  }
+
+  /**
+    * Plans the stored queries with the given function, in the order they were exported.
+    *
+    * @return the number of queries that were planned successfully.
+    */
+  def warmUp(plan: (String, MapValue) => Unit): Int = {
+    val queries = try read() catch {
+      case e: IOException =>
+        log.warn(s"Could not read query cache warm-up file $file", e)
+        Seq.empty
+    }
+    queries.count {
+      case (query, params) =>
+        try {
+          plan(query, params)
+          true
+        } catch {
+          case NonFatal(e) =>
+            log.debug(s"Could not warm up the query cache with query: $query", e)
+            false
+        }
+    }
+  }
+}
+
+object QueryCacheWarmup {
+  private val FORMAT_VERSION = 1
+
+  /**
+    * Sample parameter values by the name of their class. The query cache tells parameters apart by the class of their
+    * values, so samples must have exactly the classes that parameters arrive with.
+    */
+  private val SAMPLES: Map[String, AnyValue] = Seq[AnyValue](
+    Values.NO_VALUE,
+    Values.TRUE,
+    Values.FALSE,
+    Values.longValue(0),
+    Values.intValue(0),
+    Values.shortValue(0),
+    Values.byteValue(0),
+    Values.doubleValue(0),
+    Values.floatValue(0),
+    Values.stringValue("a"),
+    Values.utf8Value("a".getBytes(UTF_8)),
+    Values.charValue('a'),
+    Values.longArray(Array(0L)),
+    Values.doubleArray(Array(0.0)),
+    Values.booleanArray(Array(true)),
+    Values.stringArray("a"),
+    Values.pointValue(CoordinateReferenceSystem.Cartesian, 0.0, 0.0),
+    DateValue.epochDate(0),
+    LocalTimeValue.localTime(0),
+    TimeValue.time(0, UTC),
+    LocalDateTimeValue.localDateTime(0, 0),
+    DateTimeValue.datetime(0, 0, UTC),
+    DurationValue.duration(0, 0, 0, 0),
+    VirtualValues.list(Values.NO_VALUE),
+    VirtualValues.EMPTY_MAP,
+    VirtualValues.map(Array("a"), Array[AnyValue](Values.NO_VALUE))
+  ).map(value => value.getClass.getName -> value).toMap
+
+  private def writeString(out: DataOutput, string: String): Unit = {
+    val bytes = string.getBytes(UTF_8)
+    out.writeInt(bytes.length)
+    out.write(bytes)
+  }
+
+  private def readString(in: DataInput): String = {
+    val bytes = new Array[Byte](in.readInt())
+    in.readFully(bytes)
+    new String(bytes, UTF_8)
+  }
+}
@@ -72,6 +72,7 @@ abstract class BasePlanner[STATEMENT <: AnyRef, PARSED_STATE <: AnyRef](
       override def queryCacheMiss(queryKey: STATEMENT, metaData: String): Unit = {}
       override def queryCacheFlush(sizeOfCacheBeforeFlush: Long): Unit = {}
       override def queryCacheRecompile(queryKey: STATEMENT, metaData: String): Unit = {}
+      override def queryCacheBackgroundReplan(queryKey: STATEMENT, replanMillis: Long, metaData: String): Unit = {}
     }
 
   protected def createReusabilityState(logicalPlanState: LogicalPlanState,
@@ -98,6 +99,7 @@ trait CypherCacheHitMonitor[T] {
   def cacheMiss(key: T) {}
   def cacheDiscard(key: T, userKey: String, secondsSinceReplan: Int) {}
   def cacheRecompile(key: T) {}
+  def cacheBackgroundReplan(key: T, replanMillis: Long) {}
 }
 
 trait CypherCacheMonitor[T] extends CypherCacheHitMonitor[T] with CypherCacheFlushingMonitor
@@ -38,7 +38,7 @@ import org.neo4j.kernel.impl.query.QueryExecutionMonitor
   * closing results automatically when
   *
   *  1) all result rows have been seen through iterator
-  *  2) all result rows have been seen through visitor
+  *  2) all result rows have been seen through visitor, possibly over several batches
   *  3) all result rows have been seen through dumpToString
   *  4) any operator throws an exception
   *
@@ -158,6 +158,14 @@ class ClosingExecutionResult private(val query: ExecutingQuery,
       inner.accept(visitor)
     }
 
+  override def accept[EX <: Exception](visitor: QueryResultVisitor[EX], maxRecords: Long): Boolean =
+    safely {
+      val hasMore = inner.accept(visitor, maxRecords)
+      if (!hasMore)
+        close(Success)
+      hasMore
+    }
+
   override def executionMode: ExecutionMode = safely { inner.executionMode }
 
   override def toString: String = runSafely { inner.toString }
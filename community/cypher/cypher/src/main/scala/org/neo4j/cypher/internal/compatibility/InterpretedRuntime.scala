@@ -24,35 +24,65 @@ import org.neo4j.cypher.internal.compatibility.v3_5.runtime.executionplan._
 import org.neo4j.cypher.internal.compatibility.v3_5.runtime.profiler.{InterpretedProfileInformation, Profiler}
 import org.neo4j.cypher.internal.compiler.v3_5.phases.LogicalPlanState
 import org.neo4j.cypher.internal.runtime.{ExecutionMode, ExplainMode, ProfileMode, QueryContext}
-import org.neo4j.cypher.internal.runtime.interpreted.UpdateCountingQueryContext
+import org.neo4j.cypher.internal.runtime.interpreted.{ArrayExecutionContext, UpdateCountingQueryContext}
+import org.neo4j.cypher.internal.runtime.interpreted.commands.compiled.CompiledExpression
 import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.{CommunityExpressionConverter, ExpressionConverters}
-import org.neo4j.cypher.internal.runtime.interpreted.pipes.PipeExecutionBuilderContext
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.{PipeBuilderFactory, PipeExecutionBuilderContext}
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.QueryMemoryConfiguration
 import org.neo4j.cypher.internal.runtime.planDescription.Argument
 import org.neo4j.cypher.result.RuntimeResult
+import org.neo4j.util.FeatureToggles
 import org.neo4j.values.virtual.MapValue
 import org.neo4j.cypher.internal.v3_5.util.{InternalNotification, PeriodicCommitInOpenTransactionException}
 
 object InterpretedRuntime extends CypherRuntime[RuntimeContext] {
-  override def compileToExecutable(state: LogicalPlanState, context: RuntimeContext): ExecutionPlan = {
+  /**
+    * Whether or not to store rows as flat arrays, with a slot for every variable of the plan, instead of as hash maps.
+    */
+  private val ARRAY_ROWS = FeatureToggles.flag(classOf[ArrayExecutionContext], "enabled", true)
+
+  /**
+    * Whether or not to compile the operators of predicates and projections into generated classes, falling back to
+    * interpreting expressions which can't be compiled.
+    */
+  private val COMPILED_EXPRESSIONS = FeatureToggles.flag(classOf[CompiledExpression], "enabled", true)
+
+  override def compileToExecutable(state: LogicalPlanState, context: RuntimeContext): ExecutionPlan =
+    compileToExecutable(state, context, InterpretedPipeBuilderFactory, InterpretedRuntimeName)
+
+  /**
+    * Compiles the plan like this runtime does, but with the pipes built by the given factory. Used by runtimes which
+    * only differ from this one in some of the pipes they use.
+    */
+  def compileToExecutable(state: LogicalPlanState,
+                          context: RuntimeContext,
+                          pipeBuilderFactory: PipeBuilderFactory,
+                          runtimeName: RuntimeName): ExecutionPlan = {
     val cardinalities = state.planningAttributes.cardinalities
     val logicalPlan = state.logicalPlan
     val converters = new ExpressionConverters(CommunityExpressionConverter(context.tokenContext))
     val executionPlanBuilder = new PipeExecutionPlanBuilder(
       expressionConverters = converters,
-      pipeBuilderFactory = InterpretedPipeBuilderFactory)
-    val pipeBuildContext = PipeExecutionBuilderContext(state.semanticTable(), context.readOnly)
+      pipeBuilderFactory = pipeBuilderFactory)
+    val pipeBuildContext = PipeExecutionBuilderContext(state.semanticTable(), context.readOnly, ARRAY_ROWS, COMPILED_EXPRESSIONS)
     val pipe = executionPlanBuilder.build(logicalPlan)(pipeBuildContext, context.tokenContext)
     val periodicCommitInfo = state.periodicCommit.map(x => PeriodicCommitInfo(x.batchSize))
     val columns = state.statement().returnColumns
+    val memoryConfiguration = QueryMemoryConfiguration(spillThreshold = context.config.spillThreshold,
+                                                       maxMemory = context.config.queryMaxMemory,
+                                                       globalMaxMemory = context.config.queryGlobalMaxMemory,
+                                                       track = context.config.trackQueryMemory)
     val resultBuilderFactory = InterpretedExecutionResultBuilderFactory(pipe,
                                                                         context.readOnly,
                                                                         columns,
                                                                         logicalPlan,
-                                                                        context.config.lenientCreateRelationship)
+                                                                        context.config.lenientCreateRelationship,
+                                                                        context.config.csvReadAhead,
+                                                                        memoryConfiguration)
 
     new InterpretedExecutionPlan(periodicCommitInfo,
                                  resultBuilderFactory,
-                                 InterpretedRuntimeName,
+                                 runtimeName,
                                  context.readOnly)
   }
 
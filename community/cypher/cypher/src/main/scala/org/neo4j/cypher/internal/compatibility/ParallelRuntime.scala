@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility
+
+import org.neo4j.cypher.internal.compatibility.v3_5.runtime.executionplan.ExecutionPlan
+import org.neo4j.cypher.internal.compatibility.v3_5.runtime.{ParallelPipeBuilderFactory, ParallelRuntimeName}
+import org.neo4j.cypher.internal.compiler.v3_5.phases.LogicalPlanState
+import org.neo4j.cypher.internal.compiler.v3_5.planner.CantCompileQueryException
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.parallel.ParallelWorkers
+
+/**
+  * Runtime which runs read-only queries like the interpreted runtime, except for the scans of all nodes, of nodes by
+  * label and of indexes, together with the operators following them, which it splits into morsels that run in
+  * parallel. Queries which can't run in parallel fall back to the interpreted runtime.
+  *
+  * @param workers the number of threads running morsels of a single scan, or 0 for one thread per available processor.
+  * @param morselSize the number of rows in a morsel.
+  * @param pool the threads of the database that morsels run on, shared by all parallel queries.
+  */
+class ParallelRuntime(workers: Int, morselSize: Int, pool: => ParallelWorkers) extends CypherRuntime[RuntimeContext] {
+
+  private val workerCount = ParallelRuntime.workerCount(workers)
+
+  override def compileToExecutable(state: LogicalPlanState, context: RuntimeContext): ExecutionPlan = {
+    if (!context.readOnly || state.periodicCommit.isDefined) {
+      throw new CantCompileQueryException("Parallel runtime only supports read-only queries")
+    }
+    val chains = ParallelPipeBuilderFactory.parallelChains(state.logicalPlan)
+    if (chains.isEmpty) {
+      throw new CantCompileQueryException("Parallel runtime found nothing in the query to run in parallel")
+    }
+    val pipeBuilderFactory = ParallelPipeBuilderFactory(chains, workerCount, morselSize, pool)
+    InterpretedRuntime.compileToExecutable(state, context, pipeBuilderFactory, ParallelRuntimeName)
+  }
+}
+
+object ParallelRuntime {
+
+  def workerCount(workers: Int): Int = if (workers > 0) workers else Runtime.getRuntime.availableProcessors()
+
+  /**
+    * Enough threads for a single query to run a scan with all of its workers. Further parallel queries that start while
+    * it runs fall back to running their scans serially.
+    */
+  def threads(workers: Int): Int = workerCount(workers) + 1
+}
@@ -312,6 +312,9 @@ class ExceptionTranslatingQueryContext(val inner: QueryContext) extends QueryCon
     override def getProperty(id: Long, propertyKeyId: Int): Value =
       translateException(inner.getProperty(id, propertyKeyId))
 
+    override def getProperties(id: Long, propertyKeyIds: Array[Int]): Array[Value] =
+      translateException(inner.getProperties(id, propertyKeyIds))
+
     override def hasProperty(id: Long, propertyKeyId: Int): Boolean =
       translateException(inner.hasProperty(id, propertyKeyId))
 
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_5.runtime
+
+import org.neo4j.cypher.internal.planner.v3_5.spi.TokenContext
+import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.ExpressionConverters
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{AggregationExpression, Count, CountStar, Max, Min, Sum, Variable}
+import org.neo4j.cypher.internal.runtime.interpreted.pipes._
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.parallel._
+import org.neo4j.cypher.internal.v3_5.expressions.{Expression, FunctionInvocation, functions, CountStar => AstCountStar}
+import org.neo4j.cypher.internal.v3_5.logical.plans._
+import org.neo4j.cypher.internal.v3_5.util.InternalException
+import org.neo4j.cypher.internal.v3_5.util.attribution.Id
+
+/**
+  * Builds pipes like [[InterpretedPipeBuilderFactory]], except for the parallel chains of the plan, which are built as
+  * [[ParallelPipe]]s.
+  *
+  * @param chains the leaf of every parallel chain, by the id of the plan topping the chain.
+  */
+case class ParallelPipeBuilderFactory(chains: Map[Id, LogicalPlan], workers: Int, morselSize: Int, pool: ParallelWorkers)
+  extends PipeBuilderFactory {
+
+  def apply(recurse: LogicalPlan => Pipe,
+            readOnly: Boolean,
+            expressionConverters: ExpressionConverters)
+           (implicit context: PipeExecutionBuilderContext, tokenContext: TokenContext): PipeBuilder =
+    new ParallelPipeBuilder(InterpretedPipeBuilderFactory(recurse, readOnly, expressionConverters))
+
+  private class ParallelPipeBuilder(inner: PipeBuilder) extends PipeBuilder {
+
+    override def onLeaf(plan: LogicalPlan): Pipe = inner.onLeaf(plan)
+
+    override def onTwoChildPlan(plan: LogicalPlan, lhs: Pipe, rhs: Pipe): Pipe = inner.onTwoChildPlan(plan, lhs, rhs)
+
+    override def onOneChildPlan(plan: LogicalPlan, source: Pipe): Pipe = {
+      val pipe = inner.onOneChildPlan(plan, source)
+      chains.get(plan.id) match {
+        case Some(leaf) =>
+          ParallelPipe(pipe, inner.onLeaf(leaf), pipeline(plan, leaf), reducer(plan, pipe), workers, morselSize,
+            pool)(id = plan.id)
+        case None =>
+          pipe
+      }
+    }
+
+    private def pipeline(plan: LogicalPlan, leaf: LogicalPlan): Pipe =
+      if (plan.id == leaf.id) ParallelInputPipe()(id = leaf.id)
+      else inner.onOneChildPlan(plan, pipeline(plan.lhs.get, leaf))
+
+    private def reducer(plan: LogicalPlan, pipe: Pipe): ParallelReducer = (plan, pipe) match {
+      case (_: Sort, SortPipe(_, orderBy)) =>
+        MergeSortedResults(orderBy)
+
+      case (_: Top, _) =>
+        PipeReducer(inner.onOneChildPlan(plan, ParallelInputPipe()()))
+
+      case (_, EagerAggregationPipe(_, keyExpressions, aggregations)) =>
+        PipeReducer(EagerAggregationPipe(ParallelInputPipe()(), variables(keyExpressions), aggregations.map {
+          case (name, aggregation) => name -> mergeAggregates(name, aggregation)
+        })())
+
+      case (_, DistinctPipe(_, expressions)) =>
+        PipeReducer(DistinctPipe(ParallelInputPipe()(), variables(expressions))())
+
+      case _ =>
+        ConcatenateResults
+    }
+
+    private def variables[T](expressions: Map[String, T]): Map[String, Variable] =
+      expressions.map {
+        case (name, _) => name -> Variable(name)
+      }
+
+    private def mergeAggregates(name: String, aggregation: AggregationExpression): AggregationExpression =
+      aggregation match {
+        case _: CountStar | _: Count | _: Sum => Sum(Variable(name))
+        case _: Min => Min(Variable(name))
+        case _: Max => Max(Variable(name))
+        case _ => throw new InternalException(s"Can't merge partial results of $aggregation")
+      }
+  }
+}
+
+object ParallelPipeBuilderFactory {
+
+  /**
+    * Finds the parts of a plan which can run in parallel: a scan of all nodes, nodes by label or an index, followed by
+    * any number of streaming operators and optionally topped by an aggregation, sort or top whose partial results can
+    * be merged. Scans whose plan is run more than once, like the ones on the right-hand side of an apply, are skipped,
+    * and so are scans which aren't followed by any operator, since there is nothing to parallelize then.
+    *
+    * @return the leaf of every parallel chain, by the id of the plan topping the chain.
+    */
+  def parallelChains(root: LogicalPlan): Map[Id, LogicalPlan] = {
+    val chains = Map.newBuilder[Id, LogicalPlan]
+
+    def visit(plan: LogicalPlan, parents: List[LogicalPlan], runsOnce: Boolean): Unit = {
+      if (runsOnce && isParallelScan(plan)) {
+        val top = topOfChain(plan, parents)
+        if (top.id != plan.id) {
+          chains += top.id -> plan
+        }
+      }
+      plan.lhs.foreach(visit(_, plan :: parents, runsOnce))
+      plan.rhs.foreach(visit(_, plan :: parents, runsOnce && runsRhsOnce(plan)))
+    }
+
+    visit(root, Nil, runsOnce = true)
+    chains.result()
+  }
+
+  private def topOfChain(leaf: LogicalPlan, parents: List[LogicalPlan]): LogicalPlan = {
+    var top = leaf
+    var remaining = parents
+    while (remaining.nonEmpty && isStreaming(remaining.head)) {
+      top = remaining.head
+      remaining = remaining.tail
+    }
+    remaining match {
+      case eager :: rest if isMergeable(eager, rest.headOption) => eager
+      case _ => top
+    }
+  }
+
+  private def isParallelScan(plan: LogicalPlan): Boolean = plan match {
+    case AllNodesScan(_, argumentIds) => argumentIds.isEmpty
+    case NodeByLabelScan(_, _, argumentIds) => argumentIds.isEmpty
+    case scan: NodeIndexScan => scan.argumentIds.isEmpty
+    case _ => false
+  }
+
+  private def isStreaming(plan: LogicalPlan): Boolean = plan match {
+    case _: Selection | _: Projection => true
+    case expand: Expand => expand.mode == ExpandAll
+    case _ => false
+  }
+
+  private def isMergeable(plan: LogicalPlan, parent: Option[LogicalPlan]): Boolean = plan match {
+    case Aggregation(_, _, aggregations) => aggregations.values.forall(isMergeableAggregate)
+    case _: Distinct => true
+    case _: Sort => parent match {
+      // Limits including ties are built from the pipe of the sort below them
+      case Some(Limit(_, _, IncludeTies)) => false
+      case _ => true
+    }
+    case Top(_, sortItems, _) => sortItems.nonEmpty
+    case _ => false
+  }
+
+  private def isMergeableAggregate(expression: Expression): Boolean = expression match {
+    case _: AstCountStar => true
+    case f: FunctionInvocation =>
+      !f.distinct && (f.function == functions.Count || f.function == functions.Sum ||
+                      f.function == functions.Min || f.function == functions.Max)
+    case _ => false
+  }
+
+  // The right-hand sides of these plans are only run once, unlike the ones of e.g. apply and its variants
+  private def runsRhsOnce(plan: LogicalPlan): Boolean = plan match {
+    case _: NodeHashJoin | _: ValueHashJoin | _: LeftOuterHashJoin | _: RightOuterHashJoin | _: Union => true
+    case _ => false
+  }
+}
@@ -20,21 +20,36 @@
 package org.neo4j.cypher.internal.compatibility.v3_5.runtime
 
 import org.neo4j.cypher.internal.planner.v3_5.spi.TokenContext
-import org.neo4j.cypher.internal.runtime.interpreted.InterpretedPipeBuilder
+import org.neo4j.cypher.internal.runtime.interpreted.{InterpretedPipeBuilder, VariableSlots}
 import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.ExpressionConverters
-import org.neo4j.cypher.internal.runtime.interpreted.pipes.{OwningPipeAsserter, Pipe, PipeBuilderFactory, PipeExecutionBuilderContext}
+import org.neo4j.cypher.internal.runtime.interpreted.pipes._
 import org.neo4j.cypher.internal.v3_5.logical.plans.{LogicalPlan, LogicalPlans}
+import org.neo4j.cypher.internal.v3_5.util.Foldable._
 
 class PipeExecutionPlanBuilder(pipeBuilderFactory: PipeBuilderFactory,
                                expressionConverters: ExpressionConverters) {
   def build(plan: LogicalPlan)
            (implicit context: PipeExecutionBuilderContext, tokenContext: TokenContext): Pipe = {
 
-    val pipe = buildPipe(plan)
+    val slots = if (context.arrayRows) Some(VariableSlots.forPlan(plan)) else None
+    val pipe = buildPipe(plan)(context.copy(variableSlots = slots), tokenContext)
     OwningPipeAsserter.assertAllExpressionsHaveAnOwningPipe(pipe)
+    slots.foreach(useArrayRows(pipe, _))
     pipe
   }
 
+  /**
+    * Makes all pipes, including the ones in nested plans, create rows laid out according to the given slots.
+    */
+  private def useArrayRows(pipe: Pipe, slots: VariableSlots): Unit = {
+    val factory = ArrayExecutionContextFactory(slots)
+    pipe.treeFold(()) {
+      case p: Pipe =>
+        p.setExecutionContextFactory(factory)
+        acc => (acc, Some(identity))
+    }
+  }
+
   private def buildPipe(plan: LogicalPlan)(implicit context: PipeExecutionBuilderContext, tokenContext: TokenContext): Pipe = {
     val pipeBuilder = pipeBuilderFactory(recurse = p => buildPipe(p),
                                          readOnly = context.readOnly,
@@ -48,6 +63,7 @@ object InterpretedPipeBuilderFactory extends PipeBuilderFactory {
             readOnly: Boolean,
             expressionConverters: ExpressionConverters)
            (implicit context: PipeExecutionBuilderContext, tokenContext: TokenContext): InterpretedPipeBuilder = {
-    InterpretedPipeBuilder(recurse, readOnly, expressionConverters, recursePipes(recurse), tokenContext)(context.semanticTable)
+    InterpretedPipeBuilder(recurse, readOnly, expressionConverters, recursePipes(recurse), tokenContext,
+                           context.compileExpressions, context.variableSlots)(context.semanticTable)
   }
 }
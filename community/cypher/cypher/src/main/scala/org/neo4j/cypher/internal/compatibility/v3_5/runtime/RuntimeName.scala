@@ -40,6 +40,10 @@ case object CompiledRuntimeName extends RuntimeName {
   override val name = "COMPILED"
 }
 
+case object ParallelRuntimeName extends RuntimeName {
+  override val name = "PARALLEL"
+}
+
 case object ProcedureRuntimeName extends RuntimeName {
   override val name = "PROCEDURE"
 }
@@ -51,6 +55,7 @@ object RuntimeName {
     case SlottedRuntimeName.name => SlottedRuntimeName
     case MorselRuntimeName.name => MorselRuntimeName
     case CompiledRuntimeName.name => CompiledRuntimeName
+    case ParallelRuntimeName.name => ParallelRuntimeName
     case ProcedureRuntimeName.name => ProcedureRuntimeName
 
     case n => throw new IllegalArgumentException(s"$n is not a valid runtime")
@@ -19,12 +19,16 @@
  */
 package org.neo4j.cypher.internal.compatibility.v3_5.runtime.executionplan
 
+import java.util.function.LongSupplier
+
 import org.neo4j.cypher.internal.compatibility.v3_5.runtime._
 import org.neo4j.cypher.internal.runtime._
 import org.neo4j.cypher.internal.runtime.interpreted.pipes._
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.{QueryMemoryConfiguration, QueryMemoryTracker}
 import org.neo4j.cypher.internal.runtime.interpreted.{CSVResources, ExecutionContext}
 import org.neo4j.cypher.internal.v3_5.logical.plans.LogicalPlan
 import org.neo4j.cypher.result.{QueryProfile, RuntimeResult}
+import org.neo4j.scheduler.Group
 import org.neo4j.values.virtual.MapValue
 import org.neo4j.cypher.internal.v3_5.frontend.phases.InternalNotificationLogger
 import org.neo4j.cypher.internal.v3_5.util.CypherException
@@ -34,9 +38,11 @@ import scala.collection.mutable
 abstract class BaseExecutionResultBuilderFactory(pipe: Pipe,
                                                  readOnly: Boolean,
                                                  columns: List[String],
-                                                 logicalPlan: LogicalPlan) extends ExecutionResultBuilderFactory {
+                                                 logicalPlan: LogicalPlan,
+                                                 csvReadAhead: Boolean = false) extends ExecutionResultBuilderFactory {
   abstract class BaseExecutionWorkflowBuilder() extends ExecutionResultBuilder {
-    protected var externalResource: ExternalCSVResource = new CSVResources(queryContext.resources)
+    protected var externalResource: ExternalCSVResource = new CSVResources(queryContext.resources,
+      if (csvReadAhead) Some(queryContext.transactionalContext.jobScheduler.executor(Group.CYPHER_LOAD_CSV)) else None)
     protected var pipeDecorator: PipeDecorator = NullPipeDecorator
     protected var exceptionDecorator: CypherException => CypherException = identity
 
@@ -75,20 +81,30 @@ case class InterpretedExecutionResultBuilderFactory(pipe: Pipe,
                                                     readOnly: Boolean,
                                                     columns: List[String],
                                                     logicalPlan: LogicalPlan,
-                                                    lenientCreateRelationship: Boolean)
-  extends BaseExecutionResultBuilderFactory(pipe, readOnly, columns, logicalPlan) {
+                                                    lenientCreateRelationship: Boolean,
+                                                    csvReadAhead: Boolean,
+                                                    memoryConfiguration: QueryMemoryConfiguration)
+  extends BaseExecutionResultBuilderFactory(pipe, readOnly, columns, logicalPlan, csvReadAhead) {
 
   override def create(queryContext: QueryContext): ExecutionResultBuilder = InterpretedExecutionWorkflowBuilder(queryContext: QueryContext)
 
   case class InterpretedExecutionWorkflowBuilder(queryContext: QueryContext) extends BaseExecutionWorkflowBuilder {
     override def createQueryState(params: MapValue): QueryState = {
+      val memoryTracker = QueryMemoryTracker(memoryConfiguration)
+      if (memoryTracker.isEnabled) {
+        queryContext.resources.trace(memoryTracker)
+        queryContext.transactionalContext.executingQuery.estimatedMemoryUsage(new LongSupplier {
+          override def getAsLong: Long = memoryTracker.usedBytes
+        })
+      }
       new QueryState(queryContext,
                      externalResource,
                      params,
                      pipeDecorator,
                      triadicState = mutable.Map.empty,
                      repeatableReads = mutable.Map.empty,
-                     lenientCreateRelationship = lenientCreateRelationship)
+                     lenientCreateRelationship = lenientCreateRelationship,
+                     memoryTracker = memoryTracker)
     }
 
     override def buildResultIterator(results: Iterator[ExecutionContext], readOnly: Boolean): IteratorBasedResult = {
@@ -201,11 +201,60 @@ class StandardInternalExecutionResult(context: QueryContext,
       i < materializedResult.size()
     }
 
+    def hasNext: Boolean = i + 1 < materializedResult.size()
+
     def record(): QueryResult.Record = MaterializedRecord(materializedResult.get(i))
 
     case class MaterializedRecord(override val fields: Array[AnyValue]) extends QueryResult.Record
   }
 
+  /*
+  ======= CONSUME IN BATCHES ==========
+   */
+
+  private var batchCursor: MaterializedResultCursor = _
+
+  /**
+    * Between batches the runtime result is left suspended, which only works for runtimes that are iterable. For
+    * other runtimes we materialize and serve the batches from memory, same as for the iterator.
+    */
+  override def accept[E <: Exception](visitor: QueryResultVisitor[E], maxRecords: Long): Boolean = {
+    if (!isMaterialized && isOpen && !runtimeResult.isIterable)
+      materializeResult()
+
+    val hasMore =
+      if (isMaterialized) {
+        if (batchCursor == null)
+          batchCursor = new MaterializedResultCursor
+        var visited = 0L
+        var continue = true
+        while (continue && visited < maxRecords && batchCursor.next()) {
+          visited += 1
+          continue = visitor.visit(batchCursor.record())
+        }
+        batchCursor.hasNext
+      } else if (isOpen) {
+        if (maxRecords > 0)
+          runtimeResult.accept(new BatchVisitor(visitor, maxRecords))
+        runtimeResult.consumptionState != ConsumptionState.EXHAUSTED
+      } else {
+        false
+      }
+
+    if (!hasMore)
+      close(Success)
+    hasMore
+  }
+
+  private class BatchVisitor[E <: Exception](inner: QueryResultVisitor[E], maxRecords: Long) extends QueryResultVisitor[E] {
+    private var visited = 0L
+
+    override def visit(row: QueryResult.Record): Boolean = {
+      visited += 1
+      inner.visit(row) && visited < maxRecords
+    }
+  }
+
   /*
   ======= DUMP TO STRING ==========
    */
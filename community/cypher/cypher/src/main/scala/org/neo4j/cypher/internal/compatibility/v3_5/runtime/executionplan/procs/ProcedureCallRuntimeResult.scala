@@ -103,7 +103,9 @@ class ProcedureCallRuntimeResult(context: QueryContext,
 
   override def accept[EX <: Exception](visitor: QueryResultVisitor[EX]): Unit = {
     resultRequested = true
-    executionResults.foreach { res =>
+    var continue = true
+    while (continue && executionResults.hasNext) {
+      val res = executionResults.next()
       val fieldArray = new Array[AnyValue](indexResultNameMappings.size)
       for (i <- indexResultNameMappings.indices) {
         val mapping = indexResultNameMappings(i)
@@ -130,7 +132,7 @@ class ProcedureCallRuntimeResult(context: QueryContext,
           case CTAny => transform(res(pos), ValueUtils.of)
         }
       }
-      visitor.visit(new Record {
+      continue = visitor.visit(new Record {
         override def fields(): Array[AnyValue] = fieldArray
       })
     }
@@ -101,6 +101,10 @@ trait Counter {
   def increment() {
     _count += 1L
   }
+
+  def increment(hits: Int) {
+    _count += hits
+  }
 }
 
 final class ProfilingPipeQueryContext(inner: QueryContext, val p: Pipe)
@@ -194,6 +198,11 @@ final class ProfilingPipeQueryContext(inner: QueryContext, val p: Pipe)
     override protected def manyDbHits[A](value: Iterator[A]): Iterator[A] = self.manyDbHits(value)
 
     override protected def manyDbHits[A](value: LongIterator): LongIterator = self.manyDbHits(value)
+
+    override protected def manyDbHits(count: Int): Int = {
+      increment(count)
+      count
+    }
   }
 
   override def nodeOps: Operations[NodeValue] = new ProfilerOperations(inner.nodeOps)
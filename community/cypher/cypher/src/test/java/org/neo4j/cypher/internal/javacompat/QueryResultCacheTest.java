@@ -0,0 +1,322 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.javacompat;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.neo4j.graphdb.QueryExecutionType;
+import org.neo4j.graphdb.QueryStatistics;
+import org.neo4j.graphdb.Result;
+import org.neo4j.internal.kernel.api.security.AccessMode;
+import org.neo4j.internal.kernel.api.security.AuthSubject;
+import org.neo4j.internal.kernel.api.security.SecurityContext;
+import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.impl.core.EmbeddedProxySPI;
+import org.neo4j.kernel.impl.query.TransactionalContext;
+import org.neo4j.kernel.impl.transaction.log.TransactionIdStore;
+import org.neo4j.kernel.impl.util.DefaultValueMapper;
+import org.neo4j.values.AnyValue;
+import org.neo4j.values.virtual.MapValue;
+import org.neo4j.values.virtual.VirtualValues;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.neo4j.graphdb.QueryExecutionType.QueryType.READ_ONLY;
+import static org.neo4j.graphdb.QueryExecutionType.QueryType.READ_WRITE;
+import static org.neo4j.helpers.collection.MapUtil.map;
+import static org.neo4j.values.storable.Values.longValue;
+import static org.neo4j.values.virtual.VirtualValues.EMPTY_MAP;
+
+public class QueryResultCacheTest
+{
+    private static final String QUERY = "MATCH (n:Label) RETURN n.prop AS x";
+
+    private final TransactionIdStore transactionIdStore = mock( TransactionIdStore.class );
+    private final QueryResultCacheMonitor monitor = mock( QueryResultCacheMonitor.class );
+    private final KernelTransaction transaction = mock( KernelTransaction.class );
+    private final AtomicInteger executions = new AtomicInteger();
+    private final AtomicInteger determinismChecks = new AtomicInteger();
+    private Predicate<String> deterministic = query -> true;
+
+    @Before
+    public void setUp()
+    {
+        setLastTransactionIds( 42, 42 );
+    }
+
+    @Test
+    public void shouldServeRepeatedReadsFromCache()
+    {
+        QueryResultCache cache = newCache( 10, 10 );
+
+        List<Map<String,Object>> first = records( cache.execute( QUERY, EMPTY_MAP, newContext(), readOnly( 1, 2 ) ) );
+        TransactionalContext context = newContext();
+        List<Map<String,Object>> second = records( cache.execute( QUERY, EMPTY_MAP, context, readOnly( 3 ) ) );
+
+        assertEquals( 1, executions.get() );
+        assertEquals( Arrays.asList( map( "x", 1L ), map( "x", 2L ) ), first );
+        assertEquals( first, second );
+        verify( context ).close( true );
+        verify( monitor ).cacheMiss();
+        verify( monitor ).cacheHit();
+    }
+
+    @Test
+    public void shouldKeyResultsByParametersAndUser()
+    {
+        QueryResultCache cache = newCache( 10, 10 );
+        MapValue parameters = VirtualValues.map( new String[]{"p"}, new AnyValue[]{longValue( 1 )} );
+
+        cache.execute( QUERY, EMPTY_MAP, newContext(), readOnly( 1 ) );
+        cache.execute( QUERY, parameters, newContext(), readOnly( 1 ) );
+        cache.execute( QUERY, EMPTY_MAP, newContext( "someone" ), readOnly( 1 ) );
+        cache.execute( QUERY, parameters, newContext(), readOnly( 1 ) );
+
+        assertEquals( 3, executions.get() );
+        verify( monitor, times( 3 ) ).cacheMiss();
+        verify( monitor ).cacheHit();
+    }
+
+    @Test
+    public void shouldExecuteAgainAfterCommit()
+    {
+        QueryResultCache cache = newCache( 10, 10 );
+
+        cache.execute( QUERY, EMPTY_MAP, newContext(), readOnly( 1 ) );
+        setLastTransactionIds( 43, 43 );
+        List<Map<String,Object>> result = records( cache.execute( QUERY, EMPTY_MAP, newContext(), readOnly( 2 ) ) );
+
+        assertEquals( 2, executions.get() );
+        assertEquals( Collections.singletonList( map( "x", 2L ) ), result );
+        verify( monitor, never() ).cacheHit();
+    }
+
+    @Test
+    public void shouldNotCacheWhileCommittedTransactionsAreBeingApplied()
+    {
+        QueryResultCache cache = newCache( 10, 10 );
+        setLastTransactionIds( 43, 42 );
+
+        cache.execute( QUERY, EMPTY_MAP, newContext(), readOnly( 1 ) );
+        cache.execute( QUERY, EMPTY_MAP, newContext(), readOnly( 1 ) );
+
+        assertEquals( 2, executions.get() );
+        assertEquals( 0, cache.size() );
+    }
+
+    @Test
+    public void shouldBypassCacheInTransactionsWithChanges()
+    {
+        QueryResultCache cache = newCache( 10, 10 );
+        cache.execute( QUERY, EMPTY_MAP, newContext(), readOnly( 1 ) );
+
+        when( transaction.hasTxStateWithChanges() ).thenReturn( true );
+        cache.execute( QUERY, EMPTY_MAP, newContext(), readOnly( 1 ) );
+
+        assertEquals( 2, executions.get() );
+        verify( monitor, never() ).cacheHit();
+    }
+
+    @Test
+    public void shouldNotCacheQueriesThatWrite()
+    {
+        QueryResultCache cache = newCache( 10, 10 );
+        Result result = result( READ_WRITE, 1 );
+
+        assertSame( result, cache.execute( QUERY, EMPTY_MAP, newContext(), () -> result ) );
+        assertEquals( 0, cache.size() );
+    }
+
+    @Test
+    public void shouldNotCacheNonDeterministicQueries()
+    {
+        deterministic = query -> false;
+        QueryResultCache cache = newCache( 10, 10 );
+
+        Result result = result( READ_ONLY, 1 );
+        assertSame( result, cache.execute( "RETURN rand() AS x", EMPTY_MAP, newContext(), () -> result ) );
+        cache.execute( "RETURN rand() AS x", EMPTY_MAP, newContext(), readOnly( 2 ) );
+
+        assertEquals( 0, cache.size() );
+        assertEquals( 1, determinismChecks.get() );
+        verify( monitor, never() ).cacheMiss();
+        verify( monitor, never() ).cacheHit();
+    }
+
+    @Test
+    public void shouldStreamResultsWithTooManyRecordsWithoutMaterializingThemAgain()
+    {
+        QueryResultCache cache = newCache( 10, 1 );
+
+        Result first = cache.execute( QUERY, EMPTY_MAP, newContext(), readOnly( 1, 2 ) );
+        assertEquals( 2, records( first ).size() );
+
+        Result result = result( READ_ONLY, 1, 2 );
+        assertSame( result, cache.execute( QUERY, EMPTY_MAP, newContext(), () -> result ) );
+        verify( monitor ).cacheMiss();
+    }
+
+    @Test
+    public void shouldOnlyMaterializeOneRecordMoreThanCanBeCached()
+    {
+        QueryResultCache cache = newCache( 10, 10 );
+        long[] values = new long[100];
+        for ( int i = 0; i < values.length; i++ )
+        {
+            values[i] = i;
+        }
+        Result underlying = result( READ_ONLY, values );
+
+        Result result = cache.execute( QUERY, EMPTY_MAP, newContext(), () -> underlying );
+
+        assertTrue( underlying.hasNext() );
+        List<Map<String,Object>> records = records( result );
+        assertEquals( 100, records.size() );
+        for ( int i = 0; i < values.length; i++ )
+        {
+            assertEquals( map( "x", (long) i ), records.get( i ) );
+        }
+        assertFalse( underlying.hasNext() );
+    }
+
+    @Test
+    public void shouldStreamRemainingRecordsThroughQueryResult()
+    {
+        QueryResultCache cache = newCache( 10, 1 );
+
+        Result result = cache.execute( QUERY, EMPTY_MAP, newContext(), readOnly( 1, 2, 3, 4 ) );
+        List<AnyValue> values = new ArrayList<>();
+        boolean hasMore = ((QueryResultProvider) result).queryResult().accept( row ->
+        {
+            values.add( row.fields()[0] );
+            return true;
+        }, 3 );
+
+        assertEquals( Arrays.asList( longValue( 1 ), longValue( 2 ), longValue( 3 ) ), values );
+        assertTrue( hasMore );
+        assertEquals( Collections.singletonList( map( "x", 4L ) ), records( result ) );
+    }
+
+    @Test
+    public void shouldReportEvictions()
+    {
+        QueryResultCache cache = newCache( 1, 10 );
+
+        cache.execute( QUERY, EMPTY_MAP, newContext(), readOnly( 1 ) );
+        cache.execute( "RETURN 1 AS x", EMPTY_MAP, newContext(), readOnly( 1 ) );
+
+        assertEquals( 1, cache.size() );
+        verify( monitor ).cacheEviction();
+    }
+
+    @Test
+    public void shouldReplayRecordsThroughQueryResult()
+    {
+        QueryResultCache cache = newCache( 10, 10 );
+        cache.execute( QUERY, EMPTY_MAP, newContext(), readOnly( 1, 2, 3 ) );
+
+        Result result = cache.execute( QUERY, EMPTY_MAP, newContext(), readOnly() );
+        List<AnyValue> values = new ArrayList<>();
+        boolean hasMore = ((QueryResultProvider) result).queryResult().accept( row ->
+        {
+            values.add( row.fields()[0] );
+            return true;
+        }, 2 );
+
+        assertEquals( Arrays.asList( longValue( 1 ), longValue( 2 ) ), values );
+        assertTrue( hasMore );
+        assertEquals( Collections.singletonList( map( "x", 3L ) ), records( result ) );
+    }
+
+    private QueryResultCache newCache( int size, int maxRows )
+    {
+        Predicate<String> counting = query ->
+        {
+            determinismChecks.incrementAndGet();
+            return deterministic.test( query );
+        };
+        return new QueryResultCache( size, maxRows, counting, () -> transactionIdStore, () -> mock( EmbeddedProxySPI.class ), monitor );
+    }
+
+    private void setLastTransactionIds( long committed, long closed )
+    {
+        when( transactionIdStore.getLastCommittedTransactionId() ).thenReturn( committed );
+        when( transactionIdStore.getLastClosedTransactionId() ).thenReturn( closed );
+    }
+
+    private TransactionalContext newContext()
+    {
+        TransactionalContext context = mock( TransactionalContext.class );
+        when( context.kernelTransaction() ).thenReturn( transaction );
+        when( context.securityContext() ).thenReturn( SecurityContext.AUTH_DISABLED );
+        return context;
+    }
+
+    private TransactionalContext newContext( String user )
+    {
+        AuthSubject subject = mock( AuthSubject.class );
+        when( subject.username() ).thenReturn( user );
+        TransactionalContext context = newContext();
+        when( context.securityContext() ).thenReturn( new SecurityContext( subject, AccessMode.Static.READ ) );
+        return context;
+    }
+
+    private Supplier<Result> readOnly( long... values )
+    {
+        return () -> result( READ_ONLY, values );
+    }
+
+    private Result result( QueryExecutionType.QueryType queryType, long... values )
+    {
+        executions.incrementAndGet();
+        List<AnyValue[]> rows = new ArrayList<>();
+        for ( long value : values )
+        {
+            rows.add( new AnyValue[]{longValue( value )} );
+        }
+        QueryResultCache.Entry entry = new QueryResultCache.Entry( -1, new String[]{"x"}, rows, QueryExecutionType.query( queryType ),
+                mock( QueryStatistics.class ), null, Collections.emptyList() );
+        return new CachedResult( entry, new DefaultValueMapper( mock( EmbeddedProxySPI.class ) ), null );
+    }
+
+    private static List<Map<String,Object>> records( Result result )
+    {
+        List<Map<String,Object>> records = new ArrayList<>();
+        result.forEachRemaining( records::add );
+        return records;
+    }
+}
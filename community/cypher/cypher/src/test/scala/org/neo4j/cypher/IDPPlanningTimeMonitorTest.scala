@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher
+
+import org.neo4j.cypher.internal.compiler.v3_5.planner.logical.idp.IDPQueryGraphSolverMonitor
+import org.neo4j.cypher.internal.v3_5.util.test_helpers.CypherFunSuite
+import org.neo4j.kernel.monitoring.Monitors
+
+class IDPPlanningTimeMonitorTest extends CypherFunSuite {
+
+  test("should count planning times in the bucket of the smallest bound they don't exceed") {
+    // given
+    val monitor = new IDPPlanningTimeMonitor(Seq(1, 10, 100))
+
+    // when
+    Seq(0L, 1L, 2L, 10L, 11L, 100L, 101L, 5000L).foreach(monitor.foundPlanIn)
+
+    // then
+    monitor.histogram should equal(Seq(2, 2, 2, 2))
+  }
+
+  test("should receive planning times as a kernel monitor listener") {
+    // given
+    val monitors = new Monitors
+    val monitor = new IDPPlanningTimeMonitor
+    monitors.addMonitorListener(monitor)
+
+    // when
+    monitors.newMonitor(classOf[IDPQueryGraphSolverMonitor]).foundPlanIn(50)
+
+    // then
+    monitor.histogram should equal(Seq(0, 0, 1, 0, 0, 0))
+  }
+}
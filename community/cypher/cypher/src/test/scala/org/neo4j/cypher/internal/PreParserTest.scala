@@ -35,6 +35,10 @@ class PreParserTest extends CypherFunSuite {
     intercept[InvalidArgumentException](preParser.preParseQuery("CYPHER runtime=compiled runtime=interpreted RETURN 42"))
   }
 
+  test("should parse the parallel runtime option") {
+    preParser.preParseQuery("CYPHER runtime=parallel MATCH (n) RETURN count(n)").runtime should equal(CypherRuntimeOption.parallel)
+  }
+
   test("should not allow multiple versions") {
     intercept[InvalidArgumentException](preParser.preParseQuery("CYPHER 2.3 CYPHER 3.1 RETURN 42"))
   }
@@ -19,7 +19,10 @@
  */
 package org.neo4j.cypher.internal
 
-import org.mockito.ArgumentMatchers.any
+import java.util.concurrent.{Executor, RejectedExecutionException}
+
+import org.mockito.ArgumentMatchers
+import org.mockito.ArgumentMatchers.{any, anyLong}
 import org.mockito.Mockito.{times, verify, verifyNoMoreInteractions, when}
 import org.neo4j.cypher.internal.QueryCache.ParameterTypeMap
 import org.neo4j.helpers.collection.Pair
@@ -27,6 +30,8 @@ import org.neo4j.kernel.impl.query.TransactionalContext
 import org.neo4j.cypher.internal.v3_5.util.test_helpers.CypherFunSuite
 import org.scalatest.mock.MockitoSugar
 
+import scala.collection.mutable
+
 class QueryCacheTest extends CypherFunSuite {
   import QueryCacheTest._
 
@@ -143,6 +148,78 @@ class QueryCacheTest extends CypherFunSuite {
     verify(tracer).queryCacheRecompile(key, "")
     verifyNoMoreInteractions(tracer)
   }
+
+  test("if item is stale and replanned in the background we should keep hitting the stale item until replanned") {
+    // Given
+    val tracer = newTracer()
+    val executor = new QueueExecutor
+    val cache = newCache(tracer, alwaysStale(17), Some(executor))
+    val key = newKey("foo")
+    val replanned = MyValue("bar")(recompiled = false)
+    cache.computeIfAbsentOrStale(key, TC, compileKey(key), recompile(key), backgroundCompile = Some(() => replanned))
+
+    // When
+    val whileReplanning = cache.computeIfAbsentOrStale(key, TC, compileKey(key), recompile(key), backgroundCompile = Some(() => replanned))
+    val stillReplanning = cache.computeIfAbsentOrStale(key, TC, compileKey(key), recompile(key), backgroundCompile = Some(() => replanned))
+    executor.runAll()
+    val afterReplanning = cache.computeIfAbsentOrStale(key, TC, compileKey(key), recompile(key), backgroundCompile = Some(() => replanned))
+
+    // Then
+    whileReplanning should equal(CacheHit(valueFromKey(key)))
+    stillReplanning should equal(CacheHit(valueFromKey(key)))
+    afterReplanning should equal(CacheHit(replanned))
+
+    verify(tracer).queryCacheMiss(key, "")
+    verify(tracer, times(3)).queryCacheHit(key, "")
+    verify(tracer, times(2)).queryCacheStale(key, 17, "")
+    verify(tracer).queryCacheBackgroundReplan(ArgumentMatchers.eq(key), anyLong(), ArgumentMatchers.eq(""))
+    verifyNoMoreInteractions(tracer)
+  }
+
+  test("if replanning in the background fails we should miss the cache") {
+    // Given
+    val tracer = newTracer()
+    val executor = new QueueExecutor
+    val cache = newCache(tracer, alwaysStale(17), Some(executor))
+    val key = newKey("foo")
+    val failingReplan = () => throw new IllegalStateException("schema changed")
+    cache.computeIfAbsentOrStale(key, TC, compileKey(key), recompile(key), backgroundCompile = Some(failingReplan))
+    cache.computeIfAbsentOrStale(key, TC, compileKey(key), recompile(key), backgroundCompile = Some(failingReplan))
+
+    // When
+    executor.runAll()
+    val valueFromCache = cache.computeIfAbsentOrStale(key, TC, compileKey(key), recompile(key), backgroundCompile = Some(failingReplan))
+
+    // Then
+    valueFromCache should equal(CacheMiss(valueFromKey(key)))
+    verify(tracer, times(2)).queryCacheMiss(key, "")
+    verify(tracer).queryCacheHit(key, "")
+    verify(tracer).queryCacheStale(key, 17, "")
+    verifyNoMoreInteractions(tracer)
+  }
+
+  test("if replanning in the background is rejected we should compile in the foreground") {
+    // Given
+    val tracer = newTracer()
+    val executor = new Executor {
+      override def execute(task: Runnable): Unit = throw new RejectedExecutionException("shutting down")
+    }
+    val cache = newCache(tracer, alwaysStale(17), Some(executor))
+    val key = newKey("foo")
+    val replanned = MyValue("bar")(recompiled = false)
+    cache.computeIfAbsentOrStale(key, TC, compileKey(key), recompile(key), backgroundCompile = Some(() => replanned))
+
+    // When
+    val whenRejected = cache.computeIfAbsentOrStale(key, TC, compileKey(key), recompile(key), backgroundCompile = Some(() => replanned))
+    val afterRejected = cache.computeIfAbsentOrStale(key, TC, compileKey(key), recompile(key), backgroundCompile = Some(() => replanned))
+
+    // Then
+    whenRejected should equal(CacheMiss(valueFromKey(key)))
+    afterRejected should equal(CacheMiss(valueFromKey(key)))
+    verify(tracer, times(3)).queryCacheMiss(key, "")
+    verify(tracer, times(2)).queryCacheStale(key, 17, "")
+    verifyNoMoreInteractions(tracer)
+  }
 }
 
   object QueryCacheTest extends MockitoSugar {
@@ -164,8 +241,18 @@ class QueryCacheTest extends CypherFunSuite {
 
     def newKey(string: String): Key = Pair.of(string, Map.empty[String, Class[_]])
 
-   def newCache(tracer: Tracer = newTracer(), stalenessCaller:PlanStalenessCaller[MyValue] = neverStale()): QueryCache[String, Pair[String, ParameterTypeMap], MyValue] = {
-    new QueryCache[String, Pair[String, ParameterTypeMap], MyValue](10, stalenessCaller, tracer)
+   def newCache(tracer: Tracer = newTracer(),
+                stalenessCaller:PlanStalenessCaller[MyValue] = neverStale(),
+                replanExecutor: Option[Executor] = None): QueryCache[String, Pair[String, ParameterTypeMap], MyValue] = {
+    new QueryCache[String, Pair[String, ParameterTypeMap], MyValue](10, stalenessCaller, tracer, replanExecutor)
+  }
+
+  class QueueExecutor extends Executor {
+    private val tasks = mutable.Queue[Runnable]()
+
+    override def execute(task: Runnable): Unit = tasks.enqueue(task)
+
+    def runAll(): Unit = while (tasks.nonEmpty) tasks.dequeue().run()
   }
 
    def newTracer(): Tracer = mock[Tracer]
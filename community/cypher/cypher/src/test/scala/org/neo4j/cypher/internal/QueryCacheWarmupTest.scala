@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal
+
+import java.io.File
+import java.nio.file.Files
+
+import org.neo4j.cypher.internal.QueryCache.extractParameterTypeMap
+import org.neo4j.cypher.internal.v3_5.util.test_helpers.CypherFunSuite
+import org.neo4j.helpers.collection.Pair
+import org.neo4j.logging.NullLog
+import org.neo4j.values.storable.{DateValue, Values}
+import org.neo4j.values.virtual.{MapValue, VirtualValues}
+
+import scala.collection.mutable.ArrayBuffer
+
+class QueryCacheWarmupTest extends CypherFunSuite {
+
+  private var file: File = _
+
+  override protected def beforeEach(): Unit = {
+    super.beforeEach()
+    file = new File(Files.createTempDirectory("query-cache-warmup").toFile, "cypher-query-cache")
+  }
+
+  test("reads nothing when nothing has been exported") {
+    new QueryCacheWarmup(file, NullLog.getInstance()).read() shouldBe empty
+  }
+
+  test("reads back exported queries with parameters of the same types") {
+    // given
+    val warmup = new QueryCacheWarmup(file, NullLog.getInstance())
+    val params = VirtualValues.map(Array("id", "name", "date"),
+                                   Array(Values.longValue(42), Values.stringValue("Bob"), DateValue.epochDate(1)))
+    val keys = Seq(key("MATCH (n) WHERE id(n) = $id RETURN n", params), key("RETURN 1", VirtualValues.EMPTY_MAP))
+
+    // when
+    warmup.export(keys)
+    val queries = warmup.read()
+
+    // then
+    queries.map(_._1) should equal(Seq("MATCH (n) WHERE id(n) = $id RETURN n", "RETURN 1"))
+    queries.map { case (query, sampleParams) => key(query, sampleParams) } should equal(keys)
+  }
+
+  test("replaces previously exported queries") {
+    // given
+    val warmup = new QueryCacheWarmup(file, NullLog.getInstance())
+    warmup.export(Seq(key("RETURN 1", VirtualValues.EMPTY_MAP)))
+
+    // when
+    warmup.export(Seq(key("RETURN 2", VirtualValues.EMPTY_MAP)))
+
+    // then
+    warmup.read().map(_._1) should equal(Seq("RETURN 2"))
+  }
+
+  test("skips queries with parameters of unknown types") {
+    // given
+    val warmup = new QueryCacheWarmup(file, NullLog.getInstance())
+    warmup.export(Seq(
+      Pair.of("RETURN $x", Map[String, Class[_]]("x" -> classOf[Object])),
+      key("RETURN 1", VirtualValues.EMPTY_MAP)))
+
+    // when
+    val queries = warmup.read()
+
+    // then
+    queries.map(_._1) should equal(Seq("RETURN 1"))
+  }
+
+  test("warms up with all queries that could be planned") {
+    // given
+    val warmup = new QueryCacheWarmup(file, NullLog.getInstance())
+    warmup.export(Seq(key("RETURN 1", VirtualValues.EMPTY_MAP), key("RETURN", VirtualValues.EMPTY_MAP)))
+    val planned = new ArrayBuffer[String]
+
+    // when
+    val count = warmup.warmUp((query, _) => {
+      if (query == "RETURN") throw new IllegalArgumentException("Invalid input")
+      planned += query
+    })
+
+    // then
+    count should equal(1)
+    planned should equal(Seq("RETURN 1"))
+  }
+
+  private def key(query: String, params: MapValue) = Pair.of(query, extractParameterTypeMap(params))
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility.v3_5.runtime
+
+import org.neo4j.cypher.internal.compiler.v3_5.planner.LogicalPlanningTestSupport
+import org.neo4j.cypher.internal.compatibility.v3_5.runtime.ParallelPipeBuilderFactory.parallelChains
+import org.neo4j.cypher.internal.v3_5.expressions._
+import org.neo4j.cypher.internal.v3_5.logical.plans._
+import org.neo4j.cypher.internal.v3_5.util.test_helpers.CypherFunSuite
+
+class ParallelPipeBuilderFactoryTest extends CypherFunSuite with LogicalPlanningTestSupport {
+
+  test("should run scans with the streaming operators and mergeable aggregation above them in parallel") {
+    // given
+    val scan = NodeByLabelScan("n", LabelName("L")(pos), Set.empty)
+    val expand = Expand(scan, "n", SemanticDirection.OUTGOING, Seq.empty, "m", "r")
+    val aggregation = Aggregation(expand, Map("n" -> varFor("n")), Map("c" -> CountStar()(pos)))
+    val plan = ProduceResult(aggregation, Seq("n", "c"))
+
+    // when
+    val chains = parallelChains(plan)
+
+    // then
+    chains should equal(Map(aggregation.id -> scan))
+  }
+
+  test("should not run aggregations that can't be merged in parallel") {
+    // given
+    val scan = AllNodesScan("n", Set.empty)
+    val expand = Expand(scan, "n", SemanticDirection.OUTGOING, Seq.empty, "m", "r")
+    val collect = FunctionInvocation(FunctionName("collect")(pos), distinct = false, IndexedSeq(varFor("m")))(pos)
+    val aggregation = Aggregation(expand, Map("n" -> varFor("n")), Map("c" -> collect))
+    val plan = ProduceResult(aggregation, Seq("n", "c"))
+
+    // when
+    val chains = parallelChains(plan)
+
+    // then
+    chains should equal(Map(expand.id -> scan))
+  }
+
+  test("should not run scans on the right-hand side of an apply in parallel") {
+    // given
+    val lhs = AllNodesScan("a", Set.empty)
+    val rhs = Selection(Ands(Set(Equals(varFor("b"), varFor("b"))(pos)))(pos), AllNodesScan("b", Set.empty))
+    val plan = ProduceResult(Apply(lhs, rhs), Seq("a", "b"))
+
+    // when
+    val chains = parallelChains(plan)
+
+    // then
+    chains shouldBe empty
+  }
+}
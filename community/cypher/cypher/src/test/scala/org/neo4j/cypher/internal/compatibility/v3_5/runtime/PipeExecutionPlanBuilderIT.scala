@@ -23,6 +23,7 @@ import org.mockito.Mockito.{atLeastOnce, verify, when}
 import org.neo4j.cypher.internal.compiler.v3_5.planner._
 import org.neo4j.cypher.internal.ir.v3_5._
 import org.neo4j.cypher.internal.planner.v3_5.spi.{PlanContext, TokenContext}
+import org.neo4j.cypher.internal.runtime.interpreted.commands.compiled.CompiledCommandExpression
 import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.{CommunityExpressionConverter, ExpressionConverters}
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Literal
 import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates.True
@@ -199,6 +200,23 @@ class PipeExecutionPlanBuilderIT extends CypherFunSuite with LogicalPlanningTest
           Resolved("prop", token, TokenType.PropertyKey))))())
   }
 
+  test("Selection => FilterPipe with a compiled predicate that reads its properties in one batch") {
+    // GIVEN
+    val n = Variable("n")(pos)
+    val predicate = Ands(Set[Expression](
+      Equals(Property(n, PropertyKeyName("a")(pos))(pos), SignedDecimalIntegerLiteral("1")(pos))(pos),
+      Equals(Property(n, PropertyKeyName("b")(pos))(pos), SignedDecimalIntegerLiteral("2")(pos))(pos)))(pos)
+    val selection = Selection(predicate, AllNodesScan("n", Set.empty))
+
+    // WHEN
+    val pipe = planBuilder.build(selection)(pipeBuildContext.copy(compileExpressions = true), planContext)
+
+    // THEN
+    val filterPredicate = pipe.asInstanceOf[FilterPipe].predicate
+    filterPredicate shouldBe a[CompiledCommandExpression]
+    filterPredicate.filter(_.isInstanceOf[legacy.BatchedProperty]) should have size 2
+  }
+
   def pipeExecutionPlanBuilderContext: PipeExecutionBuilderContext = {
     val semanticTable = new SemanticTable(resolvedRelTypeNames =
                                             mutable.Map("existing1" -> RelTypeId(1),
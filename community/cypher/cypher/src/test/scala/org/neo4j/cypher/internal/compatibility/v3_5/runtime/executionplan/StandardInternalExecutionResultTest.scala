@@ -123,6 +123,46 @@ class StandardInternalExecutionResultTest extends CypherFunSuite {
     assertMaterializationOfMethod(false, true, TestRuntimeResult(List(1), isIterable = false), _.accept(mock[QueryResult.QueryResultVisitor[Exception]]))
   }
 
+  // ACCEPT IN BATCHES
+
+  test("should consume iterable result in batches without materializing") {
+    assertBatchesOfAccept(false, TestRuntimeResult(List(1, 2, 3), isIterable = true))
+  }
+
+  test("should materialize not iterable result when accept in batches") {
+    assertBatchesOfAccept(true, TestRuntimeResult(List(1, 2, 3), isIterable = false))
+  }
+
+  private def assertBatchesOfAccept(shouldMaterialize: Boolean, inner: TestRuntimeResult): Unit = {
+    // given
+    val x = standardInternalExecutionResult(inner, READ_ONLY)
+    x.initiate()
+    var visited = 0
+    val visitor = new QueryResult.QueryResultVisitor[Exception] {
+      override def visit(row: QueryResult.Record): Boolean = {
+        visited += 1
+        true
+      }
+    }
+
+    // when
+    val firstHasMore = x.accept(visitor, 2)
+
+    // then
+    firstHasMore should be(true)
+    visited should be(2)
+    x.isClosed should be(false)
+    x.isMaterialized should be(shouldMaterialize)
+
+    // when
+    val secondHasMore = x.accept(visitor, 2)
+
+    // then
+    secondHasMore should be(false)
+    visited should be(3)
+    x.isClosed should be(true)
+  }
+
   private def assertMaterializationOfMethod(shouldMaterialize: Boolean,
                                             shouldExhaust: Boolean,
                                             inner: TestRuntimeResult = TestRuntimeResult(List(1)),
@@ -184,12 +224,13 @@ class StandardInternalExecutionResultTest extends CypherFunSuite {
 
     override def accept[E <: Exception](visitor: QueryResult.QueryResultVisitor[E]): Unit = {
       resultRequested = true
-      while (iterator.hasNext) {
+      var continue = true
+      while (continue && iterator.hasNext) {
         val value = Values.of(iterator.next())
         val record = new QueryResult.Record {
           override def fields(): Array[AnyValue] = Array().padTo(fieldNames.length, value)
         }
-        visitor.visit(record)
+        continue = visitor.visit(record)
       }
     }
 
@@ -26,10 +26,11 @@ import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.Interprete
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{NestedPipeExpression, ProjectedPath}
 import org.neo4j.cypher.internal.runtime.interpreted.pipes._
 import org.neo4j.cypher.internal.runtime.interpreted.{ExecutionContext, QueryStateHelper}
-import org.neo4j.cypher.internal.runtime.{QueryContext, QueryTransactionalContext}
+import org.neo4j.cypher.internal.runtime.{Operations, QueryContext, QueryTransactionalContext}
 import org.neo4j.cypher.result.{OperatorProfile, QueryProfile}
 import org.neo4j.kernel.impl.factory.DatabaseInfo
 import org.neo4j.values.storable.Values.NO_VALUE
+import org.neo4j.values.virtual.NodeValue
 import org.neo4j.cypher.internal.v3_5.util.attribution.{Id, SequentialIdGen}
 import org.neo4j.cypher.internal.v3_5.util.test_helpers.CypherFunSuite
 
@@ -250,6 +251,19 @@ class ProfilerTest extends CypherFunSuite {
       profiled2.query.asInstanceOf[ProfilingPipeQueryContext].count should equal(1)
     }
 
+  test("should count one dbhit per property read together") {
+    val profiler = new Profiler(DatabaseInfo.COMMUNITY, new InterpretedProfileInformation)
+
+    val pipe = ArgumentPipe()(idGen.id())
+    val ctx: QueryContext = prepareQueryContext()
+    when(ctx.nodeOps).thenReturn(mock[Operations[NodeValue]])
+    val state = QueryStateHelper.emptyWith(query = ctx, resources = mock[ExternalCSVResource])
+
+    val profiled = profiler.decorate(pipe, state)
+    profiled.query.nodeOps.getProperties(42L, Array(1, 2, 3))
+    profiled.query.asInstanceOf[ProfilingPipeQueryContext].count should equal(3)
+  }
+
   private def prepareQueryContext(statisticProvider: KernelStatisticProvider = EmptyKernelStatisticProvider) = {
     val queryContext = mock[QueryContext]
     val transactionalContext = mock[QueryTransactionalContext]
@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted
+
+import org.neo4j.cypher.internal.runtime.EntityById
+import org.neo4j.cypher.internal.v3_5.logical.plans.CachedNodeProperty
+import org.neo4j.cypher.internal.v3_5.util.InternalException
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.{Value, Values}
+import org.neo4j.values.virtual._
+
+import scala.collection.mutable.{Map => MutableMap}
+import scala.collection.{Iterator, immutable}
+
+object ArrayExecutionContext {
+  def empty(slots: VariableSlots): ArrayExecutionContext = new ArrayExecutionContext(slots, new Array[AnyValue](slots.size), null, null)
+
+  /**
+    * Creates a context with the same entries and cached properties as the given context, which may be of any kind.
+    */
+  def copyOf(slots: VariableSlots, other: ExecutionContext): ArrayExecutionContext = other match {
+    case context: ArrayExecutionContext if context.slots eq slots =>
+      context.createClone()
+    case _ =>
+      val context = empty(slots)
+      other.foreach(kv => context.set(kv._1, kv._2))
+      val otherCachedProperties = ExecutionContext.cachedPropertiesOf(other)
+      context.cachedProperties = if (otherCachedProperties == null) null else otherCachedProperties.clone()
+      context
+  }
+}
+
+/**
+  * Execution context which stores the value of each variable at the offset given to it by [[VariableSlots]], instead of
+  * in a hash map. Copying a row, which pipes like expand and projection do for every row they produce, is then a matter of
+  * cloning an array, and looking up a variable is a single lookup of its offset followed by array indexing.
+  *
+  * Variables without a slot, e.g. ones introduced by a nested plan which wasn't known when slots were computed, are
+  * kept in an overflow map so that this context can be used as a drop-in replacement for [[MapExecutionContext]].
+  * A slot holding `null` means that the variable isn't set.
+  */
+class ArrayExecutionContext private(private val slots: VariableSlots,
+                                    private val refs: Array[AnyValue],
+                                    private var overflow: MutableMap[String, AnyValue],
+                                    private var cachedProperties: MutableMap[CachedNodeProperty, Value])
+  extends ExecutionContext {
+
+  override def copyTo(target: ExecutionContext,
+                      fromLongOffset: Int = 0,
+                      fromRefOffset: Int = 0,
+                      toLongOffset: Int = 0,
+                      toRefOffset: Int = 0): Unit = target match {
+    case _: MapExecutionContext | _: ArrayExecutionContext => foreach(kv => target.set(kv._1, kv._2))
+    case _ => fail()
+  }
+
+  override def copyFrom(input: ExecutionContext, nLongs: Int, nRefs: Int): Unit = fail()
+
+  override def copyCachedFrom(input: ExecutionContext): Unit = {
+    val oldCachedProperties = ExecutionContext.cachedPropertiesOf(input)
+    if (oldCachedProperties == null) cachedProperties = null
+    else {
+      cachedProperties = oldCachedProperties.clone()
+      oldCachedProperties.foreach {
+        case (CachedNodeProperty(varName, _), _) =>
+          set(varName, input.getOrElse(varName, throw new IllegalStateException("The variable of a cached node property should be in the context.")))
+      }
+    }
+  }
+
+  override def setLongAt(offset: Int, value: Long): Unit = fail()
+  override def getLongAt(offset: Int): Long = fail()
+
+  override def setRefAt(offset: Int, value: AnyValue): Unit = refs(offset) = value
+  override def getRefAt(offset: Int): AnyValue = refs(offset)
+
+  private def fail(): Nothing = throw new InternalException("Tried using an array context as a slotted context")
+
+  private def valueOrNull(key: String): AnyValue = {
+    val offset = slots.offsetFor(key)
+    if (offset >= 0) refs(offset)
+    else if (overflow == null) null
+    else overflow.getOrElse(key, null)
+  }
+
+  /**
+    * The value of a variable whose offset in the given slots has already been looked up, or null if it isn't set.
+    * Rows laid out according to other slots look the variable up by its name instead.
+    */
+  def valueAt(slots: VariableSlots, offset: Int, key: String): AnyValue =
+    if (slots eq this.slots) refs(offset) else valueOrNull(key)
+
+  override def get(key: String): Option[AnyValue] = Option(valueOrNull(key))
+
+  override def apply(key: String): AnyValue = {
+    val value = valueOrNull(key)
+    if (value == null) default(key) else value
+  }
+
+  override def getOrElse[V1 >: AnyValue](key: String, default: => V1): V1 = {
+    val value = valueOrNull(key)
+    if (value == null) default else value
+  }
+
+  override def contains(key: String): Boolean = valueOrNull(key) != null
+
+  override def iterator: Iterator[(String, AnyValue)] = {
+    val slotted = refs.indices.iterator.filter(refs(_) != null).map(i => (slots.variableAt(i), refs(i)))
+    if (overflow == null) slotted else slotted ++ overflow.iterator
+  }
+
+  override def size: Int = {
+    var count = 0
+    var i = 0
+    while (i < refs.length) {
+      if (refs(i) != null) count += 1
+      i += 1
+    }
+    if (overflow == null) count else count + overflow.size
+  }
+
+  override def foreach[U](f: ((String, AnyValue)) => U): Unit = {
+    var i = 0
+    while (i < refs.length) {
+      val value = refs(i)
+      if (value != null) f((slots.variableAt(i), value))
+      i += 1
+    }
+    if (overflow != null) overflow.foreach(f)
+  }
+
+  override def mergeWith(other: ExecutionContext, entityById: EntityById): Unit = other match {
+    case otherArrayCtx: ArrayExecutionContext if otherArrayCtx.slots eq slots =>
+      var i = 0
+      while (i < refs.length) {
+        val value = otherArrayCtx.refs(i)
+        if (value != null) refs(i) = value
+        i += 1
+      }
+      if (otherArrayCtx.overflow != null) otherArrayCtx.overflow.foreach(kv => setOverflow(kv._1, kv._2))
+      mergeCachedProperties(otherArrayCtx.cachedProperties)
+    case _: ArrayExecutionContext | _: MapExecutionContext =>
+      other.foreach(kv => set(kv._1, kv._2))
+      mergeCachedProperties(ExecutionContext.cachedPropertiesOf(other))
+    case _ => fail()
+  }
+
+  private def mergeCachedProperties(otherCachedProperties: MutableMap[CachedNodeProperty, Value]): Unit =
+    if (otherCachedProperties != null) {
+      if (cachedProperties == null) {
+        cachedProperties = otherCachedProperties.clone()
+      } else {
+        cachedProperties ++= otherCachedProperties
+      }
+    }
+
+  override def +=(kv: (String, AnyValue)): ArrayExecutionContext.this.type = {
+    set(kv._1, kv._2)
+    this
+  }
+
+  override def -=(key: String): this.type = {
+    val offset = slots.offsetFor(key)
+    if (offset >= 0) refs(offset) = null
+    else if (overflow != null) overflow.remove(key)
+    this
+  }
+
+  override def toMap[T, U](implicit ev: (String, AnyValue) <:< (T, U)): immutable.Map[T, U] = {
+    val builder = immutable.Map.newBuilder[T, U]
+    foreach(kv => builder += ev(kv))
+    builder.result()
+  }
+
+  override def set(newEntries: Seq[(String, AnyValue)]): Unit =
+    newEntries.foreach(kv => set(kv._1, kv._2))
+
+  override def set(key: String, value: AnyValue): Unit = {
+    val offset = slots.offsetFor(key)
+    if (offset >= 0) refs(offset) = value
+    else setOverflow(key, value)
+  }
+
+  override def set(key1: String, value1: AnyValue, key2: String, value2: AnyValue): Unit = {
+    set(key1, value1)
+    set(key2, value2)
+  }
+
+  override def set(key1: String, value1: AnyValue, key2: String, value2: AnyValue, key3: String, value3: AnyValue): Unit = {
+    set(key1, value1)
+    set(key2, value2)
+    set(key3, value3)
+  }
+
+  private def setOverflow(key: String, value: AnyValue): Unit = {
+    if (overflow == null) {
+      overflow = MutableMaps.create[String, AnyValue](4)
+    }
+    overflow.put(key, value)
+  }
+
+  override def copyWith(key: String, value: AnyValue): ExecutionContext = {
+    val copy = createClone()
+    copy.set(key, value)
+    copy
+  }
+
+  override def copyWith(key1: String, value1: AnyValue, key2: String, value2: AnyValue): ExecutionContext = {
+    val copy = createClone()
+    copy.set(key1, value1)
+    copy.set(key2, value2)
+    copy
+  }
+
+  override def copyWith(key1: String, value1: AnyValue,
+                        key2: String, value2: AnyValue,
+                        key3: String, value3: AnyValue): ExecutionContext = {
+    val copy = createClone()
+    copy.set(key1, value1)
+    copy.set(key2, value2)
+    copy.set(key3, value3)
+    copy
+  }
+
+  override def copyWith(newEntries: Seq[(String, AnyValue)]): ExecutionContext = {
+    val copy = createClone()
+    copy.set(newEntries)
+    copy
+  }
+
+  override def createClone(): ArrayExecutionContext =
+    new ArrayExecutionContext(slots,
+                              refs.clone(),
+                              if (overflow == null) null else overflow.clone(),
+                              if (cachedProperties == null) null else cachedProperties.clone())
+
+  override def boundEntities(materializeNode: Long => AnyValue, materializeRelationship: Long => AnyValue): Map[String, AnyValue] =
+    iterator.collect {
+      case kv @ (_, _: NodeValue) =>
+        kv
+      case kv @ (_, _: RelationshipValue) =>
+        kv
+      case (k, v: NodeReference) =>
+        (k, materializeNode(v.id()))
+      case (k, v: RelationshipReference) =>
+        (k, materializeRelationship(v.id()))
+    }.toMap
+
+  override def isNull(key: String): Boolean = valueOrNull(key) == Values.NO_VALUE
+
+  override def setCachedProperty(key: CachedNodeProperty, value: Value): Unit = {
+    if (cachedProperties == null) {
+      cachedProperties = MutableMap.empty
+    }
+    cachedProperties.put(key, value)
+  }
+
+  override def setCachedPropertyAt(offset: Int, value: Value): Unit = fail()
+
+  override def getCachedProperty(key: CachedNodeProperty): Value = {
+    if (cachedProperties == null) {
+      throw new NoSuchElementException("key not found: " + key)
+    }
+    cachedProperties(key)
+  }
+
+  override def getCachedPropertyAt(offset: Int): Value = fail()
+
+  override def invalidateCachedProperties(node: Long): Unit = {
+    if (cachedProperties != null)
+      cachedProperties.keys.filter(cnp => apply(cnp.nodeVariableName) match {
+        case n: VirtualNodeValue => n.id() == node
+        case _ => false
+      }).foreach(cnp => setCachedProperty(cnp, null))
+  }
+
+  private[interpreted] def cachedPropertiesOrNull: MutableMap[CachedNodeProperty, Value] = cachedProperties
+}
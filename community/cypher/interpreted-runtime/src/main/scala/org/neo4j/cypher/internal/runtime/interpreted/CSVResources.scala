@@ -23,6 +23,8 @@ import java.io._
 import java.net.{CookieHandler, CookieManager, CookiePolicy, URL}
 import java.nio.charset.StandardCharsets
 import java.nio.file.Paths
+import java.util.concurrent.TimeUnit.MILLISECONDS
+import java.util.concurrent.{ArrayBlockingQueue, CountDownLatch, Executor}
 import java.util.zip.{GZIPInputStream, InflaterInputStream}
 
 import org.neo4j.csv.reader._
@@ -39,6 +41,7 @@ object CSVResources {
   val DEFAULT_FIELD_TERMINATOR: Char = ','
   val DEFAULT_BUFFER_SIZE: Int = 2 * 1024 * 1024
   val DEFAULT_QUOTE_CHAR: Char = '"'
+  val READ_AHEAD_ROWS: Int = 1024
 
   private def config(legacyCsvQuoteEscaping: Boolean, csvBufferSize: Int) = new Configuration {
     override def quotationCharacter(): Char = DEFAULT_QUOTE_CHAR
@@ -59,7 +62,11 @@ case class CSVResource(url: URL, resource: AutoCloseable) extends AutoCloseable
   override def close(): Unit = resource.close()
 }
 
-class CSVResources(resourceManager: ResourceManager) extends ExternalCSVResource {
+/**
+  * @param readAheadExecutor if given, runs the reading and parsing of every file, ahead of the rows consumed by the query
+  */
+class CSVResources(resourceManager: ResourceManager, readAheadExecutor: Option[Executor] = None)
+  extends ExternalCSVResource {
 
   def getCsvIterator(url: URL, fieldTerminator: Option[String], legacyCsvQuoteEscaping: Boolean, bufferSize: Int,
                      headers: Boolean = false): Iterator[Array[String]] = {
@@ -71,9 +78,7 @@ class CSVResources(resourceManager: ResourceManager) extends ExternalCSVResource
     val intDelimiter = delimiter.toInt
     val mark = new Mark
 
-    resourceManager.trace(CSVResource(url, seeker))
-
-    new Iterator[Array[String]] {
+    val rows = new Iterator[Array[String]] {
       private def readNextRow: Array[String] = {
         val buffer = new ArrayBuffer[String]
 
@@ -106,6 +111,16 @@ class CSVResources(resourceManager: ResourceManager) extends ExternalCSVResource
         row
       }
     }
+
+    readAheadExecutor match {
+      case Some(executor) =>
+        val readAheadRows = new ReadAheadIterator(rows, seeker, CSVResources.READ_AHEAD_ROWS, executor)
+        resourceManager.trace(CSVResource(url, readAheadRows))
+        readAheadRows
+      case None =>
+        resourceManager.trace(CSVResource(url, seeker))
+        rows
+    }
   }
 
   private def getReader(url: URL) = try {
@@ -137,6 +152,82 @@ class CSVResources(resourceManager: ResourceManager) extends ExternalCSVResource
   }
 }
 
+/**
+  * Pulls rows from the given iterator on a thread of the executor into a bounded queue, so that parsing the next rows
+  * overlaps with the query working on the previous ones.
+  *
+  * Closing closes the seeker first, so that a read blocked on a slow source, like a http connection, fails right away
+  * instead of when it times out. It then waits a bounded time for the reader to stop.
+  */
+class ReadAheadIterator(rows: Iterator[Array[String]], seeker: CharSeeker, capacity: Int, executor: Executor)
+  extends Iterator[Array[String]] with AutoCloseable {
+
+  import ReadAheadIterator._
+
+  private val queue = new ArrayBlockingQueue[AnyRef](capacity)
+  private val stopped = new CountDownLatch(1)
+  @volatile private var closed = false
+  private var nextRow: AnyRef = _
+
+  try {
+    executor.execute(new Runnable {
+      override def run(): Unit =
+        try {
+          try {
+            while (!closed && rows.hasNext) offer(rows.next())
+            offer(END)
+          } catch {
+            case e: Throwable => offer(Failed(e))
+          }
+        } finally {
+          stopped.countDown()
+        }
+    })
+  } catch {
+    case e: Throwable =>
+      seeker.close()
+      throw e
+  }
+
+  private def offer(element: AnyRef): Unit =
+    while (!closed && !queue.offer(element, POLL_INTERVAL_MILLIS, MILLISECONDS)) {}
+
+  override def hasNext: Boolean = {
+    if (nextRow == null) nextRow = queue.take()
+    nextRow match {
+      case END => false
+      case Failed(e) => throw e
+      case _ => true
+    }
+  }
+
+  override def next(): Array[String] = {
+    if (!hasNext) Iterator.empty.next()
+    val row = nextRow.asInstanceOf[Array[String]]
+    nextRow = null
+    row
+  }
+
+  override def close(): Unit = {
+    closed = true
+    seeker.close()
+    // Should the reader be stuck regardless, it stops as soon as its read returns
+    stopped.await(CLOSE_TIMEOUT_MILLIS, MILLISECONDS)
+  }
+
+  /**
+    * @return whether the reader has stopped, having read the whole file or having been closed.
+    */
+  def isStopped: Boolean = stopped.getCount == 0
+}
+
+object ReadAheadIterator {
+  private val POLL_INTERVAL_MILLIS = 10L
+  private val CLOSE_TIMEOUT_MILLIS = 10000L
+  private val END = new Object
+  private case class Failed(e: Throwable)
+}
+
 object TheCookieManager {
   private lazy val theCookieManager = create
 
@@ -31,9 +31,11 @@ import org.neo4j.internal.kernel.api.helpers.RelationshipSelectionCursor
 import org.neo4j.internal.kernel.api.procs.ProcedureCallContext
 import org.neo4j.internal.kernel.api.{CursorFactory, IndexReference, Read, Write, _}
 import org.neo4j.kernel.api.dbms.DbmsOperations
+import org.neo4j.kernel.api.query.ExecutingQuery
 import org.neo4j.kernel.impl.api.store.RelationshipIterator
 import org.neo4j.kernel.impl.core.EmbeddedProxySPI
 import org.neo4j.kernel.impl.factory.DatabaseInfo
+import org.neo4j.scheduler.JobScheduler
 import org.neo4j.values.AnyValue
 import org.neo4j.values.storable.{TextValue, Value}
 import org.neo4j.values.virtual.{ListValue, MapValue, NodeValue, RelationshipValue}
@@ -297,6 +299,7 @@ class DelegatingOperations[T](protected val inner: Operations[T]) extends Operat
   protected def manyDbHits[A](value: Iterator[A]): Iterator[A] = value
 
   protected def manyDbHits[A](value: LongIterator): LongIterator = value
+  protected def manyDbHits(count: Int): Int = count
 
   override def delete(id: Long): Unit = singleDbHit(inner.delete(id))
 
@@ -307,6 +310,11 @@ class DelegatingOperations[T](protected val inner: Operations[T]) extends Operat
 
   override def getProperty(obj: Long, propertyKeyId: Int): Value = singleDbHit(inner.getProperty(obj, propertyKeyId))
 
+  override def getProperties(obj: Long, propertyKeyIds: Array[Int]): Array[Value] = {
+    manyDbHits(propertyKeyIds.length)
+    inner.getProperties(obj, propertyKeyIds)
+  }
+
   override def getTxStateProperty(obj: Long, propertyKeyId: Int): Option[Value] = inner.getTxStateProperty(obj, propertyKeyId)
 
   override def hasProperty(obj: Long, propertyKeyId: Int): Boolean = singleDbHit(inner.hasProperty(obj, propertyKeyId))
@@ -345,6 +353,8 @@ class DelegatingQueryTransactionalContext(val inner: QueryTransactionalContext)
 
   override def databaseInfo: DatabaseInfo = inner.databaseInfo
 
+  override def jobScheduler: JobScheduler = inner.jobScheduler
+
   override def transaction: Transaction = inner.transaction
 
   override def cursors: CursorFactory = inner.cursors
@@ -356,4 +366,6 @@ class DelegatingQueryTransactionalContext(val inner: QueryTransactionalContext)
   override def schemaRead: SchemaRead = inner.schemaRead
 
   override def dataWrite: Write = inner.dataWrite
+
+  override def executingQuery: ExecutingQuery = inner.executingQuery
 }
@@ -39,6 +39,15 @@ object ExecutionContext {
   }
 
   def apply(m: MutableMap[String, AnyValue] = MutableMaps.empty): MapExecutionContext = new MapExecutionContext(m, null)
+
+  /**
+    * The cached node properties of a map or array context, or null if it has none.
+    */
+  private[interpreted] def cachedPropertiesOf(context: ExecutionContext): MutableMap[CachedNodeProperty, Value] = context match {
+    case mapContext: MapExecutionContext => mapContext.cachedPropertiesOrNull
+    case arrayContext: ArrayExecutionContext => arrayContext.cachedPropertiesOrNull
+    case _ => throw new InternalException("Tried using a slotted context as a map context")
+  }
 }
 
 trait ExecutionContext extends MutableMap[String, AnyValue] {
@@ -100,22 +109,22 @@ class MapExecutionContext(private val m: MutableMap[String, AnyValue], private v
                       fromRefOffset: Int = 0,
                       toLongOffset: Int = 0,
                       toRefOffset: Int = 0): Unit = target match {
-    case other: MapExecutionContext => m.keys.foreach(k => other.set(k, m(k)))
+    case _: MapExecutionContext | _: ArrayExecutionContext => m.keys.foreach(k => target.set(k, m(k)))
     case _ => fail()
   }
 
   override def copyFrom(input: ExecutionContext, nLongs: Int, nRefs: Int): Unit = fail()
 
   override def copyCachedFrom(input: ExecutionContext): Unit = input match {
-    case context : MapExecutionContext =>
-      val oldCachedProperties = context.cachedProperties
+    case _: MapExecutionContext | _: ArrayExecutionContext =>
+      val oldCachedProperties = ExecutionContext.cachedPropertiesOf(input)
       if (oldCachedProperties == null) cachedProperties = null
       else
       {
         cachedProperties = oldCachedProperties.clone()
         oldCachedProperties.foreach {
           case (CachedNodeProperty(varName,_),_) =>
-            set(varName, context.getOrElse(varName, throw new IllegalStateException("The variable of a cached node property should be in the context.")))
+            set(varName, input.getOrElse(varName, throw new IllegalStateException("The variable of a cached node property should be in the context.")))
         }
       }
 
@@ -140,18 +149,24 @@ class MapExecutionContext(private val m: MutableMap[String, AnyValue], private v
   override def mergeWith(other: ExecutionContext, entityById: EntityById): Unit = other match {
     case otherMapCtx: MapExecutionContext =>
       m ++= otherMapCtx.m
-      if (otherMapCtx.cachedProperties != null) {
-        if (cachedProperties == null) {
-          cachedProperties = otherMapCtx.cachedProperties.clone()
-        } else {
-          cachedProperties ++= otherMapCtx.cachedProperties
-        }
-      } else {
-        //otherMapCtx.cachedProperties is null so do nothing
-      }
+      mergeCachedProperties(otherMapCtx.cachedProperties)
+    case otherArrayCtx: ArrayExecutionContext =>
+      otherArrayCtx.foreach(kv => m.put(kv._1, kv._2))
+      mergeCachedProperties(otherArrayCtx.cachedPropertiesOrNull)
     case _ => fail()
   }
 
+  private def mergeCachedProperties(otherCachedProperties: MutableMap[CachedNodeProperty, Value]): Unit =
+    if (otherCachedProperties != null) {
+      if (cachedProperties == null) {
+        cachedProperties = otherCachedProperties.clone()
+      } else {
+        cachedProperties ++= otherCachedProperties
+      }
+    } else {
+      //otherCachedProperties is null so do nothing
+    }
+
   override def foreach[U](f: ((String, AnyValue)) => U) {
     m.foreach(f)
   }
@@ -260,6 +275,8 @@ class MapExecutionContext(private val m: MutableMap[String, AnyValue], private v
       }).foreach(cnp => setCachedProperty(cnp, null))
   }
 
+  private[interpreted] def cachedPropertiesOrNull: MutableMap[CachedNodeProperty, Value] = cachedProperties
+
   private def cloneFromMap(newMap: MutableMap[String, AnyValue]): ExecutionContext = {
     val newCachedProperties = if (cachedProperties == null) null else cachedProperties.clone()
     new MapExecutionContext(newMap, newCachedProperties)
@@ -23,9 +23,10 @@ import org.neo4j.cypher.internal.ir.v3_5.VarPatternLength
 import org.neo4j.cypher.internal.planner.v3_5.spi.TokenContext
 import org.neo4j.cypher.internal.runtime.ProcedureCallMode
 import org.neo4j.cypher.internal.runtime.interpreted.commands.KeyTokenResolver
+import org.neo4j.cypher.internal.runtime.interpreted.commands.compiled.ExpressionCompiler
 import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.PatternConverters._
 import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.{ExpressionConverters, InterpretedCommandProjection}
-import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{AggregationExpression, Literal, ShortestPathExpression}
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{AggregationExpression, Literal, PropertyBatch, ShortestPathExpression, SlottedVariable}
 import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates.{Predicate, True}
 import org.neo4j.cypher.internal.runtime.interpreted.pipes._
 import org.neo4j.cypher.internal.v3_5.logical.plans
@@ -45,12 +46,27 @@ case class InterpretedPipeBuilder(recurse: LogicalPlan => Pipe,
                                   readOnly: Boolean,
                                   expressionConverters: ExpressionConverters,
                                   rewriteAstExpression: ASTExpression => ASTExpression,
-                                  tokenContext: TokenContext)
+                                  tokenContext: TokenContext,
+                                  compileExpressions: Boolean = false,
+                                  variableSlots: Option[VariableSlots] = None)
                                  (implicit semanticTable: SemanticTable) extends PipeBuilder {
 
   private def getBuildExpression(id: Id) = rewriteAstExpression andThen
     ((e: ASTExpression) => expressionConverters.toCommandExpression(id, e)) andThen
-    (expression => expression.rewrite(KeyTokenResolver.resolveExpressions(_, tokenContext)))
+    (expression => expression.rewrite(KeyTokenResolver.resolveExpressions(_, tokenContext))) andThen
+    (expression => variableSlots.fold(expression)(slots => expression.rewrite(SlottedVariable.resolve(slots))))
+
+  private def getBuildCompiledExpression(id: Id) =
+    if (compileExpressions) getBuildExpression(id).andThen(ExpressionCompiler.compileOrInterpret _)
+    else getBuildExpression(id)
+
+  // Properties of the same node are read in one pass and cached on the row, where later operators can reuse them.
+  // They are batched before compiling, so that the compiled predicate evaluates the batched properties.
+  private def getBuildPredicate(id: Id) = {
+    val buildBatchedPredicate = getBuildExpression(id).andThen(PropertyBatch.batchProperties _)
+    if (compileExpressions) buildBatchedPredicate.andThen(ExpressionCompiler.compileOrInterpret _)
+    else buildBatchedPredicate
+  }
 
   def onLeaf(plan: LogicalPlan): Pipe = {
     val id = plan.id
@@ -103,9 +119,10 @@ case class InterpretedPipeBuilder(recurse: LogicalPlan => Pipe,
   def onOneChildPlan(plan: LogicalPlan, source: Pipe): Pipe = {
     val id = plan.id
     val buildExpression = getBuildExpression(id)
+    val buildCompiledExpression = getBuildCompiledExpression(id)
     plan match {
       case Projection(_, expressions) =>
-        ProjectionPipe(source,  InterpretedCommandProjection(Eagerly.immutableMapValues(expressions, buildExpression)))(id = id)
+        ProjectionPipe(source,  InterpretedCommandProjection(Eagerly.immutableMapValues(expressions, buildCompiledExpression)))(id = id)
 
       case ProjectEndpoints(_, rel, start, startInScope, end, endInScope, types, directed, length) =>
         ProjectEndpointsPipe(source, rel,
@@ -120,8 +137,9 @@ case class InterpretedPipeBuilder(recurse: LogicalPlan => Pipe,
         DropResultPipe(source)(id = id)
 
       case Selection(predicate, _) =>
+        val buildPredicate = getBuildPredicate(id)
         val predicateExpression =
-          if (predicate.exprs.size == 1) buildExpression(predicate.exprs.head) else buildExpression(predicate)
+          if (predicate.exprs.size == 1) buildPredicate(predicate.exprs.head) else buildPredicate(predicate)
         FilterPipe(source, predicateExpression)(id = id)
 
       case Expand(_, fromName, dir, types: Seq[RelTypeName], toName, relName, ExpandAll) =>
@@ -198,7 +216,7 @@ case class InterpretedPipeBuilder(recurse: LogicalPlan => Pipe,
         }
 
       case Aggregation(_, groupingExpressions, aggregatingExpressions) if aggregatingExpressions.isEmpty =>
-        val commandExpressions = Eagerly.immutableMapValues(groupingExpressions, buildExpression)
+        val commandExpressions = Eagerly.immutableMapValues(groupingExpressions, buildCompiledExpression)
         val projection = InterpretedCommandProjection(commandExpressions)
         source match {
           case ProjectionPipe(inner, p) if p == projection =>
@@ -208,7 +226,7 @@ case class InterpretedPipeBuilder(recurse: LogicalPlan => Pipe,
         }
 
       case Distinct(_, groupingExpressions) =>
-        val commandExpressions = Eagerly.immutableMapValues(groupingExpressions, buildExpression)
+        val commandExpressions = Eagerly.immutableMapValues(groupingExpressions, buildCompiledExpression)
         source match {
           case ProjectionPipe(inner, es) if es == commandExpressions =>
             DistinctPipe(inner, commandExpressions)(id = id)
@@ -25,6 +25,7 @@ import org.neo4j.cypher.internal.planner.v3_5.spi.GraphStatistics
 import org.neo4j.cypher.internal.planner.v3_5.spi.IndexDescriptor
 import org.neo4j.cypher.internal.planner.v3_5.spi.StatisticsCompletingGraphStatistics
 import org.neo4j.internal.kernel.api.exceptions.schema.IndexNotFoundKernelException
+import org.neo4j.internal.kernel.api.IndexValueDistribution
 import org.neo4j.internal.kernel.api.Read
 import org.neo4j.internal.kernel.api.SchemaRead
 import org.neo4j.kernel.impl.query.TransactionalContext
@@ -32,6 +33,7 @@ import org.neo4j.cypher.internal.v3_5.util.Cardinality
 import org.neo4j.cypher.internal.v3_5.util.LabelId
 import org.neo4j.cypher.internal.v3_5.util.RelTypeId
 import org.neo4j.cypher.internal.v3_5.util.Selectivity
+import org.neo4j.values.storable.Values
 
 object TransactionBoundGraphStatistics {
   def apply(transactionalContext: TransactionalContext): StatisticsCompletingGraphStatistics =
@@ -86,6 +88,32 @@ object TransactionBoundGraphStatistics {
         case _: IndexNotFoundKernelException => None
       }
 
+    override def indexValueSelectivity(index: IndexDescriptor, value: Option[Any]): Option[Selectivity] =
+      distributionEstimate(index) { distribution =>
+        value match {
+          case Some(v) => distribution.equalityFrequency(Values.of(v.asInstanceOf[AnyRef]))
+          case None => distribution.expectedEqualityFrequency()
+        }
+      }
+
+    override def indexRangeSelectivity(index: IndexDescriptor, lower: Option[Any], upper: Option[Any]): Option[Selectivity] =
+      distributionEstimate(index) { distribution =>
+        distribution.rangeFrequency(lower.map(v => Values.of(v.asInstanceOf[AnyRef])).orNull,
+                                    upper.map(v => Values.of(v.asInstanceOf[AnyRef])).orNull)
+      }
+
+    private def distributionEstimate(index: IndexDescriptor)(estimate: IndexValueDistribution => Double): Option[Selectivity] =
+      try {
+        val distribution = schemaRead.indexValueDistribution(
+          schemaRead.indexReferenceUnchecked(index.label, index.properties.map(_.id):_*))
+        val frequency = estimate(distribution)
+        // Negative when the distribution doesn't know
+        if (frequency < 0) None else Selectivity.of(min(frequency, 1.0))
+      }
+      catch {
+        case _: IndexNotFoundKernelException => None
+      }
+
     override def nodesWithLabelCardinality(labelId: Option[LabelId]): Cardinality =
       atLeastOne(read.countsForNodeWithoutTxState(labelId))
 
@@ -553,6 +553,24 @@ sealed class TransactionBoundQueryContext(val transactionalContext: Transactiona
       }
     }
 
+    override def getProperties(id: Long, propertyKeyIds: Array[Int]): Array[Value] = {
+      val node = allocateNodeCursor()
+      val property = allocatePropertyCursor()
+      try {
+        reads().singleNode(id, node)
+        if (!node.next()) {
+          if (isDeletedInThisTx(id)) throw new EntityNotFoundException(
+            s"Node with id $id has been deleted in this transaction")
+          else Array.fill[Value](propertyKeyIds.length)(Values.NO_VALUE)
+        } else {
+          node.properties(property)
+          readProperties(property, propertyKeyIds)
+        }
+      } finally {
+        IOUtils.closeAll(node, property)
+      }
+    }
+
     override def getTxStateProperty(nodeId: Long, propertyKeyId: Int): Option[Value] = {
       if (isDeletedInThisTx(nodeId)) throw new EntityNotFoundException(
         s"Node with id $nodeId has been deleted in this transaction")
@@ -698,6 +716,24 @@ sealed class TransactionBoundQueryContext(val transactionalContext: Transactiona
       }
     }
 
+    override def getProperties(id: Long, propertyKeyIds: Array[Int]): Array[Value] = {
+      val relationship = allocateRelationshipScanCursor()
+      val property = allocatePropertyCursor()
+      try {
+        reads().singleRelationship(id, relationship)
+        if (!relationship.next()) {
+          if (isDeletedInThisTx(id)) throw new EntityNotFoundException(
+            s"Relationship with id $id has been deleted in this transaction")
+          else Array.fill[Value](propertyKeyIds.length)(Values.NO_VALUE)
+        } else {
+          relationship.properties(property)
+          readProperties(property, propertyKeyIds)
+        }
+      } finally {
+        IOUtils.closeAll(relationship, property)
+      }
+    }
+
     override def hasProperty(id: Long, propertyKey: Int): Boolean = {
       val relationship = allocateRelationshipScanCursor()
       val property = allocatePropertyCursor()
@@ -818,6 +854,23 @@ sealed class TransactionBoundQueryContext(val transactionalContext: Transactiona
 
         override def next(): Long = primitiveIterator.next
       }
+
+    protected def readProperties(property: PropertyCursor, propertyKeyIds: Array[Int]): Array[Value] = {
+      val values = Array.fill[Value](propertyKeyIds.length)(Values.NO_VALUE)
+      var remaining = propertyKeyIds.length
+      while (remaining > 0 && property.next()) {
+        val propertyKey = property.propertyKey()
+        var i = 0
+        while (i < propertyKeyIds.length) {
+          if (propertyKeyIds(i) == propertyKey) {
+            values(i) = property.propertyValue()
+            remaining -= 1
+          }
+          i += 1
+        }
+      }
+      values
+    }
   }
 
   override def addIndexRule(descriptor: IndexDescriptor): IdempotentResult[IndexReference] = {
@@ -27,12 +27,13 @@ import org.neo4j.internal.kernel.api.security.SecurityContext
 import org.neo4j.kernel.GraphDatabaseQueryService
 import org.neo4j.kernel.api.KernelTransaction.Revertable
 import org.neo4j.kernel.api.dbms.DbmsOperations
-import org.neo4j.kernel.api.query.CompilerInfo
+import org.neo4j.kernel.api.query.{CompilerInfo, ExecutingQuery}
 import org.neo4j.kernel.api.txstate.TxStateHolder
 import org.neo4j.kernel.api.{KernelTransaction, ResourceTracker, Statement}
 import org.neo4j.kernel.impl.api.SchemaStateKey
 import org.neo4j.kernel.impl.factory.DatabaseInfo
 import org.neo4j.kernel.impl.query.TransactionalContext
+import org.neo4j.scheduler.JobScheduler
 
 case class TransactionalContextWrapper(tc: TransactionalContext) extends QueryTransactionalContext {
 
@@ -81,6 +82,10 @@ case class TransactionalContextWrapper(tc: TransactionalContext) extends QueryTr
 
   override def databaseInfo: DatabaseInfo = tc.graph().getDependencyResolver.resolveDependency(classOf[DatabaseInfo])
 
+  override def jobScheduler: JobScheduler = tc.graph().getDependencyResolver.resolveDependency(classOf[JobScheduler])
+
+  override def executingQuery: ExecutingQuery = tc.executingQuery()
+
   def resourceTracker: ResourceTracker = tc.resourceTracker
 
   def getOrCreateFromSchemaState[T](key: SchemaStateKey, f: => T): T = {
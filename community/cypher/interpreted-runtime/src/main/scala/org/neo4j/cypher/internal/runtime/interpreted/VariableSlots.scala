@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted
+
+import java.util
+
+import org.neo4j.cypher.internal.v3_5.logical.plans.LogicalPlan
+import org.neo4j.cypher.internal.v3_5.util.Foldable._
+
+/**
+  * Assigns every variable of a query plan a fixed offset, so that rows of that plan can be stored as flat arrays,
+  * see [[ArrayExecutionContext]]. Computed once when building the pipes of a plan and shared by all rows of all
+  * executions of that plan, which is why it must never change after creation.
+  */
+final class VariableSlots private(names: Array[String]) {
+
+  private val offsets = new util.HashMap[String, Integer](names.length * 2)
+  names.indices.foreach(i => offsets.put(names(i), i))
+
+  def size: Int = names.length
+
+  /**
+    * @return the offset of the given variable or -1 if it has no slot.
+    */
+  def offsetFor(variable: String): Int = {
+    val offset = offsets.get(variable)
+    if (offset == null) -1 else offset.intValue()
+  }
+
+  def variableAt(offset: Int): String = names(offset)
+
+  override def toString: String = names.mkString("VariableSlots(", ", ", ")")
+}
+
+object VariableSlots {
+
+  def apply(variables: Iterable[String]): VariableSlots = new VariableSlots(variables.toArray.distinct)
+
+  /**
+    * Slots for all variables available in any plan of the given plan tree, including plans nested in expressions.
+    */
+  def forPlan(plan: LogicalPlan): VariableSlots = {
+    val variables = plan.treeFold(Set.empty[String]) {
+      case p: LogicalPlan => acc => (acc ++ p.availableSymbols, Some(identity))
+    }
+    apply(variables.toSeq.sorted)
+  }
+}
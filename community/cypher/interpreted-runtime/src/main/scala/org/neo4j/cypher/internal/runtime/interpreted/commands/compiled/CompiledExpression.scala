@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.commands.compiled
+
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.commands.AstNode
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
+import org.neo4j.values.AnyValue
+
+/**
+  * Implemented by the classes generated by [[ExpressionCompiler]].
+  */
+trait CompiledExpression {
+  def evaluate(ctx: ExecutionContext, state: QueryState): AnyValue
+}
+
+/**
+  * Evaluates `original` using its compiled form. Everything but evaluation, e.g. the expression tree itself, is that of
+  * the original expression. Rewriting rewrites the original expression and compiles the result again, so that
+  * rewrites which run after compilation, like batching property reads, keep the expression compiled.
+  */
+case class CompiledCommandExpression(original: Expression, compiled: CompiledExpression) extends Expression {
+
+  override def apply(ctx: ExecutionContext, state: QueryState): AnyValue = compiled.evaluate(ctx, state)
+
+  override def rewrite(f: Expression => Expression): Expression = {
+    val rewritten = original.rewrite(f)
+    if (rewritten == original) this else ExpressionCompiler.compileOrInterpret(rewritten)
+  }
+
+  override def arguments: Seq[Expression] = Seq(original)
+
+  override def children: Seq[AstNode[_]] = Seq(original)
+
+  override def symbolTableDependencies: Set[String] = original.symbolTableDependencies
+
+  override def toString: String = original.toString
+
+  // Two compilations of the same expression are equal, so that pipe builders can still recognize equal expressions
+  override def equals(other: Any): Boolean = other match {
+    case compiledExpression: CompiledCommandExpression => original == compiledExpression.original
+    case _ => false
+  }
+
+  override def hashCode(): Int = original.hashCode()
+}
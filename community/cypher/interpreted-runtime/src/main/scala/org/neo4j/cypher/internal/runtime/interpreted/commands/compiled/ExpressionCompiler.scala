@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.commands.compiled
+
+import java.util.concurrent.atomic.AtomicLong
+import java.util.function.Consumer
+
+import org.neo4j.codegen.FieldReference.staticField
+import org.neo4j.codegen.MethodReference.methodReference
+import org.neo4j.codegen.Parameter.param
+import org.neo4j.codegen.TypeReference.typeReference
+import org.neo4j.codegen.bytecode.ByteCode.BYTECODE
+import org.neo4j.codegen.{ClassGenerator, CodeBlock, CodeGenerator, FieldReference, LocalVariable, Expression => Code}
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{Expression, Literal}
+import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates._
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
+import org.neo4j.cypher.operations.CypherBoolean
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.{BooleanValue, Value, Values}
+
+import scala.collection.mutable.ArrayBuffer
+import scala.util.control.NonFatal
+
+/**
+  * Compiles the boolean and comparison operators of an expression tree into a generated class, so that evaluating them
+  * doesn't go through the megamorphic `Expression.apply` of every node in the tree.
+  *
+  * Sub-expressions which aren't supported, e.g. variables, property lookups and function calls, are kept as leaves which
+  * the generated code evaluates by calling their `apply`. Since every such call site only ever sees a single
+  * expression class it stays monomorphic. Expressions whose root isn't supported, or which fail to compile, are returned
+  * as they are and interpreted as before.
+  *
+  * The generated code must have the same semantics as the interpreted expressions, including null handling and the
+  * way [[CompositeBooleanPredicate]] holds on to errors until it knows that it can't short-circuit.
+  */
+object ExpressionCompiler {
+
+  private val PACKAGE_NAME = "org.neo4j.cypher.internal.runtime.interpreted.generated"
+  private val classCounter = new AtomicLong()
+
+  private val ANY_VALUE = typeReference(classOf[AnyValue])
+  private val EVALUATE = methodReference(classOf[Expression], classOf[AnyValue], "apply",
+                                         classOf[ExecutionContext], classOf[QueryState])
+
+  private val TRUE = value(staticField(classOf[Values], classOf[BooleanValue], "TRUE"))
+  private val FALSE = value(staticField(classOf[Values], classOf[BooleanValue], "FALSE"))
+  private val NO_VALUE = value(staticField(classOf[Values], classOf[Value], "NO_VALUE"))
+
+  /**
+    * @return a compiled version of the given expression or, if that isn't possible or wouldn't be of any use, the given
+    *         expression itself.
+    */
+  def compileOrInterpret(expression: Expression): Expression =
+    if (!isCompilable(expression)) expression
+    else try {
+      CompiledCommandExpression(expression, compile(expression))
+    } catch {
+      case NonFatal(_) => expression
+    }
+
+  private def isCompilable(expression: Expression): Boolean = expression match {
+    case _: Ands | _: Ors | _: AndedPropertyComparablePredicates | _: Not | _: Xor | _: IsNull | _: Equals |
+         _: ComparablePredicate => true
+    case _ => false
+  }
+
+  private def compile(expression: Expression): CompiledExpression = {
+    val generator = CodeGenerator.generateCode(classOf[CompiledExpression].getClassLoader, BYTECODE)
+    val clazz = generator.generateClass(PACKAGE_NAME, "CompiledExpression" + classCounter.getAndIncrement(),
+                                        classOf[CompiledExpression])
+    val fieldValues = ArrayBuffer.empty[(String, AnyRef)]
+    inBlock(clazz) { _ =>
+      inBlock(clazz.generateMethod(classOf[AnyValue], "evaluate",
+                                   param(classOf[ExecutionContext], "ctx"), param(classOf[QueryState], "state"))) { method =>
+        val result = new MethodCompiler(clazz, method, fieldValues).compile(expression, method)
+        method.returns(Code.load(result))
+      }
+    }
+
+    val compiled = clazz.handle().newInstance()
+    fieldValues.foreach {
+      case (name, fieldValue) => compiled.getClass.getField(name).set(compiled, fieldValue)
+    }
+    compiled.asInstanceOf[CompiledExpression]
+  }
+
+  /**
+    * Compiles expressions into the body of a single method. Every compiled node stores its result in a local of its
+    * own before its parent uses it, which keeps the evaluation order, and with that which error is thrown, the same as
+    * when interpreting.
+    */
+  private class MethodCompiler(clazz: ClassGenerator, method: CodeBlock, fieldValues: ArrayBuffer[(String, AnyRef)]) {
+    private val self = method.self()
+    private val ctx = method.load("ctx")
+    private val state = method.load("state")
+    private var names = 0
+
+    def compile(expression: Expression, block: CodeBlock): LocalVariable = expression match {
+      case Ands(predicates) => composite(predicates.toIndexedSeq, exitValue = FALSE, otherValue = TRUE, block)
+      case AndedPropertyComparablePredicates(_, _, predicates) =>
+        composite(predicates.toIndexedSeq, exitValue = FALSE, otherValue = TRUE, block)
+      case Ors(predicates) => composite(predicates.toIndexedSeq, exitValue = TRUE, otherValue = FALSE, block)
+
+      case Not(a) =>
+        val value = Code.load(compile(a, block))
+        local(block, Code.ternary(Code.equal(value, TRUE), FALSE, Code.ternary(Code.equal(value, FALSE), TRUE, NO_VALUE)))
+
+      case Xor(a, b) =>
+        val lhs = Code.load(compile(a, block))
+        val rhs = Code.load(compile(b, block))
+        local(block, Code.ternary(Code.or(Code.equal(lhs, NO_VALUE), Code.equal(rhs, NO_VALUE)),
+                                  NO_VALUE,
+                                  Code.ternary(Code.equal(lhs, rhs), FALSE, TRUE)))
+
+      case IsNull(a) =>
+        val value = Code.load(compile(a, block))
+        local(block, Code.ternary(Code.equal(value, NO_VALUE), TRUE, FALSE))
+
+      case Equals(a, b) => comparison("equals", a, b, block)
+      case LessThan(a, b) => comparison("lessThan", a, b, block)
+      case LessThanOrEqual(a, b) => comparison("lessThanOrEqual", a, b, block)
+      case GreaterThan(a, b) => comparison("greaterThan", a, b, block)
+      case GreaterThanOrEqual(a, b) => comparison("greaterThanOrEqual", a, b, block)
+
+      case literal: Literal =>
+        local(block, Code.get(self, field(literal.anyVal)))
+
+      case leaf =>
+        local(block, Code.invoke(Code.get(self, field(leaf)), EVALUATE, ctx, state))
+    }
+
+    // Same as ComparablePredicate and Equals, which rely on the CypherBoolean comparisons returning NO_VALUE for nulls
+    private def comparison(name: String, a: Expression, b: Expression, block: CodeBlock): LocalVariable = {
+      val lhs = Code.load(compile(a, block))
+      val rhs = Code.load(compile(b, block))
+      val compare = methodReference(classOf[CypherBoolean], classOf[Value], name, classOf[AnyValue], classOf[AnyValue])
+      local(block, value(Code.invoke(compare, lhs, rhs)))
+    }
+
+    /**
+      * Same as CompositeBooleanPredicate.isMatch:
+      * {{{
+      *   AnyValue result = otherValue;
+      *   Exception error = null;
+      *   if (result != exitValue) {
+      *     try {
+      *       AnyValue value = <predicate>;
+      *       if (value == exitValue) result = exitValue;
+      *       if (value == NO_VALUE) result = NO_VALUE;
+      *     } catch (Exception e) {
+      *       if (error == null) error = e;
+      *     }
+      *   }
+      *   ... the same for every other predicate ...
+      *   if (result != exitValue && error != null) throw error;
+      * }}}
+      */
+    private def composite(predicates: Seq[Expression], exitValue: Code, otherValue: Code, block: CodeBlock): LocalVariable = {
+      val result = local(block, otherValue)
+      val errorName = nextName()
+      block.assign(classOf[Exception], errorName, Code.constant(null))
+      val error = block.local(errorName)
+
+      predicates.foreach { predicate =>
+        inBlock(block.ifStatement(Code.notEqual(Code.load(result), exitValue))) { notExited =>
+          val exceptionName = nextName()
+          notExited.tryCatch(
+            new Consumer[CodeBlock] {
+              override def accept(body: CodeBlock): Unit = {
+                val value = Code.load(compile(predicate, body))
+                inBlock(body.ifStatement(Code.equal(value, exitValue)))(_.assign(result, exitValue))
+                inBlock(body.ifStatement(Code.equal(value, NO_VALUE)))(_.assign(result, NO_VALUE))
+              }
+            },
+            new Consumer[CodeBlock] {
+              override def accept(handler: CodeBlock): Unit =
+                inBlock(handler.ifStatement(Code.isNull(Code.load(error))))(_.assign(error, handler.load(exceptionName)))
+            },
+            param(classOf[Exception], exceptionName))
+        }
+      }
+
+      inBlock(block.ifStatement(Code.and(Code.notEqual(Code.load(result), exitValue), Code.notNull(Code.load(error))))) {
+        _.throwException(Code.load(error))
+      }
+      result
+    }
+
+    private def local(block: CodeBlock, value: Code): LocalVariable = {
+      val name = nextName()
+      block.assign(ANY_VALUE, name, value)
+      block.local(name)
+    }
+
+    private def field(fieldValue: AnyRef): FieldReference = {
+      val name = nextName()
+      val fieldType = fieldValue match {
+        case _: Expression => classOf[Expression]
+        case _ => classOf[AnyValue]
+      }
+      fieldValues += name -> fieldValue
+      clazz.field(fieldType, name)
+    }
+
+    private def nextName(): String = {
+      names += 1
+      "v" + names
+    }
+  }
+
+  // Everything is typed as AnyValue, so that the verifier never needs to find a common super class of different values
+  private def value(field: FieldReference): Code = value(Code.getStatic(field))
+
+  private def value(expression: Code): Code = Code.cast(classOf[AnyValue], expression)
+
+  private def inBlock[T <: AutoCloseable](block: T)(f: T => Unit): Unit =
+    try {
+      f(block)
+    } finally {
+      block.close()
+    }
+}
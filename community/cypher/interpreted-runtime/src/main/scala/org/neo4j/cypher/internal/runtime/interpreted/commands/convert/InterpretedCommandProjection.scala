@@ -19,19 +19,55 @@
  */
 package org.neo4j.cypher.internal.runtime.interpreted.commands.convert
 
-import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
+import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.InterpretedCommandProjection.ProjectedPropertyBatch
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{Expression, Property, PropertyBatch, Variable}
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.{Pipe, QueryState}
 import org.neo4j.cypher.internal.runtime.interpreted.{CommandProjection, ExecutionContext}
 
 case class InterpretedCommandProjection(expressions: Map[String, Expression]) extends CommandProjection {
 
+  // Properties of the same variable are read in one pass over its property chain
+  private val propertyBatches: Seq[ProjectedPropertyBatch] = expressions.toSeq.collect {
+    case (name, property@Property(Variable(variable), _)) => (variable, name, property)
+  }.groupBy(_._1).collect {
+    case (variable, properties) if properties.size > 1 =>
+      ProjectedPropertyBatch(properties.map(_._2).toArray, PropertyBatch(Variable(variable), properties.map(_._3).toArray))
+  }.toSeq
+
+  private val unbatchedExpressions: Seq[(String, Expression)] = {
+    val batched = propertyBatches.flatMap(_.names).toSet
+    expressions.toSeq.filterNot { case (name, _) => batched(name) }
+  }
+
   override def isEmpty: Boolean = expressions.isEmpty
 
   override def registerOwningPipe(pipe: Pipe): Unit = expressions.values.foreach(_.registerOwningPipe(pipe))
 
-  override def project(ctx: ExecutionContext, state: QueryState): Unit = expressions.foreach {
-    case (name, expression) =>
-      val result = expression(ctx, state)
-      ctx.put(name, result)
+  override def project(ctx: ExecutionContext, state: QueryState): Unit = {
+    propertyBatches.foreach(_.project(ctx, state))
+    unbatchedExpressions.foreach {
+      case (name, expression) =>
+        val result = expression(ctx, state)
+        ctx.put(name, result)
+    }
+  }
+}
+
+object InterpretedCommandProjection {
+
+  /**
+    * Projections of several properties of the same variable, which are read together as one batch. Node properties
+    * that an earlier operator, like a filter, has already cached on the row are not read again.
+    */
+  case class ProjectedPropertyBatch(names: Array[String], batch: PropertyBatch) {
+
+    def project(ctx: ExecutionContext, state: QueryState): Unit = {
+      val values = batch.values(ctx, state)
+      var i = 0
+      while (i < names.length) {
+        ctx.put(names(i), values(i))
+        i += 1
+      }
+    }
   }
 }
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.commands.expressions
+
+import org.neo4j.cypher.internal.runtime.interpreted.commands.AstNode
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
+import org.neo4j.cypher.internal.runtime.interpreted.{ArrayExecutionContext, ExecutionContext, MapExecutionContext}
+import org.neo4j.cypher.internal.v3_5.expressions.PropertyKeyName
+import org.neo4j.cypher.internal.v3_5.logical.plans
+import org.neo4j.cypher.internal.v3_5.util.InputPosition
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.Value
+import org.neo4j.values.virtual.{VirtualNodeValue, VirtualRelationshipValue}
+
+/**
+  * Several properties of the same variable that are read together.
+  *
+  * The properties of a node that are not yet cached on the row are read in one pass over its property chain and are
+  * then cached on the row as cached node properties, so that reading them again, in the same or a later operator,
+  * does not go back to the store. Relationship properties are also read in one pass, but are not cached since rows
+  * only cache node properties. Properties of any other value are evaluated one by one.
+  */
+case class PropertyBatch(variable: Variable, properties: Array[Property]) {
+
+  private val cacheKeys: Array[plans.CachedNodeProperty] = properties.map(property =>
+    plans.CachedNodeProperty(variable.entityName, PropertyKeyName(property.propertyKey.name)(InputPosition.NONE))(InputPosition.NONE))
+
+  /**
+    * The values of all the properties of the batch, in the order of `properties`.
+    */
+  def values(ctx: ExecutionContext, state: QueryState): Array[_ <: AnyValue] = variable(ctx, state) match {
+    case n: VirtualNodeValue if cachesProperties(ctx) => readNodeProperties(n.id(), ctx, state)
+    case n: VirtualNodeValue => state.query.nodeOps.getProperties(n.id(), propertyKeyIds(state))
+    case r: VirtualRelationshipValue => state.query.relationshipOps.getProperties(r.id(), propertyKeyIds(state))
+    case _ => properties.map(_(ctx, state))
+  }
+
+  /**
+    * The value of the property at the given offset. For a node that does not have the property cached on the row yet,
+    * this reads and caches all the properties of the batch.
+    */
+  def value(offset: Int, ctx: ExecutionContext, state: QueryState): AnyValue = variable(ctx, state) match {
+    case n: VirtualNodeValue if cachesProperties(ctx) =>
+      val cached = cachedValue(n.id(), offset, propertyKeyId(offset, state), ctx, state)
+      if (cached != null) cached else readNodeProperties(n.id(), ctx, state)(offset)
+    case _ => properties(offset)(ctx, state)
+  }
+
+  private def readNodeProperties(nodeId: Long, ctx: ExecutionContext, state: QueryState): Array[Value] = {
+    val keyIds = propertyKeyIds(state)
+    val values = new Array[Value](properties.length)
+    var missing = 0
+    var i = 0
+    while (i < values.length) {
+      values(i) = cachedValue(nodeId, i, keyIds(i), ctx, state)
+      if (values(i) == null) missing += 1
+      i += 1
+    }
+    if (missing > 0) {
+      val missingOffsets = values.indices.filter(values(_) == null).toArray
+      val read = state.query.nodeOps.getProperties(nodeId, missingOffsets.map(keyIds))
+      var j = 0
+      while (j < missingOffsets.length) {
+        values(missingOffsets(j)) = read(j)
+        ctx.setCachedProperty(cacheKeys(missingOffsets(j)), read(j))
+        j += 1
+      }
+    }
+    values
+  }
+
+  // null if the property is not cached on the row or has been invalidated
+  private def cachedValue(nodeId: Long, offset: Int, propertyKeyId: Int, ctx: ExecutionContext, state: QueryState): Value = {
+    val cachedProperties = ExecutionContext.cachedPropertiesOf(ctx)
+    if (cachedProperties == null) null
+    else cachedProperties.get(cacheKeys(offset)) match {
+      case Some(cached) if cached != null && propertyKeyId == PropertyBatch.NO_SUCH_PROPERTY_KEY => cached
+      // the node may have been changed in this transaction since the value was cached
+      case Some(cached) if cached != null =>
+        state.query.nodeOps.getTxStateProperty(nodeId, propertyKeyId).getOrElse(cached)
+      case _ => null
+    }
+  }
+
+  private def cachesProperties(ctx: ExecutionContext): Boolean = ctx match {
+    case _: MapExecutionContext | _: ArrayExecutionContext => true
+    case _ => false
+  }
+
+  // properties that don't exist in the database get an id that matches no property
+  private def propertyKeyIds(state: QueryState): Array[Int] = properties.indices.map(propertyKeyId(_, state)).toArray
+
+  private def propertyKeyId(offset: Int, state: QueryState): Int =
+    properties(offset).propertyKey.getOptId(state.query).getOrElse(PropertyBatch.NO_SUCH_PROPERTY_KEY)
+}
+
+object PropertyBatch {
+
+  private val NO_SUCH_PROPERTY_KEY = -1
+
+  /**
+    * Rewrites the properties `v.prop` of the given expression so that, when it reads two or more different
+    * properties of the same variable, they are all read in one pass on first use and cached on the row.
+    *
+    * Only variables of the row are batched. Variables that a closure in the expression binds, like `x` in
+    * `[x IN list WHERE x.a > 1]`, take a different value for every element, so their properties are read as before.
+    */
+  def batchProperties(expression: Expression): Expression = {
+    val rowVariables = expression.symbolTableDependencies
+    val properties = expression.filter {
+      case Property(Variable(name), _) => rowVariables(name)
+      case _ => false
+    }.map(_.asInstanceOf[Property]).distinct
+
+    val batches: Map[Property, (PropertyBatch, Int)] = properties.groupBy(_.mapExpr).collect {
+      case (variable: Variable, variableProperties) if variableProperties.size > 1 =>
+        val batch = PropertyBatch(variable, variableProperties.toArray)
+        batch.properties.zipWithIndex.map { case (property, offset) => property -> (batch, offset) }
+    }.flatten.toMap
+
+    if (batches.isEmpty) expression
+    else expression.rewrite {
+      case property: Property if batches.contains(property) =>
+        val (batch, offset) = batches(property)
+        BatchedProperty(property, batch, offset)
+      case other => other
+    }
+  }
+}
+
+/**
+  * A property that is read together with the other properties of its batch.
+  */
+case class BatchedProperty(property: Property, batch: PropertyBatch, offset: Int) extends Expression {
+
+  override def apply(ctx: ExecutionContext, state: QueryState): AnyValue = batch.value(offset, ctx, state)
+
+  override def rewrite(f: Expression => Expression): Expression = f(this)
+
+  override def arguments: Seq[Expression] = Seq.empty
+
+  override def children: Seq[AstNode[_]] = Seq(property)
+
+  override def symbolTableDependencies: Set[String] = property.symbolTableDependencies
+
+  override def toString: String = property.toString
+}
@@ -19,7 +19,7 @@
  */
 package org.neo4j.cypher.internal.runtime.interpreted.commands.expressions
 
-import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.{ArrayExecutionContext, ExecutionContext, VariableSlots}
 import org.neo4j.cypher.internal.runtime.interpreted.commands.AstNode
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
 import org.neo4j.graphdb.NotFoundException
@@ -40,3 +40,32 @@ case class Variable(entityName: String) extends Expression {
 
   override def children: Seq[AstNode[_]] = Seq.empty
 }
+
+/**
+  * A variable whose offset in rows laid out according to `slots` is resolved when building the pipes, so that reading it
+  * from such a row is plain array indexing. Reading it from any other row looks it up by name, like any other variable.
+  */
+class SlottedVariable(name: String, slots: VariableSlots, offset: Int) extends Variable(name) {
+
+  override def apply(ctx: ExecutionContext, state: QueryState): AnyValue = {
+    val value = ctx match {
+      case row: ArrayExecutionContext => row.valueAt(slots, offset, entityName)
+      case _ => null
+    }
+    if (value != null) value else super.apply(ctx, state)
+  }
+}
+
+object SlottedVariable {
+
+  /**
+    * Resolves the variables that have a slot, to be used with [[Expression.rewrite]].
+    */
+  def resolve(slots: VariableSlots)(expression: Expression): Expression = expression match {
+    case variable: SlottedVariable => variable
+    case Variable(name) =>
+      val offset = slots.offsetFor(name)
+      if (offset >= 0) new SlottedVariable(name, slots, offset) else expression
+    case _ => expression
+  }
+}
@@ -91,9 +91,15 @@ case class AndedPropertyComparablePredicates(ident: Variable, prop: Property,
       case _ => ident
     }
 
+  private def rewritePropertyIfNotTypeChanged(f: (Expression) => Expression) =
+    prop.rewrite(f) match {
+      case p: Property => p
+      case _ => prop
+    }
+
   override def rewrite(f: Expression => Expression): Expression =
     f(AndedPropertyComparablePredicates(rewriteVariableIfNotTypeChanged(f),
-      prop.rewrite(f).asInstanceOf[Property],
+      rewritePropertyIfNotTypeChanged(f),
       predicates.map(_.rewriteAsPredicate(f).asInstanceOf[ComparablePredicate])))
 
   override def shouldExitWhen: Boolean = false
@@ -19,12 +19,14 @@
  */
 package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet
 import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.{MemoryReservation, RowSizeEstimator, SpillPartitions}
 import org.neo4j.cypher.internal.v3_5.util.Eagerly
 import org.neo4j.cypher.internal.v3_5.util.attribution.Id
 import org.neo4j.values.AnyValue
-import org.neo4j.values.virtual.VirtualValues
+import org.neo4j.values.virtual.{VirtualNodeValue, VirtualValues}
 
 import scala.collection.mutable
 
@@ -52,15 +54,80 @@ case class DistinctPipe(source: Pipe, expressions: Map[String, Expression])
      */
     var seen = mutable.Set[AnyValue]()
 
+    if (state.memoryTracker.isEnabled) {
+      spillingFilter(result, seen, state)
+    } else if (keyNames.size == 1) {
+      singleColumnFilter(result, seen)
+    } else {
+      result.filter { ctx =>
+        val values = VirtualValues.list(keyNames.map(ctx): _*)
+
+        if (seen.contains(values)) {
+          false
+        } else {
+          seen += values
+          true
+        }
+      }
+    }
+  }
+
+  /*
+   * With a single column there is no need to wrap the values in a list. Nodes, which are equal exactly when their ids
+   * are, are kept in a set of primitive ids instead.
+   */
+  private def singleColumnFilter(result: Iterator[ExecutionContext],
+                                 seen: mutable.Set[AnyValue]): Iterator[ExecutionContext] = {
+    val keyName = keyNames.head
+    val seenNodes = new LongHashSet()
+
     result.filter { ctx =>
+      ctx(keyName) match {
+        case node: VirtualNodeValue => seenNodes.add(node.id())
+        case value => seen.add(value)
+      }
+    }
+  }
+
+  /*
+   * Filters like above until the set of seen values goes above the memory threshold. The rest of the input is then
+   * consumed right away: rows with values that have been seen are dropped, and the others are partitioned by the hash of
+   * their values. Since equal values end up in the same partition, each partition can then be filtered on its own.
+   * Rows of values that were first seen after spilling come last.
+   */
+  private def spillingFilter(result: Iterator[ExecutionContext],
+                             seen: mutable.Set[AnyValue],
+                             state: QueryState): Iterator[ExecutionContext] = {
+    val reservation = new MemoryReservation(state.memoryTracker)
+    var partitions: SpillPartitions = null
+
+    val inMemory = result.filter { ctx =>
       val values = VirtualValues.list(keyNames.map(ctx): _*)
 
       if (seen.contains(values)) {
         false
+      } else if (partitions != null) {
+        partitions.write(values.hashCode(), ctx)
+        false
       } else {
         seen += values
+        reservation.allocate(RowSizeEstimator.estimate(values))
+        if (reservation.isOverThreshold) {
+          partitions = new SpillPartitions(state, executionContextFactory)
+        }
         true
       }
     }
+
+    def spilled = if (partitions == null) Iterator.empty else {
+      seen.clear()
+      reservation.releaseAll()
+      partitions.readAll().flatMap { partition =>
+        val seenInPartition = mutable.Set[AnyValue]()
+        partition.filter(ctx => seenInPartition.add(VirtualValues.list(keyNames.map(ctx): _*)))
+      }
+    }
+
+    reservation.releaseWhenExhausted(inMemory ++ spilled)
   }
 }
@@ -22,6 +22,7 @@ package org.neo4j.cypher.internal.runtime.interpreted.pipes
 import org.neo4j.cypher.internal.runtime.interpreted.{ExecutionContext, MutableMaps}
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{AggregationExpression, Expression}
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation.AggregationFunction
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.{MemoryReservation, RowSizeEstimator, SpillPartitions}
 import org.neo4j.cypher.internal.v3_5.util.attribution.Id
 import org.neo4j.values.AnyValue
 import org.neo4j.values.virtual.{ListValue, MapValue, VirtualValues}
@@ -101,7 +102,7 @@ case class EagerAggregationPipe(source: Pipe, keyExpressions: Map[String, Expres
 
       aggregationNamesAndFunctions.toMap
         .foreach { case (name, zeroValue) => newMap += name -> zeroValue}
-      Iterator.single(ExecutionContext(newMap))
+      Iterator.single(executionContextFactory.newExecutionContext(newMap))
     }
 
     // This code is not pretty. It's full of asInstanceOf calls and other things that might irk you.
@@ -112,24 +113,69 @@ case class EagerAggregationPipe(source: Pipe, keyExpressions: Map[String, Expres
       val newMap = MutableMaps.create[String, AnyValue](mapSize)
       createResultFunction(newMap, groupingKey)
       (aggregationNames zip aggregator.map(_.result(state))).foreach(newMap += _)
-      ExecutionContext(newMap)
+      executionContextFactory.newExecutionContext(newMap)
     }
 
-    input.foreach(ctx => {
-      val groupingValue: AnyValue = groupingFunction(ctx, state)
-      val functions = result.getOrElseUpdate(groupingValue, {
-        val aggregateFunctions: Seq[AggregationFunction] = aggregations.map(_._2.createAggregationFunction).toIndexedSeq
-        aggregateFunctions
+    def aggregate(rows: Iterator[ExecutionContext], result: mutable.LinkedHashMap[AnyValue, Seq[AggregationFunction]]): Unit =
+      rows.foreach(ctx => {
+        val groupingValue: AnyValue = groupingFunction(ctx, state)
+        val functions = result.getOrElseUpdate(groupingValue, {
+          val aggregateFunctions: Seq[AggregationFunction] = aggregations.map(_._2.createAggregationFunction).toIndexedSeq
+          aggregateFunctions
+        })
+        functions.foreach(func => func(ctx, state))
       })
-      functions.foreach(func => func(ctx, state))
-    })
+
+    /*
+     * Aggregates like above until the groups go above the memory threshold. From then on, rows of groups that are
+     * already in memory are still aggregated right away, while rows of new groups are partitioned by the hash of their
+     * grouping key. Since all rows of a group end up in the same partition, each partition can then be aggregated on its
+     * own, after the groups in memory have been emitted.
+     */
+    def aggregateOrSpill(rows: Iterator[ExecutionContext], reservation: MemoryReservation): SpillPartitions = {
+      var partitions: SpillPartitions = null
+      rows.foreach(ctx => {
+        val groupingValue: AnyValue = groupingFunction(ctx, state)
+        var functions = result.getOrElse(groupingValue, null)
+        if (functions == null && partitions != null) {
+          partitions.write(groupingValue.hashCode(), ctx)
+        } else {
+          if (functions == null) {
+            functions = aggregations.map(_._2.createAggregationFunction).toIndexedSeq
+            result.put(groupingValue, functions)
+            reservation.allocate(RowSizeEstimator.estimateGroup(groupingValue, functions.size))
+            if (reservation.isOverThreshold) {
+              partitions = new SpillPartitions(state, executionContextFactory)
+            }
+          }
+          functions.foreach(func => func(ctx, state))
+        }
+      })
+      partitions
+    }
+
+    val reservation = new MemoryReservation(state.memoryTracker)
+    val partitions = if (state.memoryTracker.isEnabled) aggregateOrSpill(input, reservation) else {
+      aggregate(input, result)
+      null
+    }
 
     if (result.isEmpty && keyNames.isEmpty) {
       createEmptyResult(state.params)
     } else {
-      result.map {
+      val inMemory = result.map {
         case (key, aggregator) => createResults(key, aggregator)
       }.toIterator
+
+      if (!state.memoryTracker.isEnabled) inMemory
+      else if (partitions == null) reservation.releaseWhenExhausted(inMemory)
+      else reservation.releaseWhenExhausted(inMemory ++ partitions.readAll().flatMap { partition =>
+        val partitionResult = mutable.LinkedHashMap[AnyValue, Seq[AggregationFunction]]()
+        aggregate(partition, partitionResult)
+        partitionResult.iterator.map {
+          case (key, aggregator) => createResults(key, aggregator)
+        }
+      })
     }
   }
 }
@@ -20,13 +20,44 @@
 package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
 import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.{MemoryReservation, RowSizeEstimator, RowSpillFile}
 import org.neo4j.cypher.internal.v3_5.util.attribution.Id
 
+import scala.collection.mutable.ArrayBuffer
+
 case class EagerPipe(src: Pipe)(val id: Id = Id.INVALID_ID)
   extends PipeWithSource(src) {
 
   protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
-    val buffer = input.toIndexedSeq
-    buffer.toIterator
+    if (state.memoryTracker.isEnabled) {
+      spillingBuffer(input, state)
+    } else {
+      val buffer = input.toIndexedSeq
+      buffer.toIterator
+    }
+  }
+
+  // Whatever is in memory when going above the threshold is appended to a single spill file, so the rows in the file
+  // always come before the ones still in memory
+  private def spillingBuffer(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
+    val reservation = new MemoryReservation(state.memoryTracker)
+    var buffer = new ArrayBuffer[ExecutionContext]()
+    var spillFile: RowSpillFile = null
+
+    input.foreach { row =>
+      buffer += row
+      reservation.allocate(RowSizeEstimator.estimate(row))
+      if (reservation.isOverThreshold) {
+        if (spillFile == null) {
+          spillFile = new RowSpillFile(state, executionContextFactory)
+        }
+        buffer.foreach(spillFile.write)
+        buffer = new ArrayBuffer[ExecutionContext]()
+        reservation.releaseAll()
+      }
+    }
+
+    val inMemory = reservation.releaseWhenExhausted(buffer.iterator)
+    if (spillFile == null) inMemory else spillFile.read() ++ inMemory
   }
 }
@@ -21,12 +21,12 @@ package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
 import org.neo4j.cypher.internal.v3_5.util.CypherTypeException
 import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.NodeHashTable.NodeIds
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.SpillingHashJoin
 import org.neo4j.cypher.internal.v3_5.util.attribution.Id
 import org.neo4j.values.storable.Values
 import org.neo4j.values.virtual.VirtualNodeValue
 
-import scala.collection.mutable
-
 case class NodeHashJoinPipe(nodeVariables: Set[String], left: Pipe, right: Pipe)
                            (val id: Id = Id.INVALID_ID)
   extends PipeWithSource(left) {
@@ -40,50 +40,42 @@ case class NodeHashJoinPipe(nodeVariables: Set[String], left: Pipe, right: Pipe)
     if (rhsIterator.isEmpty)
       return Iterator.empty
 
+    if (state.memoryTracker.isEnabled) {
+      val join = new SpillingHashJoin[NodeIds](state, executionContextFactory, computeKey, computeKey)
+      return join.join(input, rhsIterator) { (lhsRow, rhsRow) =>
+        val output = lhsRow.createClone()
+        output.mergeWith(rhsRow, state.query)
+        output
+      }
+    }
+
     val table = buildProbeTable(input)
 
     if (table.isEmpty)
       return Iterator.empty
 
-    val result =
-      for {rhsRow <- rhsIterator
-           joinKey <- computeKey(rhsRow)}
-        yield {
-          val lhsRows = table.getOrElse(joinKey, mutable.MutableList.empty)
-          lhsRows.map { lhsRow =>
-            val output = lhsRow.createClone()
-            output.mergeWith(rhsRow, state.query)
-            output
-          }
-        }
-
-    result.flatten
-  }
-
-  private def buildProbeTable(input: Iterator[ExecutionContext]): mutable.HashMap[IndexedSeq[Long], mutable.MutableList[ExecutionContext]] = {
-    val table = new mutable.HashMap[IndexedSeq[Long], mutable.MutableList[ExecutionContext]]
-
-    for {context <- input
-         joinKey <- computeKey(context)} {
-      val seq = table.getOrElseUpdate(joinKey, mutable.MutableList.empty)
-      seq += context
+    rhsIterator.flatMap { rhsRow =>
+      table.probe(rhsRow).map { lhsRow =>
+        val output = lhsRow.createClone()
+        output.mergeWith(rhsRow, state.query)
+        output
+      }
     }
+  }
 
+  private def buildProbeTable(input: Iterator[ExecutionContext]): NodeHashTable = {
+    val table = NodeHashTable(cachedVariables, nodeId)
+    input.foreach(table.add)
     table
   }
 
   private val cachedVariables = nodeVariables.toIndexedSeq
 
-  private def computeKey(context: ExecutionContext): Option[IndexedSeq[Long]] = {
-    val key = new Array[Long](cachedVariables.length)
+  private def computeKey(context: ExecutionContext): NodeIds = NodeHashTable.key(context, cachedVariables, nodeId)
 
-    for (idx <- cachedVariables.indices) {
-      key(idx) = context(cachedVariables(idx)) match {
-        case n: VirtualNodeValue => n.id()
-        case Values.NO_VALUE => return None
-        case _ => throw new CypherTypeException("Created a plan that uses non-nodes when expecting a node")
-      }
-    }
-    Some(key.toIndexedSeq)
+  private def nodeId(context: ExecutionContext, variable: String): Long = context(variable) match {
+    case n: VirtualNodeValue => n.id()
+    case Values.NO_VALUE => NodeHashTable.NULL_NODE
+    case _ => throw new CypherTypeException("Created a plan that uses non-nodes when expecting a node")
   }
 }
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import java.util
+
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+
+import scala.collection.JavaConverters._
+import scala.collection.mutable
+
+/**
+  * The build side of a node hash join: rows keyed by the ids of the join nodes. A key of a single node is kept as a
+  * primitive long, and a key of several nodes as a long array, so that neither building nor probing the table boxes the
+  * ids of every row.
+  */
+abstract class NodeHashTable {
+  /**
+    * Adds the row, unless any of its join nodes is null.
+    *
+    * @return whether the row was added.
+    */
+  def add(row: ExecutionContext): Boolean
+
+  /**
+    * @return the rows with the same join nodes as the given row. These rows are then considered matched.
+    */
+  def probe(row: ExecutionContext): Seq[ExecutionContext]
+
+  /**
+    * @return the rows that have not been matched by any probe so far.
+    */
+  def unmatchedRows: Iterator[ExecutionContext]
+
+  def isEmpty: Boolean
+}
+
+object NodeHashTable {
+  /**
+    * The id of a join node which is null. Node ids are never negative.
+    */
+  val NULL_NODE: Long = -1L
+
+  /**
+    * @param nodeId the id of the node that the given variable of the row refers to, or [[NULL_NODE]] if it's null.
+    */
+  def apply(nodeVariables: IndexedSeq[String], nodeId: (ExecutionContext, String) => Long): NodeHashTable =
+    if (nodeVariables.size == 1) new SingleNodeHashTable(nodeVariables.head, nodeId)
+    else new MultiNodeHashTable(nodeVariables, nodeId)
+
+  /**
+    * @return the ids of the join nodes of the row, or `null` if any of them is null.
+    */
+  def key(row: ExecutionContext, nodeVariables: IndexedSeq[String], nodeId: (ExecutionContext, String) => Long): NodeIds = {
+    val ids = new Array[Long](nodeVariables.length)
+    var i = 0
+    while (i < ids.length) {
+      val id = nodeId(row, nodeVariables(i))
+      if (id == NULL_NODE)
+        return null
+      ids(i) = id
+      i += 1
+    }
+    new NodeIds(ids)
+  }
+
+  /**
+    * Key of several node ids, compared by value.
+    */
+  final class NodeIds(val ids: Array[Long]) {
+    override val hashCode: Int = util.Arrays.hashCode(ids)
+
+    override def equals(obj: Any): Boolean = obj match {
+      case other: NodeIds => util.Arrays.equals(ids, other.ids)
+      case _ => false
+    }
+  }
+
+  private class Bucket extends mutable.ArrayBuffer[ExecutionContext](2) {
+    var matched = false
+  }
+
+  private val NO_ROWS: Seq[ExecutionContext] = IndexedSeq.empty
+
+  private class SingleNodeHashTable(variable: String, nodeId: (ExecutionContext, String) => Long) extends NodeHashTable {
+    private val table = new LongObjectHashMap[Bucket]()
+
+    override def add(row: ExecutionContext): Boolean = {
+      val id = nodeId(row, variable)
+      if (id == NULL_NODE) false
+      else {
+        var bucket = table.get(id)
+        if (bucket == null) {
+          bucket = new Bucket
+          table.put(id, bucket)
+        }
+        bucket += row
+        true
+      }
+    }
+
+    override def probe(row: ExecutionContext): Seq[ExecutionContext] = {
+      val id = nodeId(row, variable)
+      val bucket = if (id == NULL_NODE) null else table.get(id)
+      if (bucket == null) NO_ROWS
+      else {
+        bucket.matched = true
+        bucket
+      }
+    }
+
+    override def unmatchedRows: Iterator[ExecutionContext] =
+      table.values().iterator().asScala.filterNot(_.matched).flatMap(_.iterator)
+
+    override def isEmpty: Boolean = table.isEmpty
+  }
+
+  private class MultiNodeHashTable(nodeVariables: IndexedSeq[String], nodeId: (ExecutionContext, String) => Long)
+    extends NodeHashTable {
+    private val table = new mutable.HashMap[NodeIds, Bucket]
+
+    override def add(row: ExecutionContext): Boolean = {
+      val ids = key(row, nodeVariables, nodeId)
+      if (ids == null) false
+      else {
+        table.getOrElseUpdate(ids, new Bucket) += row
+        true
+      }
+    }
+
+    override def probe(row: ExecutionContext): Seq[ExecutionContext] = {
+      val ids = key(row, nodeVariables, nodeId)
+      val bucket = if (ids == null) None else table.get(ids)
+      bucket match {
+        case Some(rows) =>
+          rows.matched = true
+          rows
+        case None => NO_ROWS
+      }
+    }
+
+    override def unmatchedRows: Iterator[ExecutionContext] =
+      table.valuesIterator.filterNot(_.matched).flatMap(_.iterator)
+
+    override def isEmpty: Boolean = table.isEmpty
+  }
+}
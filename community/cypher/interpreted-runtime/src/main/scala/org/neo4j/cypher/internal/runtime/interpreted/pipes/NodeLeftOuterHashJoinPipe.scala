@@ -23,7 +23,7 @@ import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
 import org.neo4j.cypher.internal.v3_5.logical.plans.CachedNodeProperty
 import org.neo4j.cypher.internal.v3_5.util.attribution.Id
 
-import scala.collection.mutable
+import scala.collection.mutable.ListBuffer
 
 case class NodeLeftOuterHashJoinPipe(nodeVariables: Set[String],
                                      lhs: Pipe,
@@ -38,31 +38,20 @@ case class NodeLeftOuterHashJoinPipe(nodeVariables: Set[String],
     if (input.isEmpty)
       return Iterator.empty
 
-    val probeTable = buildProbeTableAndFindNullRows(input, withNulls = true)
+    val rowsWithNullAsJoinKey = new ListBuffer[ExecutionContext]
+    val probeTable = buildProbeTable(input, rowsWithNullAsJoinKey)
 
-    val rhsKeys = mutable.Set[IndexedSeq[Long]]()
-    val lhsKeys = probeTable.keySet
-    val joinedRows = (
-      for {rhsRow <- rhs.createResults(state)
-           joinKey <- computeKey(rhsRow)}
-        yield {
-          val lhsRows = probeTable(joinKey)
-          rhsKeys.add(joinKey)
-          lhsRows.map { lhsRow =>
-            val outputRow = executionContextFactory.copyWith(lhsRow)
-            outputRow.mergeWith(rhsRow, state.query)
-            outputRow
-          }
-        }).flatten
-
-    def rowsWithoutRhsMatch: Iterator[ExecutionContext] = {
-      (lhsKeys -- rhsKeys).iterator.flatMap {
-        x => probeTable(x).map(addNulls)
+    val joinedRows = rhs.createResults(state).flatMap { rhsRow =>
+      probeTable.probe(rhsRow).map { lhsRow =>
+        val outputRow = executionContextFactory.copyWith(lhsRow)
+        outputRow.mergeWith(rhsRow, state.query)
+        outputRow
       }
     }
 
-    val rowsWithNullAsJoinKey = probeTable.nullRows.map(addNulls)
+    // evaluated lazily, once all rhs rows have probed the table
+    def rowsWithoutRhsMatch: Iterator[ExecutionContext] = probeTable.unmatchedRows.map(addNulls)
 
-    joinedRows ++ rowsWithNullAsJoinKey ++ rowsWithoutRhsMatch
+    joinedRows ++ rowsWithNullAsJoinKey.iterator.map(addNulls) ++ rowsWithoutRhsMatch
   }
 }
@@ -25,8 +25,7 @@ import org.neo4j.values.AnyValue
 import org.neo4j.values.storable.Values
 import org.neo4j.values.virtual.VirtualNodeValue
 
-import scala.collection.mutable
-import scala.collection.mutable.{ListBuffer, MutableList}
+import scala.collection.mutable.ListBuffer
 
 abstract class NodeOuterHashJoinPipe(nodeVariables: Set[String],
                                      lhs: Pipe,
@@ -37,16 +36,9 @@ abstract class NodeOuterHashJoinPipe(nodeVariables: Set[String],
   private val myVariables = nodeVariables.toIndexedSeq
   private val nullVariables: Array[(String, AnyValue)] = nullableVariables.map(_ -> Values.NO_VALUE).toArray
 
-  protected def computeKey(context: ExecutionContext): Option[IndexedSeq[Long]] = {
-    val key = new Array[Long](myVariables.length)
-
-    for (idx <- myVariables.indices) {
-      key(idx) = context(myVariables(idx)) match {
-        case n: VirtualNodeValue => n.id
-        case _ => return None
-      }
-    }
-    Some(key.toIndexedSeq)
+  private def nodeId(context: ExecutionContext, variable: String): Long = context(variable) match {
+    case n: VirtualNodeValue => n.id
+    case _ => NodeHashTable.NULL_NODE
   }
 
   protected def addNulls(in: ExecutionContext): ExecutionContext = {
@@ -57,41 +49,17 @@ abstract class NodeOuterHashJoinPipe(nodeVariables: Set[String],
     withNulls
   }
 
-  protected def buildProbeTableAndFindNullRows(input: Iterator[ExecutionContext], withNulls: Boolean): ProbeTable = {
-    val probeTable = new ProbeTable()
+  /**
+    * Builds the probe table of the given rows. Rows with a null join node are added to `nullRows`, unless it is null.
+    */
+  protected def buildProbeTable(input: Iterator[ExecutionContext], nullRows: ListBuffer[ExecutionContext]): NodeHashTable = {
+    val probeTable = NodeHashTable(myVariables, nodeId)
 
     for (context <- input) {
-      val key = computeKey(context)
-
-      key match {
-        case Some(joinKey) => probeTable.addValue(joinKey, context)
-        case None => if(withNulls) probeTable.addNull(context)
-      }
+      if (!probeTable.add(context) && nullRows != null)
+        nullRows += context
     }
 
     probeTable
   }
 }
-
-//noinspection ReferenceMustBePrefixed
-class ProbeTable() {
-  private val table: mutable.HashMap[IndexedSeq[Long], MutableList[ExecutionContext]] =
-    new mutable.HashMap[IndexedSeq[Long], MutableList[ExecutionContext]]
-
-  private val rowsWithNullInKey: ListBuffer[ExecutionContext] = new ListBuffer[ExecutionContext]()
-
-  def addValue(key: IndexedSeq[Long], newValue: ExecutionContext) {
-    val values = table.getOrElseUpdate(key, MutableList.empty)
-    values += newValue
-  }
-
-  def addNull(context: ExecutionContext): Unit = rowsWithNullInKey += context
-
-  private val EMPTY: MutableList[ExecutionContext] = MutableList.empty
-
-  def apply(key: IndexedSeq[Long]): MutableList[ExecutionContext] = table.getOrElse(key, EMPTY)
-
-  def keySet: collection.Set[IndexedSeq[Long]] = table.keySet
-
-  def nullRows: Iterator[ExecutionContext] = rowsWithNullInKey.iterator
-}
@@ -37,25 +37,18 @@ case class NodeRightOuterHashJoinPipe(nodeVariables: Set[String],
     if (rhsResult.isEmpty)
       return Iterator.empty
 
-    val probeTable = buildProbeTableAndFindNullRows(input, withNulls = false)
-    (
-      for {rhsRow <- rhsResult}
-        yield {
-          computeKey(rhsRow) match {
-            case Some(joinKey) =>
-              val lhsRows = probeTable(joinKey)
-              if(lhsRows.nonEmpty) {
-                lhsRows.map { lhsRow =>
-                  val outputRow = executionContextFactory.copyWith(rhsRow)
-                  outputRow.mergeWith(lhsRow, state.query)
-                  outputRow
-                }
-              } else {
-                Seq(addNulls(rhsRow))
-              }
-            case None =>
-              Seq(addNulls(rhsRow))
-          }
-        }).flatten
+    val probeTable = buildProbeTable(input, nullRows = null)
+    rhsResult.flatMap { rhsRow =>
+      val lhsRows = probeTable.probe(rhsRow)
+      if (lhsRows.nonEmpty) {
+        lhsRows.map { lhsRow =>
+          val outputRow = executionContextFactory.copyWith(rhsRow)
+          outputRow.mergeWith(lhsRow, state.query)
+          outputRow
+        }
+      } else {
+        Seq(addNulls(rhsRow))
+      }
+    }
   }
 }
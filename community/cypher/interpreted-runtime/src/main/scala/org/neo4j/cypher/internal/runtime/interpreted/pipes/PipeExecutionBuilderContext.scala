@@ -19,7 +19,19 @@
  */
 package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
+import org.neo4j.cypher.internal.runtime.interpreted.VariableSlots
 import org.neo4j.cypher.internal.v3_5.ast.semantics.SemanticTable
 
+/**
+  * @param arrayRows whether or not rows should be [[org.neo4j.cypher.internal.runtime.interpreted.ArrayExecutionContext]]s,
+  *                  with variable slots computed for the plan being built.
+  * @param compileExpressions whether or not predicates and projections should be compiled, see
+  *                           [[org.neo4j.cypher.internal.runtime.interpreted.commands.compiled.ExpressionCompiler]].
+  * @param variableSlots the slots of the plan being built when rows are arrays. Set while building the pipes, so that
+  *                      variables can be resolved to their slots once instead of for every row.
+  */
 case class PipeExecutionBuilderContext(semanticTable: SemanticTable,
-                                       readOnly: Boolean)
+                                       readOnly: Boolean,
+                                       arrayRows: Boolean = false,
+                                       compileExpressions: Boolean = false,
+                                       variableSlots: Option[VariableSlots] = None)
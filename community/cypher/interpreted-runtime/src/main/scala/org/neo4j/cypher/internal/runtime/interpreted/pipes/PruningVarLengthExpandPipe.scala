@@ -19,13 +19,15 @@
  */
 package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList
 import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet
 import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
 import org.neo4j.cypher.internal.v3_5.util.InternalException
 import org.neo4j.cypher.internal.v3_5.util.attribution.Id
 import org.neo4j.cypher.internal.v3_5.expressions.SemanticDirection
 import org.neo4j.values.storable.{Value, Values}
-import org.neo4j.values.virtual.{RelationshipValue, VirtualNodeValue}
+import org.neo4j.values.virtual.{NodeValue, RelationshipValue, VirtualNodeValue, VirtualValues}
 
 case class PruningVarLengthExpandPipe(source: Pipe,
                                       fromName: String,
@@ -42,6 +44,14 @@ case class PruningVarLengthExpandPipe(source: Pipe,
 
   filteringStep.predicateExpressions.foreach(_.registerOwningPipe(this))
 
+  /*
+   * A breadth-first search finds the same end nodes as the pruning DFS when the minimum length is at most 1, since
+   * every other node is then an end node exactly when its shortest path is short enough. The start node is an end
+   * node when it can be reached again without reusing a relationship, which breadth-first search only gets right
+   * for directed expansions, where the relationship leading back to the start node can't be on the path.
+   */
+  private val breadthFirst = min <= 1 && max > 0 && dir != SemanticDirection.BOTH
+
   /**
     * Performs DFS traversal, but omits traversing relationships that have been completely traversed (to the
     * remaining depth) before.
@@ -366,8 +376,90 @@ case class PruningVarLengthExpandPipe(source: Pipe,
     }
   }
 
+  /**
+    * Visits the nodes reachable from the start node level by level, emitting every node when it is first reached.
+    * Each node is expanded at most once, and visited nodes are tracked by id.
+    */
+  class BreadthFirstIterator(inputRow: ExecutionContext,
+                             start: VirtualNodeValue,
+                             queryState: QueryState) extends Iterator[ExecutionContext] {
+
+    private val visited = new LongHashSet()
+    private var frontier = new LongArrayList()
+    private var nextFrontier = new LongArrayList()
+    private var frontierIndex = 0
+    private var depth = 0
+    private var expanding: VirtualNodeValue = start
+    private var relationships: Iterator[RelationshipValue] = Iterator.empty
+    private var startEmitted = min == 0
+
+    visited.add(start.id())
+    frontier.add(start.id())
+
+    private var nextNode: VirtualNodeValue = if (startEmitted) start else fetch()
+
+    override def hasNext: Boolean = nextNode != null
+
+    override def next(): ExecutionContext = {
+      if (nextNode == null) Iterator.empty.next()
+      val endNode = nextNode
+      nextNode = fetch()
+      executionContextFactory.copyWith(inputRow, self.toName, endNode)
+    }
+
+    private def fetch(): VirtualNodeValue = {
+      while (true) {
+        while (relationships.hasNext) {
+          val relationship = relationships.next()
+          val otherNode = relationship.otherNode(expanding)
+          if (isPermitted(relationship, otherNode)) {
+            if (otherNode.id() == start.id()) {
+              if (!startEmitted) {
+                startEmitted = true
+                return otherNode
+              }
+            } else if (visited.add(otherNode.id())) {
+              if (depth + 1 < self.max) nextFrontier.add(otherNode.id())
+              return otherNode
+            }
+          }
+        }
+
+        if (frontierIndex < frontier.size()) {
+          val nodeId = frontier.get(frontierIndex)
+          frontierIndex += 1
+          expanding = if (nodeId == start.id()) start else VirtualValues.node(nodeId)
+          relationships = queryState.query.getRelationshipsForIds(nodeId, dir, types.types(queryState.query))
+        } else if (!nextFrontier.isEmpty) {
+          val expanded = frontier
+          frontier = nextFrontier
+          nextFrontier = expanded
+          nextFrontier.clear()
+          frontierIndex = 0
+          depth += 1
+        } else {
+          return null
+        }
+      }
+      null
+    }
+
+    private def isPermitted(relationship: RelationshipValue, otherNode: NodeValue): Boolean =
+      filteringStep.filterRelationship(inputRow, queryState)(relationship) &&
+        filteringStep.filterNode(inputRow, queryState)(otherNode)
+  }
+
   override protected def internalCreateResults(input: Iterator[ExecutionContext],
                                                state: QueryState): Iterator[ExecutionContext] = {
-    new FullyPruningIterator(input, state)
+    if (breadthFirst)
+      input.flatMap { row =>
+        row.getOrElse(fromName, throw new InternalException(s"Required variable `$fromName` is not in context")) match {
+          case node: VirtualNodeValue => new BreadthFirstIterator(row, node, state)
+          case x: Value if x == Values.NO_VALUE => Iterator.empty
+          case fromValue => throw new InternalException(s"Expected variable `$fromName` to be a node, got $fromValue")
+        }
+      }
+    else
+      new FullyPruningIterator(input, state)
   }
 }
@@ -22,7 +22,8 @@ package org.neo4j.cypher.internal.runtime.interpreted.pipes
 import org.eclipse.collections.api.set.primitive.LongSet
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.PathValueBuilder
 import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates.{InCheckContainer, SingleThreadedLRUCache}
-import org.neo4j.cypher.internal.runtime.interpreted.{ExecutionContext, MapExecutionContext, MutableMaps}
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.QueryMemoryTracker
+import org.neo4j.cypher.internal.runtime.interpreted.{ArrayExecutionContext, ExecutionContext, MapExecutionContext, MutableMaps, VariableSlots}
 import org.neo4j.cypher.internal.runtime.{QueryContext, QueryStatistics}
 import org.neo4j.values.AnyValue
 import org.neo4j.values.virtual.MapValue
@@ -38,7 +39,8 @@ class QueryState(val query: QueryContext,
                  val triadicState: mutable.Map[String, LongSet] = mutable.Map.empty,
                  val repeatableReads: mutable.Map[Pipe, Seq[ExecutionContext]] = mutable.Map.empty,
                  val cachedIn: SingleThreadedLRUCache[Any, InCheckContainer] = new SingleThreadedLRUCache(maxSize = 16),
-                 val lenientCreateRelationship: Boolean = false) {
+                 val lenientCreateRelationship: Boolean = false,
+                 val memoryTracker: QueryMemoryTracker = QueryMemoryTracker.NO_TRACKING) {
 
   private var _pathValueBuilder: PathValueBuilder = _
   private var _exFactory: ExecutionContextFactory = _
@@ -66,11 +68,11 @@ class QueryState(val query: QueryContext,
 
   def withDecorator(decorator: PipeDecorator) =
     new QueryState(query, resources, params, decorator, initialContext, triadicState,
-                   repeatableReads, cachedIn, lenientCreateRelationship)
+                   repeatableReads, cachedIn, lenientCreateRelationship, memoryTracker)
 
   def withInitialContext(initialContext: ExecutionContext) =
     new QueryState(query, resources, params, decorator, Some(initialContext), triadicState,
-                   repeatableReads, cachedIn, lenientCreateRelationship)
+                   repeatableReads, cachedIn, lenientCreateRelationship, memoryTracker)
 
   /**
     * When running on the RHS of an Apply, this method will fill an execution context with argument data
@@ -84,7 +86,7 @@ class QueryState(val query: QueryContext,
 
   def withQueryContext(query: QueryContext) =
     new QueryState(query, resources, params, decorator, initialContext, triadicState,
-                   repeatableReads, cachedIn, lenientCreateRelationship)
+                   repeatableReads, cachedIn, lenientCreateRelationship, memoryTracker)
 
   def setExecutionContextFactory(exFactory: ExecutionContextFactory) = {
     _exFactory = exFactory
@@ -171,3 +173,57 @@ case class CommunityExecutionContextFactory() extends ExecutionContextFactory {
   }
 
 }
+
+/**
+  * Creates [[ArrayExecutionContext]]s laid out according to the given slots. Rows of other kinds, e.g. ones created
+  * directly by pipes, are copied as they are.
+  */
+case class ArrayExecutionContextFactory(slots: VariableSlots) extends ExecutionContextFactory {
+
+  override def newExecutionContext(m: mutable.Map[String, AnyValue] = MutableMaps.empty): ExecutionContext = {
+    val context = ArrayExecutionContext.empty(slots)
+    m.foreach(kv => context.set(kv._1, kv._2))
+    context
+  }
+
+  override def newExecutionContext(): ExecutionContext = ArrayExecutionContext.empty(slots)
+
+  override def copyWith(init: ExecutionContext): ExecutionContext = ArrayExecutionContext.copyOf(slots, init)
+
+  // Not using polymorphism here, instead cast since the cost of being megamorhpic is too high
+  override def copyWith(row: ExecutionContext, newEntries: Seq[(String, AnyValue)]): ExecutionContext = row match {
+    case context: ArrayExecutionContext =>
+      context.copyWith(newEntries)
+    case _ =>
+      row.copyWith(newEntries)
+  }
+
+  // Not using polymorphism here, instead cast since the cost of being megamorhpic is too high
+  override def copyWith(row: ExecutionContext, key: String, value: AnyValue): ExecutionContext = row match {
+    case context: ArrayExecutionContext =>
+      context.copyWith(key, value)
+    case _ =>
+      row.copyWith(key, value)
+  }
+
+  // Not using polymorphism here, instead cast since the cost of being megamorhpic is too high
+  override def copyWith(row : ExecutionContext,
+                        key1: String, value1: AnyValue,
+                        key2: String, value2: AnyValue): ExecutionContext = row match {
+    case context: ArrayExecutionContext =>
+      context.copyWith(key1, value1, key2, value2)
+    case _ =>
+      row.copyWith(key1, value1, key2, value2)
+  }
+
+  // Not using polymorphism here, instead cast since the cost of being megamorhpic is too high
+  override def copyWith(row : ExecutionContext,
+                        key1: String, value1: AnyValue,
+                        key2: String, value2: AnyValue,
+                        key3: String, value3: AnyValue): ExecutionContext = row match {
+    case context: ArrayExecutionContext =>
+      context.copyWith(key1, value1, key2, value2, key3, value3)
+    case _ =>
+      row.copyWith(key1, value1, key2, value2, key3, value3)
+  }
+}
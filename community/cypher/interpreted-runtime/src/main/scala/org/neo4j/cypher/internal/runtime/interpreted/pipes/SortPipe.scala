@@ -22,6 +22,7 @@ package org.neo4j.cypher.internal.runtime.interpreted.pipes
 import java.util.Comparator
 
 import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.ExternalSorter
 import org.neo4j.cypher.internal.v3_5.util.attribution.Id
 import org.neo4j.values.{AnyValue, AnyValues}
 
@@ -33,9 +34,15 @@ case class SortPipe(source: Pipe, orderBy: Seq[ColumnOrder])
   private val comparator = ExecutionContextOrdering.asComparator(orderBy)
 
   protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
-    val array = input.toArray
-    java.util.Arrays.sort(array, comparator)
-    array.toIterator
+    if (state.memoryTracker.isEnabled) {
+      val sorter = new ExternalSorter(comparator, state, executionContextFactory)
+      input.foreach(sorter.add)
+      sorter.sorted()
+    } else {
+      val array = input.toArray
+      java.util.Arrays.sort(array, comparator)
+      array.toIterator
+    }
   }
 }
 
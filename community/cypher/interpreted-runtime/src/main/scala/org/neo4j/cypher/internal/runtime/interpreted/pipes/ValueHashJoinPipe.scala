@@ -21,6 +21,7 @@ package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
 import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.SpillingHashJoin
 import org.neo4j.cypher.internal.v3_5.util.attribution.Id
 import org.neo4j.values.AnyValue
 import org.neo4j.values.storable.Values
@@ -44,15 +45,26 @@ case class ValueHashJoinPipe(lhsExpression: Expression, rhsExpression: Expressio
     if (rhsIterator.isEmpty)
       return Iterator.empty
 
+    if (state.memoryTracker.isEnabled) {
+      val join = new SpillingHashJoin[AnyValue](state, executionContextFactory,
+                                                joinKey(lhsExpression, _, state),
+                                                joinKey(rhsExpression, _, state))
+      return join.join(input, rhsIterator) { (lhsRow, rhsRow) =>
+        val outputRow = lhsRow.createClone()
+        outputRow.mergeWith(rhsRow, state.query)
+        outputRow
+      }
+    }
+
     val table = buildProbeTable(input, state)
 
     if (table.isEmpty)
       return Iterator.empty
 
     val result = for {rhsRow <- rhsIterator
-                      joinKey = rhsExpression(rhsRow, state) if joinKey != Values.NO_VALUE}
+                      key = joinKey(rhsExpression, rhsRow, state) if key != null}
       yield {
-        val lhsRows = table.getOrElse(joinKey, mutable.MutableList.empty)
+        val lhsRows = table.getOrElse(key, mutable.MutableList.empty)
         lhsRows.map { lhsRow =>
           val outputRow = lhsRow.createClone()
           outputRow.mergeWith(rhsRow, state.query)
@@ -67,11 +79,17 @@ case class ValueHashJoinPipe(lhsExpression: Expression, rhsExpression: Expressio
     val table = new mutable.HashMap[AnyValue, mutable.MutableList[ExecutionContext]]
 
     for (context <- input;
-         joinKey = lhsExpression(context, state) if joinKey != null) {
-      val seq = table.getOrElseUpdate(joinKey, mutable.MutableList.empty)
+         key = joinKey(lhsExpression, context, state) if key != null) {
+      val seq = table.getOrElseUpdate(key, mutable.MutableList.empty)
       seq += context
     }
 
     table
   }
+
+  // Null never equals anything, so rows without a key are left out of the join on both sides
+  private def joinKey(expression: Expression, row: ExecutionContext, state: QueryState): AnyValue = {
+    val key = expression(row, state)
+    if (key == Values.NO_VALUE) null else key
+  }
 }
@@ -22,6 +22,7 @@ package org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation
 import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.RowSizeEstimator
 import org.neo4j.values.AnyValue
 import org.neo4j.values.storable.Values
 import org.neo4j.values.virtual.VirtualValues
@@ -30,13 +31,24 @@ import scala.collection.mutable.ArrayBuffer
 
 class CollectFunction(value:Expression) extends AggregationFunction {
   val collection = new ArrayBuffer[AnyValue]()
+  private var estimatedBytes = 0L
 
   override def apply(data: ExecutionContext, state:QueryState) {
     value(data, state) match {
       case Values.NO_VALUE =>
-      case v    => collection += v
+      case v    =>
+        if (state.memoryTracker.isEnabled) {
+          val size = RowSizeEstimator.estimate(v)
+          state.memoryTracker.allocated(size)
+          estimatedBytes += size
+        }
+        collection += v
     }
   }
 
-  override def result(state: QueryState): AnyValue = VirtualValues.list(collection.toArray:_*)
+  override def result(state: QueryState): AnyValue = {
+    state.memoryTracker.deallocated(estimatedBytes)
+    estimatedBytes = 0
+    VirtualValues.list(collection.toArray:_*)
+  }
 }
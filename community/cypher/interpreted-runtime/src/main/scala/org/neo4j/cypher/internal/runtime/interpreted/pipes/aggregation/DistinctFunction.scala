@@ -22,18 +22,29 @@ package org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation
 import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.RowSizeEstimator
 import org.neo4j.values.AnyValue
 
 class DistinctFunction(value: Expression, inner: AggregationFunction) extends AggregationFunction {
   private val seen = scala.collection.mutable.Set[AnyValue]()
+  private var estimatedBytes = 0L
 
   override def apply(ctx: ExecutionContext, state: QueryState) {
     val data = value(ctx, state)
     if (!seen.contains(data)) {
+      if (state.memoryTracker.isEnabled) {
+        val size = RowSizeEstimator.estimate(data)
+        state.memoryTracker.allocated(size)
+        estimatedBytes += size
+      }
       seen += data
       inner(ctx, state)
     }
   }
 
-  override def result(state: QueryState): AnyValue = inner.result(state)
+  override def result(state: QueryState): AnyValue = {
+    state.memoryTracker.deallocated(estimatedBytes)
+    estimatedBytes = 0
+    inner.result(state)
+  }
 }
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.parallel
+
+import java.util.concurrent.TimeUnit.MILLISECONDS
+import java.util.concurrent.{ArrayBlockingQueue, BlockingQueue}
+
+import org.neo4j.cypher.internal.runtime.QueryContext
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.{Pipe, QueryState}
+import org.neo4j.graphdb.TransactionTerminatedException
+
+import scala.collection.mutable.ArrayBuffer
+
+/**
+  * A single execution of a [[ParallelPipe]].
+  *
+  * The scan runs on a thread of its own and splits the rows it produces into morsels of `morselSize` rows. `workers`
+  * threads take morsels from a bounded queue as they become available and run them through the pipeline, sending their
+  * results back in batches of at most `morselSize` rows. The threads come from `pool`, which must have them reserved
+  * before the execution starts. Kernel transactions must only be used by a single thread, so every thread runs in a
+  * transaction of its own, which it begins and closes itself, along with the resources of its query context.
+  *
+  * Closing the execution, which the resource manager of the query does at the latest when the query is closed, makes
+  * all threads stop at the next morsel or batch of results.
+  */
+class ParallelExecution(state: QueryState, scan: Pipe, pipeline: Pipe, workers: Int, morselSize: Int,
+                        pool: ParallelWorkers) extends AutoCloseable {
+
+  import ParallelExecution._
+
+  private val morsels: BlockingQueue[Array[ExecutionContext]] = new ArrayBlockingQueue(2 * workers)
+  private val results: BlockingQueue[Message] = new ArrayBlockingQueue(2 * workers)
+  private var running = 0
+  @volatile private var closed = false
+
+  def start(): Unit = {
+    running = workers + 1
+    try {
+      pool.execute(task(produceMorsels) +: (0 until workers).map(worker => task(consumeMorsels(worker) _)))
+    } catch {
+      case t: Throwable =>
+        // Stops the tasks that did start
+        close()
+        throw t
+    }
+  }
+
+  override def close(): Unit = closed = true
+
+  /**
+    * @return the results of all workers, in the order they arrive in.
+    */
+  def rows(): Iterator[ExecutionContext] = new Iterator[ExecutionContext] {
+    private var batch: Array[ExecutionContext] = Array.empty
+    private var i = 0
+
+    override def hasNext: Boolean = {
+      while (batch != null && i == batch.length) {
+        val next = nextRows()
+        batch = if (next == null) null else next.rows
+        i = 0
+      }
+      batch != null
+    }
+
+    override def next(): ExecutionContext =
+      if (hasNext) {
+        val row = batch(i)
+        i += 1
+        row
+      } else Iterator.empty.next()
+  }
+
+  /**
+    * Waits for all workers to finish.
+    *
+    * @return the results of every worker, in the order each of them produced them.
+    */
+  def rowsByWorker(): Seq[Iterator[ExecutionContext]] = {
+    val rowsOfWorkers = IndexedSeq.fill(workers)(new ArrayBuffer[ExecutionContext]())
+    var next = nextRows()
+    while (next != null) {
+      rowsOfWorkers(next.worker) ++= next.rows
+      next = nextRows()
+    }
+    rowsOfWorkers.map(_.iterator)
+  }
+
+  /**
+    * @return the next batch of results, or `null` when all threads are done.
+    */
+  private def nextRows(): Rows = {
+    while (running > 0) {
+      results.poll(POLL_INTERVAL_MILLIS, MILLISECONDS) match {
+        case rows: Rows =>
+          return rows
+        case Done =>
+          running -= 1
+        case Failed(error) =>
+          close()
+          throw error
+        case null =>
+          // The threads of the workers don't run in the transaction of the query, so they won't notice it being terminated
+          val terminated = state.query.transactionalContext.transaction.getReasonIfTerminated
+          if (terminated.isPresent) {
+            close()
+            throw new TransactionTerminatedException(terminated.get())
+          }
+      }
+    }
+    null
+  }
+
+  private def produceMorsels(query: QueryContext): Unit =
+    try {
+      val input = scan.createResults(new ParallelQueryState(query, state, Iterator.empty))
+      while (input.hasNext && !closed) {
+        val morsel = new ArrayBuffer[ExecutionContext](morselSize)
+        while (morsel.size < morselSize && input.hasNext) {
+          morsel += input.next()
+        }
+        offer(morsels, morsel.toArray)
+      }
+    } finally {
+      offer(morsels, END_OF_INPUT)
+    }
+
+  private def consumeMorsels(worker: Int)(query: QueryContext): Unit = {
+    val output = pipeline.createResults(new ParallelQueryState(query, state, new MorselInput))
+    while (output.hasNext && !closed) {
+      val batch = new ArrayBuffer[ExecutionContext](morselSize)
+      while (batch.size < morselSize && output.hasNext) {
+        batch += output.next()
+      }
+      offer(results, Rows(worker, batch.toArray))
+    }
+  }
+
+  /**
+    * The rows of all morsels that a worker takes. Morsels are only taken when the previous one has been consumed, so
+    * that workers which are quick to get through their morsels take more of them.
+    */
+  private class MorselInput extends Iterator[ExecutionContext] {
+    private var morsel: Array[ExecutionContext] = Array.empty
+    private var i = 0
+
+    override def hasNext: Boolean = {
+      while (morsel != null && i == morsel.length) {
+        morsel = poll(morsels)
+        i = 0
+        if (morsel eq END_OF_INPUT) {
+          // Leave it for the other workers
+          morsels.offer(END_OF_INPUT)
+          morsel = null
+        }
+      }
+      morsel != null
+    }
+
+    override def next(): ExecutionContext =
+      if (hasNext) {
+        val row = morsel(i)
+        i += 1
+        row
+      } else Iterator.empty.next()
+  }
+
+  private def task(body: QueryContext => Unit): Runnable = new Runnable {
+    override def run(): Unit = {
+      val message = try {
+        // Begins a new transaction bound to this thread
+        val query = state.query.createNewQueryContext()
+        var success = false
+        try {
+          body(query)
+          success = true
+        } finally {
+          try {
+            query.resources.close(success)
+          } finally {
+            query.transactionalContext.close(success)
+          }
+        }
+        Done
+      } catch {
+        case t: Throwable => Failed(t)
+      }
+      offer(results, message)
+    }
+  }
+
+  private def offer[T](queue: BlockingQueue[T], element: T): Unit =
+    while (!closed && !queue.offer(element, POLL_INTERVAL_MILLIS, MILLISECONDS)) {}
+
+  /**
+    * @return the next element of the queue, or `null` if the execution is closed before there is one.
+    */
+  private def poll[T <: AnyRef](queue: BlockingQueue[T]): T = {
+    var element = null.asInstanceOf[T]
+    while (element == null && !closed) {
+      element = queue.poll(POLL_INTERVAL_MILLIS, MILLISECONDS)
+    }
+    element
+  }
+}
+
+object ParallelExecution {
+  private val POLL_INTERVAL_MILLIS = 10L
+  private val END_OF_INPUT = new Array[ExecutionContext](0)
+
+  private sealed trait Message
+  private case class Rows(worker: Int, rows: Array[ExecutionContext]) extends Message
+  private case object Done extends Message
+  private case class Failed(error: Throwable) extends Message
+}
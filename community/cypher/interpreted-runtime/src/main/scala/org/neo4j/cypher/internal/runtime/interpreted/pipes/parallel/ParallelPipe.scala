@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.parallel
+
+import java.util.{Comparator, PriorityQueue}
+
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.pipes._
+import org.neo4j.cypher.internal.v3_5.util.attribution.Id
+
+/**
+  * Runs `pipeline`, a chain of streaming pipes which is optionally topped by an aggregation, sort or top, on morsels of
+  * the rows produced by `scan` using a pool of threads, and reduces the results of all threads with `reducer`. The leaf
+  * of `pipeline` is a [[ParallelInputPipe]].
+  *
+  * `serial` is the same chain, scan included, built the normal way. It is used instead when the query is profiled, since
+  * profiling isn't thread safe, and when the query runs in an explicit transaction, since the transactions of the
+  * threads can't see any changes made by it. It is also used when `pool` has no threads left for the scan and all the
+  * workers, because other parallel queries are using them.
+  */
+case class ParallelPipe(serial: Pipe, scan: Pipe, pipeline: Pipe, reducer: ParallelReducer, workers: Int, morselSize: Int,
+                        pool: ParallelWorkers)
+                       (val id: Id = Id.INVALID_ID) extends Pipe {
+
+  // Not decorated, since `serial` already is decorated with the same id when profiling
+  override def createResults(state: QueryState): Iterator[ExecutionContext] =
+    if (state.decorator != NullPipeDecorator || !state.query.transactionalContext.isTopLevelTx ||
+      !pool.tryReserve(workers + 1)) serial.createResults(state)
+    else internalCreateResults(state)
+
+  protected def internalCreateResults(state: QueryState): Iterator[ExecutionContext] = {
+    val execution = new ParallelExecution(state, scan, pipeline, workers, morselSize, pool)
+    state.query.resources.trace(execution)
+    execution.start()
+    reducer.reduce(execution, state)
+  }
+}
+
+/**
+  * Combines the results of the workers of a [[ParallelPipe]] into its result.
+  */
+sealed trait ParallelReducer {
+  def reduce(execution: ParallelExecution, state: QueryState): Iterator[ExecutionContext]
+}
+
+/**
+  * Produces the results of the workers as they arrive, for pipelines of streaming pipes only.
+  */
+case object ConcatenateResults extends ParallelReducer {
+  override def reduce(execution: ParallelExecution, state: QueryState): Iterator[ExecutionContext] = execution.rows()
+}
+
+/**
+  * Merges the results of pipelines topped by a sort, which each worker produces in sorted order.
+  */
+case class MergeSortedResults(orderBy: Seq[ColumnOrder]) extends ParallelReducer {
+  private val comparator = ExecutionContextOrdering.asComparator(orderBy)
+
+  override def reduce(execution: ParallelExecution, state: QueryState): Iterator[ExecutionContext] = {
+    val runs = execution.rowsByWorker().map(_.buffered).filter(_.hasNext)
+    val heads = new PriorityQueue[BufferedIterator[ExecutionContext]](math.max(runs.size, 1),
+      new Comparator[BufferedIterator[ExecutionContext]] {
+        override def compare(a: BufferedIterator[ExecutionContext], b: BufferedIterator[ExecutionContext]): Int =
+          comparator.compare(a.head, b.head)
+      })
+    runs.foreach(run => heads.add(run))
+
+    new Iterator[ExecutionContext] {
+      override def hasNext: Boolean = !heads.isEmpty
+
+      override def next(): ExecutionContext = {
+        val run = heads.poll()
+        if (run == null) Iterator.empty.next()
+        val row = run.next()
+        if (run.hasNext) heads.add(run)
+        row
+      }
+    }
+  }
+}
+
+/**
+  * Runs the results of the workers through `pipe`, whose leaf is a [[ParallelInputPipe]]. Used for pipelines topped by
+  * an aggregation, which `pipe` merges the partial aggregates of, or by a top, which `pipe` takes the top rows of all
+  * workers from.
+  */
+case class PipeReducer(pipe: Pipe) extends ParallelReducer {
+  override def reduce(execution: ParallelExecution, state: QueryState): Iterator[ExecutionContext] =
+    pipe.createResults(new ParallelQueryState(state.query, state, execution.rows()))
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.parallel
+
+import org.neo4j.cypher.internal.runtime.QueryContext
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.{NullPipeDecorator, QueryState}
+
+/**
+  * State of a single thread of a [[ParallelPipe]]. The caches of the state of the query, e.g. the one of `IN` checks,
+  * aren't thread safe, so every thread gets new ones. `input` is what a [[ParallelInputPipe]] produces.
+  */
+class ParallelQueryState(query: QueryContext, state: QueryState, val input: Iterator[ExecutionContext])
+  extends QueryState(query,
+                     state.resources,
+                     state.params,
+                     NullPipeDecorator,
+                     state.initialContext,
+                     lenientCreateRelationship = state.lenientCreateRelationship,
+                     memoryTracker = state.memoryTracker)
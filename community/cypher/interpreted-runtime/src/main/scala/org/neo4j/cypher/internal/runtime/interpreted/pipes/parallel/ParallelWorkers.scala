@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.parallel
+
+import java.util.concurrent.{Executor, Semaphore}
+
+import org.neo4j.scheduler.{Group, JobScheduler}
+
+/**
+  * The threads that [[ParallelExecution]]s run their tasks on. At most `threads` tasks run at the same time. The tasks
+  * of an execution wait for each other, so an execution only starts when threads for all of its tasks can be reserved
+  * up front. Otherwise its pipe runs serially instead.
+  */
+class ParallelWorkers(executor: Executor, threads: Int) {
+
+  private val available = new Semaphore(threads)
+
+  /**
+    * @return whether threads for the given number of tasks were reserved, which [[execute]] then releases.
+    */
+  def tryReserve(tasks: Int): Boolean = available.tryAcquire(tasks)
+
+  /**
+    * Runs tasks that threads have been reserved for. Every task releases its thread when it is done. If not all of
+    * the tasks can be started, the threads of the ones that weren't are released right away.
+    */
+  def execute(tasks: Seq[Runnable]): Unit = {
+    var started = 0
+    try {
+      for (task <- tasks) {
+        executor.execute(new Runnable {
+          override def run(): Unit = try task.run() finally available.release()
+        })
+        started += 1
+      }
+    } finally {
+      available.release(tasks.size - started)
+    }
+  }
+}
+
+object ParallelWorkers {
+
+  /**
+    * Workers running on the Cypher worker group of the job scheduler of the database, which owns the threads.
+    */
+  def apply(jobScheduler: JobScheduler, threads: Int): ParallelWorkers =
+    new ParallelWorkers(jobScheduler.workStealingExecutor(Group.CYPHER_WORKER, threads), threads)
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.spill
+
+import java.util.{Comparator, PriorityQueue}
+
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.{ExecutionContextFactory, QueryState}
+
+import scala.collection.mutable.ArrayBuffer
+
+/**
+  * Sorts rows like `java.util.Arrays.sort` does, i.e. stably, but writes them to disk as sorted runs whenever the
+  * memory tracker of the query goes above its threshold. The sorted result is then a merge of all runs and of the rows
+  * still in memory. Runs are merged `MAX_MERGE_WIDTH` at a time, so that the number of open files stays bounded.
+  */
+class ExternalSorter(comparator: Comparator[ExecutionContext], state: QueryState, factory: ExecutionContextFactory) {
+  import ExternalSorter._
+
+  private val reservation = new MemoryReservation(state.memoryTracker)
+  private var buffer = new ArrayBuffer[ExecutionContext]()
+  private val runs = new ArrayBuffer[RowSpillFile]()
+
+  def add(row: ExecutionContext): Unit = {
+    buffer += row
+    reservation.allocate(RowSizeEstimator.estimate(row))
+    if (reservation.isOverThreshold) {
+      spill()
+    }
+  }
+
+  def sorted(): Iterator[ExecutionContext] = {
+    val inMemory = sortBuffer()
+    if (runs.isEmpty) {
+      reservation.releaseWhenExhausted(inMemory)
+    } else {
+      while (runs.size > MAX_MERGE_WIDTH) {
+        val merged = new RowSpillFile(state, factory)
+        merge(runs.take(MAX_MERGE_WIDTH).map(_.read())).foreach(merged.write)
+        runs.remove(0, MAX_MERGE_WIDTH)
+        // The merged rows were added before the rows of the remaining runs, so the merged run has to stay first
+        runs.insert(0, merged)
+      }
+      // The rows in memory were added after everything in the runs, so they go last for the merge to be stable
+      reservation.releaseWhenExhausted(merge(runs.map(_.read()) :+ inMemory))
+    }
+  }
+
+  private def spill(): Unit = {
+    val run = new RowSpillFile(state, factory)
+    sortBuffer().foreach(run.write)
+    runs += run
+    buffer = new ArrayBuffer[ExecutionContext]()
+    reservation.releaseAll()
+  }
+
+  private def sortBuffer(): Iterator[ExecutionContext] = {
+    val array = buffer.toArray
+    java.util.Arrays.sort(array, comparator)
+    array.toIterator
+  }
+
+  /**
+    * K-way merge of sorted iterators. Rows which compare equal are taken from the earlier iterator first.
+    */
+  private def merge(sources: Seq[Iterator[ExecutionContext]]): Iterator[ExecutionContext] = {
+    val heads = new PriorityQueue[Head](Math.max(1, sources.size), new Comparator[Head] {
+      override def compare(a: Head, b: Head): Int = {
+        val result = comparator.compare(a.row, b.row)
+        if (result != 0) result else Integer.compare(a.source, b.source)
+      }
+    })
+    sources.zipWithIndex.foreach {
+      case (source, index) if source.hasNext => heads.add(Head(source.next(), index, source))
+      case _ =>
+    }
+
+    new Iterator[ExecutionContext] {
+      override def hasNext: Boolean = !heads.isEmpty
+
+      override def next(): ExecutionContext = {
+        val head = heads.poll()
+        if (head == null) Iterator.empty.next()
+        if (head.rest.hasNext) heads.add(Head(head.rest.next(), head.source, head.rest))
+        head.row
+      }
+    }
+  }
+}
+
+object ExternalSorter {
+  private val MAX_MERGE_WIDTH = 64
+
+  private case class Head(row: ExecutionContext, source: Int, rest: Iterator[ExecutionContext])
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.spill
+
+import java.util.concurrent.atomic.AtomicLong
+
+import org.neo4j.cypher.QueryMemoryLimitExceededException
+import org.neo4j.kernel.api.exceptions.Status
+
+/**
+  * How much memory the eager operators of a query may hold on to. Sizes are in bytes, and 0 disables the respective
+  * feature.
+  *
+  * @param spillThreshold  estimated memory above which operators spill rows to disk
+  * @param maxMemory       estimated memory above which the query is terminated
+  * @param globalMaxMemory estimated memory that all running queries together may hold on to before the query that
+  *                        allocates beyond it is terminated
+  * @param track           whether to estimate memory usage even if neither spilling nor limits are configured
+  */
+case class QueryMemoryConfiguration(spillThreshold: Long = 0,
+                                    maxMemory: Long = 0,
+                                    globalMaxMemory: Long = 0,
+                                    track: Boolean = false) {
+  def isTracking: Boolean = track || spillThreshold > 0 || maxMemory > 0 || globalMaxMemory > 0
+}
+
+object QueryMemoryTracker {
+  /**
+    * Tracker of queries which neither spill nor are limited, and whose memory usage nobody asked for.
+    */
+  val NO_TRACKING = new QueryMemoryTracker(QueryMemoryConfiguration())
+
+  private val globalUsed = new AtomicLong()
+
+  def apply(configuration: QueryMemoryConfiguration): QueryMemoryTracker =
+    if (configuration.isTracking) new QueryMemoryTracker(configuration) else NO_TRACKING
+
+  /**
+    * @return the estimated memory held on to by all running queries of this JVM.
+    */
+  def globalUsedBytes: Long = globalUsed.get()
+}
+
+/**
+  * Keeps track of the estimated amount of memory that the eager operators of a query hold on to, e.g. the rows buffered
+  * by a sort, the table of a hash join or the state of collect(). Once the total goes above the spill threshold,
+  * operators spill to disk what they would otherwise have kept on heap. Once it goes above the per query limit, or the
+  * total of all running queries goes above the global limit, the allocating query is terminated.
+  *
+  * A single tracker is shared by all threads of a parallel query, so it has to be thread safe. Closing the tracker at
+  * the end of the query returns whatever it still holds to the global total.
+  */
+class QueryMemoryTracker(val configuration: QueryMemoryConfiguration) extends AutoCloseable {
+  import QueryMemoryTracker.globalUsed
+
+  private val used = new AtomicLong()
+  private val peak = new AtomicLong()
+  @volatile private var closed = false
+
+  def isEnabled: Boolean = configuration.isTracking
+
+  def allocated(bytes: Long): Unit = if (isEnabled && !closed) {
+    val total = used.addAndGet(bytes)
+    val globalTotal = globalUsed.addAndGet(bytes)
+    var currentPeak = peak.get()
+    while (total > currentPeak && !peak.compareAndSet(currentPeak, total)) {
+      currentPeak = peak.get()
+    }
+
+    if (configuration.maxMemory > 0 && total > configuration.maxMemory)
+      throw new QueryMemoryLimitExceededException(
+        s"The query held on to an estimated $total bytes, which is more than the ${configuration.maxMemory} bytes " +
+          "allowed by cypher.query_max_memory.", Status.Transaction.QueryMemoryLimitReached)
+    if (configuration.globalMaxMemory > 0 && globalTotal > configuration.globalMaxMemory)
+      throw new QueryMemoryLimitExceededException(
+        s"The running queries held on to an estimated $globalTotal bytes, which is more than the " +
+          s"${configuration.globalMaxMemory} bytes allowed by cypher.query_global_max_memory.",
+        Status.Transaction.GlobalQueryMemoryLimitReached)
+  }
+
+  def deallocated(bytes: Long): Unit = if (isEnabled && !closed) {
+    used.addAndGet(-bytes)
+    globalUsed.addAndGet(-bytes)
+  }
+
+  def isOverThreshold: Boolean = configuration.spillThreshold > 0 && used.get() > configuration.spillThreshold
+
+  def usedBytes: Long = used.get()
+
+  def peakBytes: Long = peak.get()
+
+  override def close(): Unit = if (isEnabled && !closed) {
+    closed = true
+    globalUsed.addAndGet(-used.getAndSet(0))
+  }
+}
+
+/**
+  * The memory held by a single operator. Lets the operator release everything it has allocated at once, e.g. after it
+  * has spilled its rows to disk or once its results have been consumed.
+  */
+class MemoryReservation(tracker: QueryMemoryTracker) {
+  private var bytes = 0L
+
+  def allocate(size: Long): Unit = {
+    bytes += size
+    tracker.allocated(size)
+  }
+
+  def releaseAll(): Unit = {
+    tracker.deallocated(bytes)
+    bytes = 0
+  }
+
+  def isOverThreshold: Boolean = tracker.isOverThreshold
+
+  /**
+    * @return the given iterator, which releases everything allocated by this reservation once it is exhausted.
+    */
+  def releaseWhenExhausted[T](iterator: Iterator[T]): Iterator[T] = new Iterator[T] {
+    override def hasNext: Boolean = {
+      val hasNext = iterator.hasNext
+      if (!hasNext) releaseAll()
+      hasNext
+    }
+
+    override def next(): T = iterator.next()
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.spill
+
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.{ArrayValue, BooleanValue, NumberValue, TextValue, Value, Values}
+import org.neo4j.values.virtual._
+
+/**
+  * Rough estimates of how much heap rows and values use. They don't have to be exact, only good enough to tell when an
+  * operator holds on to way more than it should, so they are based on typical object sizes of a 64 bit JVM with
+  * compressed oops rather than on measuring anything.
+  */
+object RowSizeEstimator {
+  private val ROW_OVERHEAD = 64
+  private val ENTRY_OVERHEAD = 32
+  private val OBJECT_OVERHEAD = 16
+  private val REFERENCE_SIZE = 8
+
+  def estimate(row: ExecutionContext): Long = {
+    var size: Long = ROW_OVERHEAD
+    row.foreach(kv => size += ENTRY_OVERHEAD + estimate(kv._2))
+    val cachedProperties = ExecutionContext.cachedPropertiesOf(row)
+    if (cachedProperties != null) {
+      cachedProperties.foreach(kv => size += ENTRY_OVERHEAD + (if (kv._2 == null) 0 else estimate(kv._2)))
+    }
+    size
+  }
+
+  /**
+    * Estimates the size of a group of an aggregation. The state of the aggregation functions is assumed to be small,
+    * which doesn't hold for e.g. `collect`, but there is no way of telling how large it is.
+    */
+  def estimateGroup(groupingKey: AnyValue, aggregationFunctions: Int): Long =
+    ROW_OVERHEAD + estimate(groupingKey) + 4L * OBJECT_OVERHEAD * aggregationFunctions
+
+  def estimate(value: AnyValue): Long = value match {
+    case Values.NO_VALUE | _: BooleanValue => REFERENCE_SIZE
+    case _: NumberValue => OBJECT_OVERHEAD + 8
+    case text: TextValue => OBJECT_OVERHEAD + 24 + 2L * text.length()
+    case array: ArrayValue => OBJECT_OVERHEAD + 16 + 16L * array.length()
+    case _: Value => 4 * OBJECT_OVERHEAD
+    case _: VirtualNodeValue | _: VirtualRelationshipValue => 3 * OBJECT_OVERHEAD
+    case path: PathValue => OBJECT_OVERHEAD + 3 * OBJECT_OVERHEAD * (2L * path.size() + 1)
+    case list: ListValue =>
+      var size: Long = OBJECT_OVERHEAD + 16
+      val iterator = list.iterator()
+      while (iterator.hasNext) {
+        size += REFERENCE_SIZE + estimate(iterator.next())
+      }
+      size
+    case map: MapValue =>
+      var size: Long = OBJECT_OVERHEAD + 32
+      val keys = map.keySet().iterator()
+      while (keys.hasNext) {
+        val key = keys.next()
+        size += ENTRY_OVERHEAD + 2L * key.length + estimate(map.get(key))
+      }
+      size
+    case _ => 4 * OBJECT_OVERHEAD
+  }
+}
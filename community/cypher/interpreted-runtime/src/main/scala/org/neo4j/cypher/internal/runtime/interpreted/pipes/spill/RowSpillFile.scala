@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.spill
+
+import java.io._
+import java.nio.file.{Files, Path}
+
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.{ExecutionContextFactory, QueryState}
+
+/**
+  * A temporary file which an operator writes rows to and then reads them back from, in the order they were written.
+  *
+  * The file is registered with the resources of the query, so that it is deleted when the query is closed even if its
+  * rows are never read. It is deleted as soon as its rows have been read back.
+  */
+class RowSpillFile(state: QueryState, factory: ExecutionContextFactory) extends AutoCloseable {
+  private val codec = new SpilledRowCodec
+  private val path: Path = Files.createTempFile("cypher-spill-", ".tmp")
+  private var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), RowSpillFile.BUFFER_SIZE))
+  private var in: DataInputStream = _
+  private var rows = 0L
+  private var closed = false
+
+  state.query.resources.trace(this)
+
+  def write(row: ExecutionContext): Unit = {
+    codec.write(row, out)
+    rows += 1
+  }
+
+  def size: Long = rows
+
+  /**
+    * Finishes writing and reads the rows back. Can only be called once.
+    */
+  def read(): Iterator[ExecutionContext] = {
+    out.close()
+    out = null
+    in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), RowSpillFile.BUFFER_SIZE))
+
+    new Iterator[ExecutionContext] {
+      private var remaining = rows
+      if (remaining == 0) release()
+
+      override def hasNext: Boolean = remaining > 0
+
+      override def next(): ExecutionContext = {
+        if (!hasNext) Iterator.empty.next()
+        val row = codec.read(in, factory, state.query)
+        remaining -= 1
+        if (remaining == 0) release()
+        row
+      }
+    }
+  }
+
+  private def release(): Unit = if (!closed) state.query.resources.release(this)
+
+  override def close(): Unit = if (!closed) {
+    closed = true
+    try {
+      if (out != null) out.close()
+      if (in != null) in.close()
+    } finally {
+      Files.deleteIfExists(path)
+    }
+  }
+
+  override def toString: String = s"RowSpillFile($path)"
+}
+
+object RowSpillFile {
+  private val BUFFER_SIZE = 64 * 1024
+}
+
+/**
+  * Rows partitioned by the hash of a key into a fixed number of spill files, which are only created once rows are
+  * written to them. Rows with equal keys always end up in the same partition, so that e.g. the groups of an
+  * aggregation or the matches of a join can be found one partition at a time.
+  */
+class SpillPartitions(state: QueryState, factory: ExecutionContextFactory,
+                      val partitionCount: Int = SpillPartitions.DEFAULT_PARTITION_COUNT) {
+  private val files = new Array[RowSpillFile](partitionCount)
+
+  def write(keyHash: Int, row: ExecutionContext): Unit = {
+    val partition = Math.floorMod(keyHash, partitionCount)
+    if (files(partition) == null) {
+      files(partition) = new RowSpillFile(state, factory)
+    }
+    files(partition).write(row)
+  }
+
+  /**
+    * Reads back the rows of a single partition. Can only be called once per partition.
+    */
+  def read(partition: Int): Iterator[ExecutionContext] =
+    if (files(partition) == null) Iterator.empty else files(partition).read()
+
+  /**
+    * Reads back the rows of every partition, one partition after the other.
+    */
+  def readAll(): Iterator[Iterator[ExecutionContext]] = (0 until partitionCount).iterator.map(read)
+}
+
+object SpillPartitions {
+  val DEFAULT_PARTITION_COUNT = 16
+}
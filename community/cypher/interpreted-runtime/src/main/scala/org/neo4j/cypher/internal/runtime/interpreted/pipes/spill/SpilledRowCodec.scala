@@ -0,0 +1,395 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.spill
+
+import java.io.{DataInput, DataOutput, IOException}
+import java.nio.charset.StandardCharsets.UTF_8
+import java.time._
+
+import org.neo4j.cypher.internal.runtime.EntityById
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.ExecutionContextFactory
+import org.neo4j.cypher.internal.v3_5.logical.plans.CachedNodeProperty
+import org.neo4j.cypher.internal.v3_5.util.InternalException
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.ValueWriter.ArrayType
+import org.neo4j.values.storable._
+import org.neo4j.values.virtual._
+
+import scala.collection.mutable
+
+/**
+  * Writes rows to, and reads them back from, the files that operators spill to.
+  *
+  * Storable values are written the way they write themselves, through a [[ValueWriter]]. Nodes and relationships are
+  * written as their ids only, and are looked up again when read back, since writing e.g. their properties would mean
+  * reading them from the store. Variable names and cached property keys repeat on every row, so every codec keeps a
+  * table of the ones it has seen and writes their index in that table instead. This means that rows must be read back
+  * using the same codec as the one which wrote them.
+  */
+class SpilledRowCodec {
+  import SpilledRowCodec._
+
+  private val variables = new Interned[String]
+  private val cachedPropertyKeys = new Interned[CachedNodeProperty]
+
+  def write(row: ExecutionContext, out: DataOutput): Unit = {
+    val writer = new SpillValueWriter(out)
+    out.writeInt(row.size)
+    row.foreach { kv =>
+      out.writeInt(variables.indexOf(kv._1))
+      writeValue(kv._2, writer, out)
+    }
+
+    val cachedProperties = ExecutionContext.cachedPropertiesOf(row)
+    if (cachedProperties == null) {
+      out.writeInt(-1)
+    } else {
+      out.writeInt(cachedProperties.size)
+      cachedProperties.foreach { kv =>
+        out.writeInt(cachedPropertyKeys.indexOf(kv._1))
+        // A null value means that the property has been invalidated
+        out.writeBoolean(kv._2 != null)
+        if (kv._2 != null) writeValue(kv._2, writer, out)
+      }
+    }
+  }
+
+  def read(in: DataInput, factory: ExecutionContextFactory, entityById: EntityById): ExecutionContext = {
+    val row = factory.newExecutionContext()
+    var i = 0
+    val size = in.readInt()
+    while (i < size) {
+      row.set(variables(in.readInt()), readValue(in, entityById))
+      i += 1
+    }
+
+    val cachedPropertiesSize = in.readInt()
+    i = 0
+    while (i < cachedPropertiesSize) {
+      val key = cachedPropertyKeys(in.readInt())
+      val value = if (in.readBoolean()) readValue(in, entityById).asInstanceOf[Value] else null
+      row.setCachedProperty(key, value)
+      i += 1
+    }
+    row
+  }
+}
+
+object SpilledRowCodec {
+  private val NULL: Byte = 0
+  private val TRUE: Byte = 1
+  private val FALSE: Byte = 2
+  private val BYTE: Byte = 3
+  private val SHORT: Byte = 4
+  private val INT: Byte = 5
+  private val LONG: Byte = 6
+  private val FLOAT: Byte = 7
+  private val DOUBLE: Byte = 8
+  private val STRING: Byte = 9
+  private val CHAR: Byte = 10
+  private val BYTE_ARRAY: Byte = 11
+  private val ARRAY: Byte = 12
+  private val POINT: Byte = 13
+  private val DURATION: Byte = 14
+  private val DATE: Byte = 15
+  private val LOCAL_TIME: Byte = 16
+  private val TIME: Byte = 17
+  private val LOCAL_DATE_TIME: Byte = 18
+  private val DATE_TIME: Byte = 19
+  private val LIST: Byte = 20
+  private val MAP: Byte = 21
+  private val NODE: Byte = 22
+  private val RELATIONSHIP: Byte = 23
+  private val PATH: Byte = 24
+
+  private val ARRAY_TYPES = ArrayType.values()
+
+  private class Interned[T] {
+    private val indexes = mutable.HashMap.empty[T, Int]
+    private val values = mutable.ArrayBuffer.empty[T]
+
+    def indexOf(value: T): Int = indexes.getOrElseUpdate(value, {
+      values += value
+      values.size - 1
+    })
+
+    def apply(index: Int): T = values(index)
+  }
+
+  private def writeValue(value: AnyValue, writer: SpillValueWriter, out: DataOutput): Unit = value match {
+    case storable: Value =>
+      storable.writeTo(writer)
+
+    case node: VirtualNodeValue =>
+      out.writeByte(NODE)
+      out.writeLong(node.id())
+
+    case relationship: VirtualRelationshipValue =>
+      out.writeByte(RELATIONSHIP)
+      out.writeLong(relationship.id())
+
+    case path: PathValue =>
+      val nodes = path.nodes()
+      val relationships = path.relationships()
+      out.writeByte(PATH)
+      out.writeInt(nodes.length)
+      nodes.foreach(node => out.writeLong(node.id()))
+      out.writeInt(relationships.length)
+      relationships.foreach(relationship => out.writeLong(relationship.id()))
+
+    case list: ListValue =>
+      out.writeByte(LIST)
+      out.writeInt(list.size())
+      val iterator = list.iterator()
+      while (iterator.hasNext) {
+        writeValue(iterator.next(), writer, out)
+      }
+
+    case map: MapValue =>
+      out.writeByte(MAP)
+      out.writeInt(map.size())
+      val keys = map.keySet().iterator()
+      while (keys.hasNext) {
+        val key = keys.next()
+        writeString(key, out)
+        writeValue(map.get(key), writer, out)
+      }
+
+    case _ =>
+      throw new InternalException(s"Can't spill values of type ${value.getClass.getSimpleName} to disk")
+  }
+
+  private def readValue(in: DataInput, entityById: EntityById): AnyValue = in.readByte() match {
+    case NULL => Values.NO_VALUE
+    case TRUE => Values.TRUE
+    case FALSE => Values.FALSE
+    case BYTE => Values.byteValue(in.readByte())
+    case SHORT => Values.shortValue(in.readShort())
+    case INT => Values.intValue(in.readInt())
+    case LONG => Values.longValue(in.readLong())
+    case FLOAT => Values.floatValue(in.readFloat())
+    case DOUBLE => Values.doubleValue(in.readDouble())
+    case STRING => Values.stringValue(readString(in))
+    case CHAR => Values.charValue(in.readChar())
+
+    case BYTE_ARRAY =>
+      val bytes = new Array[Byte](in.readInt())
+      in.readFully(bytes)
+      Values.byteArray(bytes)
+
+    case ARRAY =>
+      val length = in.readInt()
+      val arrayType = ARRAY_TYPES(in.readByte())
+      val elements = new Array[Value](length)
+      var i = 0
+      while (i < length) {
+        elements(i) = readValue(in, entityById).asInstanceOf[Value]
+        i += 1
+      }
+      arrayOf(arrayType, elements)
+
+    case POINT =>
+      val crs = CoordinateReferenceSystem.get(in.readInt())
+      val coordinate = new Array[Double](in.readInt())
+      var i = 0
+      while (i < coordinate.length) {
+        coordinate(i) = in.readDouble()
+        i += 1
+      }
+      Values.pointValue(crs, coordinate: _*)
+
+    case DURATION => DurationValue.duration(in.readLong(), in.readLong(), in.readLong(), in.readInt())
+    case DATE => DateValue.date(LocalDate.ofEpochDay(in.readLong()))
+    case LOCAL_TIME => LocalTimeValue.localTime(in.readLong())
+    case TIME => TimeValue.time(OffsetTime.of(LocalTime.ofNanoOfDay(in.readLong()), ZoneOffset.ofTotalSeconds(in.readInt())))
+    case LOCAL_DATE_TIME => LocalDateTimeValue.localDateTime(in.readLong(), in.readInt())
+    case DATE_TIME => DateTimeValue.datetime(in.readLong(), in.readInt(), ZoneId.of(readString(in)))
+
+    case LIST =>
+      val elements = new Array[AnyValue](in.readInt())
+      var i = 0
+      while (i < elements.length) {
+        elements(i) = readValue(in, entityById)
+        i += 1
+      }
+      VirtualValues.list(elements: _*)
+
+    case MAP =>
+      val size = in.readInt()
+      val keys = new Array[String](size)
+      val values = new Array[AnyValue](size)
+      var i = 0
+      while (i < size) {
+        keys(i) = readString(in)
+        values(i) = readValue(in, entityById)
+        i += 1
+      }
+      VirtualValues.map(keys, values)
+
+    case NODE => entityById.nodeById(in.readLong())
+    case RELATIONSHIP => entityById.relationshipById(in.readLong())
+
+    case PATH =>
+      val nodes = Array.fill(in.readInt())(entityById.nodeById(in.readLong()))
+      val relationships = Array.fill(in.readInt())(entityById.relationshipById(in.readLong()))
+      VirtualValues.path(nodes, relationships)
+
+    case tag =>
+      throw new InternalException(s"Unknown type of spilled value: $tag")
+  }
+
+  private def arrayOf(arrayType: ArrayType, elements: Array[Value]): ArrayValue = arrayType match {
+    case ArrayType.BYTE => Values.byteArray(elements.map(_.asInstanceOf[ByteValue].value()))
+    case ArrayType.SHORT => Values.shortArray(elements.map(_.asInstanceOf[ShortValue].value()))
+    case ArrayType.INT => Values.intArray(elements.map(_.asInstanceOf[IntValue].value()))
+    case ArrayType.LONG => Values.longArray(elements.map(_.asInstanceOf[LongValue].value()))
+    case ArrayType.FLOAT => Values.floatArray(elements.map(_.asInstanceOf[FloatValue].value()))
+    case ArrayType.DOUBLE => Values.doubleArray(elements.map(_.asInstanceOf[DoubleValue].value()))
+    case ArrayType.BOOLEAN => Values.booleanArray(elements.map(_.asInstanceOf[BooleanValue].booleanValue()))
+    case ArrayType.STRING => Values.stringArray(elements.map(_.asInstanceOf[TextValue].stringValue()): _*)
+    case ArrayType.CHAR => Values.charArray(elements.map(_.asInstanceOf[CharValue].value()))
+    case ArrayType.POINT => Values.pointArray(elements.map(_.asInstanceOf[PointValue]))
+    case ArrayType.ZONED_DATE_TIME => Values.dateTimeArray(elements.map(_.asInstanceOf[DateTimeValue].asObjectCopy()))
+    case ArrayType.LOCAL_DATE_TIME => Values.localDateTimeArray(elements.map(_.asInstanceOf[LocalDateTimeValue].asObjectCopy()))
+    case ArrayType.DATE => Values.dateArray(elements.map(_.asInstanceOf[DateValue].asObjectCopy()))
+    case ArrayType.ZONED_TIME => Values.timeArray(elements.map(_.asInstanceOf[TimeValue].asObjectCopy()))
+    case ArrayType.LOCAL_TIME => Values.localTimeArray(elements.map(_.asInstanceOf[LocalTimeValue].asObjectCopy()))
+    case ArrayType.DURATION => Values.durationArray(elements.map(_.asInstanceOf[DurationValue]))
+  }
+
+  private def writeString(value: String, out: DataOutput): Unit = {
+    // Not using writeUTF, since it can't write strings longer than 64k
+    val bytes = value.getBytes(UTF_8)
+    out.writeInt(bytes.length)
+    out.write(bytes)
+  }
+
+  private def readString(in: DataInput): String = {
+    val bytes = new Array[Byte](in.readInt())
+    in.readFully(bytes)
+    new String(bytes, UTF_8)
+  }
+
+  private class SpillValueWriter(out: DataOutput) extends ValueWriter[IOException] {
+
+    override def writeNull(): Unit = out.writeByte(NULL)
+
+    override def writeBoolean(value: Boolean): Unit = out.writeByte(if (value) TRUE else FALSE)
+
+    override def writeInteger(value: Byte): Unit = {
+      out.writeByte(BYTE)
+      out.writeByte(value)
+    }
+
+    override def writeInteger(value: Short): Unit = {
+      out.writeByte(SHORT)
+      out.writeShort(value)
+    }
+
+    override def writeInteger(value: Int): Unit = {
+      out.writeByte(INT)
+      out.writeInt(value)
+    }
+
+    override def writeInteger(value: Long): Unit = {
+      out.writeByte(LONG)
+      out.writeLong(value)
+    }
+
+    override def writeFloatingPoint(value: Float): Unit = {
+      out.writeByte(FLOAT)
+      out.writeFloat(value)
+    }
+
+    override def writeFloatingPoint(value: Double): Unit = {
+      out.writeByte(DOUBLE)
+      out.writeDouble(value)
+    }
+
+    override def writeString(value: String): Unit = {
+      out.writeByte(STRING)
+      SpilledRowCodec.writeString(value, out)
+    }
+
+    override def writeString(value: Char): Unit = {
+      out.writeByte(CHAR)
+      out.writeChar(value)
+    }
+
+    override def beginArray(size: Int, arrayType: ArrayType): Unit = {
+      out.writeByte(ARRAY)
+      out.writeInt(size)
+      out.writeByte(arrayType.ordinal())
+    }
+
+    override def endArray(): Unit = {}
+
+    override def writeByteArray(value: Array[Byte]): Unit = {
+      out.writeByte(BYTE_ARRAY)
+      out.writeInt(value.length)
+      out.write(value)
+    }
+
+    override def writePoint(crs: CoordinateReferenceSystem, coordinate: Array[Double]): Unit = {
+      out.writeByte(POINT)
+      out.writeInt(crs.getCode)
+      out.writeInt(coordinate.length)
+      coordinate.foreach(out.writeDouble)
+    }
+
+    override def writeDuration(months: Long, days: Long, seconds: Long, nanos: Int): Unit = {
+      out.writeByte(DURATION)
+      out.writeLong(months)
+      out.writeLong(days)
+      out.writeLong(seconds)
+      out.writeInt(nanos)
+    }
+
+    override def writeDate(localDate: LocalDate): Unit = {
+      out.writeByte(DATE)
+      out.writeLong(localDate.toEpochDay)
+    }
+
+    override def writeLocalTime(localTime: LocalTime): Unit = {
+      out.writeByte(LOCAL_TIME)
+      out.writeLong(localTime.toNanoOfDay)
+    }
+
+    override def writeTime(offsetTime: OffsetTime): Unit = {
+      out.writeByte(TIME)
+      out.writeLong(offsetTime.toLocalTime.toNanoOfDay)
+      out.writeInt(offsetTime.getOffset.getTotalSeconds)
+    }
+
+    override def writeLocalDateTime(localDateTime: LocalDateTime): Unit = {
+      out.writeByte(LOCAL_DATE_TIME)
+      out.writeLong(localDateTime.toEpochSecond(ZoneOffset.UTC))
+      out.writeInt(localDateTime.getNano)
+    }
+
+    override def writeDateTime(zonedDateTime: ZonedDateTime): Unit = {
+      out.writeByte(DATE_TIME)
+      out.writeLong(zonedDateTime.toEpochSecond)
+      out.writeInt(zonedDateTime.getNano)
+      SpilledRowCodec.writeString(zonedDateTime.getZone.getId, out)
+    }
+  }
+}
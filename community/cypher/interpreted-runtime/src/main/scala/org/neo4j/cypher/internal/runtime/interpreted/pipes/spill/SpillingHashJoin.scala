@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.spill
+
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.{ExecutionContextFactory, QueryState}
+
+import scala.collection.mutable
+
+/**
+  * Hash join which starts out building its table in memory, like the hash join pipes do, but turns into a grace hash
+  * join once the memory tracker of the query goes above its threshold: the table and the rest of the build side are
+  * written to partitions by the hash of their join keys, the probe side is partitioned the same way, and the partitions
+  * are then joined one at a time. Each partition is expected to fit in memory, so partitions are never split further.
+  *
+  * @param buildKey the join key of a row on the build side, or `null` if the row shouldn't be joined.
+  * @param probeKey the join key of a row on the probe side, or `null` if the row shouldn't be joined.
+  */
+class SpillingHashJoin[K <: AnyRef](state: QueryState,
+                                    factory: ExecutionContextFactory,
+                                    buildKey: ExecutionContext => K,
+                                    probeKey: ExecutionContext => K) {
+
+  private type Table = mutable.HashMap[K, mutable.MutableList[ExecutionContext]]
+
+  def join(build: Iterator[ExecutionContext], probe: Iterator[ExecutionContext])
+          (merge: (ExecutionContext, ExecutionContext) => ExecutionContext): Iterator[ExecutionContext] = {
+    val reservation = new MemoryReservation(state.memoryTracker)
+    val table = new Table
+    var buildPartitions: SpillPartitions = null
+
+    build.foreach { row =>
+      val key = buildKey(row)
+      if (key != null) {
+        if (buildPartitions != null) {
+          buildPartitions.write(key.hashCode(), row)
+        } else {
+          table.getOrElseUpdate(key, mutable.MutableList.empty) += row
+          reservation.allocate(RowSizeEstimator.estimate(row))
+          if (reservation.isOverThreshold) {
+            buildPartitions = new SpillPartitions(state, factory)
+            table.foreach {
+              case (tableKey, rows) => rows.foreach(buildPartitions.write(tableKey.hashCode(), _))
+            }
+            table.clear()
+            reservation.releaseAll()
+          }
+        }
+      }
+    }
+
+    if (buildPartitions == null) {
+      reservation.releaseWhenExhausted(probeTable(table, probe, merge))
+    } else {
+      val probePartitions = new SpillPartitions(state, factory, buildPartitions.partitionCount)
+      probe.foreach { row =>
+        val key = probeKey(row)
+        if (key != null) probePartitions.write(key.hashCode(), row)
+      }
+
+      (0 until buildPartitions.partitionCount).iterator.flatMap { partition =>
+        val partitionTable = new Table
+        buildPartitions.read(partition).foreach { row =>
+          partitionTable.getOrElseUpdate(buildKey(row), mutable.MutableList.empty) += row
+        }
+        probeTable(partitionTable, probePartitions.read(partition), merge)
+      }
+    }
+  }
+
+  private def probeTable(table: Table,
+                         probe: Iterator[ExecutionContext],
+                         merge: (ExecutionContext, ExecutionContext) => ExecutionContext): Iterator[ExecutionContext] =
+    probe.flatMap { row =>
+      val key = probeKey(row)
+      if (key == null) Iterator.empty
+      else table.getOrElse(key, mutable.MutableList.empty).iterator.map(merge(_, row))
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted
+
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{SlottedVariable, Variable}
+import org.neo4j.cypher.internal.v3_5.logical.plans.CachedNodeProperty
+import org.neo4j.graphdb.NotFoundException
+import org.neo4j.values.storable.{BooleanValue, Values}
+import org.neo4j.cypher.internal.v3_5.expressions.PropertyKeyName
+import org.neo4j.cypher.internal.v3_5.util.InputPosition
+import org.neo4j.cypher.internal.v3_5.util.test_helpers.CypherFunSuite
+
+class ArrayExecutionContextTest extends CypherFunSuite {
+
+  private val slots = VariableSlots(Seq("key1", "key2", "key3"))
+
+  test("create clone") {
+    // given
+    val ctx = empty.copyWith("key1", BooleanValue.FALSE)
+
+    // when
+    val ctxClone = ctx.createClone()
+
+    // then
+    ctxClone.contains("key1") should equal(true)
+    ctxClone("key1") should equal(BooleanValue.FALSE)
+    ctxClone should not be theSameInstanceAs(ctx)
+
+    mutatingLeftDoesNotAffectRight(ctx, ctxClone)
+  }
+
+  test("set and get slotted and non-slotted keys") {
+    // given
+    val ctx = empty
+
+    // when
+    ctx.set("key2", BooleanValue.FALSE, "other", BooleanValue.TRUE)
+
+    // then
+    ctx.contains("key1") should equal(false)
+    ctx.get("key1") should equal(None)
+    ctx("key2") should equal(BooleanValue.FALSE)
+    ctx("other") should equal(BooleanValue.TRUE)
+    ctx.getOrElse("key3", BooleanValue.TRUE) should equal(BooleanValue.TRUE)
+    ctx.size should equal(2)
+    ctx.toMap should equal(Map("key2" -> BooleanValue.FALSE, "other" -> BooleanValue.TRUE))
+    a[NoSuchElementException] should be thrownBy ctx("key3")
+  }
+
+  test("remove slotted and non-slotted keys") {
+    // given
+    val ctx = empty
+    ctx.set("key1", BooleanValue.FALSE, "other", BooleanValue.TRUE)
+
+    // when
+    ctx -= "key1"
+    ctx -= "other"
+
+    // then
+    ctx.contains("key1") should equal(false)
+    ctx.contains("other") should equal(false)
+    ctx.size should equal(0)
+  }
+
+  test("is null") {
+    // given
+    val ctx = empty.copyWith("key1", Values.NO_VALUE, "key2", BooleanValue.TRUE)
+
+    // then
+    ctx.isNull("key1") should equal(true)
+    ctx.isNull("key2") should equal(false)
+    ctx.isNull("key3") should equal(false)
+  }
+
+  test("copy with keys") {
+    // given
+    val lhsCtx = empty
+
+    // when
+    val rhsCtx = lhsCtx.copyWith("key1", BooleanValue.FALSE, "key2", BooleanValue.TRUE, "other", BooleanValue.TRUE)
+
+    // then
+    lhsCtx.size should equal(0)
+    rhsCtx("key1") should equal(BooleanValue.FALSE)
+    rhsCtx("key2") should equal(BooleanValue.TRUE)
+    rhsCtx("other") should equal(BooleanValue.TRUE)
+
+    mutatingLeftDoesNotAffectRight(lhsCtx, rhsCtx)
+    mutatingLeftDoesNotAffectRight(rhsCtx.createClone(), rhsCtx)
+  }
+
+  test("mergeWith array context") {
+    // given
+    val cachedPropertyKey = prop("n", "key")
+    val lhsCtx = empty.copyWith("key1", BooleanValue.FALSE)
+    val rhsCtx = empty.copyWith("key2", BooleanValue.TRUE, "other", BooleanValue.TRUE)
+    rhsCtx.setCachedProperty(cachedPropertyKey, BooleanValue.TRUE)
+
+    // when
+    lhsCtx.mergeWith(rhsCtx, null)
+
+    // then
+    lhsCtx("key1") should equal(BooleanValue.FALSE)
+    lhsCtx("key2") should equal(BooleanValue.TRUE)
+    lhsCtx("other") should equal(BooleanValue.TRUE)
+    lhsCtx.getCachedProperty(cachedPropertyKey) should equal(BooleanValue.TRUE)
+
+    mutatingLeftDoesNotAffectRight(rhsCtx, lhsCtx)
+  }
+
+  test("mergeWith map context and the other way around") {
+    // given
+    val arrayCtx = empty.copyWith("key1", BooleanValue.FALSE)
+    val mapCtx = ExecutionContext.empty.copyWith("key2", BooleanValue.TRUE)
+
+    // when
+    arrayCtx.mergeWith(mapCtx, null)
+    mapCtx.mergeWith(arrayCtx, null)
+
+    // then
+    arrayCtx.toMap should equal(Map("key1" -> BooleanValue.FALSE, "key2" -> BooleanValue.TRUE))
+    mapCtx.toMap should equal(Map("key1" -> BooleanValue.FALSE, "key2" -> BooleanValue.TRUE))
+  }
+
+  test("copy of map context") {
+    // given
+    val cachedPropertyKey = prop("n", "key")
+    val mapCtx = ExecutionContext.empty.copyWith("key1", BooleanValue.FALSE, "other", BooleanValue.TRUE)
+    mapCtx.setCachedProperty(cachedPropertyKey, BooleanValue.TRUE)
+
+    // when
+    val arrayCtx = ArrayExecutionContext.copyOf(slots, mapCtx)
+
+    // then
+    arrayCtx.toMap should equal(mapCtx.toMap)
+    arrayCtx.getCachedProperty(cachedPropertyKey) should equal(BooleanValue.TRUE)
+
+    mutatingLeftDoesNotAffectRight(mapCtx, arrayCtx)
+  }
+
+  test("copy cached properties from map context") {
+    // given
+    val cachedPropertyKey = prop("key1", "prop")
+    val mapCtx = ExecutionContext.empty.copyWith("key1", BooleanValue.FALSE)
+    mapCtx.setCachedProperty(cachedPropertyKey, BooleanValue.TRUE)
+    val arrayCtx = empty
+
+    // when
+    arrayCtx.copyCachedFrom(mapCtx)
+
+    // then
+    arrayCtx("key1") should equal(BooleanValue.FALSE)
+    arrayCtx.getCachedProperty(cachedPropertyKey) should equal(BooleanValue.TRUE)
+  }
+
+  private def empty: ExecutionContext = ArrayExecutionContext.empty(slots)
+
+  private def mutatingLeftDoesNotAffectRight(left: ExecutionContext, right: ExecutionContext): Unit = {
+    // given
+    left should not be theSameInstanceAs(right)
+    val newCachedPropertyKey = prop("n", "new key")
+    val rightBefore = right.toMap
+    an[NoSuchElementException] should be thrownBy right.getCachedProperty(newCachedPropertyKey)
+
+    // when (left is modified)
+    left.set("key3", BooleanValue.TRUE, "this key should not yet exist in left or right", BooleanValue.TRUE)
+    left.setCachedProperty(newCachedPropertyKey, BooleanValue.FALSE)
+
+    // then (only left should be modified)
+    right.toMap should equal(rightBefore)
+    an[NoSuchElementException] should be thrownBy right.getCachedProperty(newCachedPropertyKey)
+  }
+
+  test("read resolved variables by offset and by name") {
+    // given
+    val key2 = SlottedVariable.resolve(slots)(Variable("key2"))
+    val other = SlottedVariable.resolve(slots)(Variable("other"))
+    val ctx = empty
+    ctx.set("key2", BooleanValue.FALSE, "other", BooleanValue.TRUE)
+    val otherSlots = ArrayExecutionContext.copyOf(VariableSlots(Seq("key3", "key2")), ctx)
+
+    // then
+    key2 shouldBe a[SlottedVariable]
+    other should not be a[SlottedVariable]
+    key2(ctx, QueryStateHelper.empty) should equal(BooleanValue.FALSE)
+    key2(otherSlots, QueryStateHelper.empty) should equal(BooleanValue.FALSE)
+    key2(ExecutionContext.from("key2" -> BooleanValue.TRUE), QueryStateHelper.empty) should equal(BooleanValue.TRUE)
+    other(ctx, QueryStateHelper.empty) should equal(BooleanValue.TRUE)
+    a[NotFoundException] should be thrownBy SlottedVariable.resolve(slots)(Variable("key1"))(ctx, QueryStateHelper.empty)
+  }
+
+  private def prop(node: String, prop: String) =
+    CachedNodeProperty(node, PropertyKeyName(prop)(InputPosition.NONE))(InputPosition.NONE)
+}
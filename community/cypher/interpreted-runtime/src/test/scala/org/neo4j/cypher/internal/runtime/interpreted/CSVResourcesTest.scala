@@ -19,11 +19,16 @@
  */
 package org.neo4j.cypher.internal.runtime.interpreted
 
+import java.io.IOException
 import java.net.URL
+import java.util.concurrent.{CountDownLatch, Executor}
 
 import org.apache.commons.lang3.SystemUtils
 import org.mockito.ArgumentMatchers._
 import org.mockito.Mockito._
+import org.mockito.invocation.InvocationOnMock
+import org.mockito.stubbing.Answer
+import org.neo4j.csv.reader.CharSeeker
 import org.neo4j.cypher.internal.runtime.{CreateTempFileTestSupport, ResourceManager}
 import org.neo4j.cypher.internal.v3_5.util.{LoadExternalResourceException, TaskCloser}
 import org.neo4j.cypher.internal.v3_5.util.test_helpers.CypherFunSuite
@@ -243,4 +248,78 @@ class CSVResourcesTest extends CypherFunSuite with CreateTempFileTestSupport {
         r should equal(expected)
     }
   }
+
+  test("should read rows ahead when enabled") {
+    // given
+    val url = createCSVTempFileURL {
+      writer =>
+        (1 to 3000).foreach(i => writer.println(s"$i,${i * 2}"))
+    }
+    val readAheadResources = new CSVResources(cleaner, Some(new ThreadExecutor))
+
+    // when
+    val result = readAheadResources.getCsvIterator(new URL(url), None, legacyCsvQuoteEscaping = false,
+                                                   DEFAULT_BUFFER_SIZE).toList
+
+    // then
+    result.map(_.toList) should equal((1 to 3000).map(i => List(i.toString, (i * 2).toString)).toList)
+  }
+
+  test("should stop reading ahead when closed") {
+    // given
+    val url = createCSVTempFileURL {
+      writer =>
+        (1 to 3000).foreach(i => writer.println(i))
+    }
+    val executor = new ThreadExecutor
+    val readAheadResources = new CSVResources(cleaner, Some(executor))
+    val iterator = readAheadResources.getCsvIterator(new URL(url), None, legacyCsvQuoteEscaping = false,
+                                                     DEFAULT_BUFFER_SIZE)
+    val captor = argCaptor[AutoCloseable]
+    verify(cleaner).trace(captor.capture())
+
+    // when
+    iterator.next() should equal(Array("1"))
+    captor.getValue.close()
+
+    // then
+    captor.getValue.asInstanceOf[CSVResource].resource.asInstanceOf[ReadAheadIterator].isStopped shouldBe true
+    executor.thread.join(10000)
+    executor.thread.isAlive shouldBe false
+  }
+
+  test("should stop reading ahead when closed while a read is blocked") {
+    // given
+    val sourceClosed = new CountDownLatch(1)
+    val blockedRows = new Iterator[Array[String]] {
+      override def hasNext: Boolean = {
+        sourceClosed.await()
+        throw new IOException("Stream closed")
+      }
+
+      override def next(): Array[String] = Iterator.empty.next()
+    }
+    val seeker = mock[CharSeeker]
+    doAnswer(new Answer[Unit] {
+      override def answer(invocation: InvocationOnMock): Unit = sourceClosed.countDown()
+    }).when(seeker).close()
+    val executor = new ThreadExecutor
+    val iterator = new ReadAheadIterator(blockedRows, seeker, 10, executor)
+
+    // when
+    iterator.close()
+
+    // then
+    verify(seeker).close()
+    iterator.isStopped shouldBe true
+  }
+
+  class ThreadExecutor extends Executor {
+    var thread: Thread = _
+
+    override def execute(command: Runnable): Unit = {
+      thread = new Thread(command)
+      thread.start()
+    }
+  }
 }
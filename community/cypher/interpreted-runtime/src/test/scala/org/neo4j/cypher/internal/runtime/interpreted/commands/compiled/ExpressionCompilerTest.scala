@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.commands.compiled
+
+import org.mockito.ArgumentMatchers.any
+import org.mockito.Mockito.when
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{BatchedProperty, Expression, Literal, Property, PropertyBatch, Variable}
+import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates._
+import org.neo4j.cypher.internal.runtime.interpreted.commands.values.KeyToken
+import org.neo4j.cypher.internal.runtime.interpreted.commands.values.TokenType.PropertyKey
+import org.neo4j.cypher.internal.runtime.interpreted.{ExecutionContext, QueryStateHelper}
+import org.neo4j.cypher.internal.v3_5.util.NonEmptyList
+import org.neo4j.cypher.internal.v3_5.util.test_helpers.CypherFunSuite
+import org.neo4j.values.storable.Values.{FALSE, NO_VALUE, TRUE, intValue, stringValue}
+
+class ExpressionCompilerTest extends CypherFunSuite {
+  private val state = QueryStateHelper.empty
+  private val ctx = ExecutionContext.from("x" -> intValue(42), "s" -> stringValue("42"), "n" -> NO_VALUE)
+
+  private val truthValues: Seq[Predicate] = Seq(CoercedPredicate(Literal(true)),
+                                                CoercedPredicate(Literal(false)),
+                                                CoercedPredicate(Literal(null)))
+
+  private val explodingPredicate = mock[Predicate]
+  when(explodingPredicate.apply(any(), any())).thenThrow(new IllegalStateException("there is something wrong"))
+
+  test("should evaluate boolean operators like the interpreted ones") {
+    for (a <- truthValues; b <- truthValues; c <- truthValues) {
+      shouldEvaluateLikeInterpreted(Ands(NonEmptyList(a, b, c)))
+      shouldEvaluateLikeInterpreted(Ors(NonEmptyList(a, b, c)))
+      shouldEvaluateLikeInterpreted(Ands(NonEmptyList(Not(a), Ors(NonEmptyList(b, c)))))
+      shouldEvaluateLikeInterpreted(Xor(a, Not(b)))
+    }
+  }
+
+  test("should evaluate comparisons like the interpreted ones") {
+    val values = Seq(Variable("x"), Variable("s"), Variable("n"), Literal(17), Literal(42), Literal("42"), Literal(null))
+    for (a <- values; b <- values) {
+      shouldEvaluateLikeInterpreted(Equals(a, b))
+      shouldEvaluateLikeInterpreted(LessThan(a, b))
+      shouldEvaluateLikeInterpreted(LessThanOrEqual(a, b))
+      shouldEvaluateLikeInterpreted(GreaterThan(a, b))
+      shouldEvaluateLikeInterpreted(GreaterThanOrEqual(a, b))
+      shouldEvaluateLikeInterpreted(Not(IsNull(a)))
+    }
+  }
+
+  test("should ignore errors when the result of ands is known to be false") {
+    // given
+    val compiled = ExpressionCompiler.compileOrInterpret(Ands(NonEmptyList(explodingPredicate, Not(True()))))
+
+    // when
+    val result = compiled(ctx, state)
+
+    // then
+    compiled shouldBe a[CompiledCommandExpression]
+    result should equal(FALSE)
+  }
+
+  test("should throw the first error when the result of ors isn't known to be true") {
+    // given
+    val compiled = ExpressionCompiler.compileOrInterpret(
+      Ors(NonEmptyList(CoercedPredicate(Literal(null)), explodingPredicate, CoercedPredicate(Literal(false)))))
+
+    // when
+    val exception = intercept[IllegalStateException](compiled(ctx, state))
+
+    // then
+    exception.getMessage should equal("there is something wrong")
+  }
+
+  test("should evaluate nested compiled predicates with errors like the interpreted ones") {
+    // given
+    val expression = Ors(NonEmptyList(Ands(NonEmptyList(explodingPredicate, True())), True()))
+
+    // when
+    val compiled = ExpressionCompiler.compileOrInterpret(expression)
+
+    // then
+    compiled(ctx, state) should equal(TRUE)
+  }
+
+  test("should not compile expressions without any operators to compile") {
+    val variable = Variable("x")
+    ExpressionCompiler.compileOrInterpret(variable) should be theSameInstanceAs variable
+  }
+
+  test("should consider compilations of the same expression equal") {
+    val expression = Equals(Variable("x"), Literal(42))
+    ExpressionCompiler.compileOrInterpret(expression) should equal(ExpressionCompiler.compileOrInterpret(expression))
+  }
+
+  test("should still be compiled after batching its properties") {
+    // given
+    val a = Property(Variable("n"), KeyToken.Resolved("a", 1, PropertyKey))
+    val b = Property(Variable("n"), KeyToken.Resolved("b", 2, PropertyKey))
+    val compiled = ExpressionCompiler.compileOrInterpret(Ands(NonEmptyList(Equals(a, Literal(10)), Equals(b, Literal("x")))))
+
+    // when
+    val batched = PropertyBatch.batchProperties(compiled)
+
+    // then
+    batched shouldBe a[CompiledCommandExpression]
+    batched.filter(_.isInstanceOf[BatchedProperty]) should have size 2
+  }
+
+  test("should not compile again when a rewrite doesn't change anything") {
+    val compiled = ExpressionCompiler.compileOrInterpret(Equals(Variable("x"), Literal(42)))
+    compiled.rewrite(identity) should be theSameInstanceAs compiled
+  }
+
+  private def shouldEvaluateLikeInterpreted(expression: Expression): Unit = {
+    val compiled = ExpressionCompiler.compileOrInterpret(expression)
+    compiled shouldBe a[CompiledCommandExpression]
+    withClue(expression.toString) {
+      compiled(ctx, state) should equal(expression(ctx, state))
+    }
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.commands.convert
+
+import org.mockito.ArgumentMatchers.any
+import org.mockito.Mockito.{never, verify, when}
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{Literal, Property, Variable}
+import org.neo4j.cypher.internal.runtime.interpreted.commands.values.KeyToken
+import org.neo4j.cypher.internal.runtime.interpreted.commands.values.TokenType.PropertyKey
+import org.neo4j.cypher.internal.runtime.interpreted.{ExecutionContext, QueryStateHelper}
+import org.neo4j.cypher.internal.runtime.{Operations, QueryContext}
+import org.neo4j.cypher.internal.v3_5.expressions.PropertyKeyName
+import org.neo4j.cypher.internal.v3_5.logical.plans
+import org.neo4j.cypher.internal.v3_5.util.InputPosition
+import org.neo4j.cypher.internal.v3_5.util.test_helpers.CypherFunSuite
+import org.neo4j.values.storable.Value
+import org.neo4j.values.storable.Values.{NO_VALUE, intValue, stringValue}
+import org.neo4j.values.virtual.{NodeValue, VirtualValues}
+
+class InterpretedCommandProjectionTest extends CypherFunSuite {
+
+  test("should read all projected properties of a node in one call") {
+    // given
+    val query = mock[QueryContext]
+    val nodeOps = mock[Operations[NodeValue]]
+    when(query.nodeOps).thenReturn(nodeOps)
+    when(nodeOps.getProperties(42L, Array(1, 2))).thenReturn(Array[Value](intValue(10), stringValue("x")))
+    val projection = InterpretedCommandProjection(Map(
+      "a" -> Property(Variable("n"), KeyToken.Resolved("a", 1, PropertyKey)),
+      "b" -> Property(Variable("n"), KeyToken.Resolved("b", 2, PropertyKey)),
+      "c" -> Literal(3)))
+    val row = ExecutionContext.from("n" -> VirtualValues.node(42L))
+
+    // when
+    projection.project(row, QueryStateHelper.emptyWith(query = query))
+
+    // then
+    row("a") should equal(intValue(10))
+    row("b") should equal(stringValue("x"))
+    row("c") should equal(intValue(3))
+    verify(nodeOps, never()).getProperty(any[Long], any[Int])
+  }
+
+  test("should not read unknown properties of a node") {
+    // given
+    val query = mock[QueryContext]
+    val nodeOps = mock[Operations[NodeValue]]
+    when(query.nodeOps).thenReturn(nodeOps)
+    when(query.getOptPropertyKeyId("b")).thenReturn(None)
+    when(nodeOps.getProperties(42L, Array(1, -1))).thenReturn(Array[Value](intValue(10), NO_VALUE))
+    val projection = InterpretedCommandProjection(Map(
+      "a" -> Property(Variable("n"), KeyToken.Resolved("a", 1, PropertyKey)),
+      "b" -> Property(Variable("n"), KeyToken.Unresolved("b", PropertyKey))))
+    val row = ExecutionContext.from("n" -> VirtualValues.node(42L))
+
+    // when
+    projection.project(row, QueryStateHelper.emptyWith(query = query))
+
+    // then
+    row("a") should equal(intValue(10))
+    row("b") should equal(NO_VALUE)
+  }
+
+  test("should cache projected node properties on the row") {
+    // given
+    val query = mock[QueryContext]
+    val nodeOps = mock[Operations[NodeValue]]
+    when(query.nodeOps).thenReturn(nodeOps)
+    when(nodeOps.getProperties(42L, Array(1, 2))).thenReturn(Array[Value](intValue(10), stringValue("x")))
+    val projection = InterpretedCommandProjection(Map(
+      "a" -> Property(Variable("n"), KeyToken.Resolved("a", 1, PropertyKey)),
+      "b" -> Property(Variable("n"), KeyToken.Resolved("b", 2, PropertyKey))))
+    val row = ExecutionContext.from("n" -> VirtualValues.node(42L))
+
+    // when
+    projection.project(row, QueryStateHelper.emptyWith(query = query))
+
+    // then
+    row.getCachedProperty(cachedNodeProperty("n", "a")) should equal(intValue(10))
+    row.getCachedProperty(cachedNodeProperty("n", "b")) should equal(stringValue("x"))
+  }
+
+  test("should not read node properties that are cached on the row again") {
+    // given
+    val query = mock[QueryContext]
+    val nodeOps = mock[Operations[NodeValue]]
+    when(query.nodeOps).thenReturn(nodeOps)
+    when(nodeOps.getTxStateProperty(42L, 1)).thenReturn(None)
+    when(nodeOps.getProperties(42L, Array(2))).thenReturn(Array[Value](stringValue("x")))
+    val projection = InterpretedCommandProjection(Map(
+      "a" -> Property(Variable("n"), KeyToken.Resolved("a", 1, PropertyKey)),
+      "b" -> Property(Variable("n"), KeyToken.Resolved("b", 2, PropertyKey))))
+    val row = ExecutionContext.from("n" -> VirtualValues.node(42L))
+    row.setCachedProperty(cachedNodeProperty("n", "a"), intValue(10))
+
+    // when
+    projection.project(row, QueryStateHelper.emptyWith(query = query))
+
+    // then
+    row("a") should equal(intValue(10))
+    row("b") should equal(stringValue("x"))
+    verify(nodeOps, never()).getProperties(42L, Array(1, 2))
+  }
+
+  test("should project properties of null") {
+    // given
+    val projection = InterpretedCommandProjection(Map(
+      "a" -> Property(Variable("n"), KeyToken.Resolved("a", 1, PropertyKey)),
+      "b" -> Property(Variable("n"), KeyToken.Resolved("b", 2, PropertyKey))))
+    val row = ExecutionContext.from("n" -> NO_VALUE)
+
+    // when
+    projection.project(row, QueryStateHelper.empty)
+
+    // then
+    row("a") should equal(NO_VALUE)
+    row("b") should equal(NO_VALUE)
+  }
+
+  private def cachedNodeProperty(variable: String, key: String) =
+    plans.CachedNodeProperty(variable, PropertyKeyName(key)(InputPosition.NONE))(InputPosition.NONE)
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.commands.expressions
+
+import org.mockito.ArgumentMatchers.any
+import org.mockito.Mockito.{never, times, verify, when}
+import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates.{Ands, Equals}
+import org.neo4j.cypher.internal.runtime.interpreted.commands.values.KeyToken
+import org.neo4j.cypher.internal.runtime.interpreted.commands.values.TokenType.PropertyKey
+import org.neo4j.cypher.internal.runtime.interpreted.{ExecutionContext, QueryStateHelper}
+import org.neo4j.cypher.internal.runtime.{Operations, QueryContext}
+import org.neo4j.cypher.internal.v3_5.util.NonEmptyList
+import org.neo4j.cypher.internal.v3_5.util.test_helpers.CypherFunSuite
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.Value
+import org.neo4j.values.storable.Values.{FALSE, TRUE, intValue, stringValue}
+import org.neo4j.values.virtual.{NodeValue, VirtualValues}
+
+class PropertyBatchTest extends CypherFunSuite {
+
+  private val a = Property(Variable("n"), KeyToken.Resolved("a", 1, PropertyKey))
+  private val b = Property(Variable("n"), KeyToken.Resolved("b", 2, PropertyKey))
+
+  test("should batch different properties of the same variable") {
+    val predicate = Ands(NonEmptyList(Equals(a, Literal(10)), Equals(b, Literal("x"))))
+
+    PropertyBatch.batchProperties(predicate).filter(_.isInstanceOf[BatchedProperty]) should have size 2
+  }
+
+  test("should not batch a single property of a variable") {
+    val predicate = Ands(NonEmptyList(Equals(a, Literal(10)), Equals(a, Literal(11))))
+
+    PropertyBatch.batchProperties(predicate) should be theSameInstanceAs predicate
+  }
+
+  test("should read the properties of a predicate in one call and cache them on the row") {
+    // given
+    val query = mock[QueryContext]
+    val nodeOps = mock[Operations[NodeValue]]
+    when(query.nodeOps).thenReturn(nodeOps)
+    when(nodeOps.getTxStateProperty(any[Long], any[Int])).thenReturn(None)
+    when(nodeOps.getProperties(42L, Array(1, 2))).thenReturn(Array[Value](intValue(10), stringValue("x")))
+    val predicate = PropertyBatch.batchProperties(Ands(NonEmptyList(Equals(a, Literal(10)), Equals(b, Literal("x")))))
+    val row = ExecutionContext.from("n" -> VirtualValues.node(42L))
+    val state = QueryStateHelper.emptyWith(query = query)
+
+    // when
+    val result = predicate(row, state)
+
+    // then
+    result should equal(TRUE)
+    verify(nodeOps, times(1)).getProperties(42L, Array(1, 2))
+    verify(nodeOps, never()).getProperty(any[Long], any[Int])
+  }
+
+  test("should evaluate batched properties of other values one by one") {
+    val predicate = PropertyBatch.batchProperties(Ands(NonEmptyList(Equals(a, Literal(10)), Equals(b, Literal("x")))))
+    val row = ExecutionContext.from("n" -> VirtualValues.map(Array("a", "b"), Array[AnyValue](intValue(10), stringValue("y"))))
+
+    predicate(row, QueryStateHelper.empty) should equal(FALSE)
+  }
+}
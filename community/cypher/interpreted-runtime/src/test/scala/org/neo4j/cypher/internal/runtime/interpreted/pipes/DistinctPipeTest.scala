@@ -24,8 +24,9 @@ import org.neo4j.cypher.internal.runtime.interpreted.ValueComparisonHelper._
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{Expression, Literal, Multiply, Variable}
 import org.neo4j.cypher.internal.v3_5.util.symbols._
 import org.neo4j.cypher.internal.v3_5.util.test_helpers.CypherFunSuite
-import org.neo4j.values.storable.Values.stringArray
+import org.neo4j.values.storable.Values.{intValue, stringArray}
 import org.neo4j.values.virtual.MapValue
+import org.neo4j.values.virtual.VirtualValues.node
 
 import scala.collection.JavaConverters._
 
@@ -79,6 +80,17 @@ class DistinctPipeTest extends CypherFunSuite {
     result.head("x").asInstanceOf[MapValue].get("prop") should equal(stringArray("a", "b"))
   }
 
+  test("distinct on a single column of nodes") {
+    //GIVEN
+    val pipe = createDistinctPipe(List(Map("x" -> node(1)), Map("x" -> node(2)), Map("x" -> node(1)), Map("x" -> 1)))
+
+    //WHEN
+    val result = pipe.createResults(QueryStateHelper.empty).toList
+
+    //THEN
+    result.map(_("x")) should equal(List(node(1), node(2), intValue(1)))
+  }
+
   def createDistinctPipe(input: List[Map[String, Any]], expressions: Map[String, Expression] = Map("x" -> Variable("x"))) = {
     val source = new FakePipe(input, "x" -> CTNumber)
     DistinctPipe(source, expressions)()
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.v3_5.util.test_helpers.CypherFunSuite
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.Values.NO_VALUE
+import org.neo4j.values.virtual.VirtualNodeValue
+import org.neo4j.values.virtual.VirtualValues.node
+
+class NodeHashTableTest extends CypherFunSuite {
+
+  private def nodeId(row: ExecutionContext, variable: String): Long = row(variable) match {
+    case n: VirtualNodeValue => n.id()
+    case _ => NodeHashTable.NULL_NODE
+  }
+
+  private def row(values: (String, AnyValue)*) = ExecutionContext.from(values: _*)
+
+  test("should find rows by a single node") {
+    // given
+    val table = NodeHashTable(IndexedSeq("a"), nodeId)
+    val row1 = row("a" -> node(1), "x" -> node(10))
+    val row2 = row("a" -> node(1), "x" -> node(11))
+    val row3 = row("a" -> node(2), "x" -> node(12))
+
+    // when
+    Seq(row1, row2, row3).foreach(table.add)
+
+    // then
+    table.probe(row("a" -> node(1))) should equal(Seq(row1, row2))
+    table.probe(row("a" -> node(2))) should equal(Seq(row3))
+    table.probe(row("a" -> node(3))) shouldBe empty
+  }
+
+  test("should find rows by several nodes") {
+    // given
+    val table = NodeHashTable(IndexedSeq("a", "b"), nodeId)
+    val row1 = row("a" -> node(1), "b" -> node(2))
+    val row2 = row("a" -> node(2), "b" -> node(1))
+
+    // when
+    Seq(row1, row2).foreach(table.add)
+
+    // then
+    table.probe(row("a" -> node(1), "b" -> node(2))) should equal(Seq(row1))
+    table.probe(row("a" -> node(2), "b" -> node(1))) should equal(Seq(row2))
+    table.probe(row("a" -> node(1), "b" -> node(1))) shouldBe empty
+  }
+
+  test("should neither add nor match rows with a null node") {
+    Seq(IndexedSeq("a"), IndexedSeq("a", "b")).foreach { variables =>
+      // given
+      val table = NodeHashTable(variables, nodeId)
+
+      // when
+      val added = table.add(row("a" -> NO_VALUE, "b" -> node(1)))
+
+      // then
+      added should be(false)
+      table.isEmpty should be(true)
+      table.probe(row("a" -> NO_VALUE, "b" -> node(1))) shouldBe empty
+    }
+  }
+
+  test("should return rows which have not been matched") {
+    Seq(IndexedSeq("a"), IndexedSeq("a", "b")).foreach { variables =>
+      // given
+      val table = NodeHashTable(variables, nodeId)
+      val row1 = row("a" -> node(1), "b" -> node(1))
+      val row2 = row("a" -> node(2), "b" -> node(2))
+      val row3 = row("a" -> node(2), "b" -> node(2))
+      Seq(row1, row2, row3).foreach(table.add)
+
+      // when
+      table.probe(row("a" -> node(1), "b" -> node(1)))
+
+      // then
+      table.unmatchedRows.toList should equal(List(row2, row3))
+    }
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.parallel
+
+import java.util.concurrent.Executor
+
+import org.mockito.ArgumentMatchers.any
+import org.mockito.Mockito.{atLeastOnce, never, times, verify, when}
+import org.neo4j.cypher.internal.runtime.interpreted.QueryStateHelper
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{CountStar, Literal, Sum, Variable}
+import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates.{GreaterThan, Predicate}
+import org.neo4j.cypher.internal.runtime.interpreted.pipes._
+import org.neo4j.cypher.internal.runtime.{QueryContext, QueryTransactionalContext, ResourceManager}
+import org.neo4j.cypher.internal.v3_5.util.test_helpers.CypherFunSuite
+import org.neo4j.internal.kernel.api.Transaction
+import org.neo4j.values.storable.Values.{intValue, longValue}
+
+import scala.util.Random
+
+class ParallelPipeTest extends CypherFunSuite {
+
+  private val workers = 4
+  private val morselSize = 10
+
+  private val values = Random.shuffle((0 until 1000).toList)
+
+  private val threads: Executor = new Executor {
+    override def execute(command: Runnable): Unit = new Thread(command).start()
+  }
+
+  private val pool = new ParallelWorkers(threads, workers + 1)
+
+  test("should run streaming pipelines on all rows of the scan") {
+    // given
+    val (state, workerContext, _) = newState(topLevelTx = true)
+    val pipeline = FilterPipe(ParallelInputPipe()(), GreaterThan(Variable("x"), Literal(499)))()
+    val pipe = ParallelPipe(serialPipe, scan, pipeline, ConcatenateResults, workers, morselSize, pool)()
+
+    // when
+    val result = pipe.createResults(state).map(_("x")).toList
+
+    // then
+    result should contain theSameElementsAs (500 until 1000).map(intValue)
+    verify(workerContext, times(workers + 1)).close(true)
+  }
+
+  test("should merge the sorted results of all workers") {
+    // given
+    val (state, _, _) = newState(topLevelTx = true)
+    val orderBy = List(Ascending("x"))
+    val pipeline = SortPipe(ParallelInputPipe()(), orderBy)()
+    val pipe = ParallelPipe(serialPipe, scan, pipeline, MergeSortedResults(orderBy), workers, morselSize, pool)()
+
+    // when
+    val result = pipe.createResults(state).map(_("x")).toList
+
+    // then
+    result should equal((0 until 1000).map(intValue))
+  }
+
+  test("should merge the partial aggregates of all workers") {
+    // given
+    val (state, _, _) = newState(topLevelTx = true)
+    val pipeline = EagerAggregationPipe(ParallelInputPipe()(), Map.empty, Map("count" -> CountStar(), "sum" -> Sum(Variable("x"))))()
+    val merge = EagerAggregationPipe(ParallelInputPipe()(), Map.empty, Map("count" -> Sum(Variable("count")), "sum" -> Sum(Variable("sum"))))()
+    val pipe = ParallelPipe(serialPipe, scan, pipeline, PipeReducer(merge), workers, morselSize, pool)()
+
+    // when
+    val result = pipe.createResults(state).toList
+
+    // then
+    result.map(row => (row("count"), row("sum"))) should equal(List((longValue(1000), longValue(499500))))
+  }
+
+  test("should run serially outside of implicit transactions") {
+    // given
+    val (state, _, _) = newState(topLevelTx = false)
+    val pipeline = FilterPipe(ParallelInputPipe()(), GreaterThan(Variable("x"), Literal(499)))()
+    val pipe = ParallelPipe(serialPipe, scan, pipeline, ConcatenateResults, workers, morselSize, pool)()
+
+    // when
+    val result = pipe.createResults(state).map(_("x")).toList
+
+    // then
+    result should equal(List(intValue(-1)))
+    verify(state.query, never()).createNewQueryContext()
+  }
+
+  test("should close the resources of all workers") {
+    // given
+    val (state, _, workerResources) = newState(topLevelTx = true)
+    val pipeline = FilterPipe(ParallelInputPipe()(), GreaterThan(Variable("x"), Literal(499)))()
+    val pipe = ParallelPipe(serialPipe, scan, pipeline, ConcatenateResults, workers, morselSize, pool)()
+
+    // when
+    pipe.createResults(state).toList
+
+    // then
+    verify(workerResources, times(workers + 1)).close(true)
+  }
+
+  test("should run serially when there are not enough threads left") {
+    // given
+    val (state, _, _) = newState(topLevelTx = true)
+    val pipeline = FilterPipe(ParallelInputPipe()(), GreaterThan(Variable("x"), Literal(499)))()
+    val smallPool = new ParallelWorkers(threads, workers)
+    val pipe = ParallelPipe(serialPipe, scan, pipeline, ConcatenateResults, workers, morselSize, smallPool)()
+
+    // when
+    val result = pipe.createResults(state).map(_("x")).toList
+
+    // then
+    result should equal(List(intValue(-1)))
+    verify(state.query, never()).createNewQueryContext()
+  }
+
+  test("should rethrow failures of workers and roll back their transactions") {
+    // given
+    val (state, workerContext, _) = newState(topLevelTx = true)
+    val explodingPredicate = mock[Predicate]
+    when(explodingPredicate.apply(any(), any())).thenThrow(new IllegalStateException("there is something wrong"))
+    val pipeline = FilterPipe(ParallelInputPipe()(), explodingPredicate)()
+    val pipe = ParallelPipe(serialPipe, scan, pipeline, ConcatenateResults, workers, morselSize, pool)()
+
+    // when
+    val exception = intercept[IllegalStateException](pipe.createResults(state).toList)
+
+    // then
+    exception.getMessage should equal("there is something wrong")
+    verify(workerContext, atLeastOnce()).close(false)
+  }
+
+  private def scan = new FakePipe(values.map(x => Map("x" -> x)))
+
+  private def serialPipe = new FakePipe(List(Map("x" -> -1)))
+
+  private def newState(topLevelTx: Boolean): (QueryState, QueryTransactionalContext, ResourceManager) = {
+    val transactionalContext = mock[QueryTransactionalContext]
+    when(transactionalContext.isTopLevelTx).thenReturn(topLevelTx)
+    when(transactionalContext.transaction).thenReturn(mock[Transaction])
+    val query = mock[QueryContext]
+    when(query.transactionalContext).thenReturn(transactionalContext)
+    when(query.resources).thenReturn(new ResourceManager)
+
+    val workerContext = mock[QueryTransactionalContext]
+    val workerResources = mock[ResourceManager]
+    val workerQuery = mock[QueryContext]
+    when(workerQuery.transactionalContext).thenReturn(workerContext)
+    when(workerQuery.resources).thenReturn(workerResources)
+    when(query.createNewQueryContext()).thenReturn(workerQuery)
+
+    (QueryStateHelper.emptyWith(query = query), workerContext, workerResources)
+  }
+}
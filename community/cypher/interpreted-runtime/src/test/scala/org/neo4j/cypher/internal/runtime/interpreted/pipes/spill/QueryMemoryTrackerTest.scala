@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.spill
+
+import org.neo4j.cypher.QueryMemoryLimitExceededException
+import org.neo4j.cypher.internal.v3_5.util.test_helpers.CypherFunSuite
+import org.neo4j.kernel.api.exceptions.Status
+
+class QueryMemoryTrackerTest extends CypherFunSuite {
+
+  test("should not track memory if nothing is configured") {
+    // when
+    val tracker = QueryMemoryTracker(QueryMemoryConfiguration())
+    tracker.allocated(100)
+
+    // then
+    tracker should be theSameInstanceAs QueryMemoryTracker.NO_TRACKING
+    tracker.usedBytes should equal(0)
+  }
+
+  test("should track used and peak memory") {
+    // given
+    val tracker = QueryMemoryTracker(QueryMemoryConfiguration(track = true))
+
+    // when
+    tracker.allocated(100)
+    tracker.allocated(50)
+    tracker.deallocated(120)
+
+    // then
+    tracker.usedBytes should equal(30)
+    tracker.peakBytes should equal(150)
+    tracker.isOverThreshold should be(false)
+  }
+
+  test("should only be over threshold if a spill threshold is configured") {
+    // given
+    val spilling = QueryMemoryTracker(QueryMemoryConfiguration(spillThreshold = 10))
+    val limited = QueryMemoryTracker(QueryMemoryConfiguration(maxMemory = 1000))
+
+    // when
+    spilling.allocated(20)
+    limited.allocated(20)
+
+    // then
+    spilling.isOverThreshold should be(true)
+    limited.isOverThreshold should be(false)
+  }
+
+  test("should terminate query above the per query limit") {
+    // given
+    val tracker = QueryMemoryTracker(QueryMemoryConfiguration(maxMemory = 100))
+    tracker.allocated(100)
+
+    // when
+    val e = intercept[QueryMemoryLimitExceededException](tracker.allocated(1))
+
+    // then
+    e.status should equal(Status.Transaction.QueryMemoryLimitReached)
+    tracker.close()
+  }
+
+  test("should terminate query above the global limit and release memory on close") {
+    // given
+    val globalBefore = QueryMemoryTracker.globalUsedBytes
+    val limit = globalBefore + 100
+    val first = QueryMemoryTracker(QueryMemoryConfiguration(globalMaxMemory = limit))
+    val second = QueryMemoryTracker(QueryMemoryConfiguration(globalMaxMemory = limit))
+    first.allocated(80)
+
+    // when
+    val e = intercept[QueryMemoryLimitExceededException](second.allocated(30))
+
+    // then
+    e.status should equal(Status.Transaction.GlobalQueryMemoryLimitReached)
+
+    // when
+    first.close()
+    second.close()
+
+    // then
+    QueryMemoryTracker.globalUsedBytes should equal(globalBefore)
+    first.usedBytes should equal(0)
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.spill
+
+import java.io.{ByteArrayInputStream, ByteArrayOutputStream, DataInputStream, DataOutputStream}
+import java.time._
+
+import org.mockito.ArgumentMatchers.anyLong
+import org.mockito.Mockito.when
+import org.mockito.invocation.InvocationOnMock
+import org.mockito.stubbing.Answer
+import org.neo4j.cypher.internal.runtime.EntityById
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.CommunityExecutionContextFactory
+import org.neo4j.cypher.internal.runtime.interpreted.{ExecutionContext, ImplicitDummyPos}
+import org.neo4j.cypher.internal.v3_5.expressions.PropertyKeyName
+import org.neo4j.cypher.internal.v3_5.logical.plans.CachedNodeProperty
+import org.neo4j.cypher.internal.v3_5.util.test_helpers.CypherFunSuite
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.CoordinateReferenceSystem.{Cartesian, WGS84}
+import org.neo4j.values.storable.Values._
+import org.neo4j.values.storable.{DurationValue, Value}
+import org.neo4j.values.virtual.VirtualValues.{EMPTY_MAP, list, map, path}
+import org.neo4j.values.virtual.{NodeValue, RelationshipValue, VirtualValues}
+
+class SpilledRowCodecTest extends CypherFunSuite with ImplicitDummyPos {
+
+  private val entityById = mock[EntityById]
+  when(entityById.nodeById(anyLong())).thenAnswer(new Answer[NodeValue] {
+    override def answer(invocation: InvocationOnMock): NodeValue = node(invocation.getArgument[Long](0))
+  })
+  when(entityById.relationshipById(anyLong())).thenAnswer(new Answer[RelationshipValue] {
+    override def answer(invocation: InvocationOnMock): RelationshipValue = relationship(invocation.getArgument[Long](0))
+  })
+
+  test("should read back storable values") {
+    shouldReadBack(NO_VALUE, TRUE, FALSE, byteValue(1), shortValue(2), intValue(3), longValue(Long.MaxValue),
+                   floatValue(1.5f), doubleValue(Math.PI), stringValue("åäö"), charValue('x'), stringValue("x" * 100000),
+                   pointValue(Cartesian, 1.0, 2.0), pointValue(WGS84, 12.9, 55.6),
+                   DurationValue.duration(1, 2, 3, 4))
+  }
+
+  test("should read back temporal values") {
+    val dateTime = ZonedDateTime.of(2018, 5, 6, 7, 8, 9, 10, ZoneId.of("Europe/Stockholm"))
+    shouldReadBack(of(dateTime.toLocalDate), of(dateTime.toLocalTime), of(dateTime.toOffsetDateTime.toOffsetTime),
+                   of(dateTime.toLocalDateTime), of(dateTime), of(dateTime.withZoneSameInstant(ZoneOffset.ofHours(-3))))
+  }
+
+  test("should read back arrays") {
+    shouldReadBack(byteArray(Array[Byte](1, 2)), shortArray(Array[Short](1, 2)), intArray(Array(1, 2)),
+                   longArray(Array(1L, 2L)), floatArray(Array(1.5f)), doubleArray(Array(2.5)),
+                   booleanArray(Array(true, false)), stringArray("a", "b"), charArray(Array('a', 'b')),
+                   pointArray(Array(pointValue(Cartesian, 1.0, 2.0))),
+                   dateArray(Array(LocalDate.of(2018, 1, 1))), intArray(Array.empty[Int]))
+  }
+
+  test("should read back lists, maps and entities") {
+    shouldReadBack(list(intValue(1), list(stringValue("a")), NO_VALUE),
+                   map(Array("a", "b"), Array[AnyValue](intValue(1), map(Array("c"), Array[AnyValue](node(7))))),
+                   node(1), relationship(2), path(Array(nodeValue(1), nodeValue(2)), Array(relationshipValue(3))))
+  }
+
+  test("should read back rows with cached properties") {
+    // given
+    val codec = new SpilledRowCodec
+    val cached = CachedNodeProperty("n", PropertyKeyName("prop")(pos))(pos)
+    val invalidated = CachedNodeProperty("n", PropertyKeyName("other")(pos))(pos)
+    val row = ExecutionContext.from("n" -> node(1), "x" -> intValue(1))
+    row.setCachedProperty(cached, stringValue("cached"))
+    row.setCachedProperty(invalidated, null)
+    val otherRow = ExecutionContext.from("x" -> intValue(2))
+
+    // when
+    val readBack = roundTrip(codec, row, otherRow)
+
+    // then
+    readBack.map(_.toMap) should equal(Seq(row.toMap, otherRow.toMap))
+    readBack.head.getCachedProperty(cached) should equal(stringValue("cached"))
+    readBack.head.getCachedProperty(invalidated) should be(null)
+  }
+
+  private def shouldReadBack(values: AnyValue*): Unit = {
+    val row = ExecutionContext.empty
+    values.zipWithIndex.foreach {
+      case (value, i) => row.set(s"v$i", value)
+    }
+
+    val readBack = roundTrip(new SpilledRowCodec, row).head
+
+    values.zipWithIndex.foreach {
+      case (value, i) => withClue(value.toString)(readBack(s"v$i") should equal(value))
+    }
+  }
+
+  private def roundTrip(codec: SpilledRowCodec, rows: ExecutionContext*): Seq[ExecutionContext] = {
+    val bytes = new ByteArrayOutputStream()
+    val out = new DataOutputStream(bytes)
+    rows.foreach(codec.write(_, out))
+    out.flush()
+
+    val in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray))
+    rows.map(_ => codec.read(in, CommunityExecutionContextFactory(), entityById))
+  }
+
+  private def nodeValue(id: Long): NodeValue = entityById.nodeById(id)
+
+  private def relationshipValue(id: Long): RelationshipValue = entityById.relationshipById(id)
+
+  private def node(id: Long): NodeValue = VirtualValues.nodeValue(id, stringArray("L"), EMPTY_MAP)
+
+  private def relationship(id: Long): RelationshipValue =
+    VirtualValues.relationshipValue(id, node(0), node(1), stringValue("R"), EMPTY_MAP)
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.spill
+
+import org.mockito.Mockito.when
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{CountStar, Variable}
+import org.neo4j.cypher.internal.runtime.interpreted.pipes._
+import org.neo4j.cypher.internal.runtime.interpreted.{ExecutionContext, QueryStateHelper}
+import org.neo4j.cypher.internal.runtime.{QueryContext, ResourceManager}
+import org.neo4j.cypher.internal.v3_5.util.test_helpers.CypherFunSuite
+import org.neo4j.values.AnyValue
+import org.neo4j.values.virtual.VirtualValues.EMPTY_MAP
+
+class SpillingPipesTest extends CypherFunSuite {
+
+  private val rows = (1 to 200).map(i => Map[String, Any]("x" -> (i * 7) % 10, "y" -> s"row $i"))
+
+  private def source = new FakePipe(rows)
+
+  test("should sort rows stably when spilling") {
+    shouldGiveSameResults(SortPipe(source, List(Descending("x")))(), ordered = true)
+  }
+
+  test("should keep the order of eager rows when spilling") {
+    shouldGiveSameResults(EagerPipe(source)(), ordered = true)
+  }
+
+  test("should find distinct rows when spilling") {
+    shouldGiveSameResults(DistinctPipe(source, Map("x" -> Variable("x")))(), ordered = false)
+  }
+
+  test("should aggregate when spilling") {
+    shouldGiveSameResults(EagerAggregationPipe(source, Map("x" -> Variable("x")), Map("count" -> CountStar()))(),
+                          ordered = false)
+  }
+
+  test("should join when spilling") {
+    def right = new FakePipe((1 to 20).map(i => Map[String, Any]("z" -> i % 5, "w" -> i)))
+    shouldGiveSameResults(ValueHashJoinPipe(Variable("x"), Variable("z"), source, right)(), ordered = false)
+  }
+
+  test("should leave out null keys on both sides when joining while spilling") {
+    def left = new FakePipe(rows ++ (1 to 5).map(i => Map[String, Any]("x" -> null, "y" -> s"null $i")))
+    def right = new FakePipe((1 to 20).map(i => Map[String, Any]("z" -> (if (i % 4 == 0) null else i % 5), "w" -> i)))
+    shouldGiveSameResults(ValueHashJoinPipe(Variable("x"), Variable("z"), left, right)(), ordered = false)
+  }
+
+  test("should not spill below the threshold") {
+    // given
+    val state = spillingState(threshold = Long.MaxValue)
+
+    // when
+    val result = SortPipe(source, List(Ascending("x")))().createResults(state)
+
+    // then
+    state.memoryTracker.usedBytes should be > 0L
+    result.toList should have size rows.size
+    state.memoryTracker.usedBytes should equal(0)
+  }
+
+  private def shouldGiveSameResults(pipe: => Pipe, ordered: Boolean): Unit = {
+    // given
+    val expected = results(pipe, QueryStateHelper.empty)
+    val state = spillingState(threshold = 1)
+
+    // when
+    val spilled = results(pipe, state)
+
+    // then
+    if (ordered) spilled should equal(expected)
+    else spilled should contain theSameElementsAs expected
+    state.query.resources.allResources shouldBe empty
+    state.memoryTracker.usedBytes should equal(0)
+  }
+
+  private def results(pipe: Pipe, state: QueryState): List[Map[String, AnyValue]] =
+    pipe.createResults(state).map((row: ExecutionContext) => row.toMap[String, AnyValue]).toList
+
+  private def spillingState(threshold: Long): QueryState = {
+    val query = mock[QueryContext]
+    when(query.resources).thenReturn(new ResourceManager)
+    new QueryState(query, null, EMPTY_MAP, memoryTracker = QueryMemoryTracker(QueryMemoryConfiguration(spillThreshold = threshold)))
+  }
+}
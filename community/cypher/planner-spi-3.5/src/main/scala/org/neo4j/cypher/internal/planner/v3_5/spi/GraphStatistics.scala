@@ -67,6 +67,23 @@ trait GraphStatistics {
       indexPropertyExistsSelectivity(:X, prop) = s => |MATCH (a:X)| * s = |MATCH (a:X) WHERE has(x.prop)|
    */
   def indexPropertyExistsSelectivity(index: IndexDescriptor): Option[Selectivity]
+
+  /*
+      Probability of any node in the index to have the given value, using the distribution of values found when sampling
+      the index. For an unknown value, the probability of having a value drawn like the values in the index. None when
+      no distribution is known.
+
+      indexValueSelectivity(:X, prop, 'v') = s => |MATCH (a:X) WHERE has(x.prop)| * s = |MATCH (a:X) WHERE x.prop = 'v'|
+   */
+  def indexValueSelectivity(index: IndexDescriptor, value: Option[Any]): Option[Selectivity] = None
+
+  /*
+      Probability of any node in the index to have a value between the given bounds, where None is unbounded, using the
+      histogram of values found when sampling the index. None when no distribution is known.
+
+      indexRangeSelectivity(:X, prop, 'a', 'b') = s => |MATCH (a:X) WHERE has(x.prop)| * s = |MATCH (a:X) WHERE 'a' < x.prop < 'b'|
+   */
+  def indexRangeSelectivity(index: IndexDescriptor, lower: Option[Any], upper: Option[Any]): Option[Selectivity] = None
 }
 
 class DelegatingGraphStatistics(delegate: GraphStatistics) extends GraphStatistics {
@@ -82,6 +99,12 @@ class DelegatingGraphStatistics(delegate: GraphStatistics) extends GraphStatisti
   override def indexPropertyExistsSelectivity(index: IndexDescriptor): Option[Selectivity] =
     delegate.indexPropertyExistsSelectivity(index)
 
+  override def indexValueSelectivity(index: IndexDescriptor, value: Option[Any]): Option[Selectivity] =
+    delegate.indexValueSelectivity(index, value)
+
+  override def indexRangeSelectivity(index: IndexDescriptor, lower: Option[Any], upper: Option[Any]): Option[Selectivity] =
+    delegate.indexRangeSelectivity(index, lower, upper)
+
   override def nodesAllCardinality(): Cardinality = delegate.nodesAllCardinality()
 }
 
@@ -35,6 +35,8 @@ case object NodesAllCardinality extends StatisticsKey
 case class CardinalityByLabelsAndRelationshipType(lhs: Option[LabelId], relType: Option[RelTypeId], rhs: Option[LabelId]) extends StatisticsKey
 case class IndexSelectivity(index: IndexDescriptor) extends StatisticsKey
 case class IndexPropertyExistsSelectivity(index: IndexDescriptor) extends StatisticsKey
+case class IndexValueSelectivity(index: IndexDescriptor, value: Option[Any]) extends StatisticsKey
+case class IndexRangeSelectivity(index: IndexDescriptor, lower: Option[Any], upper: Option[Any]) extends StatisticsKey
 
 class MutableGraphStatisticsSnapshot(val map: mutable.Map[StatisticsKey, Double] = mutable.Map.empty) {
   def freeze: GraphStatisticsSnapshot = GraphStatisticsSnapshot(map.toMap)
@@ -55,6 +57,10 @@ case class GraphStatisticsSnapshot(statsValues: Map[StatisticsKey, Double] = Map
         instrumented.uniqueValueSelectivity(index)
       case IndexPropertyExistsSelectivity(index) =>
         instrumented.indexPropertyExistsSelectivity(index)
+      case IndexValueSelectivity(index, value) =>
+        instrumented.indexValueSelectivity(index, value)
+      case IndexRangeSelectivity(index, lower, upper) =>
+        instrumented.indexRangeSelectivity(index, lower, upper)
     }
     snapshot.freeze
   }
@@ -100,5 +106,17 @@ case class InstrumentedGraphStatistics(inner: GraphStatistics, snapshot: Mutable
     selectivity
   }
 
+  override def indexValueSelectivity(index: IndexDescriptor, value: Option[Any]): Option[Selectivity] = {
+    val selectivity = inner.indexValueSelectivity(index, value)
+    snapshot.map.getOrElseUpdate(IndexValueSelectivity(index, value), selectivity.fold(0.0)(_.factor))
+    selectivity
+  }
+
+  override def indexRangeSelectivity(index: IndexDescriptor, lower: Option[Any], upper: Option[Any]): Option[Selectivity] = {
+    val selectivity = inner.indexRangeSelectivity(index, lower, upper)
+    snapshot.map.getOrElseUpdate(IndexRangeSelectivity(index, lower, upper), selectivity.fold(0.0)(_.factor))
+    selectivity
+  }
+
   override def nodesAllCardinality(): Cardinality = snapshot.map.getOrElseUpdate(NodesAllCardinality, inner.nodesAllCardinality().amount)
 }
@@ -35,6 +35,20 @@ public interface QueryResult
     <E extends Exception> void accept( QueryResultVisitor<E> visitor )
             throws E;
 
+    /**
+     * Consume at most {@code maxRecords} records of this result using a visitor. If records remain, the result is left
+     * open and suspended so that a later call continues where this one stopped. Results that can't be consumed in
+     * batches are consumed in full.
+     *
+     * @return {@code true} if there are more records to consume, {@code false} if the result has been consumed and closed.
+     */
+    default <E extends Exception> boolean accept( QueryResultVisitor<E> visitor, long maxRecords )
+            throws E
+    {
+        accept( visitor );
+        return false;
+    }
+
     interface QueryResultVisitor<E extends Exception>
     {
         boolean visit( Record row ) throws E;
@@ -167,3 +167,5 @@ class LoadCsvStatusWrapCypherException(extraInfo: String, cause: CypherException
 class ExhaustiveShortestPathForbiddenException(message: String, cause: Throwable) extends CypherExecutionException(message, cause)
 
 class ShortestPathCommonEndNodesForbiddenException(message: String, cause: Throwable) extends CypherExecutionException(message, cause)
+
+class QueryMemoryLimitExceededException(message: String, val status: Status) extends CypherException(message, null)
@@ -31,9 +31,11 @@ import org.neo4j.internal.kernel.api._
 import org.neo4j.internal.kernel.api.helpers.RelationshipSelectionCursor
 import org.neo4j.internal.kernel.api.procs.ProcedureCallContext
 import org.neo4j.kernel.api.dbms.DbmsOperations
+import org.neo4j.kernel.api.query.ExecutingQuery
 import org.neo4j.kernel.impl.api.store.RelationshipIterator
 import org.neo4j.kernel.impl.core.EmbeddedProxySPI
 import org.neo4j.kernel.impl.factory.DatabaseInfo
+import org.neo4j.scheduler.JobScheduler
 import org.neo4j.values.AnyValue
 import org.neo4j.values.storable.{TextValue, Value}
 import org.neo4j.values.virtual.{NodeValue, RelationshipValue}
@@ -249,6 +251,13 @@ trait Operations[T] {
 
   def getProperty(obj: Long, propertyKeyId: Int): Value
 
+  /**
+    * Reads several properties in one pass over the property chain.
+    *
+    * @return the values of the given properties, in the same order, with `NO_VALUE` for missing properties.
+    */
+  def getProperties(obj: Long, propertyKeyIds: Array[Int]): Array[Value]
+
   def hasProperty(obj: Long, propertyKeyId: Int): Boolean
 
   /**
@@ -308,6 +317,10 @@ trait QueryTransactionalContext extends CloseableResource {
   def kernelStatisticProvider: KernelStatisticProvider
 
   def databaseInfo: DatabaseInfo
+
+  def jobScheduler: JobScheduler
+
+  def executingQuery: ExecutingQuery
 }
 
 trait KernelPredicate[T] {
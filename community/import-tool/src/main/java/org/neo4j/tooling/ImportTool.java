@@ -31,6 +31,7 @@ import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.concurrent.TimeUnit;
@@ -63,6 +64,7 @@ import org.neo4j.logging.internal.StoreLogService;
 import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.unsafe.impl.batchimport.BatchImporter;
 import org.neo4j.unsafe.impl.batchimport.BatchImporterFactory;
+import org.neo4j.unsafe.impl.batchimport.ImportIndexDefinition;
 import org.neo4j.unsafe.impl.batchimport.cache.idmapping.string.DuplicateInputIdException;
 import org.neo4j.unsafe.impl.batchimport.input.BadCollector;
 import org.neo4j.unsafe.impl.batchimport.input.Collector;
@@ -265,7 +267,16 @@ public class ImportTool
         HIGH_IO( "high-io", null, "Assume a high-throughput storage subsystem",
                 "(advanced) Ignore environment-based heuristics, and assume that the target storage subsystem can " +
                 "support parallel IO with high throughput." ),
-        DETAILED_PROGRESS( "detailed-progress", false, "true/false", "Use the old detailed 'spectrum' progress printing" );
+        ADAPTIVE_PROCESSOR_ASSIGNMENT( "adaptive-processor-assignment", DEFAULT.adaptiveProcessorAssignment(), "true/false",
+                "(advanced) Continuously rebalance processors between the steps of every import stage, based on how " +
+                "long each step takes, instead of only adding processors to the step that currently is the bottleneck." ),
+        DETAILED_PROGRESS( "detailed-progress", false, "true/false", "Use the old detailed 'spectrum' progress printing" ),
+        INDEX( "index", null, "<label>:<property key>[,<property key>...]",
+                "(advanced) Schema index to build as part of the import, so that it is online when the database starts. "
+                        + "Can be specified multiple times." ),
+        UNIQUE_CONSTRAINT( "unique-constraint", null, "<label>:<property key>[,<property key>...]",
+                "(advanced) Uniqueness constraint to create, and build the backing index for, as part of the import. "
+                        + "A constraint violated by the imported data is not created. Can be specified multiple times." );
 
         private final String key;
         private final Object defaultValue;
@@ -420,6 +431,8 @@ public class ImportTool
         File badFile = null;
         Long maxMemory;
         Boolean defaultHighIO;
+        boolean adaptiveProcessorAssignment;
+        Collection<ImportIndexDefinition> indexes;
         InputStream in;
 
         boolean success = false;
@@ -458,6 +471,8 @@ public class ImportTool
                     (Boolean)Options.IGNORE_EXTRA_COLUMNS.defaultValue(), true );
             defaultHighIO = args.getBoolean( Options.HIGH_IO.key(),
                     (Boolean)Options.HIGH_IO.defaultValue(), true );
+            adaptiveProcessorAssignment = args.getBoolean( Options.ADAPTIVE_PROCESSOR_ASSIGNMENT.key(),
+                    (Boolean)Options.ADAPTIVE_PROCESSOR_ASSIGNMENT.defaultValue(), true );
 
             Collector badCollector = getBadCollector( badTolerance, skipBadRelationships, skipDuplicateNodes, ignoreExtraColumns,
                     skipBadEntriesLogging, badOutput );
@@ -469,9 +484,14 @@ public class ImportTool
             dbConfig.augment( GraphDatabaseSettings.neo4j_home, storeDir.getCanonicalFile().getParentFile().getAbsolutePath() );
             boolean allowCacheOnHeap = args.getBoolean( Options.CACHE_ON_HEAP.key(),
                     (Boolean) Options.CACHE_ON_HEAP.defaultValue() );
+            indexes = new ArrayList<>();
+            indexes.addAll( args.interpretOptions( Options.INDEX.key(), Converters.optional(),
+                    definition -> ImportIndexDefinition.parse( definition, false ) ) );
+            indexes.addAll( args.interpretOptions( Options.UNIQUE_CONSTRAINT.key(), Converters.optional(),
+                    definition -> ImportIndexDefinition.parse( definition, true ) ) );
             configuration = importConfiguration(
                     processors, defaultSettingsSuitableForTests, dbConfig, maxMemory, storeDir,
-                    allowCacheOnHeap, defaultHighIO );
+                    allowCacheOnHeap, defaultHighIO, indexes, adaptiveProcessorAssignment );
             input = new CsvInput( nodeData( inputEncoding, nodesFiles ), defaultFormatNodeFileHeader(),
                     relationshipData( inputEncoding, relationshipsFiles ), defaultFormatRelationshipFileHeader(),
                     idType, csvConfiguration( args, defaultSettingsSuitableForTests ), badCollector,
@@ -674,6 +694,7 @@ public class ImportTool
         printIndented( "Processors: " + configuration.maxNumberOfProcessors(), out );
         printIndented( "Configured max memory: " + bytes( configuration.maxMemoryUsage() ), out );
         printIndented( "High-IO: " + configuration.highIO(), out );
+        printIndented( "Adaptive processor assignment: " + configuration.adaptiveProcessorAssignment(), out );
         out.println();
     }
 
@@ -732,6 +753,23 @@ public class ImportTool
     public static org.neo4j.unsafe.impl.batchimport.Configuration importConfiguration(
             Number processors, boolean defaultSettingsSuitableForTests, Config dbConfig, Long maxMemory, File storeDir,
             boolean allowCacheOnHeap, Boolean defaultHighIO )
+    {
+        return importConfiguration( processors, defaultSettingsSuitableForTests, dbConfig, maxMemory, storeDir,
+                allowCacheOnHeap, defaultHighIO, Collections.emptyList() );
+    }
+
+    public static org.neo4j.unsafe.impl.batchimport.Configuration importConfiguration(
+            Number processors, boolean defaultSettingsSuitableForTests, Config dbConfig, Long maxMemory, File storeDir,
+            boolean allowCacheOnHeap, Boolean defaultHighIO, Collection<ImportIndexDefinition> indexes )
+    {
+        return importConfiguration( processors, defaultSettingsSuitableForTests, dbConfig, maxMemory, storeDir,
+                allowCacheOnHeap, defaultHighIO, indexes, DEFAULT.adaptiveProcessorAssignment() );
+    }
+
+    public static org.neo4j.unsafe.impl.batchimport.Configuration importConfiguration(
+            Number processors, boolean defaultSettingsSuitableForTests, Config dbConfig, Long maxMemory, File storeDir,
+            boolean allowCacheOnHeap, Boolean defaultHighIO, Collection<ImportIndexDefinition> indexes,
+            boolean adaptiveProcessorAssignment )
     {
         return new org.neo4j.unsafe.impl.batchimport.Configuration()
         {
@@ -770,6 +808,18 @@ public class ImportTool
             {
                 return allowCacheOnHeap;
             }
+
+            @Override
+            public boolean adaptiveProcessorAssignment()
+            {
+                return adaptiveProcessorAssignment;
+            }
+
+            @Override
+            public Collection<ImportIndexDefinition> indexes()
+            {
+                return indexes;
+            }
         };
     }
 
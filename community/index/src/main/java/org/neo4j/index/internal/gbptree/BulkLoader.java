@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import java.io.Closeable;
+import java.io.UncheckedIOException;
+
+/**
+ * Builds the contents of an empty {@link GBPTree} from key/value pairs given in ascending key order.
+ * Instead of inserting every pair from the root and splitting nodes as they fill up, as a {@link Writer} does,
+ * leaves are filled from left to right up to a fill factor and the internal levels are built bottom-up from the
+ * first key of every new node. The result is a compact tree, built with a fraction of the page accesses.
+ * <p>
+ * The tree isn't visible to readers until the bulk loader is {@link #finish() finished} and {@link #close() closed},
+ * typically using try-with-resource clause. A bulk loader closed without being finished, like when adding failed or
+ * the load was cancelled, leaves the tree empty. The bulk loader holds the writer lock of the tree for its whole
+ * life time.
+ *
+ * @param <KEY> type of keys
+ * @param <VALUE> type of values
+ */
+public interface BulkLoader<KEY,VALUE> extends Closeable
+{
+    /**
+     * Appends given {@code key} and {@code value} to the tree being built.
+     *
+     * @param key key to add, must be bigger than the previously added key.
+     * @param value value to associate with key.
+     * @throws IllegalArgumentException if {@code key} isn't bigger than the previously added key.
+     * @throws IllegalStateException if the load has already failed or been finished.
+     * @throws UncheckedIOException on index access error.
+     */
+    void add( KEY key, VALUE value );
+
+    /**
+     * Marks the load as successful, so that the built tree becomes the content of the tree on {@link #close()}.
+     * No more keys can be added after this.
+     *
+     * @throws IllegalStateException if the load has already failed or been finished.
+     */
+    void finish();
+}
@@ -236,7 +236,7 @@ public class DynamicSizeUtil
         return 1 + (keySize > MASK_ONE_BYTE_KEY_SIZE ? 1 : 0) + (valueSize > 0 ? 1 : 0) + (valueSize > MASK_ONE_BYTE_VALUE_SIZE ? 1 : 0);
     }
 
-    static boolean extractTombstone( long keyValueSize )
+    public static boolean extractTombstone( long keyValueSize )
     {
         return (keyValueSize & FLAG_READ_TOMBSTONE) != 0;
     }
@@ -245,7 +245,7 @@ public class DynamicSizeUtil
      * Put a tombstone into key size.
      * @param cursor on offset to key size where tombstone should be put.
      */
-    static void putTombstone( PageCursor cursor )
+    public static void putTombstone( PageCursor cursor )
     {
         int offset = cursor.getOffset();
         byte firstByte = cursor.getByte();
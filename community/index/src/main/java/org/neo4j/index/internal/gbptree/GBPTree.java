@@ -20,6 +20,8 @@
 package org.neo4j.index.internal.gbptree;
 
 import org.apache.commons.lang3.tuple.Pair;
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.impl.factory.primitive.LongLists;
 
 import java.io.Closeable;
 import java.io.File;
@@ -28,6 +30,8 @@ import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.function.LongSupplier;
@@ -1110,6 +1114,44 @@ public class GBPTree<KEY,VALUE> implements Closeable
         return writer;
     }
 
+    /**
+     * Returns a {@link BulkLoader} able to build the contents of this tree, which must be empty, from key/value pairs
+     * given in ascending key order. Leaves are filled up to {@code fillFactor} of their capacity, leaving room for
+     * future inserts to not immediately cause splits. The built tree becomes visible when the returned bulk loader is
+     * {@link BulkLoader#finish() finished} and then closed. Closing it without finishing it leaves this tree empty.
+     * The {@link #writer()} cannot be acquired in the meantime.
+     *
+     * @param fillFactor how much of each tree node to fill, 0 &lt; fillFactor &lt;= 1, where 1 means fill nodes completely.
+     * @return a {@link BulkLoader} for this tree.
+     * @throws IOException on error accessing the index.
+     * @throws IllegalArgumentException if {@code fillFactor} is out of range.
+     * @throws IllegalStateException if this tree isn't empty or if the writer is already acquired.
+     */
+    public BulkLoader<KEY,VALUE> bulkLoader( double fillFactor ) throws IOException
+    {
+        if ( fillFactor <= 0 || fillFactor > 1 )
+        {
+            throw new IllegalArgumentException( "Fill factor must be in range (0,1], but was " + fillFactor );
+        }
+        assertNotReadOnly( "Open tree bulk loader." );
+        writer.initialize( InternalTreeLogic.DEFAULT_SPLIT_RATIO );
+        changesSinceLastCheckpoint = true;
+        boolean success = false;
+        try
+        {
+            SingleBulkLoader bulkLoader = new SingleBulkLoader( fillFactor );
+            success = true;
+            return bulkLoader;
+        }
+        finally
+        {
+            if ( !success )
+            {
+                writer.close();
+            }
+        }
+    }
+
     private void setRoot( long rootId, long rootGeneration )
     {
         this.root = new Root( rootId, rootGeneration );
@@ -1475,6 +1517,229 @@ public class GBPTree<KEY,VALUE> implements Closeable
         }
     }
 
+    /**
+     * Builds the tree bottom-up while holding the {@link SingleWriter writer}, which gives it mutual exclusion with
+     * other writers and checkpoints. There's one open {@link PageCursor} per level of the tree, placed at the
+     * rightmost node of that level, which is the only node on each level that is still being filled.
+     * <p>
+     * Just like a {@link Writer} would, all nodes are written in the unstable generation and the old root is
+     * released rather than overwritten, so that a crash before next checkpoint leaves the tree as it was.
+     * Unless the load is finished, closing it releases all nodes it acquired instead of publishing them.
+     */
+    private class SingleBulkLoader implements BulkLoader<KEY,VALUE>
+    {
+        private final double fillFactor;
+        private final long stableGeneration;
+        private final long unstableGeneration;
+        private final long oldRootId;
+        private final List<Level> levels = new ArrayList<>();
+        private final KEY previousKey;
+        private final MutableLongList acquiredIds = LongLists.mutable.empty();
+        private boolean hasPreviousKey;
+        private boolean failed;
+        private boolean finished;
+        private long rootId;
+
+        SingleBulkLoader( double fillFactor ) throws IOException
+        {
+            this.fillFactor = fillFactor;
+            this.stableGeneration = writer.stableGeneration;
+            this.unstableGeneration = writer.unstableGeneration;
+            this.previousKey = layout.newKey();
+
+            PageCursor rootCursor = writer.cursor;
+            if ( !TreeNode.isLeaf( rootCursor ) || TreeNode.keyCount( rootCursor ) != 0 )
+            {
+                throw new IllegalStateException( "Can only bulk load into an empty tree, but " + GBPTree.this + " has content" );
+            }
+            oldRootId = rootCursor.getCurrentPageId();
+            rootId = newLevel( true );
+        }
+
+        @Override
+        public void add( KEY key, VALUE value )
+        {
+            assertAdding();
+            if ( hasPreviousKey && layout.compare( previousKey, key ) >= 0 )
+            {
+                throw new IllegalArgumentException(
+                        "Keys must be added in strictly ascending order, but got " + key + " after " + previousKey );
+            }
+            bTreeNode.validateKeyValueSize( key, value );
+
+            try
+            {
+                Level leaves = levels.get( 0 );
+                if ( leaves.keyCount > 0 &&
+                        (bTreeNode.leafOverflow( leaves.cursor, leaves.keyCount, key, value ) != TreeNode.Overflow.NO ||
+                         bTreeNode.leafFilledAbove( leaves.cursor, leaves.keyCount, key, value, fillFactor )) )
+                {
+                    // The first key of the new leaf becomes the splitter between it and its left sibling
+                    long newLeafId = newSibling( leaves );
+                    addToParent( 1, key, newLeafId );
+                }
+                bTreeNode.insertKeyValueAt( leaves.cursor, key, value, leaves.keyCount, leaves.keyCount );
+                TreeNode.setKeyCount( leaves.cursor, ++leaves.keyCount );
+                checkOutOfBounds( leaves.cursor );
+            }
+            catch ( IOException e )
+            {
+                failed = true;
+                appendTreeInformation( e );
+                throw new UncheckedIOException( e );
+            }
+            catch ( Throwable e )
+            {
+                failed = true;
+                throw e;
+            }
+
+            layout.copyKey( key, previousKey );
+            hasPreviousKey = true;
+        }
+
+        /**
+         * Inserts {@code splitter} and its {@code rightChild} into the rightmost node of the given level,
+         * starting a new node on that level if it is full, which in turn is added to the level above.
+         */
+        private void addToParent( int levelIndex, KEY splitter, long rightChild ) throws IOException
+        {
+            if ( levelIndex == levels.size() )
+            {
+                // The current root is the leftmost node on the level below and gets a new parent
+                long leftmostChild = rootId;
+                rootId = newLevel( false );
+                bTreeNode.setChildAt( levels.get( levelIndex ).cursor, leftmostChild, 0, stableGeneration, unstableGeneration );
+                monitor.treeGrowth();
+            }
+
+            Level level = levels.get( levelIndex );
+            if ( level.keyCount > 0 &&
+                    (bTreeNode.internalOverflow( level.cursor, level.keyCount, splitter ) != TreeNode.Overflow.NO ||
+                     bTreeNode.internalFilledAbove( level.cursor, level.keyCount, splitter, fillFactor )) )
+            {
+                // The splitter moves up to the level above and the right child becomes the leftmost child of the new node
+                long newInternalId = newSibling( level );
+                bTreeNode.setChildAt( level.cursor, rightChild, 0, stableGeneration, unstableGeneration );
+                addToParent( levelIndex + 1, splitter, newInternalId );
+                return;
+            }
+            bTreeNode.insertKeyAndRightChildAt( level.cursor, splitter, rightChild, level.keyCount, level.keyCount,
+                    stableGeneration, unstableGeneration );
+            TreeNode.setKeyCount( level.cursor, ++level.keyCount );
+            checkOutOfBounds( level.cursor );
+        }
+
+        private long newLevel( boolean leaf ) throws IOException
+        {
+            long nodeId = acquireNewId();
+            PageCursor cursor = pagedFile.io( nodeId, PagedFile.PF_SHARED_WRITE_LOCK );
+            Level level = new Level( cursor, leaf );
+            levels.add( level );
+            PageCursorUtil.goTo( cursor, "new level", nodeId );
+            level.initialize();
+            return nodeId;
+        }
+
+        private long newSibling( Level level ) throws IOException
+        {
+            PageCursor cursor = level.cursor;
+            long leftSiblingId = cursor.getCurrentPageId();
+            long nodeId = acquireNewId();
+            TreeNode.setRightSibling( cursor, nodeId, stableGeneration, unstableGeneration );
+            PageCursorUtil.goTo( cursor, "new sibling", nodeId );
+            level.initialize();
+            TreeNode.setLeftSibling( cursor, leftSiblingId, stableGeneration, unstableGeneration );
+            return nodeId;
+        }
+
+        private long acquireNewId() throws IOException
+        {
+            long nodeId = freeList.acquireNewId( stableGeneration, unstableGeneration );
+            acquiredIds.add( nodeId );
+            return nodeId;
+        }
+
+        private void assertAdding()
+        {
+            if ( failed )
+            {
+                throw new IllegalStateException( "Bulk load of " + GBPTree.this + " has failed" );
+            }
+            if ( finished )
+            {
+                throw new IllegalStateException( "Bulk load of " + GBPTree.this + " has already finished" );
+            }
+        }
+
+        @Override
+        public void finish()
+        {
+            assertAdding();
+            finished = true;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            try
+            {
+                for ( Level level : levels )
+                {
+                    level.cursor.close();
+                }
+                if ( finished )
+                {
+                    GBPTree.this.setRoot( rootId, unstableGeneration );
+                    freeList.releaseId( stableGeneration, unstableGeneration, oldRootId );
+                }
+                else
+                {
+                    // The old, empty root stays the root, so nothing built by this load is reachable
+                    for ( int i = 0; i < acquiredIds.size(); i++ )
+                    {
+                        freeList.releaseId( stableGeneration, unstableGeneration, acquiredIds.get( i ) );
+                    }
+                }
+            }
+            catch ( Throwable e )
+            {
+                appendTreeInformation( e );
+                throw e;
+            }
+            finally
+            {
+                writer.close();
+            }
+        }
+
+        private class Level
+        {
+            private final PageCursor cursor;
+            private final boolean leaf;
+            private int keyCount;
+
+            Level( PageCursor cursor, boolean leaf )
+            {
+                this.cursor = cursor;
+                this.leaf = leaf;
+            }
+
+            void initialize()
+            {
+                if ( leaf )
+                {
+                    bTreeNode.initializeLeaf( cursor, stableGeneration, unstableGeneration );
+                }
+                else
+                {
+                    bTreeNode.initializeInternal( cursor, stableGeneration, unstableGeneration );
+                }
+                keyCount = 0;
+            }
+        }
+    }
+
     public boolean wasDirtyOnStartup()
     {
         return dirtyOnStartup;
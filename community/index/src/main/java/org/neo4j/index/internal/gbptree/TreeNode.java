@@ -334,6 +334,20 @@ abstract class TreeNode<KEY,VALUE>
      */
     abstract Overflow leafOverflow( PageCursor cursor, int currentKeyCount, KEY newKey, VALUE newValue );
 
+    /**
+     * Will internal be filled beyond {@code fillFactor} of its capacity if inserting new key?
+     * Used when bulk loading, where nodes are filled from left to right and never split.
+     * @return true if internal will be filled beyond fill factor, else false.
+     */
+    abstract boolean internalFilledAbove( PageCursor cursor, int currentKeyCount, KEY newKey, double fillFactor );
+
+    /**
+     * Will leaf be filled beyond {@code fillFactor} of its capacity if inserting new key and value?
+     * Used when bulk loading, where nodes are filled from left to right and never split.
+     * @return true if leaf will be filled beyond fill factor, else false.
+     */
+    abstract boolean leafFilledAbove( PageCursor cursor, int currentKeyCount, KEY newKey, VALUE newValue, double fillFactor );
+
     /**
      * Clean page with leaf node from garbage to make room for further insert without having to split.
      */
@@ -420,6 +420,20 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
                neededSpace <= allocSpace + deadSpace ? Overflow.NO_NEED_DEFRAG : Overflow.YES;
     }
 
+    @Override
+    boolean internalFilledAbove( PageCursor cursor, int currentKeyCount, KEY newKey, double fillFactor )
+    {
+        int activeSpaceAfterInsert = totalActiveSpace( cursor, currentKeyCount, INTERNAL ) + totalSpaceOfKeyChild( newKey );
+        return activeSpaceAfterInsert > totalSpace * fillFactor;
+    }
+
+    @Override
+    boolean leafFilledAbove( PageCursor cursor, int currentKeyCount, KEY newKey, VALUE newValue, double fillFactor )
+    {
+        int activeSpaceAfterInsert = totalActiveSpace( cursor, currentKeyCount, LEAF ) + totalSpaceOfKeyValue( newKey, newValue );
+        return activeSpaceAfterInsert > totalSpace * fillFactor;
+    }
+
     @Override
     void defragmentLeaf( PageCursor cursor )
     {
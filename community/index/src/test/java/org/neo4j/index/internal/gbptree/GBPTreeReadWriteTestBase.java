@@ -161,6 +161,179 @@ public abstract class GBPTreeReadWriteTestBase<KEY,VALUE>
         }
     }
 
+    @Test
+    public void shouldSeeBulkLoadedEntries() throws Exception
+    {
+        // GIVEN
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            // WHEN
+            int count = 10_000;
+            double fillFactor = random.among( new Double[]{0.5, 0.75, 1.0} );
+            try ( BulkLoader<KEY,VALUE> bulkLoader = index.bulkLoader( fillFactor ) )
+            {
+                for ( int i = 0; i < count; i++ )
+                {
+                    bulkLoader.add( key( i * 2 ), value( i * 2 ) );
+                }
+                bulkLoader.finish();
+            }
+
+            // THEN
+            assertTrue( index.consistencyCheck() );
+            try ( RawCursor<Hit<KEY,VALUE>,IOException> cursor = index.seek( key( 0 ), key( Long.MAX_VALUE ) ) )
+            {
+                for ( int i = 0; i < count; i++ )
+                {
+                    assertTrue( cursor.next() );
+                    assertEqualsKey( key( i * 2 ), cursor.get().key() );
+                }
+                assertFalse( cursor.next() );
+            }
+            for ( int i = 0; i < count; i += 100 )
+            {
+                try ( RawCursor<Hit<KEY,VALUE>,IOException> cursor = index.seek( key( i * 2 ), key( i * 2 ) ) )
+                {
+                    assertTrue( cursor.next() );
+                    assertEqualsKey( key( i * 2 ), cursor.get().key() );
+                    assertFalse( cursor.next() );
+                }
+            }
+        }
+    }
+
+    @Test
+    public void shouldInsertAndRemoveIntoBulkLoadedTree() throws Exception
+    {
+        // GIVEN
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            int count = 5_000;
+            try ( BulkLoader<KEY,VALUE> bulkLoader = index.bulkLoader( 1.0 ) )
+            {
+                for ( int i = 0; i < count; i++ )
+                {
+                    bulkLoader.add( key( i * 2 ), value( i * 2 ) );
+                }
+                bulkLoader.finish();
+            }
+
+            // WHEN
+            try ( Writer<KEY,VALUE> writer = index.writer() )
+            {
+                for ( int i = 0; i < count; i++ )
+                {
+                    writer.put( key( i * 2 + 1 ), value( i * 2 + 1 ) );
+                    if ( i % 3 == 0 )
+                    {
+                        writer.remove( key( i * 2 ) );
+                    }
+                }
+            }
+
+            // THEN
+            assertTrue( index.consistencyCheck() );
+            try ( RawCursor<Hit<KEY,VALUE>,IOException> cursor = index.seek( key( 0 ), key( Long.MAX_VALUE ) ) )
+            {
+                for ( int i = 0; i < count * 2; i++ )
+                {
+                    if ( i % 2 == 0 && (i / 2) % 3 == 0 )
+                    {
+                        continue;
+                    }
+                    assertTrue( cursor.next() );
+                    assertEqualsKey( key( i ), cursor.get().key() );
+                }
+                assertFalse( cursor.next() );
+            }
+        }
+    }
+
+    @Test
+    public void shouldLeaveTreeEmptyWhenBulkLoadIsNotFinished() throws Exception
+    {
+        // GIVEN
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            // WHEN
+            try ( BulkLoader<KEY,VALUE> bulkLoader = index.bulkLoader( 1.0 ) )
+            {
+                for ( int i = 0; i < 5_000; i++ )
+                {
+                    bulkLoader.add( key( i ), value( i ) );
+                }
+            }
+
+            // THEN
+            assertTrue( index.consistencyCheck() );
+            try ( RawCursor<Hit<KEY,VALUE>,IOException> cursor = index.seek( key( 0 ), key( Long.MAX_VALUE ) ) )
+            {
+                assertFalse( cursor.next() );
+            }
+
+            // and the tree can still be bulk loaded
+            try ( BulkLoader<KEY,VALUE> bulkLoader = index.bulkLoader( 1.0 ) )
+            {
+                bulkLoader.add( key( 0 ), value( 0 ) );
+                bulkLoader.finish();
+            }
+            try ( RawCursor<Hit<KEY,VALUE>,IOException> cursor = index.seek( key( 0 ), key( Long.MAX_VALUE ) ) )
+            {
+                assertTrue( cursor.next() );
+                assertEqualsKey( key( 0 ), cursor.get().key() );
+                assertFalse( cursor.next() );
+            }
+        }
+    }
+
+    @Test
+    public void shouldNotBulkLoadIntoNonEmptyTree() throws Exception
+    {
+        // GIVEN
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            try ( Writer<KEY,VALUE> writer = index.writer() )
+            {
+                writer.put( key( 0 ), value( 0 ) );
+            }
+
+            // WHEN
+            try ( BulkLoader<KEY,VALUE> bulkLoader = index.bulkLoader( 1.0 ) )
+            {
+                fail( "Should have failed" );
+            }
+            catch ( IllegalStateException e )
+            {
+                // THEN good
+            }
+
+            // and the writer should have been released
+            index.writer().close();
+        }
+    }
+
+    @Test
+    public void shouldNotBulkLoadKeysInWrongOrder() throws Exception
+    {
+        // GIVEN
+        try ( GBPTree<KEY,VALUE> index = index();
+              BulkLoader<KEY,VALUE> bulkLoader = index.bulkLoader( 1.0 ) )
+        {
+            bulkLoader.add( key( 10 ), value( 10 ) );
+
+            // WHEN
+            try
+            {
+                bulkLoader.add( key( 5 ), value( 5 ) );
+                fail( "Should have failed" );
+            }
+            catch ( IllegalArgumentException e )
+            {
+                // THEN good
+            }
+        }
+    }
+
     private GBPTree<KEY,VALUE> index() throws IOException
     {
         return new GBPTreeBuilder<>( deps.pageCache(), indexFile, layout ).build();
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.kernel.api;
+
+import java.util.Arrays;
+
+import org.neo4j.values.storable.NumberValue;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.ValueGroup;
+import org.neo4j.values.storable.Values;
+
+/**
+ * How the values of an index are distributed, as seen when it was last sampled. Holds the most common values together
+ * with the fraction of index entries having each of them, and an equi-depth histogram over all entries of the index:
+ * histogram bounds are values taken at roughly evenly spaced entries, each with the fraction of entries preceding it.
+ * <p>
+ * Estimates return {@code -1} when the distribution can't tell, e.g. because the index hasn't been sampled with a
+ * sampler that builds distributions, or because the values asked about are of a type not seen when sampling.
+ */
+public final class IndexValueDistribution
+{
+    public static final IndexValueDistribution EMPTY =
+            new IndexValueDistribution( 0, new Value[0], new double[0], new Value[0], new double[0] );
+
+    private final long distinctValues;
+    private final Value[] commonValues;
+    private final double[] commonFrequencies;
+    private final Value[] histogramBounds;
+    private final double[] histogramPositions;
+
+    /**
+     * @param distinctValues number of distinct values in the index.
+     * @param commonValues the most common values of the index.
+     * @param commonFrequencies fraction of index entries having the common value at the same offset.
+     * @param histogramBounds values of the index in ascending order.
+     * @param histogramPositions fraction of index entries preceding the bound at the same offset.
+     */
+    public IndexValueDistribution( long distinctValues, Value[] commonValues, double[] commonFrequencies, Value[] histogramBounds,
+            double[] histogramPositions )
+    {
+        assert commonValues.length == commonFrequencies.length;
+        assert histogramBounds.length == histogramPositions.length;
+        this.distinctValues = distinctValues;
+        this.commonValues = commonValues;
+        this.commonFrequencies = commonFrequencies;
+        this.histogramBounds = histogramBounds;
+        this.histogramPositions = histogramPositions;
+    }
+
+    public boolean isEmpty()
+    {
+        return histogramBounds.length == 0;
+    }
+
+    /**
+     * Estimates the fraction of index entries having the given value. Common values have their frequency recorded,
+     * other values are assumed to share what's left evenly.
+     *
+     * @param value value to estimate the frequency of.
+     * @return fraction of index entries with the given value, or {@code -1} if unknown.
+     */
+    public double equalityFrequency( Value value )
+    {
+        if ( isEmpty() )
+        {
+            return -1;
+        }
+        double commonTotal = 0;
+        for ( int i = 0; i < commonValues.length; i++ )
+        {
+            if ( commonValues[i].equals( value ) )
+            {
+                return commonFrequencies[i];
+            }
+            commonTotal += commonFrequencies[i];
+        }
+        long otherValues = distinctValues - commonValues.length;
+        return otherValues <= 0 ? 0.0 : Math.max( 0.0, 1.0 - commonTotal ) / otherValues;
+    }
+
+    /**
+     * Estimates the fraction of index entries having a value not known up front, assuming that the values asked for
+     * are distributed like the values of the index. For evenly distributed values this is one over the number of
+     * distinct values, but for skewed values it's dominated by the most common ones.
+     *
+     * @return expected fraction of index entries with a value, or {@code -1} if unknown.
+     */
+    public double expectedEqualityFrequency()
+    {
+        if ( isEmpty() )
+        {
+            return -1;
+        }
+        double commonTotal = 0;
+        double expected = 0;
+        for ( double frequency : commonFrequencies )
+        {
+            commonTotal += frequency;
+            expected += frequency * frequency;
+        }
+        long otherValues = distinctValues - commonValues.length;
+        if ( otherValues > 0 )
+        {
+            double otherTotal = Math.max( 0.0, 1.0 - commonTotal );
+            expected += otherTotal * otherTotal / otherValues;
+        }
+        return expected;
+    }
+
+    /**
+     * Estimates the fraction of index entries with a value in the given range, from the histogram. Only values of the
+     * same {@link ValueGroup} as the bounds are counted, and inclusiveness of the bounds is not taken into account.
+     *
+     * @param lower lower bound of the range, or {@code null} if unbounded.
+     * @param upper upper bound of the range, or {@code null} if unbounded.
+     * @return fraction of index entries in the range, or {@code -1} if unknown.
+     */
+    public double rangeFrequency( Value lower, Value upper )
+    {
+        if ( isEmpty() || (lower == null && upper == null) )
+        {
+            return -1;
+        }
+        ValueGroup group = (lower != null ? lower : upper).valueGroup();
+        if ( lower != null && upper != null && upper.valueGroup() != group )
+        {
+            return -1;
+        }
+
+        int first = -1;
+        int last = -1;
+        for ( int i = 0; i < histogramBounds.length; i++ )
+        {
+            if ( histogramBounds[i].valueGroup() == group )
+            {
+                first = first == -1 ? i : first;
+                last = i;
+            }
+        }
+        if ( first == -1 )
+        {
+            return -1;
+        }
+
+        // Entries of the group lie between the bounds just outside of its first and last bound
+        double groupStart = first > 0 ? histogramPositions[first - 1] : 0.0;
+        double groupEnd = last < histogramBounds.length - 1 ? histogramPositions[last + 1] : 1.0;
+        double from = lower == null ? groupStart : clamp( position( lower ), groupStart, groupEnd );
+        double to = upper == null ? groupEnd : clamp( position( upper ), groupStart, groupEnd );
+        return Math.max( 0.0, to - from );
+    }
+
+    private double position( Value value )
+    {
+        int index = Arrays.binarySearch( histogramBounds, value, Values.COMPARATOR );
+        int below = index >= 0 ? index : -index - 2;
+        if ( below < 0 )
+        {
+            return 0.0;
+        }
+        if ( below == histogramBounds.length - 1 )
+        {
+            // The entries following the last bound are assumed to be below any value beyond it
+            return index >= 0 ? histogramPositions[below] : 1.0;
+        }
+
+        Value lowerBound = histogramBounds[below];
+        Value upperBound = histogramBounds[below + 1];
+        double fraction = 0.5;
+        if ( value instanceof NumberValue && lowerBound instanceof NumberValue && upperBound instanceof NumberValue )
+        {
+            double from = ((NumberValue) lowerBound).doubleValue();
+            double width = ((NumberValue) upperBound).doubleValue() - from;
+            fraction = width > 0 ? clamp( (((NumberValue) value).doubleValue() - from) / width, 0.0, 1.0 ) : 0.0;
+        }
+        return histogramPositions[below] + fraction * (histogramPositions[below + 1] - histogramPositions[below]);
+    }
+
+    private static double clamp( double value, double min, double max )
+    {
+        return Math.min( max, Math.max( min, value ) );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "IndexValueDistribution{" +
+               "distinctValues=" + distinctValues +
+               ", commonValues=" + Arrays.toString( commonValues ) +
+               ", commonFrequencies=" + Arrays.toString( commonFrequencies ) +
+               ", histogramBuckets=" + Math.max( 0, histogramBounds.length - 1 ) +
+               '}';
+    }
+}
@@ -86,6 +86,15 @@ public interface SchemaRead extends SchemaReadCore
      */
     double indexUniqueValuesSelectivity( IndexReference index ) throws IndexNotFoundKernelException;
 
+    /**
+     * Returns the distribution of values in the index, as found when it was last sampled.
+     *
+     * @param index The index of interest
+     * @return The distribution of values, or {@link IndexValueDistribution#EMPTY} if not known
+     * @throws IndexNotFoundKernelException if the index is not there
+     */
+    IndexValueDistribution indexValueDistribution( IndexReference index ) throws IndexNotFoundKernelException;
+
     /**
      * Returns the size of the index.
      *
@@ -24,6 +24,7 @@ import java.util.function.Function;
 
 import org.neo4j.collection.PrimitiveLongResourceIterator;
 import org.neo4j.internal.kernel.api.IndexReference;
+import org.neo4j.internal.kernel.api.IndexValueDistribution;
 import org.neo4j.internal.kernel.api.exceptions.EntityNotFoundException;
 import org.neo4j.internal.kernel.api.exceptions.schema.IndexNotFoundKernelException;
 import org.neo4j.internal.kernel.api.schema.SchemaDescriptor;
@@ -229,6 +230,15 @@ public interface StorageReader extends AutoCloseable, StorageSchemaReader
      */
     double indexUniqueValuesPercentage( SchemaDescriptor descriptor ) throws IndexNotFoundKernelException;
 
+    /**
+     * Returns the distribution of values in the given {@code index}, as found when it was last sampled.
+     *
+     * @param descriptor {@link SchemaDescriptor} to get the value distribution for.
+     * @return distribution of values in this index, {@link IndexValueDistribution#EMPTY} if not known.
+     * @throws IndexNotFoundKernelException if no such index exists.
+     */
+    IndexValueDistribution indexValueDistribution( SchemaDescriptor descriptor ) throws IndexNotFoundKernelException;
+
     long nodesGetCount();
 
     long relationshipsGetCount();
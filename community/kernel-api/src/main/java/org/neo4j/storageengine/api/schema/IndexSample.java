@@ -19,11 +19,14 @@
  */
 package org.neo4j.storageengine.api.schema;
 
+import org.neo4j.internal.kernel.api.IndexValueDistribution;
+
 public final class IndexSample
 {
     private final long indexSize;
     private final long uniqueValues;
     private final long sampleSize;
+    private final IndexValueDistribution valueDistribution;
 
     public IndexSample()
     {
@@ -31,10 +34,16 @@ public final class IndexSample
     }
 
     public IndexSample( long indexSize, long uniqueValues, long sampleSize )
+    {
+        this( indexSize, uniqueValues, sampleSize, IndexValueDistribution.EMPTY );
+    }
+
+    public IndexSample( long indexSize, long uniqueValues, long sampleSize, IndexValueDistribution valueDistribution )
     {
         this.indexSize = indexSize;
         this.uniqueValues = uniqueValues;
         this.sampleSize = sampleSize;
+        this.valueDistribution = valueDistribution;
     }
 
     public long indexSize()
@@ -52,6 +61,15 @@ public final class IndexSample
         return sampleSize;
     }
 
+    /**
+     * @return the distribution of values found when sampling, or {@link IndexValueDistribution#EMPTY} if the sampler
+     * doesn't build one. Not part of {@link #equals(Object)}, which only compares the counts.
+     */
+    public IndexValueDistribution valueDistribution()
+    {
+        return valueDistribution;
+    }
+
     @Override
     public boolean equals( Object o )
     {
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.kernel.api;
+
+import org.junit.Test;
+
+import org.neo4j.values.storable.Value;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.values.storable.Values.doubleValue;
+import static org.neo4j.values.storable.Values.intValue;
+import static org.neo4j.values.storable.Values.stringValue;
+
+public class IndexValueDistributionTest
+{
+    private static final double DELTA = 0.000001;
+
+    // 100 entries with values 0..9, where value 0 is on half of them
+    private final IndexValueDistribution distribution = new IndexValueDistribution( 10,
+            new Value[]{intValue( 0 ), intValue( 1 )}, new double[]{0.5, 0.1},
+            new Value[]{intValue( 0 ), intValue( 5 ), intValue( 9 )}, new double[]{0.0, 0.7, 0.95} );
+
+    @Test
+    public void shouldNotEstimateFromEmptyDistribution()
+    {
+        assertTrue( IndexValueDistribution.EMPTY.isEmpty() );
+        assertEquals( -1, IndexValueDistribution.EMPTY.equalityFrequency( intValue( 1 ) ), DELTA );
+        assertEquals( -1, IndexValueDistribution.EMPTY.expectedEqualityFrequency(), DELTA );
+        assertEquals( -1, IndexValueDistribution.EMPTY.rangeFrequency( intValue( 1 ), null ), DELTA );
+    }
+
+    @Test
+    public void shouldUseFrequencyOfCommonValues()
+    {
+        assertEquals( 0.5, distribution.equalityFrequency( intValue( 0 ) ), DELTA );
+        assertEquals( 0.1, distribution.equalityFrequency( intValue( 1 ) ), DELTA );
+    }
+
+    @Test
+    public void shouldSpreadRemainingFrequencyOverOtherValues()
+    {
+        assertEquals( 0.4 / 8, distribution.equalityFrequency( intValue( 7 ) ), DELTA );
+    }
+
+    @Test
+    public void shouldWeighExpectedFrequencyTowardsCommonValues()
+    {
+        double expected = 0.5 * 0.5 + 0.1 * 0.1 + 0.4 * 0.4 / 8;
+        assertEquals( expected, distribution.expectedEqualityFrequency(), DELTA );
+        assertTrue( distribution.expectedEqualityFrequency() > 1.0 / 10 );
+    }
+
+    @Test
+    public void shouldInterpolateNumericRangesBetweenBounds()
+    {
+        assertEquals( 0.7, distribution.rangeFrequency( null, intValue( 5 ) ), DELTA );
+        assertEquals( 0.3, distribution.rangeFrequency( intValue( 5 ), null ), DELTA );
+        assertEquals( 0.35, distribution.rangeFrequency( null, doubleValue( 2.5 ) ), DELTA );
+        assertEquals( 0.95 - 0.7, distribution.rangeFrequency( intValue( 5 ), intValue( 9 ) ), DELTA );
+        assertEquals( 1.0, distribution.rangeFrequency( intValue( -10 ), intValue( 100 ) ), DELTA );
+    }
+
+    @Test
+    public void shouldNotEstimateRangesOfOtherValueGroups()
+    {
+        assertEquals( -1, distribution.rangeFrequency( stringValue( "a" ), null ), DELTA );
+        assertEquals( -1, distribution.rangeFrequency( intValue( 1 ), stringValue( "a" ) ), DELTA );
+    }
+}
@@ -247,7 +247,7 @@ public class GraphDatabaseSettings implements LoadableConfig
     @Internal
     public static final Setting<String> cypher_runtime = setting(
             "unsupported.cypher.runtime",
-        optionsIgnoreCase( "INTERPRETED", "COMPILED", "SLOTTED" , "MORSEL", DEFAULT ), DEFAULT );
+        optionsIgnoreCase( "INTERPRETED", "COMPILED", "SLOTTED" , "MORSEL", "PARALLEL", DEFAULT ), DEFAULT );
 
     @Description( "Choose the expression engine. The default is to only compile expressions that are hot, if 'COMPILED' " +
                   "is chosen all expressions will be compiled directly and if 'INTERPRETED' is chosen expressions will " +
@@ -269,6 +269,34 @@ public class GraphDatabaseSettings implements LoadableConfig
     public static final Setting<Integer> query_cache_size =
             buildSetting( "dbms.query_cache_size", INTEGER, "1000" ).constraint( min( 0 ) ).build();
 
+    @Description( "Keep the queries of the query cache in a file, and plan them again in the background when the " +
+                  "database starts. The most frequently executed queries are planned first, so that they don't have to " +
+                  "wait for planning when clients send them after a restart." )
+    public static final Setting<Boolean> query_cache_warmup = setting( "dbms.query_cache_warmup", BOOLEAN, FALSE );
+
+    @Description( "File in which the queries of the query cache are kept for warming up the cache on startup." )
+    @Internal
+    public static final Setting<File> query_cache_warmup_file =
+            pathSetting( "unsupported.dbms.query_cache_warmup_file", "cypher-query-cache", database_path );
+
+    @Description( "How often the queries of the query cache are written to the warm-up file." )
+    @Internal
+    public static final Setting<Duration> query_cache_warmup_export_interval =
+            setting( "unsupported.dbms.query_cache_warmup_export_interval", DURATION, "1m" );
+
+    @Description( "The number of read-only query results that are cached, keyed by query, parameters and user. A cached " +
+                  "result is returned without executing the query until another transaction is committed. Only " +
+                  "results of auto-commit transactions are cached, and they are materialized before they are returned. " +
+                  "Queries that call procedures, user-defined or non-deterministic functions such as rand(), " +
+                  "timestamp() or datetime(), or that load CSV, are never cached. A value of 0 disables the cache." )
+    public static final Setting<Integer> query_result_cache_size =
+            buildSetting( "dbms.query_result_cache_size", INTEGER, "0" ).constraint( min( 0 ) ).build();
+
+    @Description( "The maximum number of records of a query result that is kept in the query result cache." )
+    @Internal
+    public static final Setting<Integer> query_result_cache_max_rows =
+            buildSetting( "unsupported.dbms.query_result_cache_max_rows", INTEGER, "1000" ).constraint( min( 0 ) ).build();
+
     @Description( "The threshold when a plan is considered stale. If any of the underlying " +
                   "statistics used to create the plan have changed more than this value, " +
                   "the plan will be considered stale and will be replanned. Change is calculated as " +
@@ -313,6 +341,13 @@ public class GraphDatabaseSettings implements LoadableConfig
     public static final Setting<Long> cypher_idp_solver_duration_threshold = buildSetting(
             "unsupported.cypher.idp_solver_duration_threshold", LONG, "1000" ).constraint( min( 10L ) ).build();
 
+    @Description( "To bound IDP query planning time for large patterns, we can restrict the total duration of the " +
+                  "planning loops. The time left is shared among the remaining loops, so that large patterns are " +
+                  "compacted sooner, and once it has been used up candidate plans are compacted after every step." )
+    @Internal
+    public static final Setting<Long> cypher_idp_solver_total_duration_threshold = buildSetting(
+            "unsupported.cypher.idp_solver_total_duration_threshold", LONG, "10000" ).constraint( min( 10L ) ).build();
+
     @Description( "The minimum time between possible cypher query replanning events. After this time, the graph " +
                   "statistics will be evaluated, and if they have changed by more than the value set by " +
                   "cypher.statistics_divergence_threshold, the query will be replanned. If the statistics have " +
@@ -343,6 +378,12 @@ public class GraphDatabaseSettings implements LoadableConfig
     public static final Setting<String> cypher_replan_algorithm = setting( "unsupported.cypher.replan_algorithm",
             optionsObeyCase( "inverse", "exponential", "none", DEFAULT ), DEFAULT );
 
+    @Description( "Keep executing a cached query plan that has become stale while the query is replanned in the " +
+                  "background, instead of replanning it before executing it. The new plan replaces the stale one " +
+                  "in the query cache as soon as it is ready." )
+    public static final Setting<Boolean> cypher_replan_in_background =
+            setting( "cypher.replan_in_background", BOOLEAN, FALSE );
+
     @Description( "Enable using minimum cardinality estimates in the Cypher cost planner, so that cardinality " +
                   "estimates for logical plan operators are not allowed to go below certain thresholds even when " +
                   "the statistics give smaller numbers. " +
@@ -381,6 +422,11 @@ public class GraphDatabaseSettings implements LoadableConfig
             buildSetting( "dbms.import.csv.buffer_size", INTEGER, Integer.toString( 2 * Configuration.MB ) )
                     .constraint( min( 1 ) ).build();
 
+    @Description( "Enables reading and parsing the file of `LOAD CSV` on a separate thread, ahead of the rows the " +
+                  "query is working on. This lets parsing overlap with the writes of large `USING PERIODIC COMMIT` " +
+                  "loads, at the cost of one extra thread and a bounded number of buffered rows per loaded file." )
+    public static final Setting<Boolean> csv_read_ahead = setting( "dbms.import.csv.read_ahead", BOOLEAN, FALSE );
+
     @Description( "Enables or disables tracking of how much time a query spends actively executing on the CPU. " +
                   "Calling `dbms.listQueries` will display the time. " +
                   "This can also be logged in the query log by using `log_queries_detailed_time_logging_enabled`." )
@@ -393,6 +439,22 @@ public class GraphDatabaseSettings implements LoadableConfig
     @Dynamic
     public static final Setting<Boolean> track_query_allocation = setting( "dbms.track_query_allocation", BOOLEAN, FALSE );
 
+    @Description( "Enables or disables estimating how much memory a Cypher query holds on to, e.g. for rows buffered by " +
+                  "sort, aggregation, distinct and hash joins. Only applies to the interpreted runtime. " +
+                  "The estimate is tracked anyway whenever `cypher.query_max_memory` or `cypher.query_global_max_memory` is set." )
+    public static final Setting<Boolean> track_query_memory = setting( "dbms.track_query_memory", BOOLEAN, FALSE );
+
+    @Description( "The estimated amount of memory that a single Cypher query may hold on to before it is terminated. " +
+                  "Only applies to the interpreted runtime. If set to 0, queries are not limited." )
+    public static final Setting<Long> cypher_query_max_memory =
+            buildSetting( "cypher.query_max_memory", BYTES, "0" ).constraint( range( 0L, Long.MAX_VALUE ) ).build();
+
+    @Description( "The estimated amount of memory that all running Cypher queries together may hold on to. A query that " +
+                  "allocates memory beyond this limit is terminated. " +
+                  "Only applies to the interpreted runtime. If set to 0, queries are not limited." )
+    public static final Setting<Long> cypher_query_global_max_memory =
+            buildSetting( "cypher.query_global_max_memory", BYTES, "0" ).constraint( range( 0L, Long.MAX_VALUE ) ).build();
+
     @Description( "Enable tracing of morsel runtime scheduler." )
     @Internal
     public static final Setting<Boolean> enable_morsel_runtime_trace =
@@ -414,6 +476,13 @@ public class GraphDatabaseSettings implements LoadableConfig
     public static final Setting<Integer> cypher_worker_count =
             setting( "unsupported.cypher.number_of_workers", INTEGER, "0" );
 
+    @Description( "The amount of memory that the eager operators of a single Cypher query, e.g. sort, aggregation, " +
+            "distinct and hash joins, may hold on to before they start spilling rows to temporary files. " +
+            "Only applies to the interpreted runtime. If set to 0, operators never spill." )
+    @Internal
+    public static final Setting<Long> cypher_spill_threshold =
+            buildSetting( "unsupported.cypher.spill_threshold", BYTES, "0" ).constraint( range( 0L, Long.MAX_VALUE ) ).build();
+
     @Description( "Max number of recent queries to collect in the data collector module. Will round down to the" +
             " nearest power of two. The default number (8192 query invocations) " +
             " was chosen as a trade-off between getting a useful amount of queries, and not" +
@@ -471,6 +540,22 @@ public class GraphDatabaseSettings implements LoadableConfig
     public static final Setting<Duration> shutdown_transaction_end_timeout =
             setting( "dbms.shutdown_transaction_end_timeout", DURATION, "10s" );
 
+    @Description( "The maximum number of concurrently committing transactions that are committed together, being " +
+                  "appended to the transaction log in one go and applied to the store together. Every transaction " +
+                  "still gets its own id. If committing a batch fails, its transactions are committed again one by one, " +
+                  "so that only the transactions that fail on their own fail. A value of 1 commits every transaction " +
+                  "on its own." )
+    @Internal
+    public static final Setting<Integer> commit_batch_size =
+            buildSetting( "unsupported.dbms.commit_batch_size", INTEGER, "1" ).constraint( min( 1 ) ).build();
+
+    @Description( "How long a committing transaction waits for other transactions to join its batch before the batch " +
+                  "is committed, unless the batch fills up sooner. Only used when `unsupported.dbms.commit_batch_size` " +
+                  "is greater than 1. Waiting adds the window to the commit latency of transactions that commit alone." )
+    @Internal
+    public static final Setting<Duration> commit_batch_window =
+            buildSetting( "unsupported.dbms.commit_batch_window", DURATION, "0ms" ).build();
+
     @Description( "Location of the database plugin directory. Compiled Java JAR files that contain database " +
                  "procedures will be loaded if they are placed in this directory." )
     public static final Setting<File> plugin_dir = pathSetting( "dbms.directories.plugins", "plugins" );
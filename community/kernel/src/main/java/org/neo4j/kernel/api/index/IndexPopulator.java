@@ -27,6 +27,7 @@ import org.neo4j.kernel.api.exceptions.index.IndexEntryConflictException;
 import org.neo4j.kernel.impl.api.index.PhaseTracker;
 import org.neo4j.kernel.impl.api.index.UpdateMode;
 import org.neo4j.kernel.impl.api.index.updater.SwallowingIndexUpdater;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.NodePropertyAccessor;
 import org.neo4j.storageengine.api.schema.IndexSample;
 import org.neo4j.storageengine.api.schema.PopulationProgress;
@@ -160,6 +161,15 @@ public interface IndexPopulator extends IndexConfigProvider
     {   // no-op by default
     }
 
+    /**
+     * Same as {@link #scanCompleted(PhaseTracker)}, for populators that do the work after the scan in parallel and can do so on the given
+     * {@link JobScheduler} instead of on threads of their own.
+     */
+    default void scanCompleted( PhaseTracker phaseTracker, JobScheduler jobScheduler ) throws IndexEntryConflictException
+    {
+        scanCompleted( phaseTracker );
+    }
+
     class Adapter implements IndexPopulator
     {
         @Override
@@ -72,6 +72,7 @@ public class ExecutingQuery
     private final SystemNanoClock clock;
     private final CpuClock cpuClock;
     private final HeapAllocation heapAllocation;
+    private volatile LongSupplier estimatedMemoryUsage = () -> -1;
     private final long cpuTimeNanosWhenQueryStarted;
     private final long heapAllocatedBytesWhenQueryStarted;
     private final Map<String,Object> transactionAnnotationData;
@@ -149,6 +150,15 @@ public class ExecutingQuery
         }
     }
 
+    /**
+     * Registers the estimate of how much memory the execution of this query currently holds on to, e.g. for buffered
+     * rows, as tracked by the Cypher runtime. The supplier should return a negative value if the usage is not tracked.
+     */
+    public void estimatedMemoryUsage( LongSupplier estimatedMemoryUsage )
+    {
+        this.estimatedMemoryUsage = estimatedMemoryUsage;
+    }
+
     // snapshot state
 
     public QuerySnapshot snapshot()
@@ -176,6 +186,7 @@ public class ExecutingQuery
         // just needs to be captured at some point...
         long heapAllocatedBytes = heapAllocation.allocatedBytes( threadExecutingTheQueryId );
         PageCounterValues pageCounters = new PageCounterValues( pageCursorCounters );
+        long estimatedUsedBytes = estimatedMemoryUsage.getAsLong();
 
         // - at this point we are done capturing the "live" state, and can start computing the snapshot -
         long compilationTimeNanos = (status.isPlanning() ? currentTimeNanos : compilationCompletedNanos) - startTimeNanos;
@@ -200,7 +211,8 @@ public class ExecutingQuery
                 status.toMap( currentTimeNanos ),
                 waitingOnLocks,
                 totalActiveLocks - initialActiveLocks,
-                heapAllocatedBytes
+                heapAllocatedBytes,
+                estimatedUsedBytes
         );
     }
 
@@ -43,11 +43,13 @@ public class QuerySnapshot
     private final List<ActiveLock> waitingLocks;
     private final long activeLockCount;
     private final long allocatedBytes;
+    private final long estimatedUsedBytes;
     private final PageCounterValues page;
 
     QuerySnapshot( ExecutingQuery query, CompilerInfo compilerInfo, PageCounterValues page, long compilationTimeMicros,
                    long elapsedTimeMicros, long cpuTimeMicros, long waitTimeMicros, String status,
-                   Map<String,Object> resourceInfo, List<ActiveLock> waitingLocks, long activeLockCount, long allocatedBytes )
+                   Map<String,Object> resourceInfo, List<ActiveLock> waitingLocks, long activeLockCount, long allocatedBytes,
+                   long estimatedUsedBytes )
     {
         this.query = query;
         this.compilerInfo = compilerInfo;
@@ -61,6 +63,7 @@ public class QuerySnapshot
         this.waitingLocks = waitingLocks;
         this.activeLockCount = activeLockCount;
         this.allocatedBytes = allocatedBytes;
+        this.estimatedUsedBytes = estimatedUsedBytes;
     }
 
     public long internalQueryId()
@@ -209,6 +212,17 @@ public class QuerySnapshot
         return allocatedBytes < 0 ? null : allocatedBytes;
     }
 
+    /**
+     * The estimated number of bytes that the query currently holds on to, e.g. for rows buffered by eager operators.
+     *
+     * @return the estimated number of bytes the query holds on to, or {@code null} if the memory usage of the query is
+     * not tracked.
+     */
+    public Long estimatedUsedBytes()
+    {
+        return estimatedUsedBytes < 0 ? null : estimatedUsedBytes;
+    }
+
     public long pageHits()
     {
         return page.hits;
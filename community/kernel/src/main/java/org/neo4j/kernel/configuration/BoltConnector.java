@@ -70,6 +70,13 @@ public class BoltConnector extends Connector
     @Internal
     public final Setting<Integer> unsupported_thread_pool_queue_size;
 
+    @Description( "Messages of a connection whose previous batch of messages completed within this time are executed directly on the " +
+            "network thread that received them, rather than being handed off to the thread pool bound to this connector. A connection " +
+            "whose batch takes longer goes back to the thread pool until one of its batches completes within this time again. " +
+            "0 disables this and always uses the thread pool." )
+    @Internal
+    public final Setting<Duration> unsupported_thread_pool_inline_execution_budget;
+
     // Used by config doc generator
     public BoltConnector()
     {
@@ -92,6 +99,8 @@ public class BoltConnector extends Connector
         this.thread_pool_max_size = group.scope( setting( "thread_pool_max_size", INTEGER, String.valueOf( 400 ) ) );
         this.thread_pool_keep_alive = group.scope( setting( "thread_pool_keep_alive", DURATION, "5m" ) );
         this.unsupported_thread_pool_queue_size = group.scope( setting( "unsupported_thread_pool_queue_size", INTEGER, String.valueOf( 0 ) ) );
+        this.unsupported_thread_pool_inline_execution_budget =
+                group.scope( setting( "unsupported_thread_pool_inline_execution_budget", DURATION, "0s" ) );
     }
 
     public enum EncryptionLevel
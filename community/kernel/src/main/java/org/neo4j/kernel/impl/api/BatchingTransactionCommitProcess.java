@@ -0,0 +1,345 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import org.neo4j.internal.kernel.api.exceptions.TransactionFailureException;
+import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogForceEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogForceWaitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogRotateEvent;
+import org.neo4j.kernel.impl.transaction.tracing.SerializeTransactionEvent;
+import org.neo4j.kernel.impl.transaction.tracing.StoreApplyEvent;
+import org.neo4j.storageengine.api.TransactionApplicationMode;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.INTERNAL;
+
+/**
+ * Commits transactions that are committed concurrently as one batch through another commit process, so that they are
+ * appended to the transaction log in a single call and applied to the store together, instead of every transaction
+ * going through the appender and the appliers on its own.
+ * <p>
+ * Committers queue up their transactions. The first one to get hold of the commit lock waits up to
+ * {@code batchWindowNanos} for the batch to fill up, then commits the queued transactions, at most
+ * {@code maxBatchSize} of them, and hands every committer in the batch the id of its own transaction. If committing
+ * the batch fails, the transactions of the batch that didn't make it into the log are committed again one by one,
+ * so that only the transactions that fail on their own report a failure. Transactions that were appended before the
+ * batch failed can't be committed again and report the failure of the batch. Committers that didn't make it into a
+ * batch wait for the next one, which they may end up committing themselves. The commit events of all committers in
+ * a batch see the batch being appended and applied.
+ * <p>
+ * Waiting for the batch can't be interrupted, since the transaction may be committed by another committer at any time.
+ * An interrupt received while waiting is kept and left set on the committer when the commit returns.
+ * <p>
+ * Only internal commits of single transactions are batched, everything else goes straight to the other commit process.
+ */
+public class BatchingTransactionCommitProcess implements TransactionCommitProcess
+{
+    private static final long BATCH_WINDOW_POLL_NANOS = MICROSECONDS.toNanos( 50 );
+
+    private final TransactionCommitProcess commitProcess;
+    private final int maxBatchSize;
+    private final long batchWindowNanos;
+    private final Queue<PendingCommit> queue = new ConcurrentLinkedQueue<>();
+    private final Lock commitLock = new ReentrantLock();
+
+    public BatchingTransactionCommitProcess( TransactionCommitProcess commitProcess, int maxBatchSize )
+    {
+        this( commitProcess, maxBatchSize, 0 );
+    }
+
+    public BatchingTransactionCommitProcess( TransactionCommitProcess commitProcess, int maxBatchSize, long batchWindowNanos )
+    {
+        this.commitProcess = commitProcess;
+        this.maxBatchSize = maxBatchSize;
+        this.batchWindowNanos = batchWindowNanos;
+    }
+
+    @Override
+    public long commit( TransactionToApply batch, CommitEvent commitEvent, TransactionApplicationMode mode ) throws TransactionFailureException
+    {
+        if ( mode != INTERNAL || batch.next() != null )
+        {
+            return commitProcess.commit( batch, commitEvent, mode );
+        }
+
+        PendingCommit pending = new PendingCommit( batch, commitEvent );
+        queue.add( pending );
+        boolean interrupted = false;
+        while ( !pending.done )
+        {
+            if ( commitLock.tryLock() )
+            {
+                try
+                {
+                    if ( !pending.done )
+                    {
+                        interrupted |= awaitBatch();
+                        commitQueued();
+                    }
+                }
+                finally
+                {
+                    commitLock.unlock();
+                }
+                // transactions queued while the lock was held may have missed the batch, let the first of them take over
+                PendingCommit next = queue.peek();
+                if ( next != null )
+                {
+                    LockSupport.unpark( next.committer );
+                }
+            }
+            else
+            {
+                LockSupport.park( this );
+                // park returns right away while the interrupt flag is set, so clear it to keep waiting without spinning
+                interrupted |= Thread.interrupted();
+            }
+        }
+        if ( interrupted )
+        {
+            Thread.currentThread().interrupt();
+        }
+        return pending.transactionId();
+    }
+
+    /**
+     * Gives concurrent committers up to the batch window to queue up their transactions, unless the batch is full.
+     *
+     * @return whether the committer was interrupted while waiting.
+     */
+    private boolean awaitBatch()
+    {
+        boolean interrupted = false;
+        long deadline = System.nanoTime() + batchWindowNanos;
+        long remaining;
+        while ( (remaining = deadline - System.nanoTime()) > 0 && queue.size() < maxBatchSize )
+        {
+            LockSupport.parkNanos( this, Math.min( remaining, BATCH_WINDOW_POLL_NANOS ) );
+            interrupted |= Thread.interrupted();
+        }
+        return interrupted;
+    }
+
+    private void commitQueued()
+    {
+        List<PendingCommit> commits = new ArrayList<>();
+        PendingCommit pending;
+        while ( commits.size() < maxBatchSize && (pending = queue.poll()) != null )
+        {
+            if ( !commits.isEmpty() )
+            {
+                commits.get( commits.size() - 1 ).transaction.next( pending.transaction );
+            }
+            commits.add( pending );
+        }
+
+        if ( commits.size() == 1 )
+        {
+            commitAlone( commits.get( 0 ) );
+            return;
+        }
+
+        Throwable failure = null;
+        try
+        {
+            commitProcess.commit( commits.get( 0 ).transaction, new BatchCommitEvent( commits ), INTERNAL );
+        }
+        catch ( Throwable t )
+        {
+            failure = t;
+        }
+        for ( PendingCommit commit : commits )
+        {
+            commit.transaction.next( null );
+        }
+        for ( PendingCommit commit : commits )
+        {
+            if ( failure == null )
+            {
+                commit.complete( null );
+            }
+            else if ( commit.transaction.commitment() != null )
+            {
+                // Already in the log, committing it again would append it twice
+                commit.complete( failure );
+            }
+            else
+            {
+                commitAlone( commit );
+            }
+        }
+    }
+
+    private void commitAlone( PendingCommit commit )
+    {
+        Throwable failure = null;
+        try
+        {
+            commitProcess.commit( commit.transaction, commit.commitEvent, INTERNAL );
+        }
+        catch ( Throwable t )
+        {
+            failure = t;
+        }
+        commit.complete( failure );
+    }
+
+    private static class PendingCommit
+    {
+        private final TransactionToApply transaction;
+        private final CommitEvent commitEvent;
+        private final Thread committer = Thread.currentThread();
+        private volatile boolean done;
+        private Throwable failure;
+
+        PendingCommit( TransactionToApply transaction, CommitEvent commitEvent )
+        {
+            this.transaction = transaction;
+            this.commitEvent = commitEvent;
+        }
+
+        void complete( Throwable failure )
+        {
+            this.failure = failure;
+            done = true;
+            LockSupport.unpark( committer );
+        }
+
+        long transactionId() throws TransactionFailureException
+        {
+            if ( failure instanceof TransactionFailureException )
+            {
+                throw (TransactionFailureException) failure;
+            }
+            if ( failure instanceof RuntimeException )
+            {
+                throw (RuntimeException) failure;
+            }
+            if ( failure instanceof Error )
+            {
+                throw (Error) failure;
+            }
+            return transaction.transactionId();
+        }
+    }
+
+    private static <T,E> List<E> eachOf( List<T> events, Function<T,E> begin )
+    {
+        List<E> result = new ArrayList<>( events.size() );
+        for ( T event : events )
+        {
+            result.add( begin.apply( event ) );
+        }
+        return result;
+    }
+
+    /**
+     * Passes the events of committing a batch on to the commit events of all committers in it. Every committer closes
+     * its own commit event once its commit returns.
+     */
+    private static class BatchCommitEvent implements CommitEvent
+    {
+        private final List<CommitEvent> events;
+
+        BatchCommitEvent( List<PendingCommit> commits )
+        {
+            this.events = eachOf( commits, commit -> commit.commitEvent );
+        }
+
+        @Override
+        public void close()
+        {
+        }
+
+        @Override
+        public LogAppendEvent beginLogAppend()
+        {
+            return new BatchLogAppendEvent( eachOf( events, CommitEvent::beginLogAppend ) );
+        }
+
+        @Override
+        public StoreApplyEvent beginStoreApply()
+        {
+            List<StoreApplyEvent> storeApplyEvents = eachOf( events, CommitEvent::beginStoreApply );
+            return () -> storeApplyEvents.forEach( StoreApplyEvent::close );
+        }
+    }
+
+    private static class BatchLogAppendEvent implements LogAppendEvent
+    {
+        private final List<LogAppendEvent> events;
+
+        BatchLogAppendEvent( List<LogAppendEvent> events )
+        {
+            this.events = events;
+        }
+
+        @Override
+        public void close()
+        {
+            events.forEach( LogAppendEvent::close );
+        }
+
+        @Override
+        public void setLogRotated( boolean logRotated )
+        {
+            events.forEach( event -> event.setLogRotated( logRotated ) );
+        }
+
+        @Override
+        public LogRotateEvent beginLogRotate()
+        {
+            List<LogRotateEvent> logRotateEvents = eachOf( events, LogAppendEvent::beginLogRotate );
+            return () -> logRotateEvents.forEach( LogRotateEvent::close );
+        }
+
+        @Override
+        public SerializeTransactionEvent beginSerializeTransaction()
+        {
+            List<SerializeTransactionEvent> serializeEvents = eachOf( events, LogAppendEvent::beginSerializeTransaction );
+            return () -> serializeEvents.forEach( SerializeTransactionEvent::close );
+        }
+
+        @Override
+        public LogForceWaitEvent beginLogForceWait()
+        {
+            List<LogForceWaitEvent> forceWaitEvents = eachOf( events, LogAppendEvent::beginLogForceWait );
+            return () -> forceWaitEvents.forEach( LogForceWaitEvent::close );
+        }
+
+        @Override
+        public LogForceEvent beginLogForce()
+        {
+            List<LogForceEvent> forceEvents = eachOf( events, LogAppendEvent::beginLogForce );
+            return () -> forceEvents.forEach( LogForceEvent::close );
+        }
+    }
+}
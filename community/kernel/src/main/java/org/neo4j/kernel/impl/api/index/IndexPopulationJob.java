@@ -31,6 +31,7 @@ import org.neo4j.kernel.impl.index.schema.ByteBufferFactory;
 import org.neo4j.kernel.impl.index.schema.UnsafeDirectByteBufferAllocator;
 import org.neo4j.memory.GlobalMemoryTracker;
 import org.neo4j.memory.ThreadSafePeakMemoryAllocationTracker;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.schema.CapableIndexDescriptor;
 import org.neo4j.storageengine.api.schema.PopulationProgress;
 import org.neo4j.util.concurrent.Runnables;
@@ -52,18 +53,24 @@ public class IndexPopulationJob implements Runnable
     private final ByteBufferFactory bufferFactory;
     private final ThreadSafePeakMemoryAllocationTracker memoryAllocationTracker;
     private final MultipleIndexPopulator multiPopulator;
+    private final JobScheduler jobScheduler;
     private final CountDownLatch doneSignal = new CountDownLatch( 1 );
 
     private volatile StoreScan<IndexPopulationFailedKernelException> storeScan;
     private volatile boolean cancelled;
 
-    public IndexPopulationJob( MultipleIndexPopulator multiPopulator, IndexingService.Monitor monitor, boolean verifyBeforeFlipping )
+    /**
+     * @param jobScheduler scheduler on which populators can do the work after the scan in parallel.
+     */
+    public IndexPopulationJob( MultipleIndexPopulator multiPopulator, IndexingService.Monitor monitor, boolean verifyBeforeFlipping,
+            JobScheduler jobScheduler )
     {
         this.multiPopulator = multiPopulator;
+        this.jobScheduler = jobScheduler;
         this.monitor = monitor;
         this.verifyBeforeFlipping = verifyBeforeFlipping;
         this.memoryAllocationTracker = new ThreadSafePeakMemoryAllocationTracker( GlobalMemoryTracker.INSTANCE );
-        this.bufferFactory = new ByteBufferFactory( () -> new UnsafeDirectByteBufferAllocator( memoryAllocationTracker ), parseBlockSize() );
+        this.bufferFactory = new ByteBufferFactory( () -> new UnsafeDirectByteBufferAllocator( memoryAllocationTracker ), parseBlockSize(), memoryAllocationTracker );
     }
 
     /**
@@ -118,7 +125,7 @@ public class IndexPopulationJob implements Runnable
                     // We remain in POPULATING state
                     return;
                 }
-                multiPopulator.flipAfterPopulation( verifyBeforeFlipping );
+                multiPopulator.flipAfterPopulation( verifyBeforeFlipping, jobScheduler );
             }
             catch ( Throwable t )
             {
@@ -24,6 +24,7 @@ import org.eclipse.collections.api.set.primitive.MutableIntSet;
 import java.util.function.IntPredicate;
 
 import org.neo4j.helpers.collection.Visitor;
+import org.neo4j.internal.kernel.api.IndexValueDistribution;
 import org.neo4j.kernel.api.index.IndexEntryUpdate;
 import org.neo4j.storageengine.api.NodePropertyAccessor;
 import org.neo4j.kernel.api.labelscan.NodeLabelUpdate;
@@ -84,6 +85,22 @@ public interface IndexStoreView extends NodePropertyAccessor, PropertyLoader
 
     void replaceIndexCounts( long indexId, long uniqueElements, long maxUniqueElements, long indexSize );
 
+    /**
+     * Retrieve the distribution of values of the index, as found by its last sampling. Replacing the counts of an
+     * index resets its distribution to {@link IndexValueDistribution#EMPTY}.
+     */
+    IndexValueDistribution indexValueDistribution( long indexId );
+
+    /**
+     * Distributions are not stored with the index counts, so after a restart an index has none until it is sampled
+     * again. An index whose sampler doesn't build a distribution has {@link IndexValueDistribution#EMPTY} once sampled.
+     *
+     * @return whether the index has been sampled, or populated, since the database started.
+     */
+    boolean hasIndexValueDistribution( long indexId );
+
+    void replaceIndexValueDistribution( long indexId, IndexValueDistribution valueDistribution );
+
     void incrementIndexUpdates( long indexId, long updatesDelta );
 
     @SuppressWarnings( "rawtypes" )
@@ -150,6 +167,23 @@ public interface IndexStoreView extends NodePropertyAccessor, PropertyLoader
         {
         }
 
+        @Override
+        public IndexValueDistribution indexValueDistribution( long indexId )
+        {
+            return IndexValueDistribution.EMPTY;
+        }
+
+        @Override
+        public boolean hasIndexValueDistribution( long indexId )
+        {
+            return true;
+        }
+
+        @Override
+        public void replaceIndexValueDistribution( long indexId, IndexValueDistribution valueDistribution )
+        {
+        }
+
         @Override
         public EntityUpdates nodeAsUpdates( long nodeId )
         {
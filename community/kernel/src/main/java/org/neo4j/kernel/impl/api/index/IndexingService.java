@@ -50,6 +50,7 @@ import org.neo4j.function.ThrowingConsumer;
 import org.neo4j.graphdb.ResourceIterator;
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.helpers.collection.Iterators;
+import org.neo4j.internal.kernel.api.IndexValueDistribution;
 import org.neo4j.internal.kernel.api.InternalIndexState;
 import org.neo4j.internal.kernel.api.TokenNameLookup;
 import org.neo4j.internal.kernel.api.exceptions.schema.IndexNotFoundKernelException;
@@ -124,6 +125,7 @@ public class IndexingService extends LifecycleAdapter implements IndexingUpdateS
     private final Monitor monitor;
     private final SchemaState schemaState;
     private final IndexPopulationJobController populationJobController;
+    private final JobScheduler jobScheduler;
     private final Map<Long,IndexProxy> indexesToDropAfterCompletedRecovery = new HashMap<>();
 
     enum State
@@ -218,6 +220,7 @@ public class IndexingService extends LifecycleAdapter implements IndexingUpdateS
         this.multiPopulatorFactory = multiPopulatorFactory;
         this.internalLogProvider = internalLogProvider;
         this.monitor = monitor;
+        this.jobScheduler = scheduler;
         this.populationJobController = new IndexPopulationJobController( scheduler );
         this.internalLog = internalLogProvider.getLog( getClass() );
         this.userLog = userLogProvider.getLog( getClass() );
@@ -532,6 +535,12 @@ public class IndexingService extends LifecycleAdapter implements IndexingUpdateS
         }
     }
 
+    public IndexValueDistribution indexValueDistribution( SchemaDescriptor descriptor ) throws IndexNotFoundKernelException
+    {
+        final long indexId = indexMapRef.getOnlineIndexId( descriptor );
+        return storeView.indexValueDistribution( indexId );
+    }
+
     @Override
     public void validateBeforeCommit( SchemaDescriptor index, Value[] tuple )
     {
@@ -832,7 +841,7 @@ public class IndexingService extends LifecycleAdapter implements IndexingUpdateS
     private IndexPopulationJob newIndexPopulationJob( EntityType type, boolean verifyBeforeFlipping )
     {
         MultipleIndexPopulator multiPopulator = multiPopulatorFactory.create( storeView, internalLogProvider, type, schemaState );
-        return new IndexPopulationJob( multiPopulator, monitor, verifyBeforeFlipping );
+        return new IndexPopulationJob( multiPopulator, monitor, verifyBeforeFlipping, jobScheduler );
     }
 
     private void startIndexPopulation( IndexPopulationJob job )
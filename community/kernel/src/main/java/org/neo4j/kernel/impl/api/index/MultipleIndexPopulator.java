@@ -48,6 +48,7 @@ import org.neo4j.kernel.api.index.IndexUpdater;
 import org.neo4j.kernel.impl.api.SchemaState;
 import org.neo4j.logging.Log;
 import org.neo4j.logging.LogProvider;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.EntityType;
 import org.neo4j.storageengine.api.NodePropertyAccessor;
 import org.neo4j.storageengine.api.schema.CapableIndexDescriptor;
@@ -81,7 +82,7 @@ import static org.neo4j.kernel.impl.api.index.IndexPopulationFailure.failure;
  * <li>Call to {@link #create()} to create data structures and files to start accepting updates.</li>
  * <li>Call to {@link #indexAllEntities()} (blocking call).</li>
  * <li>While all nodes are being indexed, calls to {@link #queueUpdate(IndexEntryUpdate)} are accepted.</li>
- * <li>Call to {@link #flipAfterPopulation(boolean)} after successful population, or {@link #fail(Throwable)} if not</li>
+ * <li>Call to {@link #flipAfterPopulation(boolean, JobScheduler)} after successful population, or {@link #fail(Throwable)} if not</li>
  * </ol>
  */
 public class MultipleIndexPopulator implements IndexPopulator
@@ -310,13 +311,13 @@ public class MultipleIndexPopulator implements IndexPopulator
         storeView.replaceIndexCounts( indexPopulation.indexId, 0, 0, 0 );
     }
 
-    void flipAfterPopulation( boolean verifyBeforeFlipping )
+    void flipAfterPopulation( boolean verifyBeforeFlipping, JobScheduler jobScheduler )
     {
         for ( IndexPopulation population : populations )
         {
             try
             {
-                population.scanCompleted();
+                population.scanCompleted( jobScheduler );
                 population.flip( verifyBeforeFlipping );
             }
             catch ( Throwable t )
@@ -622,6 +623,7 @@ public class MultipleIndexPopulator implements IndexPopulator
                             }
                             IndexSample sample = populator.sampleResult();
                             storeView.replaceIndexCounts( indexId, sample.uniqueValues(), sample.sampleSize(), sample.indexSize() );
+                            storeView.replaceIndexValueDistribution( indexId, sample.valueDistribution() );
                             populator.close( true );
                             schemaState.clear();
                             return true;
@@ -676,9 +678,9 @@ public class MultipleIndexPopulator implements IndexPopulator
             return batch;
         }
 
-        void scanCompleted() throws IndexEntryConflictException
+        void scanCompleted( JobScheduler jobScheduler ) throws IndexEntryConflictException
         {
-            populator.scanCompleted( phaseTracker );
+            populator.scanCompleted( phaseTracker, jobScheduler );
         }
 
         PopulationProgress progress( PopulationProgress storeScanProgress )
@@ -78,7 +78,8 @@ public class IndexSamplingControllerFactory
                 long updates = output.readFirst();
                 long size = output.readSecond();
                 long threshold = Math.round( config.updateRatio() * size );
-                return updates > threshold;
+                // value distributions are kept in memory only, so sample once more after a restart
+                return updates > threshold || !storeView.hasIndexValueDistribution( indexId );
             }
         };
     }
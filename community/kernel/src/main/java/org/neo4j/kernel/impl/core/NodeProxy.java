@@ -26,6 +26,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.BiConsumer;
 
 import org.neo4j.graphdb.ConstraintViolationException;
 import org.neo4j.graphdb.Direction;
@@ -420,9 +421,20 @@ public class NodeProxy implements Node, RelationshipFactory<Relationship>
     @Override
     public Map<String,Object> getAllProperties()
     {
-        KernelTransaction transaction = safeAcquireTransaction();
         Map<String,Object> properties = new HashMap<>();
+        forEachProperty( ( key, value ) -> properties.put( key, value.asObjectCopy() ) );
+        return properties;
+    }
 
+    /**
+     * Visits all properties of this node straight off the property cursor, without boxing the values into
+     * objects or collecting them into a map first.
+     *
+     * @param visitor called with the name and value of each property.
+     */
+    public void forEachProperty( BiConsumer<String,Value> visitor )
+    {
+        KernelTransaction transaction = safeAcquireTransaction();
         try
         {
             NodeCursor nodes = transaction.ambientNodeCursor();
@@ -432,15 +444,13 @@ public class NodeProxy implements Node, RelationshipFactory<Relationship>
             nodes.properties( propertyCursor );
             while ( propertyCursor.next() )
             {
-                properties.put( token.propertyKeyName( propertyCursor.propertyKey() ),
-                        propertyCursor.propertyValue().asObjectCopy() );
+                visitor.accept( token.propertyKeyName( propertyCursor.propertyKey() ), propertyCursor.propertyValue() );
             }
         }
         catch ( PropertyKeyIdNotFoundKernelException e )
         {
             throw new IllegalStateException( "Property key retrieved through kernel API should exist.", e );
         }
-        return properties;
     }
 
     @Override
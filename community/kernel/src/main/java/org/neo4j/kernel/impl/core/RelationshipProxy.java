@@ -25,6 +25,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.BiConsumer;
 
 import org.neo4j.graphdb.ConstraintViolationException;
 import org.neo4j.graphdb.DatabaseShutdownException;
@@ -315,9 +316,20 @@ public class RelationshipProxy implements Relationship, RelationshipVisitor<Runt
     @Override
     public Map<String, Object> getAllProperties()
     {
-        KernelTransaction transaction = spi.kernelTransaction();
         Map<String,Object> properties = new HashMap<>();
+        forEachProperty( ( key, value ) -> properties.put( key, value.asObjectCopy() ) );
+        return properties;
+    }
 
+    /**
+     * Visits all properties of this relationship straight off the property cursor, without boxing the values into
+     * objects or collecting them into a map first.
+     *
+     * @param visitor called with the name and value of each property.
+     */
+    public void forEachProperty( BiConsumer<String,Value> visitor )
+    {
+        KernelTransaction transaction = spi.kernelTransaction();
         try
         {
             RelationshipScanCursor relationships = transaction.ambientRelationshipCursor();
@@ -327,15 +339,13 @@ public class RelationshipProxy implements Relationship, RelationshipVisitor<Runt
             relationships.properties( propertyCursor );
             while ( propertyCursor.next() )
             {
-                properties.put( token.propertyKeyName( propertyCursor.propertyKey() ),
-                        propertyCursor.propertyValue().asObjectCopy() );
+                visitor.accept( token.propertyKeyName( propertyCursor.propertyKey() ), propertyCursor.propertyValue() );
             }
         }
         catch ( PropertyKeyIdNotFoundKernelException e )
         {
             throw new IllegalStateException( "Property key retrieved through kernel API should exist.", e );
         }
-        return properties;
     }
 
     @Override
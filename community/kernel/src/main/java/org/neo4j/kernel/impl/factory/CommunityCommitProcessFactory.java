@@ -21,6 +21,7 @@ package org.neo4j.kernel.impl.factory;
 
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.api.BatchingTransactionCommitProcess;
 import org.neo4j.kernel.impl.api.CommitProcessFactory;
 import org.neo4j.kernel.impl.api.ReadOnlyTransactionCommitProcess;
 import org.neo4j.kernel.impl.api.TransactionCommitProcess;
@@ -38,6 +39,13 @@ public class CommunityCommitProcessFactory implements CommitProcessFactory
         {
             return new ReadOnlyTransactionCommitProcess();
         }
-        return new TransactionRepresentationCommitProcess( appender, storageEngine );
+        TransactionCommitProcess commitProcess = new TransactionRepresentationCommitProcess( appender, storageEngine );
+        int commitBatchSize = config.get( GraphDatabaseSettings.commit_batch_size );
+        if ( commitBatchSize > 1 )
+        {
+            long batchWindowNanos = config.get( GraphDatabaseSettings.commit_batch_window ).toNanos();
+            return new BatchingTransactionCommitProcess( commitProcess, commitBatchSize, batchWindowNanos );
+        }
+        return commitProcess;
     }
 }
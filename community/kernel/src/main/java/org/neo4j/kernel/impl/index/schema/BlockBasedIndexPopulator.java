@@ -30,13 +30,13 @@ import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.FutureTask;
 import java.util.stream.Collectors;
 
 import org.neo4j.cursor.RawCursor;
+import org.neo4j.index.internal.gbptree.BulkLoader;
 import org.neo4j.index.internal.gbptree.Hit;
 import org.neo4j.index.internal.gbptree.Writer;
 import org.neo4j.io.ByteUnit;
@@ -54,13 +54,15 @@ import org.neo4j.kernel.impl.api.index.PhaseTracker;
 import org.neo4j.kernel.impl.index.schema.ByteBufferFactory.Allocator;
 import org.neo4j.kernel.impl.index.schema.config.IndexSpecificSpaceFillingCurveSettingsCache;
 import org.neo4j.kernel.impl.index.schema.config.SpaceFillingCurveSettingsWriter;
+import org.neo4j.kernel.impl.scheduler.JobSchedulerFactory;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.schema.PopulationProgress;
 import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
 import org.neo4j.util.FeatureToggles;
 import org.neo4j.util.Preconditions;
 import org.neo4j.values.storable.Value;
 
-import static org.neo4j.helpers.collection.Iterables.first;
 import static org.neo4j.io.ByteUnit.kibiBytes;
 import static org.neo4j.kernel.impl.index.schema.BlockStorage.Monitor.NO_MONITOR;
 import static org.neo4j.kernel.impl.index.schema.NativeIndexUpdater.initializeKeyFromUpdate;
@@ -84,6 +86,31 @@ import static org.neo4j.util.concurrent.Runnables.runAll;
 public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,VALUE extends NativeIndexValue> extends NativeIndexPopulator<KEY,VALUE>
 {
     public static final String BLOCK_SIZE_NAME = "blockSize";
+    /**
+     * How much of each tree node to fill when building the tree from the merged scan updates, see {@link BulkLoader}.
+     * Filling nodes completely gives the most compact tree, at the cost of splits for the first updates after population.
+     */
+    private static final double FILL_FACTOR = FeatureToggles.getDouble( BlockBasedIndexPopulator.class, "fillFactor", 1.0 );
+    /**
+     * Total number of threads merging the scan updates. Every part of the scan updates is merged by its own thread, but if there are fewer parts
+     * than this, e.g. when population was done by a single thread, the remaining threads help out merging independent blocks within the parts.
+     * Every merge thread uses {@link #mergeFactor} + 1 buffers of {@link #parseBlockSize() block size}, so the helping threads are also limited
+     * by {@link #MERGE_MEMORY_LIMIT}.
+     */
+    private static final int MERGE_THREADS = FeatureToggles.getInteger( BlockBasedIndexPopulator.class, "mergeThreads", 2 );
+    /**
+     * Merge threads helping out within the parts are only added as long as the direct memory of the population, as tracked by the
+     * {@link ByteBufferFactory#memoryTracker() memory tracker} of its buffers, stays below this limit with their buffers included.
+     */
+    private static final long MERGE_MEMORY_LIMIT =
+            ByteUnit.parse( FeatureToggles.getString( BlockBasedIndexPopulator.class, "mergeMemoryLimit", "256M" ) );
+    /**
+     * Whether or not to {@link PrefixCompressedBlockEntries prefix compress} the scan updates written to the temporary block files.
+     * Reduces I/O and disk usage during population, especially for string and composite keys, at the cost of some CPU. The entity id that
+     * generic keys start with is left out of the shared prefixes, so that they reach the values. Every part of the scan updates is then merged
+     * by a single thread, regardless of {@link #MERGE_THREADS}.
+     */
+    private static final boolean PREFIX_COMPRESSION = FeatureToggles.flag( BlockBasedIndexPopulator.class, "prefixCompression", false );
 
     private final IndexDirectoryStructure directoryStructure;
     private final IndexDropAction dropAction;
@@ -153,10 +180,10 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
     /**
      * Base size of blocks of entries. As entries gets written to a BlockStorage, they are buffered up to this size, then sorted and written out.
      * As blocks gets merged into bigger blocks, this is still the size of the read buffer for each block no matter its size.
-     * Each thread has its own buffer when writing and each thread has {@link #mergeFactor} buffers when merging.
+     * Each thread has its own buffer when writing and each merge thread has {@link #mergeFactor} buffers when merging.
      * The memory usage will be at its biggest during merge and a total memory usage sum can be calculated like so:
      *
-     * blockSize * numberOfPopulationWorkers * {@link #mergeFactor}
+     * blockSize * max( numberOfPopulationWorkers, {@link #MERGE_THREADS} ) * {@link #mergeFactor}
      *
      * where typically {@link BatchingMultipleIndexPopulator} controls the number of population workers. The setting
      * `unsupported.dbms.multi_threaded_schema_index_population_enabled` controls whether or not the multi-threaded {@link BatchingMultipleIndexPopulator}
@@ -242,8 +269,26 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
         return true;
     }
 
+    /**
+     * Runs the merge on a {@link JobScheduler} of its own, for callers that don't have one to pass in, see
+     * {@link #scanCompleted(PhaseTracker, JobScheduler)}.
+     */
     @Override
     public void scanCompleted( PhaseTracker phaseTracker ) throws IndexEntryConflictException
+    {
+        JobScheduler jobScheduler = JobSchedulerFactory.createInitialisedScheduler();
+        try
+        {
+            scanCompleted( phaseTracker, jobScheduler );
+        }
+        finally
+        {
+            IOUtils.closeAllUnchecked( jobScheduler );
+        }
+    }
+
+    @Override
+    public void scanCompleted( PhaseTracker phaseTracker, JobScheduler jobScheduler ) throws IndexEntryConflictException
     {
         if ( !markMergeStarted() )
         {
@@ -252,12 +297,14 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
             return;
         }
 
+        // Merges every part of the scan updates in its own job and later reads ahead of the tree building in another one
+        Executor executor = jobScheduler.executor( Group.INDEX_POPULATION );
         try
         {
             phaseTracker.enterPhase( PhaseTracker.Phase.MERGE );
             if ( !allScanUpdates.isEmpty() )
             {
-                mergeScanUpdates();
+                mergeScanUpdates( executor );
             }
 
             externalUpdates.doneAdding();
@@ -276,7 +323,7 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
                     IndexKeyStorage<KEY> indexKeyStorage = new IndexKeyStorage<>( fileSystem, duplicatesFile, allocator, readBufferSize, layout ) )
             {
                 RecordingConflictDetector<KEY,VALUE> recordingConflictDetector = new RecordingConflictDetector<>( !descriptor.isUnique(), indexKeyStorage );
-                writeScanUpdatesToTree( recordingConflictDetector, allocator, readBufferSize );
+                writeScanUpdatesToTree( recordingConflictDetector, allocator, readBufferSize, executor );
 
                 // Apply the external updates
                 phaseTracker.enterPhase( PhaseTracker.Phase.APPLY_EXTERNAL );
@@ -317,33 +364,53 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
         }
     }
 
-    private void mergeScanUpdates() throws InterruptedException, ExecutionException, IOException
+    private void mergeScanUpdates( Executor executor ) throws InterruptedException, ExecutionException, IOException
     {
-        ExecutorService executorService = Executors.newFixedThreadPool( allScanUpdates.size() );
+        int mergeThreadsPerPart = Math.max( 1, numberOfMergeThreads() / allScanUpdates.size() );
         List<Future<?>> mergeFutures = new ArrayList<>();
         for ( ThreadLocalBlockStorage part : allScanUpdates )
         {
             BlockStorage<KEY,VALUE> scanUpdates = part.blockStorage;
             // Call doneAdding here so that the buffer it allocates if it needs to flush something will be shared with other indexes
             scanUpdates.doneAdding();
-            mergeFutures.add( executorService.submit( () ->
+            FutureTask<Void> mergeFuture = new FutureTask<>( () ->
             {
-                scanUpdates.merge( mergeFactor, cancellation );
+                scanUpdates.merge( mergeFactor, mergeThreadsPerPart, executor, cancellation );
                 return null;
-            } ) );
+            } );
+            executor.execute( mergeFuture );
+            mergeFutures.add( mergeFuture );
         }
-        executorService.shutdown();
-        while ( !executorService.awaitTermination( 1, TimeUnit.SECONDS ) )
+        // Wait for all merges to complete, then let potential exceptions in the merge threads have a chance to propagate
+        ExecutionException mergeFailure = null;
+        for ( Future<?> mergeFuture : mergeFutures )
         {
-            // just wait longer
+            try
+            {
+                mergeFuture.get();
+            }
+            catch ( ExecutionException e )
+            {
+                mergeFailure = mergeFailure == null ? e : mergeFailure;
+            }
         }
-        // Let potential exceptions in the merge threads have a chance to propagate
-        for ( Future<?> mergeFuture : mergeFutures )
+        if ( mergeFailure != null )
         {
-            mergeFuture.get();
+            throw mergeFailure;
         }
     }
 
+    /**
+     * @return {@link #MERGE_THREADS}, or fewer if the buffers of that many merge threads would bring the direct memory of this population
+     * above {@link #MERGE_MEMORY_LIMIT}. Every part of the scan updates gets its own merge thread regardless.
+     */
+    private int numberOfMergeThreads()
+    {
+        long memoryPerMergeThread = (long) (mergeFactor + 1) * bufferFactory.bufferSize();
+        long availableMemory = MERGE_MEMORY_LIMIT - bufferFactory.memoryTracker().usedDirectMemory();
+        return (int) Math.max( 1, Math.min( MERGE_THREADS, availableMemory / memoryPerMergeThread ) );
+    }
+
     /**
      * We will loop over all external updates once to add them to the tree. This is done without checking any uniqueness.
      * If index is a uniqueness index we will then loop over external updates again and for each ADD or CHANGED update
@@ -404,8 +471,8 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
         }
     }
 
-    private void writeScanUpdatesToTree( RecordingConflictDetector<KEY,VALUE> recordingConflictDetector, Allocator allocator, int bufferSize )
-            throws IOException, IndexEntryConflictException
+    private void writeScanUpdatesToTree( RecordingConflictDetector<KEY,VALUE> recordingConflictDetector, Allocator allocator, int bufferSize,
+            Executor executor ) throws IOException, IndexEntryConflictException
     {
         try ( MergingBlockEntryReader<KEY,VALUE> allEntries = new MergingBlockEntryReader<>( layout ) )
         {
@@ -428,18 +495,61 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
                 }
             }
 
-            int asMuchAsPossibleToTheLeft = 1;
-            try ( Writer<KEY,VALUE> writer = tree.writer( asMuchAsPossibleToTheLeft ) )
+            // The merged entries come in sorted order and the tree is empty at this point, so the tree can be built bottom-up.
+            // Entries are merged ahead in another thread, so that merging and building the tree runs concurrently.
+            ByteBuffer[] readAheadBuffers = {allocator.allocate( bufferFactory.bufferSize() ), allocator.allocate( bufferFactory.bufferSize() )};
+            try ( BlockEntryCursor<KEY,VALUE> entries = new ReadAheadBlockEntryCursor<>( layout, allEntries, readAheadBuffers, executor );
+                  BulkLoader<KEY,VALUE> bulkLoader = tree.bulkLoader( FILL_FACTOR ) )
             {
-                while ( allEntries.next() && !cancellation.cancelled() )
+                KEY previousKey = layout.newKey();
+                boolean hasPreviousKey = false;
+                while ( entries.next() && !cancellation.cancelled() )
                 {
-                    writeToTree( writer, recordingConflictDetector, allEntries.key(), allEntries.value() );
+                    KEY key = entries.key();
+                    VALUE value = entries.value();
+                    if ( hasPreviousKey )
+                    {
+                        if ( layout.compare( previousKey, key ) == 0 )
+                        {
+                            // Same value for the same entity, the writer would have merged these into one entry
+                            continue;
+                        }
+                        if ( descriptor.isUnique() && layout.compareValue( previousKey, key ) == 0 )
+                        {
+                            recordConflict( recordingConflictDetector, previousKey, key, value );
+                        }
+                    }
+                    bulkLoader.add( key, value );
+                    layout.copyKey( key, previousKey );
+                    hasPreviousKey = true;
                     numberOfAppliedScanUpdates++;
                 }
+                // A cancelled or failed load is left out of the tree
+                if ( !cancellation.cancelled() )
+                {
+                    bulkLoader.finish();
+                }
             }
         }
     }
 
+    /**
+     * Same value for different entities in a uniqueness index. The conflicting key is recorded and uniqueness for its value
+     * verified when the tree has been built, just like for conflicts seen by {@link #writeToTree(Writer, RecordingConflictDetector, NativeIndexKey,
+     * NativeIndexValue)}. Both entries are still added to the tree.
+     */
+    private void recordConflict( RecordingConflictDetector<KEY,VALUE> recordingConflictDetector, KEY previousKey, KEY key, VALUE value )
+            throws IndexEntryConflictException
+    {
+        recordingConflictDetector.merge( previousKey, key, value, value );
+        if ( recordingConflictDetector.wasConflicting() )
+        {
+            KEY copy = layout.newKey();
+            layout.copyKey( key, copy );
+            recordingConflictDetector.reportConflict( copy );
+        }
+    }
+
     @Override
     public IndexUpdater newPopulatingUpdater()
     {
@@ -552,17 +662,17 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
         // Add merge progress
         if ( !allScanUpdates.isEmpty() )
         {
-            // The parts are merged in parallel so just take the first one and it will represent the whole merge progress.
-            // It will be fairly accurate, but slightly off sometimes if other threads gets scheduling problems, i.e. if this part
-            // finish far apart from others.
+            // The parts are merged in parallel and some of them may be much larger than others, so sum up the merge progress of all of them.
             long completed = 0;
             long total = 0;
-            if ( scanCompleted )
+            if ( scanCompleted && allScanUpdates.stream().allMatch( part -> part.mergeStarted ) )
             {
                 // We know the actual entry count to write during merge since we have been monitoring those values
-                ThreadLocalBlockStorage part = first( allScanUpdates );
-                completed = part.entriesMerged;
-                total = part.totalEntriesToMerge;
+                for ( ThreadLocalBlockStorage part : allScanUpdates )
+                {
+                    completed += part.entriesMerged;
+                    total += part.totalEntriesToMerge;
+                }
             }
             builder.add( PopulationProgress.single( completed, total ), 1 );
         }
@@ -631,7 +741,8 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
         {
             super( blockStorageMonitor );
             File blockFile = new File( storeFile.getParentFile(), storeFile.getName() + ".scan-" + id );
-            this.blockStorage = new BlockStorage<>( layout, bufferFactory, fileSystem, blockFile, this );
+            this.blockStorage = new BlockStorage<>( layout, bufferFactory, fileSystem, blockFile, this,
+                    PREFIX_COMPRESSION ? NativeIndexKey.ENTITY_ID_SIZE : PrefixCompressedBlockEntries.NO_PREFIX_COMPRESSION );
         }
 
         @Override
@@ -28,6 +28,8 @@ import org.neo4j.io.pagecache.PageCursor;
  * Reads {@link BlockEntry} from a block in sequential order. Key and value instances are handed out though {@link #key()} and {@link #value()} but are reused
  * internally so consumer need to either create a copy or finish all operations on key and value before progressing reader.
  * Reader will figure out when to stop reading based on Block header wish contains total size of this Block in bytes and total number of entries in Block.
+ * Entries of a block can be {@link PrefixCompressedBlockEntries prefix compressed}, in which case only the previous key is kept in memory
+ * while decompressing.
  */
 public class BlockEntryReader<KEY,VALUE> implements BlockEntryCursor<KEY,VALUE>
 {
@@ -37,9 +39,19 @@ public class BlockEntryReader<KEY,VALUE> implements BlockEntryCursor<KEY,VALUE>
     private final KEY key;
     private final VALUE value;
     private final Layout<KEY,VALUE> layout;
+    private final PrefixCompressedBlockEntries<KEY,VALUE> compressedEntries;
     private long readEntries;
 
     BlockEntryReader( PageCursor pageCursor, Layout<KEY,VALUE> layout )
+    {
+        this( pageCursor, layout, PrefixCompressedBlockEntries.NO_PREFIX_COMPRESSION );
+    }
+
+    /**
+     * @param compressedKeyHeaderSize key header size of {@link PrefixCompressedBlockEntries prefix compressed} entries, or
+     * {@link PrefixCompressedBlockEntries#NO_PREFIX_COMPRESSION} if entries are not compressed.
+     */
+    BlockEntryReader( PageCursor pageCursor, Layout<KEY,VALUE> layout, int compressedKeyHeaderSize )
     {
         this.pageCursor = pageCursor;
         this.blockSize = pageCursor.getLong();
@@ -47,6 +59,8 @@ public class BlockEntryReader<KEY,VALUE> implements BlockEntryCursor<KEY,VALUE>
         this.layout = layout;
         this.key = layout.newKey();
         this.value = layout.newValue();
+        this.compressedEntries = compressedKeyHeaderSize == PrefixCompressedBlockEntries.NO_PREFIX_COMPRESSION ? null
+                                 : new PrefixCompressedBlockEntries<>( layout, compressedKeyHeaderSize );
     }
 
     public boolean next() throws IOException
@@ -55,7 +69,14 @@ public class BlockEntryReader<KEY,VALUE> implements BlockEntryCursor<KEY,VALUE>
         {
             return false;
         }
-        BlockEntry.read( pageCursor, layout, key, value );
+        if ( compressedEntries != null )
+        {
+            compressedEntries.read( pageCursor, key, value );
+        }
+        else
+        {
+            BlockEntry.read( pageCursor, layout, key, value );
+        }
         readEntries++;
         return true;
     }
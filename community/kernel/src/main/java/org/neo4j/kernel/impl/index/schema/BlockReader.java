@@ -42,13 +42,26 @@ public class BlockReader<KEY,VALUE> implements Closeable
     private final FileSystemAbstraction fs;
     private final File file;
     private final Layout<KEY,VALUE> layout;
+    private final int compressedKeyHeaderSize;
 
     BlockReader( FileSystemAbstraction fs, File file, Layout<KEY,VALUE> layout ) throws IOException
+    {
+        this( fs, file, layout, 0, PrefixCompressedBlockEntries.NO_PREFIX_COMPRESSION );
+    }
+
+    /**
+     * @param position position in the file of the first block to hand out, must be the start of a block.
+     * @param compressedKeyHeaderSize key header size of {@link PrefixCompressedBlockEntries prefix compressed} entries in the blocks, or
+     * {@link PrefixCompressedBlockEntries#NO_PREFIX_COMPRESSION} if entries are not compressed.
+     */
+    BlockReader( FileSystemAbstraction fs, File file, Layout<KEY,VALUE> layout, long position, int compressedKeyHeaderSize ) throws IOException
     {
         this.fs = fs;
         this.file = file;
         this.layout = layout;
+        this.compressedKeyHeaderSize = compressedKeyHeaderSize;
         this.channel = fs.open( file, OpenMode.READ );
+        this.channel.position( position );
     }
 
     BlockEntryReader<KEY,VALUE> nextBlock( ByteBuffer blockBuffer ) throws IOException
@@ -61,7 +74,7 @@ public class BlockReader<KEY,VALUE> implements Closeable
         StoreChannel blockChannel = fs.open( file, OpenMode.READ );
         blockChannel.position( position );
         PageCursor pageCursor = new ReadableChannelPageCursor( new ReadAheadChannel<>( blockChannel, blockBuffer ) );
-        BlockEntryReader<KEY,VALUE> blockEntryReader = new BlockEntryReader<>( pageCursor, layout );
+        BlockEntryReader<KEY,VALUE> blockEntryReader = new BlockEntryReader<>( pageCursor, layout, compressedKeyHeaderSize );
         long blockSize = blockEntryReader.blockSize();
         channel.position( position + blockSize );
         return blockEntryReader;
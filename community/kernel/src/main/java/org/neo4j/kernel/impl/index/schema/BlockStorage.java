@@ -25,8 +25,18 @@ import org.eclipse.collections.impl.factory.Lists;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.IntConsumer;
 
 import org.neo4j.index.internal.gbptree.Layout;
@@ -49,10 +59,16 @@ import static java.lang.Math.ceil;
  * resulting in larger blocks of sorted entries. Those larger blocks are then merge joined back to the original file. Merging continues in this ping pong
  * fashion until there is only a single large block in the resulting file. The entries are now ready to be read in sorted order,
  * call {@link #reader()}.
+ *
+ * Optionally entries in blocks can be {@link PrefixCompressedBlockEntries prefix compressed}. Compressed entries are never larger than
+ * uncompressed ones, so blocks hold as many entries either way. A compressed block only takes the space of its compressed entries and
+ * its header, which holds that length so that readers can find the next block. How well the entries of a block compress depends on which
+ * entries are next to each other, so a merged compressed block isn't necessarily as large as the blocks it was merged from together.
+ * Compressed blocks are therefore merged one group after the other, see {@link #merge(int, int, Executor, Cancellation)}.
  */
 class BlockStorage<KEY, VALUE> implements Closeable
 {
-    static final int BLOCK_HEADER_SIZE = Long.BYTES  // blockSize
+    static final int BLOCK_HEADER_SIZE = Long.BYTES  // blockSize, i.e. the length of the block in the file including this header
                                        + Long.BYTES; // entryCount
 
     private final Layout<KEY,VALUE> layout;
@@ -64,6 +80,7 @@ class BlockStorage<KEY, VALUE> implements Closeable
     private final int blockSize;
     private final ByteBufferFactory bufferFactory;
     private final File blockFile;
+    private final int compressedKeyHeaderSize;
     private long numberOfBlocksInCurrentFile;
     private int currentBufferSize;
     private boolean doneAdding;
@@ -71,10 +88,21 @@ class BlockStorage<KEY, VALUE> implements Closeable
 
     BlockStorage( Layout<KEY,VALUE> layout, ByteBufferFactory bufferFactory, FileSystemAbstraction fs, File blockFile, Monitor monitor )
             throws IOException
+    {
+        this( layout, bufferFactory, fs, blockFile, monitor, PrefixCompressedBlockEntries.NO_PREFIX_COMPRESSION );
+    }
+
+    /**
+     * @param compressedKeyHeaderSize key header size to {@link PrefixCompressedBlockEntries prefix compress} entries with, or
+     * {@link PrefixCompressedBlockEntries#NO_PREFIX_COMPRESSION} to not compress them.
+     */
+    BlockStorage( Layout<KEY,VALUE> layout, ByteBufferFactory bufferFactory, FileSystemAbstraction fs, File blockFile, Monitor monitor,
+            int compressedKeyHeaderSize ) throws IOException
     {
         this.layout = layout;
         this.fs = fs;
         this.blockFile = blockFile;
+        this.compressedKeyHeaderSize = compressedKeyHeaderSize;
         this.monitor = monitor;
         this.blockSize = bufferFactory.bufferSize();
         this.bufferedEntries = Lists.mutable.empty();
@@ -139,6 +167,14 @@ class BlockStorage<KEY, VALUE> implements Closeable
         resetBufferedEntries();
     }
 
+    /**
+     * Merges all blocks using a single thread, see {@link #merge(int, int, Cancellation)}.
+     */
+    public void merge( int mergeFactor, Cancellation cancellation ) throws IOException
+    {
+        merge( mergeFactor, 1, cancellation );
+    }
+
     /**
      * There are two files: sourceFile and targetFile. Blocks are merged, mergeFactor at the time, from source to target. When all blocks from source have
      * been merged into a larger block one merge iteration is done and source and target are flipped. As long as source contain more than a single block more
@@ -146,48 +182,74 @@ class BlockStorage<KEY, VALUE> implements Closeable
      * When source only contain a single block we are finished and the extra file is deleted and {@link #blockFile} contains the result with a single sorted
      * block.
      *
-     * See {@link #performSingleMerge(int, BlockReader, StoreChannel, Cancellation, ByteBuffer[], ByteBuffer)} for further details.
+     * Within a merge iteration every group of mergeFactor consecutive blocks in source is merged independently of the other groups. An uncompressed
+     * merged block is as large as the blocks it was merged from together and so it will end up at the same position in target as its first block had
+     * in source. This means that groups can be merged by multiple threads in parallel, each reading from and writing to its own region of the files.
+     * {@link PrefixCompressedBlockEntries Prefix compressed} blocks are as large as their compressed entries, so their merged blocks are written
+     * one after the other by a single thread.
      *
-     * @param mergeFactor See {@link #performSingleMerge(int, BlockReader, StoreChannel, Cancellation, ByteBuffer[], ByteBuffer)}.
+     * See {@link #performSingleMerge(int, BlockReader, StoreChannel, Cancellation, ByteBuffer[], ByteBuffer, Monitor)} for further details.
+     *
+     * @param mergeFactor See {@link #performSingleMerge(int, BlockReader, StoreChannel, Cancellation, ByteBuffer[], ByteBuffer, Monitor)}.
+     * @param numberOfMergeThreads number of threads merging groups of blocks in parallel. Every thread allocates its own mergeFactor + 1 buffers.
+     * Blocks with prefix compressed entries are always merged by a single thread.
      * @param cancellation Injected so that this merge can be cancelled, if an external request to do that comes in.
      * A cancelled merge will leave the same end state file/channel-wise, just not quite completed, which is fine because the merge
      * was cancelled meaning that the result will not be used for anything other than deletion.
      * @throws IOException If something goes wrong when reading from file.
      */
-    public void merge( int mergeFactor, Cancellation cancellation ) throws IOException
+    public void merge( int mergeFactor, int numberOfMergeThreads, Cancellation cancellation ) throws IOException
+    {
+        int mergeThreads = effectiveNumberOfMergeThreads( numberOfMergeThreads );
+        ExecutorService executor = mergeThreads > 1 ? Executors.newFixedThreadPool( mergeThreads ) : null;
+        try
+        {
+            merge( mergeFactor, numberOfMergeThreads, executor, cancellation );
+        }
+        finally
+        {
+            if ( executor != null )
+            {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Same as {@link #merge(int, int, Cancellation)}, but runs the merge threads on the given {@code executor} instead of on threads of its own.
+     *
+     * @param executor runs the merge threads if {@code numberOfMergeThreads} is larger than one, otherwise the merge happens in the calling thread.
+     * It must be able to run {@code numberOfMergeThreads} jobs at the same time.
+     */
+    public void merge( int mergeFactor, int numberOfMergeThreads, Executor executor, Cancellation cancellation ) throws IOException
     {
         monitor.mergeStarted( entryCount, calculateNumberOfEntriesWrittenDuringMerges( entryCount, numberOfBlocksInCurrentFile, mergeFactor ) );
         File sourceFile = blockFile;
         File tempFile = new File( blockFile.getParent(), blockFile.getName() + ".b" );
-        try ( Allocator mergeBufferAllocator = bufferFactory.newLocalAllocator() )
+        int mergeThreads = effectiveNumberOfMergeThreads( numberOfMergeThreads );
+        Monitor mergeMonitor = mergeThreads > 1 ? new SynchronizedMonitor( monitor ) : monitor;
+        try
         {
             File targetFile = tempFile;
-
-            // Allocate all buffers that will be used and reused for all merge iterations
-            ByteBuffer writeBuffer = mergeBufferAllocator.allocate( bufferFactory.bufferSize() );
-            ByteBuffer[] readBuffers = new ByteBuffer[mergeFactor];
-            for ( int i = 0; i < readBuffers.length; i++ )
-            {
-                readBuffers[i] = mergeBufferAllocator.allocate( bufferFactory.bufferSize() );
-            }
-
-            while ( numberOfBlocksInCurrentFile > 1 )
+            while ( numberOfBlocksInCurrentFile > 1 && !cancellation.cancelled() )
             {
                 // Perform one complete merge iteration, merging all blocks from source into target.
                 // After this step, target will contain fewer blocks than source, but may need another merge iteration.
-                try ( BlockReader<KEY,VALUE> reader = reader( sourceFile );
-                      StoreChannel targetChannel = fs.open( targetFile, OpenMode.READ_WRITE ) )
+                long[] groupPositions = groupPositions( sourceFile, mergeFactor );
+                truncate( targetFile );
+                long blocksMergedSoFar;
+                if ( mergeThreads <= 1 )
                 {
-                    long blocksMergedSoFar = 0;
-                    long blocksInMergedFile = 0;
-                    while ( !cancellation.cancelled() && blocksMergedSoFar < numberOfBlocksInCurrentFile )
-                    {
-                        blocksMergedSoFar += performSingleMerge( mergeFactor, reader, targetChannel, cancellation, readBuffers, writeBuffer );
-                        blocksInMergedFile++;
-                    }
-                    numberOfBlocksInCurrentFile = blocksInMergedFile;
-                    monitor.mergeIterationFinished( blocksMergedSoFar, blocksInMergedFile );
+                    blocksMergedSoFar = mergeGroups( sourceFile, targetFile, groupPositions, new AtomicInteger(), mergeFactor, cancellation, mergeMonitor );
                 }
+                else
+                {
+                    blocksMergedSoFar = mergeGroupsInParallel( executor, mergeThreads, sourceFile, targetFile, groupPositions, mergeFactor,
+                            cancellation, mergeMonitor );
+                }
+                long blocksInMergedFile = groupPositions.length;
+                numberOfBlocksInCurrentFile = blocksInMergedFile;
+                monitor.mergeIterationFinished( blocksMergedSoFar, blocksInMergedFile );
 
                 // Flip and restore the channels
                 File tmpSourceFile = sourceFile;
@@ -209,6 +271,143 @@ class BlockStorage<KEY, VALUE> implements Closeable
         }
     }
 
+    /**
+     * Merged prefix compressed blocks don't keep the positions of their source blocks, so they are merged by a single thread.
+     */
+    private int effectiveNumberOfMergeThreads( int numberOfMergeThreads )
+    {
+        return isPrefixCompressed() ? 1 : numberOfMergeThreads;
+    }
+
+    private long mergeGroupsInParallel( Executor executor, int numberOfMergeThreads, File sourceFile, File targetFile, long[] groupPositions,
+            int mergeFactor, Cancellation cancellation, Monitor mergeMonitor ) throws IOException
+    {
+        AtomicInteger nextGroup = new AtomicInteger();
+        List<Future<Long>> mergers = new ArrayList<>();
+        for ( int i = 0; i < Math.min( numberOfMergeThreads, groupPositions.length ); i++ )
+        {
+            FutureTask<Long> merger =
+                    new FutureTask<>( () -> mergeGroups( sourceFile, targetFile, groupPositions, nextGroup, mergeFactor, cancellation, mergeMonitor ) );
+            executor.execute( merger );
+            mergers.add( merger );
+        }
+        // The merge threads run on an executor that is not ours to shut down, so wait for all of them to let go of the files before returning.
+        // A failed merge thread makes the others stop after the group they are currently merging.
+        long blocksMerged = 0;
+        ExecutionException mergeFailure = null;
+        try
+        {
+            for ( Future<Long> merger : mergers )
+            {
+                try
+                {
+                    blocksMerged += merger.get();
+                }
+                catch ( ExecutionException e )
+                {
+                    nextGroup.set( groupPositions.length );
+                    mergeFailure = mergeFailure == null ? e : mergeFailure;
+                }
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Interrupted while merging" );
+        }
+        if ( mergeFailure != null )
+        {
+            Throwable cause = mergeFailure.getCause();
+            if ( cause instanceof IOException )
+            {
+                throw (IOException) cause;
+            }
+            if ( cause instanceof RuntimeException )
+            {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException( cause );
+        }
+        return blocksMerged;
+    }
+
+    /**
+     * Merges groups of blocks, picking the next group to merge from {@code nextGroup} until there are no more groups left.
+     * Can be called concurrently from multiple threads, all sharing the same {@code nextGroup}.
+     *
+     * @return number of blocks merged by this call.
+     */
+    private long mergeGroups( File sourceFile, File targetFile, long[] groupPositions, AtomicInteger nextGroup, int mergeFactor,
+            Cancellation cancellation, Monitor mergeMonitor ) throws IOException
+    {
+        long blocksMerged = 0;
+        try ( Allocator mergeBufferAllocator = bufferFactory.newLocalAllocator();
+              StoreChannel targetChannel = fs.open( targetFile, OpenMode.READ_WRITE ) )
+        {
+            // Allocate all buffers that will be used and reused for all merges made by this thread
+            ByteBuffer writeBuffer = mergeBufferAllocator.allocate( bufferFactory.bufferSize() );
+            ByteBuffer[] readBuffers = new ByteBuffer[mergeFactor];
+            for ( int i = 0; i < readBuffers.length; i++ )
+            {
+                readBuffers[i] = mergeBufferAllocator.allocate( bufferFactory.bufferSize() );
+            }
+
+            int group;
+            while ( !cancellation.cancelled() && (group = nextGroup.getAndIncrement()) < groupPositions.length )
+            {
+                try ( BlockReader<KEY,VALUE> reader = reader( sourceFile, groupPositions[group] ) )
+                {
+                    if ( !isPrefixCompressed() )
+                    {
+                        // Compressed merged blocks are simply appended, one group after the other
+                        targetChannel.position( groupPositions[group] );
+                    }
+                    blocksMerged += performSingleMerge( mergeFactor, reader, targetChannel, cancellation, readBuffers, writeBuffer, mergeMonitor );
+                }
+            }
+        }
+        return blocksMerged;
+    }
+
+    /**
+     * Empties the given file before a merge iteration writes to it, so that compressed blocks of a previous merge iteration, which may reach
+     * further than the blocks of this one, are not mistaken for more blocks.
+     */
+    private void truncate( File file ) throws IOException
+    {
+        try ( StoreChannel channel = fs.open( file, OpenMode.READ_WRITE ) )
+        {
+            channel.truncate( 0 );
+        }
+    }
+
+    /**
+     * Reads the block headers in the given file to find the start position of every group of mergeFactor consecutive blocks.
+     * The merged block of each group will be written to that same position in the target file.
+     */
+    private long[] groupPositions( File file, int mergeFactor ) throws IOException
+    {
+        long[] positions = new long[(int) ((numberOfBlocksInCurrentFile + mergeFactor - 1) / mergeFactor)];
+        ByteBuffer header = ByteBuffer.allocate( BLOCK_HEADER_SIZE );
+        try ( StoreChannel channel = fs.open( file, OpenMode.READ ) )
+        {
+            long position = 0;
+            for ( long block = 0; block < numberOfBlocksInCurrentFile; block++ )
+            {
+                if ( block % mergeFactor == 0 )
+                {
+                    positions[(int) (block / mergeFactor)] = position;
+                }
+                header.clear();
+                channel.position( position );
+                channel.readAll( header );
+                header.flip();
+                position += header.getLong();
+            }
+        }
+        return positions;
+    }
+
     /**
      * Calculates number of entries that will be written, given an entry count, number of blocks and a merge factor.
      * During merge entries are merged and written, potentially multiple times depending on number of blocks and merge factor.
@@ -247,11 +446,12 @@ class BlockStorage<KEY, VALUE> implements Closeable
      * @param cancellation Injected so that this merge can be cancelled, if an external request to do that comes in.
      * @param readBuffers buffers for all block readers.
      * @param writeBuffer buffer for writing merged blocks.
+     * @param mergeMonitor {@link Monitor} to report merge progress to.
      * @return The number of blocks that where merged, most often this will be equal to mergeFactor but can be less if there are fewer blocks left in source.
      * @throws IOException If something goes wrong when reading from file.
      */
     private int performSingleMerge( int mergeFactor, BlockReader<KEY,VALUE> reader, StoreChannel targetChannel, Cancellation cancellation,
-            ByteBuffer[] readBuffers, ByteBuffer writeBuffer ) throws IOException
+            ByteBuffer[] readBuffers, ByteBuffer writeBuffer, Monitor mergeMonitor ) throws IOException
     {
         try ( MergingBlockEntryReader<KEY,VALUE> merger = new MergingBlockEntryReader<>( layout ) )
         {
@@ -276,18 +476,45 @@ class BlockStorage<KEY, VALUE> implements Closeable
             }
 
             writeBuffer.clear();
-            writeBlock( targetChannel, merger, blockSize, entryCount, cancellation, monitor::entriesMerged, writeBuffer );
-            monitor.mergedBlocks( blockSize, entryCount, blocksMerged );
+            long mergedBlockSize = writeBlock( targetChannel, merger, blockSize, entryCount, cancellation, mergeMonitor::entriesMerged, writeBuffer );
+            mergeMonitor.mergedBlocks( mergedBlockSize, entryCount, blocksMerged );
             return blocksMerged;
         }
     }
 
-    private void writeBlock( StoreChannel targetChannel, BlockEntryCursor<KEY,VALUE> blockEntryCursor, long blockSize, long entryCount,
+    /**
+     * @param blockSize size of the block with uncompressed entries, which they are padded up to. Ignored for prefix compressed entries.
+     * @return size of the written block in the file, including header.
+     */
+    private long writeBlock( StoreChannel targetChannel, BlockEntryCursor<KEY,VALUE> blockEntryCursor, long blockSize, long entryCount,
             Cancellation cancellation, IntConsumer entryCountReporter, ByteBuffer byteBuffer ) throws IOException
     {
-        writeHeader( byteBuffer, blockSize, entryCount );
-        long actualDataSize = writeEntries( targetChannel, byteBuffer, layout, blockEntryCursor, cancellation, entryCountReporter );
-        writeLastEntriesWithPadding( targetChannel, byteBuffer, blockSize - actualDataSize );
+        if ( !isPrefixCompressed() )
+        {
+            writeHeader( byteBuffer, blockSize, entryCount );
+            long actualDataSize = writeEntries( targetChannel, byteBuffer, layout, null, blockEntryCursor, cancellation, entryCountReporter );
+            writeLastEntriesWithPadding( targetChannel, byteBuffer, blockSize - actualDataSize );
+            return blockSize;
+        }
+
+        // The compressed size is known first when all entries have been written, so go back and write it to the header afterwards
+        long blockPosition = targetChannel.position();
+        writeHeader( byteBuffer, 0, entryCount );
+        PrefixCompressedBlockEntries<KEY,VALUE> compressedEntries = new PrefixCompressedBlockEntries<>( layout, compressedKeyHeaderSize );
+        long compressedBlockSize = writeEntries( targetChannel, byteBuffer, layout, compressedEntries, blockEntryCursor, cancellation, entryCountReporter );
+        byteBuffer.flip();
+        targetChannel.writeAll( byteBuffer );
+        byteBuffer.clear();
+        ByteBuffer header = ByteBuffer.allocate( BLOCK_HEADER_SIZE );
+        writeHeader( header, compressedBlockSize, entryCount );
+        header.flip();
+        targetChannel.writeAll( header, blockPosition );
+        return compressedBlockSize;
+    }
+
+    private boolean isPrefixCompressed()
+    {
+        return compressedKeyHeaderSize != PrefixCompressedBlockEntries.NO_PREFIX_COMPRESSION;
     }
 
     private static void writeHeader( ByteBuffer byteBuffer, long blockSize, long entryCount )
@@ -296,8 +523,13 @@ class BlockStorage<KEY, VALUE> implements Closeable
         byteBuffer.putLong( entryCount );
     }
 
+    /**
+     * @param compressedEntries if not {@code null} entries are written {@link PrefixCompressedBlockEntries prefix compressed}.
+     * @return number of bytes written for this block, including header.
+     */
     private static <KEY, VALUE> long writeEntries( StoreChannel targetChannel, ByteBuffer byteBuffer, Layout<KEY,VALUE> layout,
-            BlockEntryCursor<KEY,VALUE> blockEntryCursor, Cancellation cancellation, IntConsumer entryCountReporter ) throws IOException
+            PrefixCompressedBlockEntries<KEY,VALUE> compressedEntries, BlockEntryCursor<KEY,VALUE> blockEntryCursor, Cancellation cancellation,
+            IntConsumer entryCountReporter ) throws IOException
     {
         // Loop over block entries
         long actualDataSize = BLOCK_HEADER_SIZE;
@@ -308,7 +540,6 @@ class BlockStorage<KEY, VALUE> implements Closeable
             KEY key = blockEntryCursor.key();
             VALUE value = blockEntryCursor.value();
             int entrySize = BlockEntry.entrySize( layout, key, value );
-            actualDataSize += entrySize;
             entryCountToReport++;
 
             if ( byteBuffer.remaining() < entrySize )
@@ -327,7 +558,15 @@ class BlockStorage<KEY, VALUE> implements Closeable
                 entryCountToReport = 0;
             }
 
-            BlockEntry.write( pageCursor, layout, key, value );
+            if ( compressedEntries != null )
+            {
+                actualDataSize += compressedEntries.write( pageCursor, key, value );
+            }
+            else
+            {
+                BlockEntry.write( pageCursor, layout, key, value );
+                actualDataSize += entrySize;
+            }
         }
         if ( entryCountToReport > 0 )
         {
@@ -370,7 +609,12 @@ class BlockStorage<KEY, VALUE> implements Closeable
 
     private BlockReader<KEY,VALUE> reader( File file ) throws IOException
     {
-        return new BlockReader<>( fs, file, layout );
+        return reader( file, 0 );
+    }
+
+    private BlockReader<KEY,VALUE> reader( File file, long position ) throws IOException
+    {
+        return new BlockReader<>( fs, file, layout, position, compressedKeyHeaderSize );
     }
 
     public interface Monitor
@@ -478,6 +722,29 @@ class BlockStorage<KEY, VALUE> implements Closeable
         Monitor NO_MONITOR = new Adapter();
     }
 
+    /**
+     * Used when merging with multiple threads, since monitors generally aren't expected to be called concurrently.
+     */
+    private static class SynchronizedMonitor extends Monitor.Delegate
+    {
+        SynchronizedMonitor( Monitor actual )
+        {
+            super( actual );
+        }
+
+        @Override
+        public synchronized void entriesMerged( int entries )
+        {
+            super.entriesMerged( entries );
+        }
+
+        @Override
+        public synchronized void mergedBlocks( long resultingBlockSize, long resultingEntryCount, long numberOfBlocks )
+        {
+            super.mergedBlocks( resultingBlockSize, resultingEntryCount, numberOfBlocks );
+        }
+    }
+
     public interface Cancellation
     {
         boolean cancelled();
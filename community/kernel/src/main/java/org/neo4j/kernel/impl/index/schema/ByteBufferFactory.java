@@ -22,6 +22,7 @@ package org.neo4j.kernel.impl.index.schema;
 import java.nio.ByteBuffer;
 import java.util.function.Supplier;
 
+import org.neo4j.memory.MemoryTracker;
 import org.neo4j.util.Preconditions;
 
 import static java.lang.Math.toIntExact;
@@ -47,12 +48,22 @@ public class ByteBufferFactory implements AutoCloseable
     private final int threadLocalBufferSize;
     private final ThreadLocal<ThreadLocalByteBuffer> threadLocalBuffers = ThreadLocal.withInitial( ThreadLocalByteBuffer::new );
     private final Supplier<Allocator> allocatorFactory;
+    private final MemoryTracker memoryTracker;
 
     public ByteBufferFactory( Supplier<Allocator> allocatorFactory, int threadLocalBufferSize )
+    {
+        this( allocatorFactory, threadLocalBufferSize, MemoryTracker.NONE );
+    }
+
+    /**
+     * @param memoryTracker tracker of the memory allocated by the allocators, used to decide how much more memory to allocate.
+     */
+    public ByteBufferFactory( Supplier<Allocator> allocatorFactory, int threadLocalBufferSize, MemoryTracker memoryTracker )
     {
         this.allocatorFactory = allocatorFactory;
         this.globalAllocator = allocatorFactory.get();
         this.threadLocalBufferSize = threadLocalBufferSize;
+        this.memoryTracker = memoryTracker;
     }
 
     /**
@@ -95,6 +106,14 @@ public class ByteBufferFactory implements AutoCloseable
         return threadLocalBufferSize;
     }
 
+    /**
+     * @return tracker of the memory allocated by the allocators of this factory.
+     */
+    MemoryTracker memoryTracker()
+    {
+        return memoryTracker;
+    }
+
     @Override
     public void close()
     {
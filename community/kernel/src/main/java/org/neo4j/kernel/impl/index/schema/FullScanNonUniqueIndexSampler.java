@@ -29,7 +29,8 @@ import org.neo4j.kernel.impl.api.index.sampling.NonUniqueIndexSampler;
 import org.neo4j.storageengine.api.schema.IndexSample;
 
 /**
- * {@link NonUniqueIndexSampler} which performs a full scans of a {@link GBPTree} in {@link #result()}.
+ * {@link NonUniqueIndexSampler} which performs a full scans of a {@link GBPTree} in {@link #result()}. Since the scan
+ * sees the values in order, it also builds the {@link IndexValueDistributionBuilder distribution} of the values.
  *
  * @param <KEY> type of keys in tree.
  * @param <VALUE> type of values in tree.
@@ -60,6 +61,7 @@ class FullScanNonUniqueIndexSampler<KEY extends NativeIndexKey<KEY>, VALUE exten
         {
             long sampledValues = 0;
             long uniqueValues = 0;
+            IndexValueDistributionBuilder distribution = new IndexValueDistributionBuilder();
 
             // Get the first one so that prev gets initialized
             if ( seek.next() )
@@ -67,6 +69,7 @@ class FullScanNonUniqueIndexSampler<KEY extends NativeIndexKey<KEY>, VALUE exten
                 prev = layout.copyKey( seek.get().key(), prev );
                 sampledValues++;
                 uniqueValues++;
+                long prevCount = 1;
 
                 // Then do the rest
                 while ( seek.next() )
@@ -74,14 +77,18 @@ class FullScanNonUniqueIndexSampler<KEY extends NativeIndexKey<KEY>, VALUE exten
                     Hit<KEY,VALUE> hit = seek.get();
                     if ( layout.compareValue( prev, hit.key() ) != 0 )
                     {
+                        distribution.include( prev, prevCount );
+                        prevCount = 0;
                         uniqueValues++;
                         layout.copyKey( hit.key(), prev );
                     }
                     // else this is a duplicate of the previous one
                     sampledValues++;
+                    prevCount++;
                 }
+                distribution.include( prev, prevCount );
             }
-            return new IndexSample( sampledValues, uniqueValues, sampledValues );
+            return new IndexSample( sampledValues, uniqueValues, sampledValues, distribution.build() );
         }
         catch ( IOException e )
         {
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.neo4j.internal.kernel.api.IndexValueDistribution;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+import static java.util.Comparator.comparingLong;
+
+/**
+ * Builds an {@link IndexValueDistribution} from the distinct values of an index, fed in ascending order together with
+ * the number of entries having each of them. Keeps the most common values in a bounded heap, and takes histogram bounds
+ * every {@code step} entries, halving the bounds and doubling the step whenever there are twice as many as wanted, so
+ * that the number of entries doesn't need to be known up front. Only single property indexes with keys that can be
+ * turned back into values get a distribution.
+ */
+class IndexValueDistributionBuilder
+{
+    static final int MOST_COMMON_VALUES = 16;
+    static final int HISTOGRAM_BUCKETS = 64;
+
+    private final int mostCommonValues;
+    private final int histogramBuckets;
+    private final PriorityQueue<CommonValue> common = new PriorityQueue<>( comparingLong( ( CommonValue c ) -> c.count ) );
+    private final List<Value> bounds = new ArrayList<>();
+    private final List<Long> boundEntries = new ArrayList<>();
+    private long step = 1;
+    private long entries;
+    private long distinctValues;
+    private boolean unsupported;
+
+    IndexValueDistributionBuilder()
+    {
+        this( MOST_COMMON_VALUES, HISTOGRAM_BUCKETS );
+    }
+
+    IndexValueDistributionBuilder( int mostCommonValues, int histogramBuckets )
+    {
+        this.mostCommonValues = mostCommonValues;
+        this.histogramBuckets = histogramBuckets;
+    }
+
+    /**
+     * @param key key holding the next distinct value of the index.
+     * @param count number of entries in the index with that value.
+     */
+    void include( NativeIndexKey<?> key, long count )
+    {
+        if ( unsupported )
+        {
+            return;
+        }
+
+        Value value = null;
+        boolean isCommon = common.size() < mostCommonValues || common.peek().count < count;
+        boolean isBound = entries == 0 || (entries - 1) / step != (entries + count - 1) / step;
+        if ( isCommon || isBound )
+        {
+            Value[] values = key.asValues();
+            if ( values.length != 1 || values[0] == Values.NO_VALUE )
+            {
+                unsupported = true;
+                return;
+            }
+            value = values[0];
+        }
+
+        if ( isCommon )
+        {
+            if ( common.size() == mostCommonValues )
+            {
+                common.poll();
+            }
+            common.add( new CommonValue( value, count ) );
+        }
+        if ( isBound )
+        {
+            bounds.add( value );
+            boundEntries.add( entries );
+            if ( bounds.size() > 2 * histogramBuckets )
+            {
+                compact();
+            }
+        }
+        entries += count;
+        distinctValues++;
+    }
+
+    IndexValueDistribution build()
+    {
+        if ( unsupported || entries == 0 )
+        {
+            return IndexValueDistribution.EMPTY;
+        }
+
+        Value[] commonValues = new Value[common.size()];
+        double[] commonFrequencies = new double[common.size()];
+        for ( int i = commonValues.length - 1; i >= 0; i-- )
+        {
+            CommonValue commonValue = common.poll();
+            commonValues[i] = commonValue.value;
+            commonFrequencies[i] = (double) commonValue.count / entries;
+        }
+
+        Value[] histogramBounds = bounds.toArray( new Value[0] );
+        double[] histogramPositions = new double[histogramBounds.length];
+        for ( int i = 0; i < histogramPositions.length; i++ )
+        {
+            histogramPositions[i] = (double) boundEntries.get( i ) / entries;
+        }
+        return new IndexValueDistribution( distinctValues, commonValues, commonFrequencies, histogramBounds, histogramPositions );
+    }
+
+    private void compact()
+    {
+        int kept = 0;
+        for ( int i = 0; i < bounds.size(); i += 2 )
+        {
+            bounds.set( kept, bounds.get( i ) );
+            boundEntries.set( kept, boundEntries.get( i ) );
+            kept++;
+        }
+        bounds.subList( kept, bounds.size() ).clear();
+        boundEntries.subList( kept, boundEntries.size() ).clear();
+        step *= 2;
+    }
+
+    private static class CommonValue
+    {
+        private final Value value;
+        private final long count;
+
+        CommonValue( Value value, long count )
+        {
+            this.value = value;
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import java.util.Arrays;
+
+import org.neo4j.index.internal.gbptree.Layout;
+import org.neo4j.io.pagecache.ByteArrayPageCursor;
+import org.neo4j.io.pagecache.PageCursor;
+
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.extractKeySize;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.extractTombstone;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.extractValueSize;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.getOverhead;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.putKeyValueSize;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.putTombstone;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.readKeyValueSize;
+
+/**
+ * Serializes and deserializes the sorted {@link BlockEntry entries} of a block, storing only the part of each serialized key which differs from
+ * the key before it. Sorted keys generally share long prefixes, e.g. strings or the leading values of composite keys, so this can make blocks
+ * considerably smaller than with {@link BlockEntry#write(PageCursor, Layout, Object, Object)}.
+ *
+ * Keys may start with a header which is always stored in full and is not part of the shared prefix, e.g. the entity id that
+ * {@link GenericKey generic keys} are serialized with before their values. Neighbouring keys have different entity ids, so without skipping it
+ * their shared prefix would never reach the values.
+ *
+ * Each entry is stored as:
+ * <pre>
+ * [key size and value size, see DynamicSizeUtil][shared prefix length (1-2B), if any][key header][key suffix][value]
+ * </pre>
+ * where the key size is that of the header and suffix. Entries in blocks are never dead, so the tombstone flag of the key size tells whether
+ * or not the entry shares a prefix with the one before it. An entry that shares no prefix is therefore stored exactly like
+ * {@link BlockEntry#write(PageCursor, Layout, Object, Object)} stores it, and no entry ever needs more space than that.
+ *
+ * Instances keep the previous key as state and are therefore not thread safe. A new instance is needed for every block.
+ */
+class PrefixCompressedBlockEntries<KEY,VALUE>
+{
+    /**
+     * Given as key header size to blocks storages and readers whose entries are not prefix compressed.
+     */
+    static final int NO_PREFIX_COMPRESSION = -1;
+    // a one byte shared prefix would need as many bytes for its length as it saves
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int ONE_BYTE_PREFIX_LENGTH_MASK = 0x7F;
+    private static final int FLAG_TWO_BYTE_PREFIX_LENGTH = 0x80;
+    private static final int MAX_PREFIX_LENGTH = 0x7FFF;
+
+    private final Layout<KEY,VALUE> layout;
+    private final int keyHeaderSize;
+    private byte[] previousKey = new byte[0];
+    private int previousKeySize;
+    private byte[] currentKey = new byte[0];
+    private PageCursor previousKeyCursor = new ByteArrayPageCursor( previousKey );
+    private PageCursor currentKeyCursor = new ByteArrayPageCursor( currentKey );
+
+    /**
+     * @param keyHeaderSize number of leading bytes of every serialized key which are always stored in full.
+     */
+    PrefixCompressedBlockEntries( Layout<KEY,VALUE> layout, int keyHeaderSize )
+    {
+        this.layout = layout;
+        this.keyHeaderSize = keyHeaderSize;
+    }
+
+    /**
+     * Writes the given entry, which must not be less than the entry written before it.
+     *
+     * @return number of bytes written, never more than {@link BlockEntry#entrySize(Layout, Object, Object)}.
+     */
+    int write( PageCursor pageCursor, KEY key, VALUE value )
+    {
+        int keySize = layout.keySize( key );
+        int valueSize = layout.valueSize( value );
+        ensureKeyCapacity( keySize );
+        currentKeyCursor.setOffset( 0 );
+        layout.writeKey( currentKeyCursor, key );
+
+        int prefixLength = sharedPrefixLength( keySize );
+        int storedKeySize = keySize - prefixLength;
+        int sizeOffset = pageCursor.getOffset();
+        putKeyValueSize( pageCursor, storedKeySize, valueSize );
+        int prefixLengthSize = 0;
+        if ( prefixLength > 0 )
+        {
+            int offset = pageCursor.getOffset();
+            pageCursor.setOffset( sizeOffset );
+            putTombstone( pageCursor );
+            pageCursor.setOffset( offset );
+            prefixLengthSize = putPrefixLength( pageCursor, prefixLength );
+            pageCursor.putBytes( currentKey, 0, keyHeaderSize );
+            pageCursor.putBytes( currentKey, keyHeaderSize + prefixLength, storedKeySize - keyHeaderSize );
+        }
+        else
+        {
+            pageCursor.putBytes( currentKey, 0, keySize );
+        }
+        layout.writeValue( pageCursor, value );
+
+        swapKeys( keySize );
+        return getOverhead( storedKeySize, valueSize ) + prefixLengthSize + storedKeySize + valueSize;
+    }
+
+    /**
+     * Reads the next entry into the given key and value.
+     */
+    void read( PageCursor pageCursor, KEY key, VALUE value )
+    {
+        long entrySize = readKeyValueSize( pageCursor );
+        int storedKeySize = extractKeySize( entrySize );
+        int prefixLength = extractTombstone( entrySize ) ? getPrefixLength( pageCursor ) : 0;
+        int keySize = storedKeySize + prefixLength;
+        ensureKeyCapacity( keySize );
+        if ( prefixLength > 0 )
+        {
+            pageCursor.getBytes( currentKey, 0, keyHeaderSize );
+            System.arraycopy( previousKey, keyHeaderSize, currentKey, keyHeaderSize, prefixLength );
+            pageCursor.getBytes( currentKey, keyHeaderSize + prefixLength, storedKeySize - keyHeaderSize );
+        }
+        else
+        {
+            pageCursor.getBytes( currentKey, 0, keySize );
+        }
+        currentKeyCursor.setOffset( 0 );
+        layout.readKey( currentKeyCursor, key, keySize );
+        layout.readValue( pageCursor, value, extractValueSize( entrySize ) );
+
+        swapKeys( keySize );
+    }
+
+    private void ensureKeyCapacity( int keySize )
+    {
+        // When reading, the shared prefix is copied from the previous key so both need to be able to hold the key
+        if ( currentKey.length < keySize )
+        {
+            int newLength = Math.max( keySize, currentKey.length * 2 );
+            currentKey = new byte[newLength];
+            previousKey = Arrays.copyOf( previousKey, newLength );
+            currentKeyCursor = new ByteArrayPageCursor( currentKey );
+            previousKeyCursor = new ByteArrayPageCursor( previousKey );
+        }
+    }
+
+    private void swapKeys( int keySize )
+    {
+        byte[] tmp = previousKey;
+        previousKey = currentKey;
+        currentKey = tmp;
+        PageCursor tmpCursor = previousKeyCursor;
+        previousKeyCursor = currentKeyCursor;
+        currentKeyCursor = tmpCursor;
+        previousKeySize = keySize;
+    }
+
+    /**
+     * @return length of the prefix that the current key shares with the previous key after their headers, or 0 if it is too short to be worth sharing.
+     */
+    private int sharedPrefixLength( int keySize )
+    {
+        int max = Math.min( MAX_PREFIX_LENGTH, Math.min( previousKeySize, keySize ) - keyHeaderSize );
+        int length = 0;
+        while ( length < max && previousKey[keyHeaderSize + length] == currentKey[keyHeaderSize + length] )
+        {
+            length++;
+        }
+        return length < MIN_PREFIX_LENGTH ? 0 : length;
+    }
+
+    private static int putPrefixLength( PageCursor pageCursor, int prefixLength )
+    {
+        if ( prefixLength <= ONE_BYTE_PREFIX_LENGTH_MASK )
+        {
+            pageCursor.putByte( (byte) prefixLength );
+            return 1;
+        }
+        pageCursor.putByte( (byte) (FLAG_TWO_BYTE_PREFIX_LENGTH | (prefixLength & ONE_BYTE_PREFIX_LENGTH_MASK)) );
+        pageCursor.putByte( (byte) (prefixLength >>> 7) );
+        return 2;
+    }
+
+    private static int getPrefixLength( PageCursor pageCursor )
+    {
+        int firstByte = pageCursor.getByte() & 0xFF;
+        if ( (firstByte & FLAG_TWO_BYTE_PREFIX_LENGTH) == 0 )
+        {
+            return firstByte;
+        }
+        return (firstByte & ONE_BYTE_PREFIX_LENGTH_MASK) | ((pageCursor.getByte() & 0xFF) << 7);
+    }
+}
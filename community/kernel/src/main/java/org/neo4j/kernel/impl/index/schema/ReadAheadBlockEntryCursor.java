@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+
+import org.neo4j.index.internal.gbptree.Layout;
+import org.neo4j.io.pagecache.ByteArrayPageCursor;
+import org.neo4j.io.pagecache.PageCursor;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Pulls entries from a source {@link BlockEntryCursor} in a separate thread, ahead of the consumer of this cursor. Entries are written into
+ * a small number of buffers which are handed over to the consumer as they fill up, so that e.g. merging of blocks, including reading them
+ * from file, runs concurrently with whatever the consumer does with the merged entries, instead of the two taking turns.
+ * <p>
+ * The reading ahead runs as a task on a given {@link Executor}. It is never interrupted, since the source may read from interruptible
+ * channels, which an interrupt would close. Instead closing this cursor signals the task to stop, which it notices between entries,
+ * or at most {@link #POLL_INTERVAL_MILLIS} later if it's waiting for the consumer to hand back a buffer.
+ * <p>
+ * The source cursor is not closed by this cursor.
+ */
+class ReadAheadBlockEntryCursor<KEY,VALUE> implements BlockEntryCursor<KEY,VALUE>
+{
+    private static final ByteBuffer END = ByteBuffer.allocate( 0 );
+    private static final long POLL_INTERVAL_MILLIS = 10;
+
+    private final Layout<KEY,VALUE> layout;
+    private final BlockEntryCursor<KEY,VALUE> source;
+    private final BlockingQueue<ByteBuffer> freeBuffers;
+    private final BlockingQueue<ByteBuffer> filledBuffers;
+    private final CountDownLatch readAheadStopped = new CountDownLatch( 1 );
+    private final KEY key;
+    private final VALUE value;
+    private volatile Throwable failure;
+    private volatile boolean closed;
+    private ByteBuffer current;
+    private PageCursor currentCursor;
+
+    /**
+     * @param buffers buffers to read ahead into. At least two are needed for the reading to run ahead of the consumer
+     * and every entry must fit in a single buffer.
+     * @param executor runs the reading ahead, occupying one of its threads until the source is exhausted or this cursor is closed.
+     */
+    ReadAheadBlockEntryCursor( Layout<KEY,VALUE> layout, BlockEntryCursor<KEY,VALUE> source, ByteBuffer[] buffers, Executor executor )
+    {
+        this.layout = layout;
+        this.source = source;
+        this.freeBuffers = new ArrayBlockingQueue<>( buffers.length );
+        // +1 for the END marker, so that the read ahead thread never blocks when signaling that it's done
+        this.filledBuffers = new ArrayBlockingQueue<>( buffers.length + 1 );
+        for ( ByteBuffer buffer : buffers )
+        {
+            freeBuffers.add( buffer );
+        }
+        this.key = layout.newKey();
+        this.value = layout.newValue();
+        executor.execute( this::readAhead );
+    }
+
+    private void readAhead()
+    {
+        try
+        {
+            ByteBuffer buffer = nextFreeBuffer();
+            if ( buffer == null )
+            {
+                return;
+            }
+            PageCursor cursor = new ByteArrayPageCursor( buffer );
+            while ( !closed && source.next() )
+            {
+                KEY sourceKey = source.key();
+                VALUE sourceValue = source.value();
+                int entrySize = BlockEntry.entrySize( layout, sourceKey, sourceValue );
+                if ( entrySize > buffer.remaining() )
+                {
+                    if ( buffer.position() == 0 )
+                    {
+                        throw new IllegalStateException( "Entry of size " + entrySize + " doesn't fit in buffer of size " + buffer.capacity() );
+                    }
+                    buffer.flip();
+                    filledBuffers.add( buffer );
+                    buffer = nextFreeBuffer();
+                    if ( buffer == null )
+                    {
+                        return;
+                    }
+                    cursor = new ByteArrayPageCursor( buffer );
+                }
+                BlockEntry.write( cursor, layout, sourceKey, sourceValue );
+            }
+            buffer.flip();
+            filledBuffers.add( buffer );
+        }
+        catch ( InterruptedException e )
+        {
+            // The executor is shutting down
+            Thread.currentThread().interrupt();
+        }
+        catch ( Throwable e )
+        {
+            failure = e;
+        }
+        finally
+        {
+            // There's room for all buffers and the END marker, so handing over filled buffers never blocks
+            filledBuffers.offer( END );
+            readAheadStopped.countDown();
+        }
+    }
+
+    /**
+     * @return the next buffer handed back by the consumer, or {@code null} if this cursor was closed while waiting for it.
+     */
+    private ByteBuffer nextFreeBuffer() throws InterruptedException
+    {
+        ByteBuffer buffer = null;
+        while ( buffer == null && !closed )
+        {
+            buffer = freeBuffers.poll( POLL_INTERVAL_MILLIS, MILLISECONDS );
+        }
+        if ( buffer != null )
+        {
+            buffer.clear();
+        }
+        return buffer;
+    }
+
+    @Override
+    public boolean next() throws IOException
+    {
+        while ( current == null || !current.hasRemaining() )
+        {
+            if ( current == END )
+            {
+                return false;
+            }
+            if ( current != null )
+            {
+                freeBuffers.add( current );
+            }
+            current = takeFilledBuffer();
+            if ( current == END )
+            {
+                throwIfFailed();
+                return false;
+            }
+            currentCursor = new ByteArrayPageCursor( current );
+        }
+        BlockEntry.read( currentCursor, layout, key, value );
+        return true;
+    }
+
+    private ByteBuffer takeFilledBuffer() throws InterruptedIOException
+    {
+        try
+        {
+            return filledBuffers.take();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Interrupted while waiting for entries to be read ahead" );
+        }
+    }
+
+    private void throwIfFailed() throws IOException
+    {
+        Throwable cause = failure;
+        if ( cause instanceof IOException )
+        {
+            throw (IOException) cause;
+        }
+        if ( cause instanceof RuntimeException )
+        {
+            throw (RuntimeException) cause;
+        }
+        if ( cause instanceof Error )
+        {
+            throw (Error) cause;
+        }
+        if ( cause != null )
+        {
+            throw new IOException( cause );
+        }
+    }
+
+    @Override
+    public KEY key()
+    {
+        return key;
+    }
+
+    @Override
+    public VALUE value()
+    {
+        return value;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        closed = true;
+        try
+        {
+            readAheadStopped.await();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Interrupted while waiting for read ahead thread to stop" );
+        }
+    }
+}
@@ -32,6 +32,7 @@ import org.neo4j.kernel.api.index.IndexPopulator;
 import org.neo4j.kernel.api.index.IndexUpdater;
 import org.neo4j.kernel.impl.annotations.ReporterFactory;
 import org.neo4j.kernel.impl.api.index.PhaseTracker;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.NodePropertyAccessor;
 import org.neo4j.storageengine.api.schema.IndexSample;
 import org.neo4j.util.concurrent.Work;
@@ -147,6 +148,12 @@ class WorkSyncedNativeIndexPopulator<KEY extends NativeIndexKey<KEY>, VALUE exte
         actual.scanCompleted( phaseTracker );
     }
 
+    @Override
+    public void scanCompleted( PhaseTracker phaseTracker, JobScheduler jobScheduler ) throws IndexEntryConflictException
+    {
+        actual.scanCompleted( phaseTracker, jobScheduler );
+    }
+
     @Override
     public Map<String,Value> indexConfig()
     {
@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.neo4j.helpers.Exceptions;
+import org.neo4j.internal.kernel.api.IndexValueDistribution;
 import org.neo4j.internal.kernel.api.exceptions.schema.IndexNotFoundKernelException;
 import org.neo4j.storageengine.api.schema.IndexSample;
 import org.neo4j.storageengine.api.schema.IndexSampler;
@@ -68,13 +69,22 @@ public class FusionIndexSampler implements IndexSampler
         long indexSize = 0;
         long uniqueValues = 0;
         long sampleSize = 0;
+        int nonEmptySamples = 0;
+        IndexValueDistribution valueDistribution = IndexValueDistribution.EMPTY;
         for ( IndexSample sample : samples )
         {
             indexSize += sample.indexSize();
             uniqueValues += sample.uniqueValues();
             sampleSize += sample.sampleSize();
+            if ( sample.indexSize() > 0 )
+            {
+                nonEmptySamples++;
+                valueDistribution = sample.valueDistribution();
+            }
         }
-        return new IndexSample( indexSize, uniqueValues, sampleSize );
+        // The distribution of a part only describes the whole index if all values are in that part
+        return new IndexSample( indexSize, uniqueValues, sampleSize,
+                nonEmptySamples == 1 ? valueDistribution : IndexValueDistribution.EMPTY );
     }
 
     @Override
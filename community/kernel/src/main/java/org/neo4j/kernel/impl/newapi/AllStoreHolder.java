@@ -29,6 +29,7 @@ import java.util.function.Predicate;
 import org.neo4j.collection.RawIterator;
 import org.neo4j.helpers.collection.Iterators;
 import org.neo4j.internal.kernel.api.IndexReference;
+import org.neo4j.internal.kernel.api.IndexValueDistribution;
 import org.neo4j.internal.kernel.api.InternalIndexState;
 import org.neo4j.internal.kernel.api.SchemaReadCore;
 import org.neo4j.internal.kernel.api.exceptions.KernelException;
@@ -591,6 +592,16 @@ public class AllStoreHolder extends Read
         return storageReader.indexUniqueValuesPercentage( schema );
     }
 
+    @Override
+    public IndexValueDistribution indexValueDistribution( IndexReference index ) throws IndexNotFoundKernelException
+    {
+        assertValidIndex( index );
+        SchemaDescriptor schema = index.schema();
+        acquireSharedSchemaLock( schema );
+        ktx.assertOpen();
+        return storageReader.indexValueDistribution( schema );
+    }
+
     @Override
     public long indexSize( IndexReference index ) throws IndexNotFoundKernelException
     {
@@ -35,6 +35,38 @@ public interface QueryExecutionEngine
      */
     boolean isPeriodicCommit( String query );
 
+    /**
+     * Prepares a query for repeated execution through {@link #executeQuery(PreparedQuery, MapValue, TransactionalContext)}.
+     * Engines that can't do better simply hold on to the query text.
+     *
+     * @param query the query to prepare.
+     * @return the prepared query.
+     */
+    default PreparedQuery prepareQuery( String query )
+    {
+        boolean periodicCommit = isPeriodicCommit( query );
+        return new PreparedQuery()
+        {
+            @Override
+            public String queryText()
+            {
+                return query;
+            }
+
+            @Override
+            public boolean isPeriodicCommit()
+            {
+                return periodicCommit;
+            }
+        };
+    }
+
+    default Result executeQuery( PreparedQuery query, MapValue parameters, TransactionalContext context )
+            throws QueryExecutionKernelException
+    {
+        return executeQuery( query.queryText(), parameters, context );
+    }
+
     long clearQueryCaches();
 }
 
@@ -25,6 +25,7 @@ import java.util.function.Supplier;
 
 import org.neo4j.collection.PrimitiveLongResourceIterator;
 import org.neo4j.internal.kernel.api.IndexReference;
+import org.neo4j.internal.kernel.api.IndexValueDistribution;
 import org.neo4j.internal.kernel.api.InternalIndexState;
 import org.neo4j.internal.kernel.api.exceptions.EntityNotFoundException;
 import org.neo4j.internal.kernel.api.exceptions.schema.IndexNotFoundKernelException;
@@ -211,6 +212,12 @@ public class RecordStorageReader implements StorageReader
         return indexService.indexUniqueValuesPercentage( descriptor );
     }
 
+    @Override
+    public IndexValueDistribution indexValueDistribution( SchemaDescriptor descriptor ) throws IndexNotFoundKernelException
+    {
+        return indexService.indexValueDistribution( descriptor );
+    }
+
     @Override
     public String indexGetFailure( SchemaDescriptor descriptor ) throws IndexNotFoundKernelException
     {
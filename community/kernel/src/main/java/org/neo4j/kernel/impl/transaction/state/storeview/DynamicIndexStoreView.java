@@ -25,6 +25,7 @@ import org.eclipse.collections.api.set.primitive.MutableIntSet;
 import java.util.function.IntPredicate;
 
 import org.neo4j.helpers.collection.Visitor;
+import org.neo4j.internal.kernel.api.IndexValueDistribution;
 import org.neo4j.internal.kernel.api.exceptions.EntityNotFoundException;
 import org.neo4j.kernel.api.labelscan.LabelScanStore;
 import org.neo4j.kernel.api.labelscan.NodeLabelUpdate;
@@ -112,6 +113,24 @@ public class DynamicIndexStoreView implements IndexStoreView
         neoStoreIndexStoreView.replaceIndexCounts( indexId, uniqueElements, maxUniqueElements, indexSize );
     }
 
+    @Override
+    public IndexValueDistribution indexValueDistribution( long indexId )
+    {
+        return neoStoreIndexStoreView.indexValueDistribution( indexId );
+    }
+
+    @Override
+    public boolean hasIndexValueDistribution( long indexId )
+    {
+        return neoStoreIndexStoreView.hasIndexValueDistribution( indexId );
+    }
+
+    @Override
+    public void replaceIndexValueDistribution( long indexId, IndexValueDistribution valueDistribution )
+    {
+        neoStoreIndexStoreView.replaceIndexValueDistribution( indexId, valueDistribution );
+    }
+
     @Override
     public void incrementIndexUpdates( long indexId, long updatesDelta )
     {
@@ -19,11 +19,14 @@
  */
 package org.neo4j.kernel.impl.transaction.state.storeview;
 
+import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
 import org.eclipse.collections.api.set.primitive.MutableIntSet;
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
 
 import java.util.function.IntPredicate;
 
 import org.neo4j.helpers.collection.Visitor;
+import org.neo4j.internal.kernel.api.IndexValueDistribution;
 import org.neo4j.internal.kernel.api.exceptions.EntityNotFoundException;
 import org.neo4j.kernel.api.labelscan.NodeLabelUpdate;
 import org.neo4j.kernel.impl.api.CountsAccessor;
@@ -61,6 +64,10 @@ public class NeoStoreIndexStoreView implements IndexStoreView
     protected final LockService locks;
     private final CountsTracker counts;
     private final NeoStores neoStores;
+    // Not part of the counts store, so distributions are only known for indexes sampled since the last start.
+    // Background sampling picks up the indexes that have none, see IndexSamplingControllerFactory
+    private final MutableLongObjectMap<IndexValueDistribution> valueDistributions =
+            new LongObjectHashMap<IndexValueDistribution>().asSynchronized();
 
     public NeoStoreIndexStoreView( LockService locks, NeoStores neoStores )
     {
@@ -86,6 +93,25 @@ public class NeoStoreIndexStoreView implements IndexStoreView
             updater.replaceIndexSample( indexId, uniqueElements, maxUniqueElements );
             updater.replaceIndexUpdateAndSize( indexId, 0L, indexSize );
         }
+        valueDistributions.remove( indexId );
+    }
+
+    @Override
+    public IndexValueDistribution indexValueDistribution( long indexId )
+    {
+        return valueDistributions.getIfAbsent( indexId, () -> IndexValueDistribution.EMPTY );
+    }
+
+    @Override
+    public boolean hasIndexValueDistribution( long indexId )
+    {
+        return valueDistributions.containsKey( indexId );
+    }
+
+    @Override
+    public void replaceIndexValueDistribution( long indexId, IndexValueDistribution valueDistribution )
+    {
+        valueDistributions.put( indexId, valueDistribution );
     }
 
     @Override
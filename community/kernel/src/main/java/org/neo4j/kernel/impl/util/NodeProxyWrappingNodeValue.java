@@ -50,6 +50,14 @@ public class NodeProxyWrappingNodeValue extends NodeValue
         return node;
     }
 
+    /**
+     * @return {@code true} if labels and properties have already been read from the store and are held by this value.
+     */
+    public boolean isPopulated()
+    {
+        return labels != null && properties != null;
+    }
+
     @Override
     public <E extends Exception> void writeTo( AnyValueWriter<E> writer ) throws E
     {
@@ -51,6 +51,14 @@ public class RelationshipProxyWrappingValue extends RelationshipValue
         return relationship;
     }
 
+    /**
+     * @return {@code true} if type and properties have already been read from the store and are held by this value.
+     */
+    public boolean isPopulated()
+    {
+        return type != null && properties != null;
+    }
+
     @Override
     public <E extends Exception> void writeTo( AnyValueWriter<E> writer ) throws E
     {
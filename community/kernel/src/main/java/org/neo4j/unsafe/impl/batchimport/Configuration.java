@@ -19,6 +19,9 @@
  */
 package org.neo4j.unsafe.impl.batchimport;
 
+import java.util.Collection;
+import java.util.Collections;
+
 import org.neo4j.io.ByteUnit;
 import org.neo4j.io.os.OsBeanUtil;
 import org.neo4j.kernel.configuration.Config;
@@ -173,6 +176,24 @@ public interface Configuration
         return false;
     }
 
+    /**
+     * Whether or not to use the {@link org.neo4j.unsafe.impl.batchimport.staging.AdaptiveProcessorAssigner feedback-based}
+     * processor assignment, which continuously rebalances processors between all steps of an executing stage,
+     * instead of the {@link org.neo4j.unsafe.impl.batchimport.staging.DynamicProcessorAssigner bottleneck-based} one.
+     */
+    default boolean adaptiveProcessorAssignment()
+    {
+        return false;
+    }
+
+    /**
+     * @return schema indexes and uniqueness constraints to build as part of the import, see {@link SchemaIndexBuilder}.
+     */
+    default Collection<ImportIndexDefinition> indexes()
+    {
+        return Collections.emptyList();
+    }
+
     Configuration DEFAULT = new Configuration()
     {
     };
@@ -270,6 +291,18 @@ public interface Configuration
         {
             return defaults.allowCacheAllocationOnHeap();
         }
+
+        @Override
+        public boolean adaptiveProcessorAssignment()
+        {
+            return defaults.adaptiveProcessorAssignment();
+        }
+
+        @Override
+        public Collection<ImportIndexDefinition> indexes()
+        {
+            return defaults.indexes();
+        }
     }
 
     static Configuration withBatchSize( Configuration config, int batchSize )
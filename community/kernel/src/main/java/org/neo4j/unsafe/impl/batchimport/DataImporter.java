@@ -171,7 +171,15 @@ public class DataImporter
             ExecutionMonitor executionMonitor, Monitor monitor )
                     throws IOException
     {
-        Supplier<EntityImporter> importers = () -> new NodeImporter( stores, idMapper, monitor );
+        importNodes( numRunners, input, stores, idMapper, executionMonitor, monitor, null );
+    }
+
+    public static void importNodes( int numRunners, Input input, BatchingNeoStores stores, IdMapper idMapper,
+            ExecutionMonitor executionMonitor, Monitor monitor, SchemaIndexBuilder schemaIndexBuilder )
+                    throws IOException
+    {
+        Supplier<EntityImporter> importers = () -> new NodeImporter( stores, idMapper, monitor,
+                schemaIndexBuilder != null ? schemaIndexBuilder.newFeeder() : SchemaIndexBuilder.Feeder.NONE );
         importData( NODE_IMPORT_NAME, numRunners, input.nodes(), stores, importers, executionMonitor,
                 new MemoryUsageStatsProvider( stores, idMapper ) );
     }
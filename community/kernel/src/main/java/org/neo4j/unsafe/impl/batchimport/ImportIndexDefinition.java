@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.unsafe.impl.batchimport;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Definition of a schema index, or uniqueness constraint, over a label and one or more property keys which the importer
+ * should build as part of the import, see {@link SchemaIndexBuilder}.
+ */
+public class ImportIndexDefinition
+{
+    private final String label;
+    private final String[] propertyKeys;
+    private final boolean unique;
+
+    private ImportIndexDefinition( String label, String[] propertyKeys, boolean unique )
+    {
+        if ( propertyKeys.length == 0 )
+        {
+            throw new IllegalArgumentException( "Index on " + label + " needs at least one property key" );
+        }
+        this.label = label;
+        this.propertyKeys = propertyKeys;
+        this.unique = unique;
+    }
+
+    public static ImportIndexDefinition index( String label, String... propertyKeys )
+    {
+        return new ImportIndexDefinition( label, propertyKeys, false );
+    }
+
+    public static ImportIndexDefinition uniquenessConstraint( String label, String... propertyKeys )
+    {
+        return new ImportIndexDefinition( label, propertyKeys, true );
+    }
+
+    /**
+     * Parses a definition on the form {@code Label:key1,key2}.
+     *
+     * @param definition the definition string.
+     * @param unique whether or not the parsed definition is a uniqueness constraint.
+     * @return the parsed definition.
+     */
+    public static ImportIndexDefinition parse( String definition, boolean unique )
+    {
+        int colon = definition.indexOf( ':' );
+        if ( colon <= 0 || colon == definition.length() - 1 )
+        {
+            throw new IllegalArgumentException( "Invalid index definition '" + definition + "', expected format Label:key1,key2" );
+        }
+        String[] propertyKeys = definition.substring( colon + 1 ).split( "," );
+        for ( int i = 0; i < propertyKeys.length; i++ )
+        {
+            propertyKeys[i] = propertyKeys[i].trim();
+        }
+        return new ImportIndexDefinition( definition.substring( 0, colon ).trim(), propertyKeys, unique );
+    }
+
+    public String label()
+    {
+        return label;
+    }
+
+    public String[] propertyKeys()
+    {
+        return propertyKeys;
+    }
+
+    public boolean isUnique()
+    {
+        return unique;
+    }
+
+    @Override
+    public boolean equals( Object o )
+    {
+        if ( this == o )
+        {
+            return true;
+        }
+        if ( o == null || getClass() != o.getClass() )
+        {
+            return false;
+        }
+        ImportIndexDefinition that = (ImportIndexDefinition) o;
+        return unique == that.unique && label.equals( that.label ) && Arrays.equals( propertyKeys, that.propertyKeys );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return 31 * Objects.hash( label, unique ) + Arrays.hashCode( propertyKeys );
+    }
+
+    @Override
+    public String toString()
+    {
+        return (unique ? "UNIQUE " : "") + ":" + label + "(" + String.join( ",", propertyKeys ) + ")";
+    }
+}
@@ -162,6 +162,8 @@ public class ImportLogic implements Closeable
     private IdMapper idMapper;
     private long peakMemoryUsage;
     private long availableMemoryForLinking;
+    private SchemaIndexBuilder schemaIndexBuilder;
+    private boolean nodesDeleted;
 
     /**
      * @param storeDir directory which the db will be created in.
@@ -184,13 +186,19 @@ public class ImportLogic implements Closeable
         this.recordFormats = recordFormats;
         this.monitor = monitor;
         this.log = logService.getInternalLogProvider().getLog( getClass() );
-        this.executionMonitor = ExecutionSupervisors.withDynamicProcessorAssignment( executionMonitor, config );
+        this.executionMonitor = config.adaptiveProcessorAssignment()
+                ? ExecutionSupervisors.withAdaptiveProcessorAssignment( executionMonitor, config, log )
+                : ExecutionSupervisors.withDynamicProcessorAssignment( executionMonitor, config );
         this.maxMemory = config.maxMemoryUsage();
     }
 
     public void initialize( Input input ) throws IOException
     {
         log.info( "Import starting" );
+        if ( config.adaptiveProcessorAssignment() )
+        {
+            log.info( "Using adaptive processor assignment" );
+        }
         startTime = currentTimeMillis();
         this.input = input;
         PageCacheArrayFactoryMonitor numberArrayFactoryMonitor = new PageCacheArrayFactoryMonitor();
@@ -253,9 +261,13 @@ public class ImportLogic implements Closeable
     public void importNodes() throws IOException
     {
         // Import nodes, properties, labels
+        if ( !config.indexes().isEmpty() )
+        {
+            schemaIndexBuilder = new SchemaIndexBuilder( fileSystem, storeDir, neoStore, config.indexes(), log );
+        }
         neoStore.startFlushingPageCache();
         DataImporter.importNodes( config.maxNumberOfProcessors(), input, neoStore, idMapper,
-              executionMonitor, storeUpdateMonitor );
+              executionMonitor, storeUpdateMonitor, schemaIndexBuilder );
         neoStore.stopFlushingPageCache();
         updatePeakMemoryUsage();
     }
@@ -274,11 +286,27 @@ public class ImportLogic implements Closeable
             if ( duplicateNodeIds.hasNext() )
             {
                 executeStage( new DeleteDuplicateNodesStage( config, duplicateNodeIds, neoStore, storeUpdateMonitor ) );
+                nodesDeleted = true;
             }
             updatePeakMemoryUsage();
         }
     }
 
+    /**
+     * Completes the schema indexes and uniqueness constraints in {@link Configuration#indexes()}, which have been fed with
+     * entries during {@link #importNodes()}. Requires {@link #prepareIdMapper()} to have been called, since duplicate nodes
+     * may get deleted there.
+     */
+    public void buildSchemaIndexes()
+    {
+        if ( schemaIndexBuilder != null )
+        {
+            schemaIndexBuilder.complete( !nodesDeleted );
+            schemaIndexBuilder.close();
+            schemaIndexBuilder = null;
+        }
+    }
+
     /**
      * Uses {@link IdMapper} as lookup for ID --> nodeId and imports all relationships from {@link Input#relationships()}
      * and writes them into the {@link RelationshipStore}. No linking between relationships is done in this method,
@@ -519,7 +547,7 @@ public class ImportLogic implements Closeable
         String additionalInformation = Objects.toString( state, "Data statistics is not available." );
         executionMonitor.done( successful, totalTimeMillis, format( "%n%s%nPeak memory usage: %s", additionalInformation, bytes( peakMemoryUsage ) ) );
         log.info( "Import completed successfully, took " + duration( totalTimeMillis ) + ". " + additionalInformation );
-        closeAll( nodeRelationshipCache, nodeLabelsCache, idMapper );
+        closeAll( nodeRelationshipCache, nodeLabelsCache, idMapper, schemaIndexBuilder );
     }
 
     private void updatePeakMemoryUsage()
@@ -22,6 +22,7 @@ package org.neo4j.unsafe.impl.batchimport;
 import java.util.Collections;
 
 import org.neo4j.kernel.impl.store.InlineNodeLabels;
+import org.neo4j.kernel.impl.store.NodeLabelsField;
 import org.neo4j.kernel.impl.store.NodeStore;
 import org.neo4j.kernel.impl.store.PropertyStore;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
@@ -54,6 +55,7 @@ public class NodeImporter extends EntityImporter
     private final PropertyStore idPropertyStore;
     private final PropertyRecord idPropertyRecord;
     private final PropertyBlock idPropertyBlock = new PropertyBlock();
+    private final SchemaIndexBuilder.Feeder indexFeeder;
     private String[] labels = new String[10];
     private int labelsCursor;
 
@@ -62,8 +64,14 @@ public class NodeImporter extends EntityImporter
     private boolean hasLabelField;
 
     public NodeImporter( BatchingNeoStores stores, IdMapper idMapper, Monitor monitor )
+    {
+        this( stores, idMapper, monitor, SchemaIndexBuilder.Feeder.NONE );
+    }
+
+    public NodeImporter( BatchingNeoStores stores, IdMapper idMapper, Monitor monitor, SchemaIndexBuilder.Feeder indexFeeder )
     {
         super( stores, monitor );
+        this.indexFeeder = indexFeeder;
         this.labelTokenRepository = stores.getLabelRepository();
         this.idMapper = idMapper;
         this.nodeStore = stores.getNodeStore();
@@ -102,6 +110,20 @@ public class NodeImporter extends EntityImporter
         return true;
     }
 
+    @Override
+    public boolean property( int propertyKeyId, Object value )
+    {
+        indexFeeder.property( propertyKeyId, value );
+        return super.property( propertyKeyId, value );
+    }
+
+    @Override
+    public boolean propertyId( long nextProp )
+    {
+        indexFeeder.unknownProperties();
+        return super.propertyId( nextProp );
+    }
+
     @Override
     public boolean labels( String[] labels )
     {
@@ -133,12 +155,18 @@ public class NodeImporter extends EntityImporter
         }
 
         // Compose the labels
+        long[] labelIds;
         if ( !hasLabelField )
         {
-            long[] labelIds = labelTokenRepository.getOrCreateIds( labels, labelsCursor );
+            labelIds = labelTokenRepository.getOrCreateIds( labels, labelsCursor );
             InlineNodeLabels.putSorted( nodeRecord, labelIds, null, nodeStore.getDynamicLabelStore() );
         }
+        else
+        {
+            labelIds = indexFeeder != SchemaIndexBuilder.Feeder.NONE ? NodeLabelsField.get( nodeRecord, nodeStore ) : null;
+        }
         labelsCursor = 0;
+        indexFeeder.node( nodeRecord.getId(), labelIds );
 
         // Write data to stores
         nodeRecord.setNextProp( createAndWritePropertyChain() );
@@ -161,6 +189,7 @@ public class NodeImporter extends EntityImporter
     public void close()
     {
         super.close();
+        indexFeeder.close();
         monitor.nodesImported( nodeCount );
         nodeStore.setHighestPossibleIdInUse( highestId ); // for the case of #id(long)
     }
@@ -89,6 +89,7 @@ public class ParallelBatchImporter implements BatchImporter
 
             logic.importNodes();
             logic.prepareIdMapper();
+            logic.buildSchemaIndexes();
             logic.importRelationships();
             logic.calculateNodeDegrees();
             logic.linkRelationshipsOfAllTypes();
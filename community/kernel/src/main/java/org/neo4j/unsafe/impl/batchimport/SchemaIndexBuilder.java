@@ -0,0 +1,449 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.unsafe.impl.batchimport;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector;
+import org.neo4j.internal.kernel.api.exceptions.schema.MisconfiguredIndexException;
+import org.neo4j.internal.kernel.api.schema.LabelSchemaDescriptor;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.kernel.api.exceptions.index.IndexEntryConflictException;
+import org.neo4j.kernel.api.index.IndexEntryUpdate;
+import org.neo4j.kernel.api.index.IndexPopulator;
+import org.neo4j.kernel.api.index.IndexProvider;
+import org.neo4j.kernel.api.schema.SchemaDescriptorFactory;
+import org.neo4j.kernel.api.schema.constraints.ConstraintDescriptorFactory;
+import org.neo4j.kernel.impl.api.index.PhaseTracker;
+import org.neo4j.kernel.impl.api.index.sampling.IndexSamplingConfig;
+import org.neo4j.kernel.impl.factory.OperationalMode;
+import org.neo4j.kernel.impl.index.schema.ByteBufferFactory;
+import org.neo4j.kernel.impl.index.schema.GenericNativeIndexProviderFactory;
+import org.neo4j.kernel.impl.index.schema.UnsafeDirectByteBufferAllocator;
+import org.neo4j.kernel.impl.store.SchemaStore;
+import org.neo4j.kernel.impl.store.record.ConstraintRule;
+import org.neo4j.kernel.impl.store.record.DynamicRecord;
+import org.neo4j.kernel.impl.util.ValueUtils;
+import org.neo4j.logging.Log;
+import org.neo4j.memory.GlobalMemoryTracker;
+import org.neo4j.memory.ThreadSafePeakMemoryAllocationTracker;
+import org.neo4j.storageengine.api.schema.IndexDescriptor;
+import org.neo4j.storageengine.api.schema.IndexDescriptorFactory;
+import org.neo4j.storageengine.api.schema.SchemaRule;
+import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
+import org.neo4j.unsafe.impl.batchimport.store.BatchingNeoStores;
+import org.neo4j.values.storable.Value;
+
+import static java.lang.System.currentTimeMillis;
+import static org.neo4j.helpers.Format.duration;
+import static org.neo4j.kernel.impl.index.schema.BlockBasedIndexPopulator.parseBlockSize;
+
+/**
+ * Builds native schema indexes and uniqueness constraints as part of an import, so that the imported database comes up with
+ * these indexes online instead of having to populate them with a full store scan on first startup.
+ * <p>
+ * {@link NodeImporter Node importers} get a {@link Feeder} each, which gets notified about every imported node
+ * and its indexed property values. Entries are handed in batches to {@link IndexPopulator populators} of the
+ * {@link GenericNativeIndexProviderFactory native index provider}, which externally sort entries in thread-local block storages.
+ * When all nodes have been imported {@link #complete(boolean)} merges the sorted blocks, builds the trees, marks the indexes
+ * as online and writes their schema rules into the schema store.
+ * <p>
+ * An index which couldn't be built during the import, e.g. due to a value not fitting in the index, still gets its schema rule
+ * written so that it is populated normally on first startup. A uniqueness constraint which is violated by the imported data is
+ * not created at all.
+ */
+public class SchemaIndexBuilder implements AutoCloseable
+{
+    private static final int BATCH_SIZE = 1_000;
+
+    private final BatchingNeoStores stores;
+    private final Log log;
+    private final ByteBufferFactory bufferFactory;
+    private final BuildingIndex[] indexes;
+    // Sorted distinct property key ids of all indexes, used as slots when collecting property values of a node
+    private final int[] indexedPropertyKeys;
+
+    public SchemaIndexBuilder( FileSystemAbstraction fileSystem, File databaseDirectory, BatchingNeoStores stores,
+            Collection<ImportIndexDefinition> definitions, Log log )
+    {
+        this.stores = stores;
+        this.log = log;
+        IndexProvider provider = GenericNativeIndexProviderFactory.create( stores.getPageCache(), databaseDirectory, fileSystem,
+                IndexProvider.Monitor.EMPTY, stores.getNeo4jConfig(), OperationalMode.single, RecoveryCleanupWorkCollector.immediate() );
+        IndexSamplingConfig samplingConfig = new IndexSamplingConfig( stores.getNeo4jConfig() );
+        ThreadSafePeakMemoryAllocationTracker memoryTracker = new ThreadSafePeakMemoryAllocationTracker( GlobalMemoryTracker.INSTANCE );
+        this.bufferFactory = new ByteBufferFactory( () -> new UnsafeDirectByteBufferAllocator( memoryTracker ), parseBlockSize(), memoryTracker );
+
+        Set<LabelSchemaDescriptor> seenSchemas = new HashSet<>();
+        Set<Integer> propertyKeys = new TreeSet<>();
+        SchemaStore schemaStore = stores.getNeoStores().getSchemaStore();
+        this.indexes = new BuildingIndex[definitions.size()];
+        int i = 0;
+        for ( ImportIndexDefinition definition : definitions )
+        {
+            int labelId = stores.getLabelRepository().getOrCreateId( definition.label() );
+            int[] propertyKeyIds = new int[definition.propertyKeys().length];
+            for ( int k = 0; k < propertyKeyIds.length; k++ )
+            {
+                propertyKeyIds[k] = stores.getPropertyKeyRepository().getOrCreateId( definition.propertyKeys()[k] );
+                propertyKeys.add( propertyKeyIds[k] );
+            }
+            LabelSchemaDescriptor schema = SchemaDescriptorFactory.forLabel( labelId, propertyKeyIds );
+            if ( !seenSchemas.add( schema ) )
+            {
+                throw new IllegalArgumentException( "Multiple indexes defined for " + definition );
+            }
+            indexes[i++] = new BuildingIndex( definition, schema, provider, schemaStore, samplingConfig );
+        }
+        this.indexedPropertyKeys = propertyKeys.stream().mapToInt( Integer::intValue ).toArray();
+        for ( BuildingIndex index : indexes )
+        {
+            index.propertyKeySlots = Arrays.stream( index.schema.getPropertyIds() )
+                    .map( propertyKeyId -> Arrays.binarySearch( indexedPropertyKeys, propertyKeyId ) ).toArray();
+        }
+    }
+
+    /**
+     * @return a new {@link Feeder} for a single importer thread to use.
+     */
+    public Feeder newFeeder()
+    {
+        return new PopulatingFeeder();
+    }
+
+    /**
+     * Completes building of all indexes and writes their schema rules to the schema store.
+     *
+     * @param allEntriesFed whether or not the entries fed into the indexes reflect the imported nodes. This is
+     * not the case if nodes were deleted after having been imported, e.g. duplicate nodes. Indexes will then not be built
+     * during import, only their schema rules written.
+     */
+    public void complete( boolean allEntriesFed )
+    {
+        SchemaStore schemaStore = stores.getNeoStores().getSchemaStore();
+        for ( BuildingIndex index : indexes )
+        {
+            if ( !allEntriesFed )
+            {
+                index.fail( "nodes were deleted after having been imported" );
+            }
+
+            long startTime = currentTimeMillis();
+            boolean conflicting = false;
+            if ( !index.failed )
+            {
+                try
+                {
+                    index.populator.scanCompleted( PhaseTracker.nullInstance );
+                    index.populator.close( true );
+                    index.completed = true;
+                    log.info( "Built index %s with %d entries, took %s", index.definition, index.entries.sum(),
+                            duration( currentTimeMillis() - startTime ) );
+                }
+                catch ( IndexEntryConflictException e )
+                {
+                    conflicting = true;
+                    log.warn( "Uniqueness constraint %s will not be created since the imported data violates it: %s",
+                            index.definition, e.getMessage() );
+                }
+                catch ( RuntimeException e )
+                {
+                    index.fail( e.getMessage() );
+                }
+            }
+            if ( !index.completed )
+            {
+                index.populator.drop();
+                index.completed = true;
+                if ( !conflicting )
+                {
+                    log.warn( "Index %s could not be built during import (%s), it will be populated on first startup",
+                            index.definition, index.failure );
+                }
+            }
+
+            if ( !conflicting )
+            {
+                if ( index.constraintRule != null )
+                {
+                    writeRule( schemaStore, index.constraintRule );
+                }
+                writeRule( schemaStore, index.descriptor );
+            }
+        }
+    }
+
+    private static void writeRule( SchemaStore schemaStore, SchemaRule rule )
+    {
+        for ( DynamicRecord record : schemaStore.allocateFrom( rule ) )
+        {
+            schemaStore.updateRecord( record );
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        for ( BuildingIndex index : indexes )
+        {
+            if ( !index.completed )
+            {
+                index.populator.close( false );
+            }
+        }
+        bufferFactory.close();
+    }
+
+    /**
+     * Receives nodes from a single importer thread.
+     */
+    public interface Feeder extends AutoCloseable
+    {
+        /**
+         * Called for every property of the current node.
+         */
+        void property( int propertyKeyId, Object value );
+
+        /**
+         * Called when the property chain of the current node is given as a record id, so values aren't visible.
+         */
+        void unknownProperties();
+
+        /**
+         * Called after all properties of a node has been given.
+         *
+         * @param nodeId id of the node.
+         * @param labelIds label ids of the node.
+         */
+        void node( long nodeId, long[] labelIds );
+
+        @Override
+        void close();
+
+        Feeder NONE = new Feeder()
+        {
+            @Override
+            public void property( int propertyKeyId, Object value )
+            {   // no-op
+            }
+
+            @Override
+            public void unknownProperties()
+            {   // no-op
+            }
+
+            @Override
+            public void node( long nodeId, long[] labelIds )
+            {   // no-op
+            }
+
+            @Override
+            public void close()
+            {   // no-op
+            }
+        };
+    }
+
+    private class PopulatingFeeder implements Feeder
+    {
+        private final Value[] values = new Value[indexedPropertyKeys.length];
+        private final List<List<IndexEntryUpdate<?>>> batches = new ArrayList<>();
+        private boolean hasUnknownProperties;
+
+        PopulatingFeeder()
+        {
+            for ( int i = 0; i < indexes.length; i++ )
+            {
+                batches.add( new ArrayList<>( BATCH_SIZE ) );
+            }
+        }
+
+        @Override
+        public void property( int propertyKeyId, Object value )
+        {
+            int slot = Arrays.binarySearch( indexedPropertyKeys, propertyKeyId );
+            if ( slot >= 0 )
+            {
+                values[slot] = ValueUtils.asValue( value );
+            }
+        }
+
+        @Override
+        public void unknownProperties()
+        {
+            hasUnknownProperties = true;
+        }
+
+        @Override
+        public void node( long nodeId, long[] labelIds )
+        {
+            for ( int i = 0; i < indexes.length; i++ )
+            {
+                BuildingIndex index = indexes[i];
+                if ( index.failed || !contains( labelIds, index.schema.getLabelId() ) )
+                {
+                    continue;
+                }
+                if ( hasUnknownProperties )
+                {
+                    index.fail( "property values of node " + nodeId + " not available" );
+                    continue;
+                }
+
+                Value[] indexValues = index.valuesFrom( values );
+                if ( indexValues != null )
+                {
+                    List<IndexEntryUpdate<?>> batch = batches.get( i );
+                    batch.add( IndexEntryUpdate.add( nodeId, index.descriptor, indexValues ) );
+                    if ( batch.size() >= BATCH_SIZE )
+                    {
+                        flush( i );
+                    }
+                }
+            }
+            Arrays.fill( values, null );
+            hasUnknownProperties = false;
+        }
+
+        private void flush( int i )
+        {
+            List<IndexEntryUpdate<?>> batch = batches.get( i );
+            indexes[i].add( batch );
+            batches.set( i, new ArrayList<>( BATCH_SIZE ) );
+        }
+
+        @Override
+        public void close()
+        {
+            for ( int i = 0; i < indexes.length; i++ )
+            {
+                if ( !batches.get( i ).isEmpty() )
+                {
+                    flush( i );
+                }
+            }
+        }
+
+        private boolean contains( long[] labelIds, int labelId )
+        {
+            for ( long candidate : labelIds )
+            {
+                if ( candidate == labelId )
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private class BuildingIndex
+    {
+        private final ImportIndexDefinition definition;
+        private final LabelSchemaDescriptor schema;
+        private final StoreIndexDescriptor descriptor;
+        private final ConstraintRule constraintRule;
+        private final IndexPopulator populator;
+        private final LongAdder entries = new LongAdder();
+        private int[] propertyKeySlots;
+        private volatile boolean failed;
+        private volatile String failure;
+        private boolean completed;
+
+        BuildingIndex( ImportIndexDefinition definition, LabelSchemaDescriptor schema, IndexProvider provider, SchemaStore schemaStore,
+                IndexSamplingConfig samplingConfig )
+        {
+            this.definition = definition;
+            this.schema = schema;
+            long indexId = schemaStore.nextId();
+            IndexDescriptor index = definition.isUnique()
+                    ? IndexDescriptorFactory.uniqueForSchema( schema, provider.getProviderDescriptor() )
+                    : IndexDescriptorFactory.forSchema( schema, provider.getProviderDescriptor() );
+            try
+            {
+                if ( definition.isUnique() )
+                {
+                    long constraintId = schemaStore.nextId();
+                    this.descriptor = provider.bless( index ).withIds( indexId, constraintId );
+                    this.constraintRule = ConstraintRule.constraintRule( constraintId, ConstraintDescriptorFactory.uniqueForSchema( schema ), indexId );
+                }
+                else
+                {
+                    this.descriptor = provider.bless( index ).withId( indexId );
+                    this.constraintRule = null;
+                }
+            }
+            catch ( MisconfiguredIndexException e )
+            {
+                throw new IllegalArgumentException( "Index " + definition + " was refused by index provider " + provider.getProviderDescriptor(), e );
+            }
+            this.populator = provider.getPopulator( descriptor, samplingConfig, bufferFactory );
+            populator.create();
+        }
+
+        Value[] valuesFrom( Value[] nodeValues )
+        {
+            Value[] result = new Value[propertyKeySlots.length];
+            for ( int i = 0; i < result.length; i++ )
+            {
+                result[i] = nodeValues[propertyKeySlots[i]];
+                if ( result[i] == null )
+                {
+                    return null;
+                }
+            }
+            return result;
+        }
+
+        void add( List<IndexEntryUpdate<?>> batch )
+        {
+            if ( failed )
+            {
+                return;
+            }
+            try
+            {
+                populator.add( batch );
+                entries.add( batch.size() );
+            }
+            catch ( IndexEntryConflictException | RuntimeException e )
+            {
+                fail( e.getMessage() );
+            }
+        }
+
+        void fail( String failure )
+        {
+            if ( !failed )
+            {
+                this.failure = failure;
+                this.failed = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.unsafe.impl.batchimport.staging;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.logging.Log;
+import org.neo4j.unsafe.impl.batchimport.Configuration;
+import org.neo4j.unsafe.impl.batchimport.stats.Keys;
+import org.neo4j.unsafe.impl.batchimport.stats.Stat;
+
+import static java.lang.Math.abs;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Alternative to {@link DynamicProcessorAssigner} which, instead of moving one processor at a time to or from
+ * the current bottleneck, continuously steers the processor distribution of all steps in an execution towards
+ * a target distribution, using a simple proportional feedback loop:
+ * <ul>
+ * <li>The cost of a step is its {@link Keys#avg_processing_time average processing time} multiplied by
+ * its current number of processors, i.e. roughly the time one processor needs for one batch.</li>
+ * <li>The target number of processors for a step is its share of the total cost of all steps still executing,
+ * multiplied by {@link Configuration#maxNumberOfProcessors()}. Steps having equal throughput is what
+ * makes a stage go fastest.</li>
+ * <li>Each check moves every step a fraction ({@link #GAIN}) of the way towards its target. Processors are
+ * released before they are assigned so that the total never exceeds {@link Configuration#maxNumberOfProcessors()}.
+ * Steps that have no queued batches are starved by upstream and will not get more processors.</li>
+ * <li>A step isn't changed again until {@link Configuration#movingAverageSize()} batches have passed through it
+ * since its last change, so that its statistics reflect the new assignment.</li>
+ * </ul>
+ * Every decision is logged so that behaviour of an import can be analyzed afterwards.
+ */
+public class AdaptiveProcessorAssigner extends ExecutionMonitor.Adapter
+{
+    static final float GAIN = 0.5f;
+    static final long DEFAULT_INTERVAL_MILLIS = 500;
+
+    private final Configuration config;
+    private final Log log;
+    private final int availableProcessors;
+    private final Map<Step<?>,Long/*done batches*/> lastChangedProcessors = new HashMap<>();
+
+    public AdaptiveProcessorAssigner( Configuration config, Log log )
+    {
+        super( DEFAULT_INTERVAL_MILLIS, MILLISECONDS );
+        this.config = config;
+        this.log = log;
+        this.availableProcessors = config.maxNumberOfProcessors();
+    }
+
+    @Override
+    public void start( StageExecution execution )
+    {   // A new stage begins, any data that we had is irrelevant
+        lastChangedProcessors.clear();
+    }
+
+    @Override
+    public void check( StageExecution execution )
+    {
+        if ( !execution.stillExecuting() )
+        {
+            return;
+        }
+
+        List<StepState> states = new ArrayList<>();
+        long totalCost = 0;
+        int assigned = 0;
+        for ( Step<?> step : execution.steps() )
+        {
+            if ( step.isCompleted() )
+            {
+                continue;
+            }
+            StepState state = new StepState( step );
+            states.add( state );
+            totalCost += state.cost;
+            assigned += state.processors;
+        }
+        if ( totalCost == 0 )
+        {   // No statistics to go on yet
+            return;
+        }
+
+        for ( StepState state : states )
+        {
+            state.target = max( 1f, (float) availableProcessors * state.cost / totalCost );
+        }
+
+        // Release processors first so that they can be given to steps in need in the same round
+        for ( StepState state : states )
+        {
+            float error = state.target - state.processors;
+            if ( error <= -1f && mayChange( state ) )
+            {
+                assigned += apply( execution, state, -steps( error ) );
+            }
+        }
+
+        int permits = availableProcessors - assigned;
+        for ( StepState state : states )
+        {
+            float error = state.target - state.processors;
+            if ( permits > 0 && error >= 1f && state.queued > 0 && mayChange( state ) )
+            {
+                permits -= apply( execution, state, min( steps( error ), permits ) );
+            }
+        }
+    }
+
+    private static int steps( float error )
+    {
+        return max( 1, Math.round( abs( error ) * GAIN ) );
+    }
+
+    private boolean mayChange( StepState state )
+    {
+        Long doneBatchesAtLastChange = lastChangedProcessors.get( state.step );
+        return doneBatchesAtLastChange == null || state.doneBatches - doneBatchesAtLastChange >= config.movingAverageSize();
+    }
+
+    private int apply( StageExecution execution, StepState state, int delta )
+    {
+        int before = state.processors;
+        int after = state.step.processors( delta );
+        if ( after != before )
+        {
+            lastChangedProcessors.put( state.step, state.doneBatches );
+            log.info( "%s: %s processors %d -> %d (avg:%dms, cost:%dms, queued:%d, target:%.1f)",
+                    execution.name(), state.step.name(), before, after, state.avg, state.cost, state.queued, state.target );
+        }
+        return after - before;
+    }
+
+    private static long stat( Step<?> step, Keys key )
+    {
+        Stat stat = step.stats().stat( key );
+        return stat != null ? stat.asLong() : 0;
+    }
+
+    private static class StepState
+    {
+        private final Step<?> step;
+        private final int processors;
+        private final long avg;
+        private final long cost;
+        private final long doneBatches;
+        private final long queued;
+        private float target;
+
+        StepState( Step<?> step )
+        {
+            this.step = step;
+            this.processors = step.processors( 0 );
+            this.avg = stat( step, Keys.avg_processing_time );
+            this.cost = avg * processors;
+            this.doneBatches = stat( step, Keys.done_batches );
+            this.queued = max( 0, stat( step, Keys.received_batches ) - doneBatches );
+        }
+    }
+}
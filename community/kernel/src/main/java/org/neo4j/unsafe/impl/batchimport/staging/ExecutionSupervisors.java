@@ -19,6 +19,7 @@
  */
 package org.neo4j.unsafe.impl.batchimport.staging;
 
+import org.neo4j.logging.Log;
 import org.neo4j.time.Clocks;
 import org.neo4j.unsafe.impl.batchimport.Configuration;
 
@@ -106,4 +107,19 @@ public class ExecutionSupervisors
         DynamicProcessorAssigner dynamicProcessorAssigner = new DynamicProcessorAssigner( config );
         return new MultiExecutionMonitor( monitor, dynamicProcessorAssigner );
     }
+
+    /**
+     * Decorates an {@link ExecutionMonitor} with an {@link AdaptiveProcessorAssigner} responsible for
+     * continuously rebalancing processors between all individual steps, based on their statistics.
+     *
+     * @param monitor {@link ExecutionMonitor} to decorate.
+     * @param config {@link Configuration} that the {@link AdaptiveProcessorAssigner} will use.
+     * @param log {@link Log} where assignment decisions are logged.
+     * @return the decorated monitor with adaptive processor assignment capabilities.
+     */
+    public static ExecutionMonitor withAdaptiveProcessorAssignment( ExecutionMonitor monitor, Configuration config, Log log )
+    {
+        AdaptiveProcessorAssigner adaptiveProcessorAssigner = new AdaptiveProcessorAssigner( config, log );
+        return new MultiExecutionMonitor( monitor, adaptiveProcessorAssigner );
+    }
 }
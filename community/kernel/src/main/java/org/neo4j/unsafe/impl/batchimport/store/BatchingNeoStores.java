@@ -420,6 +420,11 @@ public class BatchingNeoStores implements AutoCloseable, MemoryStatsVisitor.Visi
         return neoStores;
     }
 
+    public Config getNeo4jConfig()
+    {
+        return neo4jConfig;
+    }
+
     public void startFlushingPageCache()
     {
         if ( importConfiguration.sequentialBackgroundFlushing() )
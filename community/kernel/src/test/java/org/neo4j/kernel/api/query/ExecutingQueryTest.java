@@ -32,6 +32,7 @@ import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.neo4j.helpers.MathUtil;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorCounters;
@@ -297,6 +298,33 @@ public class ExecutingQueryTest
         assertNull( snapshot.allocatedBytes() );
     }
 
+    @Test
+    public void shouldReportEstimatedMemoryUsage()
+    {
+        // given
+        AtomicLong usedBytes = new AtomicLong( 1024 );
+        query.estimatedMemoryUsage( usedBytes::get );
+
+        // then
+        assertEquals( Long.valueOf( 1024 ), query.snapshot().estimatedUsedBytes() );
+
+        // when
+        usedBytes.set( 512 );
+
+        // then
+        assertEquals( Long.valueOf( 512 ), query.snapshot().estimatedUsedBytes() );
+    }
+
+    @Test
+    public void shouldNotReportEstimatedMemoryUsageIfNotTracked()
+    {
+        // when
+        QuerySnapshot snapshot = query.snapshot();
+
+        // then
+        assertNull( snapshot.estimatedUsedBytes() );
+    }
+
     @Test
     public void shouldReportLockCount()
     {
@@ -0,0 +1,408 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.neo4j.internal.kernel.api.exceptions.TransactionFailureException;
+import org.neo4j.kernel.api.exceptions.Status;
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.Commitment;
+import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.impl.transaction.tracing.StoreApplyEvent;
+import org.neo4j.storageengine.api.TransactionApplicationMode;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.EXTERNAL;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.INTERNAL;
+
+public class BatchingTransactionCommitProcessTest
+{
+    private final CountDownLatch firstCommitReleased = new CountDownLatch( 1 );
+    private final RecordingCommitProcess committed = new RecordingCommitProcess();
+    private final List<Thread> committers = new ArrayList<>();
+
+    @After
+    public void releaseCommitters() throws InterruptedException
+    {
+        firstCommitReleased.countDown();
+        for ( Thread committer : committers )
+        {
+            committer.join();
+        }
+    }
+
+    @Test
+    public void shouldCommitConcurrentTransactionsTogetherWithTheirOwnIds() throws Exception
+    {
+        // GIVEN
+        TransactionCommitProcess commitProcess = new BatchingTransactionCommitProcess( committed, 10 );
+        FutureTask<Long> first = commitInThread( commitProcess, transaction() );
+        awaitBlockedOnCommit( committers.get( 0 ) );
+
+        // WHEN
+        List<FutureTask<Long>> queued = asList(
+                commitInThread( commitProcess, transaction() ),
+                commitInThread( commitProcess, transaction() ),
+                commitInThread( commitProcess, transaction() ) );
+        awaitBlockedOnCommit( committers.get( 1 ), committers.get( 2 ), committers.get( 3 ) );
+        firstCommitReleased.countDown();
+
+        // THEN
+        assertEquals( 1L, (long) first.get() );
+        List<Long> ids = new ArrayList<>();
+        for ( FutureTask<Long> commit : queued )
+        {
+            ids.add( commit.get() );
+        }
+        ids.sort( Long::compare );
+        assertEquals( asList( 2L, 3L, 4L ), ids );
+        assertEquals( asList( 1, 3 ), committed.batchSizes );
+    }
+
+    @Test
+    public void shouldNotCommitMoreThanMaxBatchSizeTransactionsTogether() throws Exception
+    {
+        // GIVEN
+        TransactionCommitProcess commitProcess = new BatchingTransactionCommitProcess( committed, 2 );
+        FutureTask<Long> first = commitInThread( commitProcess, transaction() );
+        awaitBlockedOnCommit( committers.get( 0 ) );
+
+        // WHEN
+        List<FutureTask<Long>> queued = asList(
+                commitInThread( commitProcess, transaction() ),
+                commitInThread( commitProcess, transaction() ),
+                commitInThread( commitProcess, transaction() ) );
+        awaitBlockedOnCommit( committers.get( 1 ), committers.get( 2 ), committers.get( 3 ) );
+        firstCommitReleased.countDown();
+
+        // THEN
+        first.get();
+        for ( FutureTask<Long> commit : queued )
+        {
+            commit.get();
+        }
+        assertEquals( asList( 1, 2, 1 ), committed.batchSizes );
+    }
+
+    @Test
+    public void shouldGiveTheCommittersOfAFilledUpBatchWindowOneBatch() throws Exception
+    {
+        // GIVEN
+        firstCommitReleased.countDown();
+        TransactionCommitProcess commitProcess = new BatchingTransactionCommitProcess( committed, 2, MINUTES.toNanos( 1 ) );
+        FutureTask<Long> first = commitInThread( commitProcess, transaction() );
+        awaitWaitingForBatch( committers.get( 0 ) );
+
+        // WHEN
+        FutureTask<Long> second = commitInThread( commitProcess, transaction() );
+
+        // THEN
+        assertEquals( asList( 1L, 2L ), asList( first.get(), second.get() ) );
+        assertEquals( singletonList( 2 ), committed.batchSizes );
+    }
+
+    @Test
+    public void shouldOnlyFailTheTransactionOfAFailedBatchThatFailsOnItsOwn() throws Exception
+    {
+        // GIVEN
+        TransactionCommitProcess commitProcess = new BatchingTransactionCommitProcess( committed, 10 );
+        FutureTask<Long> first = commitInThread( commitProcess, transaction() );
+        awaitBlockedOnCommit( committers.get( 0 ) );
+        TransactionFailureException failure = new TransactionFailureException( Status.Transaction.TransactionCommitFailed,
+                "Could not apply transaction to the store" );
+        committed.poisoned = transaction();
+        committed.failure = failure;
+
+        // WHEN
+        FutureTask<Long> before = commitInThread( commitProcess, transaction() );
+        awaitBlockedOnCommit( committers.get( 1 ) );
+        FutureTask<Long> poisoned = commitInThread( commitProcess, committed.poisoned );
+        awaitBlockedOnCommit( committers.get( 2 ) );
+        FutureTask<Long> after = commitInThread( commitProcess, transaction() );
+        awaitBlockedOnCommit( committers.get( 3 ) );
+        firstCommitReleased.countDown();
+
+        // THEN
+        assertEquals( 1L, (long) first.get() );
+        assertEquals( 2L, (long) before.get() );
+        assertEquals( 3L, (long) after.get() );
+        try
+        {
+            poisoned.get();
+            fail( "Should have failed" );
+        }
+        catch ( ExecutionException e )
+        {
+            assertSame( failure, e.getCause() );
+        }
+        assertEquals( asList( 1, 3, 1, 1, 1 ), committed.batchSizes );
+    }
+
+    @Test
+    public void shouldTraceTheCommitOfABatchForEveryCommitterInIt() throws Exception
+    {
+        // GIVEN
+        TransactionCommitProcess commitProcess = new BatchingTransactionCommitProcess( committed, 10 );
+        FutureTask<Long> first = commitInThread( commitProcess, transaction() );
+        awaitBlockedOnCommit( committers.get( 0 ) );
+
+        // WHEN
+        CommitEvent[] commitEvents = {commitEvent(), commitEvent(), commitEvent()};
+        List<FutureTask<Long>> queued = new ArrayList<>();
+        for ( CommitEvent commitEvent : commitEvents )
+        {
+            queued.add( commitInThread( commitProcess, transaction(), commitEvent ) );
+        }
+        awaitBlockedOnCommit( committers.get( 1 ), committers.get( 2 ), committers.get( 3 ) );
+        firstCommitReleased.countDown();
+
+        // THEN
+        first.get();
+        for ( FutureTask<Long> commit : queued )
+        {
+            commit.get();
+        }
+        assertEquals( asList( 1, 3 ), committed.batchSizes );
+        for ( CommitEvent commitEvent : commitEvents )
+        {
+            verify( commitEvent ).beginLogAppend();
+            verify( commitEvent ).beginStoreApply();
+        }
+    }
+
+    @Test
+    public void shouldFailEveryTransactionOfAFailedBatchThatFailsOnItsOwn() throws Exception
+    {
+        // GIVEN
+        TransactionCommitProcess commitProcess = new BatchingTransactionCommitProcess( committed, 10 );
+        FutureTask<Long> first = commitInThread( commitProcess, transaction() );
+        awaitBlockedOnCommit( committers.get( 0 ) );
+        TransactionFailureException failure = new TransactionFailureException( Status.Transaction.TransactionCommitFailed,
+                "Could not append transaction representation to log" );
+        committed.failure = failure;
+
+        // WHEN
+        List<FutureTask<Long>> queued = asList(
+                commitInThread( commitProcess, transaction() ),
+                commitInThread( commitProcess, transaction() ) );
+        awaitBlockedOnCommit( committers.get( 1 ), committers.get( 2 ) );
+        firstCommitReleased.countDown();
+
+        // THEN
+        first.get();
+        for ( FutureTask<Long> commit : queued )
+        {
+            try
+            {
+                commit.get();
+                fail( "Should have failed" );
+            }
+            catch ( ExecutionException e )
+            {
+                assertSame( failure, e.getCause() );
+            }
+        }
+        assertEquals( asList( 1, 2, 1, 1 ), committed.batchSizes );
+    }
+
+    @Test
+    public void shouldKeepWaitingForTheBatchWithoutSpinningWhenInterrupted() throws Exception
+    {
+        // GIVEN
+        TransactionCommitProcess commitProcess = new BatchingTransactionCommitProcess( committed, 10 );
+        FutureTask<Long> first = commitInThread( commitProcess, transaction() );
+        awaitBlockedOnCommit( committers.get( 0 ) );
+        AtomicBoolean interruptedAfterCommit = new AtomicBoolean();
+        FutureTask<Long> queued = new FutureTask<>( () ->
+        {
+            long transactionId = commitProcess.commit( transaction(), CommitEvent.NULL, INTERNAL );
+            interruptedAfterCommit.set( Thread.currentThread().isInterrupted() );
+            return transactionId;
+        } );
+        Thread committer = new Thread( queued );
+        committers.add( committer );
+        committer.start();
+        awaitBlockedOnCommit( committer );
+
+        // WHEN
+        committer.interrupt();
+
+        // THEN
+        long deadline = System.currentTimeMillis() + 10_000;
+        while ( committer.isInterrupted() || committer.getState() != Thread.State.WAITING )
+        {
+            assertTrue( "Interrupted committer should wait again", System.currentTimeMillis() < deadline );
+            Thread.sleep( 1 );
+        }
+        firstCommitReleased.countDown();
+        assertEquals( 1L, (long) first.get() );
+        assertEquals( 2L, (long) queued.get() );
+        assertTrue( interruptedAfterCommit.get() );
+    }
+
+    @Test
+    public void shouldCommitExternalTransactionsAndBatchesDirectly() throws Exception
+    {
+        // GIVEN
+        TransactionCommitProcess delegate = mock( TransactionCommitProcess.class );
+        TransactionCommitProcess commitProcess = new BatchingTransactionCommitProcess( delegate, 10 );
+        TransactionToApply external = transaction();
+        TransactionToApply batch = transaction();
+        batch.next( transaction() );
+        when( delegate.commit( external, CommitEvent.NULL, EXTERNAL ) ).thenReturn( 5L );
+        when( delegate.commit( batch, CommitEvent.NULL, INTERNAL ) ).thenReturn( 7L );
+
+        // WHEN
+        long externalId = commitProcess.commit( external, CommitEvent.NULL, EXTERNAL );
+        long batchId = commitProcess.commit( batch, CommitEvent.NULL, INTERNAL );
+
+        // THEN
+        assertEquals( 5L, externalId );
+        assertEquals( 7L, batchId );
+        verify( delegate ).commit( external, CommitEvent.NULL, EXTERNAL );
+        verify( delegate ).commit( batch, CommitEvent.NULL, INTERNAL );
+    }
+
+    private FutureTask<Long> commitInThread( TransactionCommitProcess commitProcess, TransactionToApply transaction )
+    {
+        return commitInThread( commitProcess, transaction, CommitEvent.NULL );
+    }
+
+    private FutureTask<Long> commitInThread( TransactionCommitProcess commitProcess, TransactionToApply transaction,
+            CommitEvent commitEvent )
+    {
+        FutureTask<Long> commit = new FutureTask<>( () -> commitProcess.commit( transaction, commitEvent, INTERNAL ) );
+        Thread committer = new Thread( commit );
+        committers.add( committer );
+        committer.start();
+        return commit;
+    }
+
+    private static void awaitBlockedOnCommit( Thread... committers ) throws InterruptedException
+    {
+        for ( Thread committer : committers )
+        {
+            while ( committer.getState() != Thread.State.WAITING )
+            {
+                Thread.sleep( 1 );
+            }
+        }
+    }
+
+    private static void awaitWaitingForBatch( Thread committer ) throws InterruptedException
+    {
+        while ( committer.getState() != Thread.State.TIMED_WAITING )
+        {
+            Thread.sleep( 1 );
+        }
+    }
+
+    private static CommitEvent commitEvent()
+    {
+        CommitEvent commitEvent = mock( CommitEvent.class );
+        when( commitEvent.beginLogAppend() ).thenReturn( LogAppendEvent.NULL );
+        when( commitEvent.beginStoreApply() ).thenReturn( StoreApplyEvent.NULL );
+        return commitEvent;
+    }
+
+    private static TransactionToApply transaction()
+    {
+        return new TransactionToApply( mock( TransactionRepresentation.class ) );
+    }
+
+    private class RecordingCommitProcess implements TransactionCommitProcess
+    {
+        private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        private volatile TransactionFailureException failure;
+        private volatile TransactionToApply poisoned;
+        private long lastTransactionId;
+
+        @Override
+        public long commit( TransactionToApply batch, CommitEvent commitEvent, TransactionApplicationMode mode )
+                throws TransactionFailureException
+        {
+            if ( batchSizes.isEmpty() )
+            {
+                awaitRelease();
+            }
+            else if ( failure != null && (poisoned == null || contains( batch, poisoned )) )
+            {
+                batchSizes.add( sizeOf( batch ) );
+                throw failure;
+            }
+
+            try ( LogAppendEvent logAppendEvent = commitEvent.beginLogAppend() )
+            {
+                logAppendEvent.beginSerializeTransaction().close();
+            }
+            int size = 0;
+            for ( TransactionToApply transaction = batch; transaction != null; transaction = transaction.next() )
+            {
+                transaction.commitment( Commitment.NO_COMMITMENT, ++lastTransactionId );
+                size++;
+            }
+            commitEvent.beginStoreApply().close();
+            batchSizes.add( size );
+            return lastTransactionId;
+        }
+
+        private void awaitRelease()
+        {
+            try
+            {
+                firstCommitReleased.await();
+            }
+            catch ( InterruptedException e )
+            {
+                throw new RuntimeException( e );
+            }
+        }
+
+        private boolean contains( TransactionToApply batch, TransactionToApply transaction )
+        {
+            return batch == transaction || (batch.next() != null && contains( batch.next(), transaction ));
+        }
+
+        private int sizeOf( TransactionToApply batch )
+        {
+            return batch.next() == null ? 1 : 1 + sizeOf( batch.next() );
+        }
+    }
+}
@@ -44,6 +44,7 @@ import org.neo4j.kernel.api.schema.index.TestIndexDescriptorFactory;
 import org.neo4j.kernel.impl.api.SchemaState;
 import org.neo4j.kernel.impl.api.index.MultipleIndexPopulator.IndexPopulation;
 import org.neo4j.logging.LogProvider;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.NodePropertyAccessor;
 import org.neo4j.storageengine.api.schema.IndexSample;
 import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
@@ -77,6 +78,8 @@ public class MultipleIndexPopulatorTest
     private LogProvider logProvider;
     @Mock
     private SchemaState schemaState;
+    @Mock
+    private JobScheduler jobScheduler;
     @InjectMocks
     private MultipleIndexPopulator multipleIndexPopulator;
 
@@ -194,7 +197,7 @@ public class MultipleIndexPopulatorTest
 
         assertTrue( multipleIndexPopulator.hasPopulators() );
 
-        multipleIndexPopulator.flipAfterPopulation( false );
+        multipleIndexPopulator.flipAfterPopulation( false, jobScheduler );
 
         verify( populationToKeepActive.flipper ).flip( any( Callable.class ), any( FailedIndexProxyFactory.class ) );
     }
@@ -216,7 +219,7 @@ public class MultipleIndexPopulatorTest
 
         assertTrue( multipleIndexPopulator.hasPopulators() );
 
-        multipleIndexPopulator.flipAfterPopulation( false );
+        multipleIndexPopulator.flipAfterPopulation( false, jobScheduler );
 
         verify( populationToCancel.flipper, never() ).flip( any( Callable.class ), any( FailedIndexProxyFactory.class ) );
     }
@@ -307,7 +310,7 @@ public class MultipleIndexPopulatorTest
         FlippableIndexProxy flipper1 = addPopulator( indexPopulator1, 1 ).flipper;
         FlippableIndexProxy flipper2 = addPopulator( indexPopulator2, 2 ).flipper;
 
-        multipleIndexPopulator.flipAfterPopulation( false );
+        multipleIndexPopulator.flipAfterPopulation( false, jobScheduler );
 
         verify( flipper1 ).flip( any( Callable.class ), any( FailedIndexProxyFactory.class ) );
         verify( flipper2 ).flip( any( Callable.class ), any( FailedIndexProxyFactory.class ) );
@@ -324,7 +327,7 @@ public class MultipleIndexPopulatorTest
 
         assertTrue( multipleIndexPopulator.hasPopulators() );
 
-        multipleIndexPopulator.flipAfterPopulation( false );
+        multipleIndexPopulator.flipAfterPopulation( false, jobScheduler );
 
         assertFalse( multipleIndexPopulator.hasPopulators() );
     }
@@ -361,7 +364,7 @@ public class MultipleIndexPopulatorTest
         when( indexPopulator1.sampleResult() ).thenThrow( getSampleError() );
 
         multipleIndexPopulator.indexAllEntities();
-        multipleIndexPopulator.flipAfterPopulation( false );
+        multipleIndexPopulator.flipAfterPopulation( false, jobScheduler );
 
         verify( indexPopulator1 ).close( false );
         verify( failedIndexProxyFactory, times( 1 ) ).create( any( RuntimeException.class ) );
@@ -469,7 +472,7 @@ public class MultipleIndexPopulatorTest
 
         // when
         multipleIndexPopulator.indexAllEntities();
-        multipleIndexPopulator.flipAfterPopulation( true );
+        multipleIndexPopulator.flipAfterPopulation( true, jobScheduler );
 
         // then
         verify( indexPopulator ).verifyDeferredConstraints( any( NodePropertyAccessor.class ) );
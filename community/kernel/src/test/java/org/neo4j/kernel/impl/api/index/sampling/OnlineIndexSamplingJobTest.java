@@ -22,6 +22,7 @@ package org.neo4j.kernel.impl.api.index.sampling;
 import org.junit.Before;
 import org.junit.Test;
 
+import org.neo4j.internal.kernel.api.IndexValueDistribution;
 import org.neo4j.internal.kernel.api.exceptions.schema.IndexNotFoundKernelException;
 import org.neo4j.internal.kernel.api.schema.IndexProviderDescriptor;
 import org.neo4j.kernel.impl.api.index.IndexProxy;
@@ -56,6 +57,7 @@ public class OnlineIndexSamplingJobTest
 
         // then
         verify( indexStoreView ).replaceIndexCounts( indexId, indexUniqueValues, indexSize, indexSize );
+        verify( indexStoreView ).replaceIndexValueDistribution( indexId, IndexValueDistribution.EMPTY );
         verifyNoMoreInteractions( indexStoreView );
     }
 
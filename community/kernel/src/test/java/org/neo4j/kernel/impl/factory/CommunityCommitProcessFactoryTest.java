@@ -23,6 +23,7 @@ import org.junit.Test;
 
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.api.BatchingTransactionCommitProcess;
 import org.neo4j.kernel.impl.api.ReadOnlyTransactionCommitProcess;
 import org.neo4j.kernel.impl.api.TransactionCommitProcess;
 import org.neo4j.kernel.impl.api.TransactionRepresentationCommitProcess;
@@ -58,4 +59,17 @@ public class CommunityCommitProcessFactoryTest
 
         assertThat( commitProcess, instanceOf( TransactionRepresentationCommitProcess.class ) );
     }
+
+    @Test
+    public void createBatchingCommitProcess()
+    {
+        CommunityCommitProcessFactory factory = new CommunityCommitProcessFactory();
+
+        Config config = Config.defaults( GraphDatabaseSettings.commit_batch_size, "16" );
+
+        TransactionCommitProcess commitProcess = factory.create( mock( TransactionAppender.class ),
+                mock( StorageEngine.class ), config );
+
+        assertThat( commitProcess, instanceOf( BatchingTransactionCommitProcess.class ) );
+    }
 }
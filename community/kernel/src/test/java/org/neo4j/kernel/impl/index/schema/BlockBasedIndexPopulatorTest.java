@@ -28,7 +28,9 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.LongPredicate;
 
 import org.neo4j.graphdb.mockfs.EphemeralFileSystemAbstraction;
@@ -44,6 +46,8 @@ import org.neo4j.kernel.impl.index.schema.config.ConfiguredSpaceFillingCurveSett
 import org.neo4j.kernel.impl.index.schema.config.IndexSpecificSpaceFillingCurveSettingsCache;
 import org.neo4j.memory.LocalMemoryTracker;
 import org.neo4j.memory.ThreadSafePeakMemoryAllocationTracker;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.schema.IndexDescriptorFactory;
 import org.neo4j.storageengine.api.schema.PopulationProgress;
 import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
@@ -55,6 +59,8 @@ import org.neo4j.test.rule.concurrent.OtherThreadRule;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 import static org.neo4j.kernel.api.index.IndexDirectoryStructure.directoriesByProvider;
 import static org.neo4j.kernel.api.index.IndexProvider.Monitor.EMPTY;
 import static org.neo4j.kernel.impl.api.index.PhaseTracker.nullInstance;
@@ -193,6 +199,36 @@ public class BlockBasedIndexPopulatorTest
         }
     }
 
+    @Test
+    public void shouldMergeOnTheGivenJobScheduler() throws Exception
+    {
+        // given
+        AtomicInteger scheduledJobs = new AtomicInteger();
+        Executor executor = job ->
+        {
+            scheduledJobs.incrementAndGet();
+            new Thread( job ).start();
+        };
+        JobScheduler jobScheduler = mock( JobScheduler.class );
+        when( jobScheduler.executor( Group.INDEX_POPULATION ) ).thenReturn( executor );
+        BlockBasedIndexPopulator<GenericKey,NativeIndexValue> populator = instantiatePopulator( NO_MONITOR );
+        try
+        {
+            populator.add( batchOfUpdates() );
+
+            // when
+            populator.scanCompleted( nullInstance, jobScheduler );
+
+            // then
+            assertTrue( scheduledJobs.get() > 0 );
+            assertEquals( 1f, populator.progress( PopulationProgress.DONE ).getProgress(), 0f );
+        }
+        finally
+        {
+            populator.close( true );
+        }
+    }
+
     @Test
     public void shouldCorrectlyDecideToAwaitMergeDependingOnProgress() throws Throwable
     {
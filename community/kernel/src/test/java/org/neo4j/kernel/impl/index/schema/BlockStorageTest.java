@@ -222,6 +222,88 @@ class BlockStorageTest
         }
     }
 
+    @Test
+    void shouldMergeMultipleBlocksUsingMultipleThreads() throws IOException
+    {
+        // given
+        TrackingMonitor monitor = new TrackingMonitor();
+        int blockSize = 1_000;
+        try ( BlockStorage<MutableLong,MutableLong> storage = new BlockStorage<>( layout, heapBufferFactory( blockSize ), fileSystem, file, monitor ) )
+        {
+            int numberOfBlocks = random.nextInt( 100 ) + 2;
+            List<List<BlockEntry<MutableLong,MutableLong>>> expectedBlocks = addACoupleOfBlocksOfEntries( monitor, storage, numberOfBlocks );
+            storage.doneAdding();
+
+            // when
+            storage.merge( randomMergeFactor(), random.nextInt( 2, 8 ), NOT_CANCELLABLE );
+
+            // then
+            assertContents( layout, storage, asOneBigBlock( expectedBlocks ) );
+            assertEquals( monitor.totalEntriesToMerge, monitor.entriesMerged );
+        }
+    }
+
+    @Test
+    void shouldMergeMultipleBlocksWithPrefixCompression() throws IOException
+    {
+        // given
+        TrackingMonitor monitor = new TrackingMonitor();
+        int blockSize = 1_000;
+        try ( BlockStorage<MutableLong,MutableLong> storage =
+                new BlockStorage<>( layout, heapBufferFactory( blockSize ), fileSystem, file, monitor, 0 ) )
+        {
+            int numberOfBlocks = random.nextInt( 100 ) + 2;
+            List<List<BlockEntry<MutableLong,MutableLong>>> expectedBlocks = addACoupleOfBlocksOfEntries( monitor, storage, numberOfBlocks );
+            storage.doneAdding();
+
+            // when
+            storage.merge( randomMergeFactor(), random.nextInt( 1, 4 ), NOT_CANCELLABLE );
+
+            // then
+            assertContents( layout, storage, asOneBigBlock( expectedBlocks ) );
+            assertEquals( monitor.totalEntriesToMerge, monitor.entriesMerged );
+        }
+    }
+
+    @Test
+    void shouldSizePrefixCompressedBlocksByTheirCompressedEntries() throws IOException
+    {
+        // given
+        TrackingMonitor monitor = new TrackingMonitor();
+        int blockSize = 1_000;
+        File uncompressedFile = directory.file( "uncompressed" );
+        try ( BlockStorage<MutableLong,MutableLong> storage =
+                      new BlockStorage<>( layout, heapBufferFactory( blockSize ), fileSystem, file, monitor, 0 );
+              BlockStorage<MutableLong,MutableLong> uncompressedStorage =
+                      new BlockStorage<>( layout, heapBufferFactory( blockSize ), fileSystem, uncompressedFile, NO_MONITOR ) )
+        {
+            // when
+            int numberOfBlocks = random.nextInt( 10 ) + 2;
+            List<List<BlockEntry<MutableLong,MutableLong>>> expectedBlocks = addACoupleOfBlocksOfEntries( monitor, storage, numberOfBlocks );
+            for ( List<BlockEntry<MutableLong,MutableLong>> expectedBlock : expectedBlocks )
+            {
+                for ( BlockEntry<MutableLong,MutableLong> entry : expectedBlock )
+                {
+                    uncompressedStorage.add( entry.key(), entry.value() );
+                }
+            }
+            uncompressedStorage.doneAdding();
+
+            // then keys below 10_000_000 share their leading bytes, so the compressed blocks must take less space
+            assertThat( fileSystem.getFileSize( file ), lessThan( fileSystem.getFileSize( uncompressedFile ) ) );
+            expectedBlocks.forEach( this::sort );
+            assertContents( layout, storage, expectedBlocks );
+
+            // and when
+            storage.merge( randomMergeFactor(), NOT_CANCELLABLE );
+            uncompressedStorage.merge( randomMergeFactor(), NOT_CANCELLABLE );
+
+            // then
+            assertThat( fileSystem.getFileSize( file ), lessThan( fileSystem.getFileSize( uncompressedFile ) ) );
+            assertContents( layout, storage, asOneBigBlock( expectedBlocks ) );
+        }
+    }
+
     @Test
     void shouldOnlyLeaveSingleFileAfterMerge() throws IOException
     {
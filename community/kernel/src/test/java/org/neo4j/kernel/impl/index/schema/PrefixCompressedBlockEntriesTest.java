@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import org.apache.commons.lang3.mutable.MutableLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.neo4j.index.internal.gbptree.SimpleLongLayout;
+import org.neo4j.io.pagecache.ByteArrayPageCursor;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.index.schema.config.ConfiguredSpaceFillingCurveSettingsCache;
+import org.neo4j.kernel.impl.index.schema.config.IndexSpecificSpaceFillingCurveSettingsCache;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.RandomExtension;
+import org.neo4j.test.rule.RandomRule;
+import org.neo4j.values.storable.Values;
+
+import static java.util.Comparator.comparingLong;
+import static org.neo4j.kernel.impl.index.schema.NativeIndexKey.ENTITY_ID_SIZE;
+import static org.neo4j.kernel.impl.index.schema.NativeIndexKey.Inclusion.NEUTRAL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith( RandomExtension.class )
+class PrefixCompressedBlockEntriesTest
+{
+    private static final IndexSpecificSpaceFillingCurveSettingsCache spatialSettings =
+            new IndexSpecificSpaceFillingCurveSettingsCache( new ConfiguredSpaceFillingCurveSettingsCache( Config.defaults() ), new HashMap<>() );
+
+    @Inject
+    RandomRule rnd;
+
+    private SimpleLongLayout layout;
+
+    @BeforeEach
+    void setup()
+    {
+        layout = SimpleLongLayout.longLayout()
+                .withFixedSize( rnd.nextBoolean() )
+                .withKeyPadding( rnd.nextInt( 200 ) )
+                .build();
+    }
+
+    @Test
+    void shouldReadWriteMultipleSortedEntries()
+    {
+        // given
+        List<BlockEntry<MutableLong,MutableLong>> expectedEntries = sortedEntries( 100 );
+        PageCursor pageCursor = ByteArrayPageCursor.wrap( 100_000 );
+        PrefixCompressedBlockEntries<MutableLong,MutableLong> writer = new PrefixCompressedBlockEntries<>( layout, 0 );
+        int totalSize = 0;
+        for ( BlockEntry<MutableLong,MutableLong> entry : expectedEntries )
+        {
+            int size = writer.write( pageCursor, entry.key(), entry.value() );
+            assertTrue( size <= BlockEntry.entrySize( layout, entry.key(), entry.value() ) );
+            totalSize += size;
+        }
+        assertEquals( totalSize, pageCursor.getOffset() );
+
+        // when
+        pageCursor.setOffset( 0 );
+        PrefixCompressedBlockEntries<MutableLong,MutableLong> reader = new PrefixCompressedBlockEntries<>( layout, 0 );
+        MutableLong readKey = layout.newKey();
+        MutableLong readValue = layout.newValue();
+
+        // then
+        for ( BlockEntry<MutableLong,MutableLong> expectedEntry : expectedEntries )
+        {
+            reader.read( pageCursor, readKey, readValue );
+            assertEquals( 0, layout.compare( expectedEntry.key(), readKey ) );
+            assertEquals( 0, layout.compare( expectedEntry.value(), readValue ) );
+        }
+        assertEquals( totalSize, pageCursor.getOffset() );
+    }
+
+    @Test
+    void shouldWriteFewerBytesThanUncompressedWhenKeysSharePrefix()
+    {
+        // given
+        // keys are serialized as big-endian longs so small keys share their leading bytes
+        layout = SimpleLongLayout.longLayout().build();
+        List<BlockEntry<MutableLong,MutableLong>> entries = sortedEntries( 100 );
+        PageCursor compressedCursor = ByteArrayPageCursor.wrap( 100_000 );
+        PageCursor uncompressedCursor = ByteArrayPageCursor.wrap( 100_000 );
+        PrefixCompressedBlockEntries<MutableLong,MutableLong> writer = new PrefixCompressedBlockEntries<>( layout, 0 );
+
+        // when
+        for ( BlockEntry<MutableLong,MutableLong> entry : entries )
+        {
+            writer.write( compressedCursor, entry.key(), entry.value() );
+            BlockEntry.write( uncompressedCursor, layout, entry );
+        }
+
+        // then
+        assertTrue( compressedCursor.getOffset() < uncompressedCursor.getOffset(),
+                "Expected " + compressedCursor.getOffset() + " to be less than " + uncompressedCursor.getOffset() );
+    }
+
+    @Test
+    void shouldShareStringPrefixesOfGenericKeysBehindTheirEntityIds()
+    {
+        // given
+        GenericLayout genericLayout = new GenericLayout( 1, spatialSettings );
+        List<BlockEntry<GenericKey,NativeIndexValue>> entries = sortedStringEntries( genericLayout, 1_000 );
+        PageCursor compressedCursor = ByteArrayPageCursor.wrap( 1_000_000 );
+        PageCursor uncompressedCursor = ByteArrayPageCursor.wrap( 1_000_000 );
+        PrefixCompressedBlockEntries<GenericKey,NativeIndexValue> writer = new PrefixCompressedBlockEntries<>( genericLayout, ENTITY_ID_SIZE );
+
+        // when
+        for ( BlockEntry<GenericKey,NativeIndexValue> entry : entries )
+        {
+            int size = writer.write( compressedCursor, entry.key(), entry.value() );
+            assertTrue( size <= BlockEntry.entrySize( genericLayout, entry.key(), entry.value() ) );
+            BlockEntry.write( uncompressedCursor, genericLayout, entry );
+        }
+
+        // then
+        // every string shares at least its first 20 characters with the one before it, the entity ids share nothing
+        assertTrue( compressedCursor.getOffset() * 2 < uncompressedCursor.getOffset(),
+                "Expected " + compressedCursor.getOffset() + " to be less than half of " + uncompressedCursor.getOffset() );
+        int totalSize = compressedCursor.getOffset();
+        compressedCursor.setOffset( 0 );
+        PrefixCompressedBlockEntries<GenericKey,NativeIndexValue> reader = new PrefixCompressedBlockEntries<>( genericLayout, ENTITY_ID_SIZE );
+        GenericKey readKey = genericLayout.newKey();
+        NativeIndexValue readValue = genericLayout.newValue();
+        for ( BlockEntry<GenericKey,NativeIndexValue> expectedEntry : entries )
+        {
+            reader.read( compressedCursor, readKey, readValue );
+            assertEquals( 0, genericLayout.compare( expectedEntry.key(), readKey ) );
+            assertEquals( expectedEntry.key().getEntityId(), readKey.getEntityId() );
+            assertEquals( expectedEntry.key().asValues()[0], readKey.asValues()[0] );
+        }
+        assertEquals( totalSize, compressedCursor.getOffset() );
+    }
+
+    private List<BlockEntry<GenericKey,NativeIndexValue>> sortedStringEntries( GenericLayout genericLayout, int count )
+    {
+        List<BlockEntry<GenericKey,NativeIndexValue>> entries = new ArrayList<>();
+        for ( int i = 0; i < count; i++ )
+        {
+            GenericKey key = genericLayout.newKey();
+            key.initialize( rnd.nextLong( 0, Long.MAX_VALUE ) );
+            key.initFromValue( 0, Values.stringValue( String.format( "customer-identifier-%06d", rnd.nextInt( 100_000 ) ) ), NEUTRAL );
+            entries.add( new BlockEntry<>( key, NativeIndexValue.INSTANCE ) );
+        }
+        entries.sort( ( a, b ) -> genericLayout.compare( a.key(), b.key() ) );
+        return entries;
+    }
+
+    private List<BlockEntry<MutableLong,MutableLong>> sortedEntries( int count )
+    {
+        List<BlockEntry<MutableLong,MutableLong>> entries = new ArrayList<>();
+        for ( int i = 0; i < count; i++ )
+        {
+            entries.add( new BlockEntry<>( layout.key( rnd.nextLong( 1_000_000 ) ), layout.value( rnd.nextLong() ) ) );
+        }
+        entries.sort( comparingLong( e -> e.key().longValue() ) );
+        return entries;
+    }
+}
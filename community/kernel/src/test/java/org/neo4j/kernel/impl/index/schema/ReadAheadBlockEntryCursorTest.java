@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import org.apache.commons.lang3.mutable.MutableLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.index.internal.gbptree.SimpleLongLayout;
+
+import static java.time.Duration.ofSeconds;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadAheadBlockEntryCursorTest
+{
+    private static final SimpleLongLayout layout = SimpleLongLayout.longLayout().build();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void stopExecutor() throws InterruptedException
+    {
+        executor.shutdown();
+        assertTrue( executor.awaitTermination( 10, TimeUnit.SECONDS ) );
+    }
+
+    @Test
+    void shouldReadAllEntriesOfSource() throws IOException
+    {
+        // given
+        List<BlockEntry<MutableLong,MutableLong>> entries = entries( 1_000 );
+
+        // when
+        try ( ReadAheadBlockEntryCursor<MutableLong,MutableLong> cursor =
+                new ReadAheadBlockEntryCursor<>( layout, new ListBasedBlockEntryCursor<>( entries ), buffers( 3 ), executor ) )
+        {
+            // then
+            for ( BlockEntry<MutableLong,MutableLong> entry : entries )
+            {
+                assertTrue( cursor.next() );
+                assertEquals( entry.key().longValue(), cursor.key().longValue() );
+                assertEquals( entry.value().longValue(), cursor.value().longValue() );
+            }
+            assertFalse( cursor.next() );
+        }
+    }
+
+    @Test
+    void shouldStopReadingAheadOnCloseWithoutInterrupting() throws Exception
+    {
+        // given a source with many more entries than fit in the buffers
+        InterruptRecordingBlockEntryCursor source = new InterruptRecordingBlockEntryCursor( entries( 10_000 ) );
+        ReadAheadBlockEntryCursor<MutableLong,MutableLong> cursor = new ReadAheadBlockEntryCursor<>( layout, source, buffers( 2 ), executor );
+        assertTrue( cursor.next() );
+
+        // when
+        assertTimeoutPreemptively( ofSeconds( 10 ), cursor::close );
+
+        // then the reading ahead has stopped, leaving the executor thread free for other tasks, and was never interrupted
+        assertTrue( executor.submit( () -> true ).get( 10, TimeUnit.SECONDS ) );
+        assertFalse( source.interrupted );
+    }
+
+    private static ByteBuffer[] buffers( int count )
+    {
+        ByteBuffer[] buffers = new ByteBuffer[count];
+        for ( int i = 0; i < count; i++ )
+        {
+            buffers[i] = ByteBuffer.allocate( 128 );
+        }
+        return buffers;
+    }
+
+    private static List<BlockEntry<MutableLong,MutableLong>> entries( int count )
+    {
+        List<BlockEntry<MutableLong,MutableLong>> entries = new ArrayList<>();
+        for ( int i = 0; i < count; i++ )
+        {
+            entries.add( new BlockEntry<>( layout.key( i ), layout.value( i * 10 ) ) );
+        }
+        return entries;
+    }
+
+    private static class InterruptRecordingBlockEntryCursor extends ListBasedBlockEntryCursor<MutableLong,MutableLong>
+    {
+        private volatile boolean interrupted;
+
+        InterruptRecordingBlockEntryCursor( Iterable<BlockEntry<MutableLong,MutableLong>> blockEntries )
+        {
+            super( blockEntries );
+        }
+
+        @Override
+        public boolean next()
+        {
+            interrupted |= Thread.currentThread().isInterrupted();
+            return super.next();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2002-2019 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.unsafe.impl.batchimport.staging;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import org.neo4j.logging.AssertableLogProvider;
+import org.neo4j.logging.NullLog;
+import org.neo4j.unsafe.impl.batchimport.Configuration;
+
+import static org.junit.Assert.assertEquals;
+import static org.neo4j.unsafe.impl.batchimport.staging.ControlledStep.stepWithStats;
+import static org.neo4j.unsafe.impl.batchimport.staging.Step.ORDER_SEND_DOWNSTREAM;
+import static org.neo4j.unsafe.impl.batchimport.stats.Keys.avg_processing_time;
+import static org.neo4j.unsafe.impl.batchimport.stats.Keys.done_batches;
+import static org.neo4j.unsafe.impl.batchimport.stats.Keys.received_batches;
+
+public class AdaptiveProcessorAssignerTest
+{
+    @Test
+    public void shouldMoveProcessorsTowardsCostProportionalDistribution()
+    {
+        // GIVEN
+        Configuration config = config( 10, 10 );
+        AdaptiveProcessorAssigner assigner = new AdaptiveProcessorAssigner( config, NullLog.getInstance() );
+
+        ControlledStep<?> slowStep = step( "slow", 90L, 10L, 20L );
+        ControlledStep<?> fastStep = step( "fast", 10L, 10L, 20L );
+        StageExecution execution = executionOf( config, slowStep, fastStep );
+        assigner.start( execution );
+
+        // WHEN
+        assigner.check( execution );
+
+        // THEN target is 9 for the slow step, moving half of the way there
+        assertEquals( 5, slowStep.processors( 0 ) );
+        assertEquals( 1, fastStep.processors( 0 ) );
+    }
+
+    @Test
+    public void shouldReleaseProcessorsFromCheapStepsAndGiveToExpensiveSteps()
+    {
+        // GIVEN
+        Configuration config = config( 10, 8 );
+        AdaptiveProcessorAssigner assigner = new AdaptiveProcessorAssigner( config, NullLog.getInstance() );
+
+        // cost per batch is 60 for the slow step and 4*5=20 for the fast step, i.e. target 6 and 2
+        ControlledStep<?> slowStep = step( "slow", 60L, 10L, 20L );
+        ControlledStep<?> fastStep = step( "fast", 5L, 10L, 20L ).setProcessors( 3 );
+        StageExecution execution = executionOf( config, slowStep, fastStep );
+        assigner.start( execution );
+
+        // WHEN
+        assigner.check( execution );
+
+        // THEN both moving half of the way towards their targets
+        assertEquals( 3, fastStep.processors( 0 ) );
+        assertEquals( 4, slowStep.processors( 0 ) );
+    }
+
+    @Test
+    public void shouldNotAssignMoreThanMaxNumberOfProcessors()
+    {
+        // GIVEN
+        Configuration config = config( 10, 4 );
+        AdaptiveProcessorAssigner assigner = new AdaptiveProcessorAssigner( config, NullLog.getInstance() );
+
+        ControlledStep<?> slowStep = step( "slow", 1000L, 10L, 20L );
+        ControlledStep<?> otherSlowStep = step( "otherSlow", 1000L, 10L, 20L );
+        ControlledStep<?> fastStep = step( "fast", 1L, 10L, 20L );
+        StageExecution execution = executionOf( config, slowStep, otherSlowStep, fastStep );
+        assigner.start( execution );
+
+        // WHEN
+        for ( int i = 0; i < 10; i++ )
+        {
+            assigner.check( execution );
+            slowStep.setStat( done_batches, 10L * (i + 2) );
+            otherSlowStep.setStat( done_batches, 10L * (i + 2) );
+        }
+
+        // THEN
+        int total = slowStep.processors( 0 ) + otherSlowStep.processors( 0 ) + fastStep.processors( 0 );
+        assertEquals( 4, total );
+    }
+
+    @Test
+    public void shouldNotAssignProcessorsToStarvedStep()
+    {
+        // GIVEN
+        Configuration config = config( 10, 10 );
+        AdaptiveProcessorAssigner assigner = new AdaptiveProcessorAssigner( config, NullLog.getInstance() );
+
+        ControlledStep<?> slowStep = step( "slow", 90L, 10L, 10L );
+        ControlledStep<?> fastStep = step( "fast", 10L, 10L, 20L );
+        StageExecution execution = executionOf( config, slowStep, fastStep );
+        assigner.start( execution );
+
+        // WHEN
+        assigner.check( execution );
+
+        // THEN
+        assertEquals( 1, slowStep.processors( 0 ) );
+    }
+
+    @Test
+    public void shouldWaitForMovingAverageSizeBatchesBeforeChangingStepAgain()
+    {
+        // GIVEN
+        Configuration config = config( 10, 10 );
+        AdaptiveProcessorAssigner assigner = new AdaptiveProcessorAssigner( config, NullLog.getInstance() );
+
+        ControlledStep<?> slowStep = step( "slow", 90L, 10L, 30L );
+        ControlledStep<?> fastStep = step( "fast", 10L, 10L, 30L );
+        StageExecution execution = executionOf( config, slowStep, fastStep );
+        assigner.start( execution );
+        assigner.check( execution );
+        assertEquals( 5, slowStep.processors( 0 ) );
+
+        // WHEN not enough batches have passed
+        slowStep.setStat( avg_processing_time, 18L );
+        slowStep.setStat( done_batches, 15L );
+        assigner.check( execution );
+
+        // THEN
+        assertEquals( 5, slowStep.processors( 0 ) );
+
+        // WHEN enough batches have passed
+        slowStep.setStat( done_batches, 20L );
+        assigner.check( execution );
+
+        // THEN
+        assertEquals( 7, slowStep.processors( 0 ) );
+    }
+
+    @Test
+    public void shouldHandleZeroAverage()
+    {
+        // GIVEN
+        Configuration config = config( 10, 5 );
+        AdaptiveProcessorAssigner assigner = new AdaptiveProcessorAssigner( config, NullLog.getInstance() );
+
+        ControlledStep<?> aStep = step( "a", 0L, 0L, 0L );
+        ControlledStep<?> anotherStep = step( "another", 0L, 0L, 0L );
+        StageExecution execution = executionOf( config, aStep, anotherStep );
+        assigner.start( execution );
+
+        // WHEN
+        assigner.check( execution );
+
+        // THEN
+        assertEquals( 1, aStep.processors( 0 ) );
+        assertEquals( 1, anotherStep.processors( 0 ) );
+    }
+
+    @Test
+    public void shouldLogAssignmentDecisions()
+    {
+        // GIVEN
+        Configuration config = config( 10, 10 );
+        AssertableLogProvider logProvider = new AssertableLogProvider();
+        AdaptiveProcessorAssigner assigner =
+                new AdaptiveProcessorAssigner( config, logProvider.getLog( AdaptiveProcessorAssigner.class ) );
+
+        ControlledStep<?> slowStep = step( "slow", 90L, 10L, 20L );
+        ControlledStep<?> fastStep = step( "fast", 10L, 10L, 20L );
+        StageExecution execution = executionOf( config, slowStep, fastStep );
+        assigner.start( execution );
+
+        // WHEN
+        assigner.check( execution );
+
+        // THEN
+        logProvider.formattedMessageMatcher().assertContains( "Test: slow processors 1 -> 5" );
+    }
+
+    private static ControlledStep<?> step( String name, long avg, long doneBatches, long receivedBatches )
+    {
+        return stepWithStats( name, 0, avg_processing_time, avg, done_batches, doneBatches, received_batches, receivedBatches );
+    }
+
+    private Configuration config( final int movingAverage, int processors )
+    {
+        return new Configuration()
+        {
+            @Override
+            public int movingAverageSize()
+            {
+                return movingAverage;
+            }
+
+            @Override
+            public int maxNumberOfProcessors()
+            {
+                return processors;
+            }
+        };
+    }
+
+    private StageExecution executionOf( Configuration config, Step<?>... steps )
+    {
+        return new StageExecution( "Test", null, config, Arrays.asList( steps ), ORDER_SEND_DOWNSTREAM );
+    }
+}